@@ -0,0 +1,42 @@
+package org.rest.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.protocol.ExecutionContext;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Counts the requests sent over a connection taken back from the pool, as opposed to a newly opened one <br>
+ * - note: runs once the connection is established, before the request is sent - a connection that has already sent requests is a reused one
+ */
+final class ConnectionReuseInterceptor implements HttpRequestInterceptor{
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong reusedCount = new AtomicLong();
+	
+	ConnectionReuseInterceptor(){
+		super();
+	}
+	
+	// API
+	
+	@Override
+	public final void process( final HttpRequest request, final HttpContext context ){
+		requestCount.incrementAndGet();
+		final HttpConnection connection = (HttpConnection) context.getAttribute( ExecutionContext.HTTP_CONNECTION );
+		if( connection != null && connection.getMetrics().getRequestCount() > 0 ){
+			reusedCount.incrementAndGet();
+		}
+	}
+	
+	final long getRequestCount(){
+		return requestCount.get();
+	}
+	
+	final long getReusedCount(){
+		return reusedCount.get();
+	}
+	
+}
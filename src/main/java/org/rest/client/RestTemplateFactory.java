@@ -1,19 +1,50 @@
 package org.rest.client;
 
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.rest.sec.dto.User;
-import org.rest.sec.model.Privilege;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.impl.client.ContentEncodingHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.rest.web.marshalling.SecBinaryHttpMessageConverter;
+import org.rest.web.marshalling.SecXmlMarshaller;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.xml.MarshallingHttpMessageConverter;
-import org.springframework.oxm.xstream.XStreamMarshaller;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Builds the RestTemplate over a pool of keep-alive connections - shared by all the threads using the template, each taking a connection of its own <br>
+ * - note: idle connections are closed in the background, before the server (or a proxy) drops them under the client <br>
+ * - note: the statistics are on the factory, not on the RestTemplate; JMX autodetection only sees the product of a FactoryBean, so the factory is exported by its <code>&amp;</code> name
+ */
 @Component
-public class RestTemplateFactory implements FactoryBean< RestTemplate >, InitializingBean{
+@ManagedResource( objectName = "org.rest:name=restTemplateFactory",description = "Pooled HTTP client of the RestTemplate" )
+public class RestTemplateFactory implements FactoryBean< RestTemplate >, InitializingBean, DisposableBean{
+	
+	@Value( "${client.pool.maxTotal:100}" ) int poolMaxTotal = 100;
+	@Value( "${client.pool.maxPerRoute:20}" ) int poolMaxPerRoute = 20;
+	@Value( "${client.pool.idleTimeoutSeconds:30}" ) int poolIdleTimeoutSeconds = 30;
+	@Value( "${client.pool.acquireTimeoutMillis:5000}" ) int poolAcquireTimeoutMillis = 5000;
+	@Value( "${client.connectTimeoutMillis:5000}" ) int connectTimeoutMillis = 5000;
+	@Value( "${client.readTimeoutMillis:15000}" ) int readTimeoutMillis = 15000;
+	
 	private RestTemplate restTemplate;
+	private ThreadSafeClientConnManager connectionManager;
+	private ScheduledExecutorService idleConnectionEvictor;
+	private final ConnectionReuseInterceptor connectionReuseInterceptor = new ConnectionReuseInterceptor();
 	
 	@Override
 	public RestTemplate getObject(){
@@ -32,32 +63,77 @@ public class RestTemplateFactory implements FactoryBean< RestTemplate >, Initial
 	
 	@Override
 	public void afterPropertiesSet(){
-		restTemplate = new RestTemplate( new HttpComponentsClientHttpRequestFactory( new DefaultHttpClient() ){
-			{
-				setReadTimeout( 15000 );
-			}
-		} );
+		connectionManager = new ThreadSafeClientConnManager();
+		connectionManager.setMaxTotal( poolMaxTotal );
+		connectionManager.setDefaultMaxPerRoute( poolMaxPerRoute );
+		
+		final HttpParams params = new BasicHttpParams();
+		HttpConnectionParams.setConnectionTimeout( params, connectTimeoutMillis );
+		HttpConnectionParams.setSoTimeout( params, readTimeoutMillis );
+		params.setLongParameter( ClientPNames.CONN_MANAGER_TIMEOUT, poolAcquireTimeoutMillis );
+		
+		// - note: sends Accept-Encoding (gzip, deflate) and decompresses the responses transparently
+		final ContentEncodingHttpClient httpClient = new ContentEncodingHttpClient( connectionManager, params );
+		httpClient.addRequestInterceptor( connectionReuseInterceptor );
+		
+		restTemplate = new RestTemplate( new HttpComponentsClientHttpRequestFactory( httpClient ) );
+		// first, so that the binary representation leads the Accept header, and is the one a resource is written as unless a Content-Type is set explicitly - a List body only when its Content-Type asks for it
+		final SecBinaryHttpMessageConverter binaryHttpMessageConverter = new SecBinaryHttpMessageConverter();
+		binaryHttpMessageConverter.setListsWrittenByDefault( false );
+		restTemplate.getMessageConverters().add( 0, binaryHttpMessageConverter );
 		restTemplate.getMessageConverters().add( marshallingHttpMessageConverter() );
+		
+		idleConnectionEvictor = Executors.newSingleThreadScheduledExecutor( new ThreadFactoryBuilder().setNameFormat( "rest-client-evictor-%d" ).setDaemon( true ).build() );
+		final long evictionPeriodMillis = Math.max( 1000, TimeUnit.SECONDS.toMillis( poolIdleTimeoutSeconds ) / 2 );
+		idleConnectionEvictor.scheduleWithFixedDelay( new Runnable(){
+			@Override
+			public final void run(){
+				connectionManager.closeExpiredConnections();
+				connectionManager.closeIdleConnections( poolIdleTimeoutSeconds, TimeUnit.SECONDS );
+			}
+		}, evictionPeriodMillis, evictionPeriodMillis, TimeUnit.MILLISECONDS );
+	}
+	
+	@Override
+	public void destroy(){
+		idleConnectionEvictor.shutdownNow();
+		connectionManager.shutdown();
+	}
+	
+	// statistics
+	
+	@ManagedAttribute( description = "Number of requests sent" )
+	public final long getRequestCount(){
+		return connectionReuseInterceptor.getRequestCount();
+	}
+	
+	@ManagedAttribute( description = "Number of requests sent over a connection already used by an earlier one" )
+	public final long getReusedConnectionCount(){
+		return connectionReuseInterceptor.getReusedCount();
+	}
+	
+	@ManagedAttribute( description = "Ratio of the requests that did not have to open a connection" )
+	public final double getConnectionReuseRatio(){
+		final long requests = getRequestCount();
+		if( requests == 0 ){
+			return 0;
+		}
+		return (double) getReusedConnectionCount() / requests;
+	}
+	
+	@ManagedAttribute( description = "Connections currently open - leased or idle in the pool" )
+	public final int getConnectionsInPool(){
+		return connectionManager.getConnectionsInPool();
 	}
 	
 	//
 	
 	final MarshallingHttpMessageConverter marshallingHttpMessageConverter(){
 		final MarshallingHttpMessageConverter marshallingHttpMessageConverter = new MarshallingHttpMessageConverter();
-		marshallingHttpMessageConverter.setMarshaller( xstreamMarshaller() );
-		marshallingHttpMessageConverter.setUnmarshaller( xstreamMarshaller() );
+		final SecXmlMarshaller xmlMarshaller = new SecXmlMarshaller();
+		marshallingHttpMessageConverter.setMarshaller( xmlMarshaller );
+		marshallingHttpMessageConverter.setUnmarshaller( xmlMarshaller );
 		
 		return marshallingHttpMessageConverter;
 	}
-	final XStreamMarshaller xstreamMarshaller(){
-		final XStreamMarshaller xStreamMarshaller = new XStreamMarshaller();
-		xStreamMarshaller.setAutodetectAnnotations( true );
-		// xStreamMarshaller.setSupportedClasses( new Class[ ] { User.class, Privilege.class } );
-		xStreamMarshaller.setAnnotatedClass( User.class );
-		xStreamMarshaller.setAnnotatedClass( Privilege.class );
-		
-		// this.xstreamMarshaller().getXStream().addDefaultImplementation( java.util.HashSet.class, PersistentSet.class );
-		
-		return xStreamMarshaller;
-	}
 }
@@ -7,4 +7,10 @@ public interface IEntity extends Serializable{
 	Long getId();
 	void setId( final Long id );
 	
+	/**
+	 * - note: the optimistic locking version; null until the entity is first persisted
+	 */
+	Long getVersion();
+	void setVersion( final Long version );
+	
 }
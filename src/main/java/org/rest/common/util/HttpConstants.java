@@ -3,6 +3,10 @@ package org.rest.common.util;
 public final class HttpConstants{
 	public static final String SET_COOKIE_HEADER = "Set-Cookie";
 	public static final String COOKIE_HEADER = "Cookie";
+	public static final String AUTHORIZATION_HEADER = "Authorization";
+	public static final String AUTH_TOKEN_HEADER = "X-Auth-Token";
+	
+	public static final String BEARER_PREFIX = "Bearer ";
 	
 	private HttpConstants(){
 		throw new AssertionError();
@@ -0,0 +1,121 @@
+package org.rest.common.web;
+
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+
+/**
+ * Builds strong entity tags and evaluates the <code>If-None-Match</code> / <code>If-Match</code> request headers against them <br>
+ * - note: a compressed representation carries the tag of the resource with the content coding appended (e.g. <code>"1-3-gzip"</code>) - the suffix is ignored when comparing, so the tag of the compressed representation is as good as the other one for a conditional request
+ */
+public final class ETags{
+	private static final Splitter TAG_LIST_SPLITTER = Splitter.on( ',' ).trimResults().omitEmptyStrings();
+	private static final String WEAK_PREFIX = "W/";
+	private static final String ANY = "*";
+	private static final String[] ENCODING_SUFFIXES = { "-gzip\"", "-deflate\"" };
+	
+	private ETags(){
+		throw new AssertionError();
+	}
+	
+	// API
+	
+	/**
+	 * @param parts the values the representation is derived from - e.g. the id and version of the entity
+	 */
+	public static String of( final Object... parts ){
+		Preconditions.checkArgument( parts.length > 0 );
+		
+		final StringBuilder tag = new StringBuilder( "\"" );
+		for( int i = 0; i < parts.length; i++ ){
+			if( i > 0 ){
+				tag.append( '-' );
+			}
+			tag.append( parts[i] );
+		}
+		return tag.append( '"' ).toString();
+	}
+	
+	/**
+	 * @return the strong tag of the representation compressed with the given content coding
+	 */
+	public static String withEncoding( final String etag, final String encoding ){
+		Preconditions.checkArgument( etag.endsWith( "\"" ) );
+		
+		return etag.substring( 0, etag.length() - 1 ) + '-' + encoding + '"';
+	}
+	
+	/**
+	 * - note: weak comparison, as required for <code>If-None-Match</code>
+	 */
+	public static boolean noneMatchFails( final String ifNoneMatchHeader, final String etag ){
+		if( ifNoneMatchHeader == null ){
+			return false;
+		}
+		for( final String candidate : TAG_LIST_SPLITTER.split( ifNoneMatchHeader ) ){
+			if( ANY.equals( candidate ) || etag.equals( stripEncodingSuffix( stripWeakPrefix( candidate ) ) ) ){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * - note: strong comparison, as required for <code>If-Match</code> - a weak tag never matches
+	 */
+	public static boolean matchFails( final String ifMatchHeader, final String etag ){
+		if( ifMatchHeader == null ){
+			return false;
+		}
+		for( final String candidate : TAG_LIST_SPLITTER.split( ifMatchHeader ) ){
+			if( ANY.equals( candidate ) || etag.equals( stripEncodingSuffix( candidate ) ) ){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * The versions that the <code>If-Match</code> header accepts for an entity tagged with {@link #of(Object...)} (id, version and an optional suffix) - so that the version can be bound into the write itself, instead of being compared with one read before it <br>
+	 * - note: strong comparison, as for {@link #matchFails(String, String)}; the tags of other entities, or with another suffix, name no version
+	 * @param suffix the tag part that follows the version; null if there is none
+	 * @return the versions named by the header, in order - empty if it names none; null if it accepts any (<code>*</code>) or there is no header
+	 */
+	public static List< String > versionsMatchedBy( final String ifMatchHeader, final Object id, final String suffix ){
+		if( ifMatchHeader == null ){
+			return null;
+		}
+		
+		final String prefix = "\"" + id + '-';
+		final String end = ( suffix == null ) ? "\"" : "-" + suffix + '"';
+		final List< String > versions = Lists.newArrayList();
+		for( final String candidate : TAG_LIST_SPLITTER.split( ifMatchHeader ) ){
+			if( ANY.equals( candidate ) ){
+				return null;
+			}
+			final String tag = stripEncodingSuffix( candidate );
+			if( tag.startsWith( prefix ) && tag.endsWith( end ) && tag.length() > prefix.length() + end.length() ){
+				versions.add( tag.substring( prefix.length(), tag.length() - end.length() ) );
+			}
+		}
+		return versions;
+	}
+	
+	//
+	
+	private static String stripWeakPrefix( final String tag ){
+		return tag.startsWith( WEAK_PREFIX ) ? tag.substring( WEAK_PREFIX.length() ) : tag;
+	}
+	
+	private static String stripEncodingSuffix( final String tag ){
+		for( final String suffix : ENCODING_SUFFIXES ){
+			if( tag.endsWith( suffix ) ){
+				return tag.substring( 0, tag.length() - suffix.length() ) + '"';
+			}
+		}
+		return tag;
+	}
+	
+}
@@ -0,0 +1,146 @@
+package org.rest.persistence.event;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Delivers the configured event types (for example {@link EntityCreatedEvent}) asynchronously, on a bounded pool, once the publishing transaction has committed; every other event is delivered synchronously, as before <br>
+ * - note: an event published inside a transaction that rolls back is never delivered to the asynchronous listeners <br>
+ * - note: listeners that must stay in the publishing transaction (or touch the request and response) implement {@link SynchronousListener} <br>
+ * - note: when the queue is full, the event is delivered on the thread that committed the transaction, which throttles the publishers instead of dropping events
+ */
+@ManagedResource( objectName = "org.rest:name=asyncEventMulticaster",description = "Asynchronous delivery of the entity events" )
+public class AsyncEventMulticaster extends SimpleApplicationEventMulticaster implements DisposableBean{
+	private final Logger logger = LoggerFactory.getLogger( getClass() );
+	
+	private final List< Class< ? extends ApplicationEvent >> asyncEventTypes;
+	private final ThreadPoolExecutor executor;
+	
+	private final AtomicLong deliveredAsynchronously = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	
+	public AsyncEventMulticaster( final List< Class< ? extends ApplicationEvent >> asyncEventTypesToSet, final int threads, final int queueCapacity ){
+		super();
+		
+		Preconditions.checkNotNull( asyncEventTypesToSet );
+		Preconditions.checkArgument( threads > 0 );
+		Preconditions.checkArgument( queueCapacity > 0 );
+		asyncEventTypes = ImmutableList.copyOf( asyncEventTypesToSet );
+		executor = new ThreadPoolExecutor( threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue< Runnable >( queueCapacity ), new ThreadFactoryBuilder().setNameFormat( "event-%d" ).setDaemon( true ).build(), new ThreadPoolExecutor.CallerRunsPolicy() );
+		executor.allowCoreThreadTimeOut( true );
+	}
+	
+	// API
+	
+	@SuppressWarnings( { "rawtypes", "unchecked" } )
+	@Override
+	public final void multicastEvent( final ApplicationEvent event ){
+		if( !isAsync( event ) ){
+			super.multicastEvent( event );
+			return;
+		}
+		
+		final List< ApplicationListener > asyncListeners = Lists.newArrayList();
+		for( final ApplicationListener listener : getApplicationListeners( event ) ){
+			if( listener instanceof SynchronousListener ){
+				listener.onApplicationEvent( event );
+			}
+			else{
+				asyncListeners.add( listener );
+			}
+		}
+		if( asyncListeners.isEmpty() ){
+			return;
+		}
+		
+		if( TransactionSynchronizationManager.isSynchronizationActive() ){
+			TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter(){
+				@Override
+				public final void afterCommit(){
+					deliver( event, asyncListeners );
+				}
+			} );
+		}
+		else{
+			deliver( event, asyncListeners );
+		}
+	}
+	
+	@Override
+	public final void destroy(){
+		executor.shutdown();
+	}
+	
+	// monitoring
+	
+	@ManagedAttribute( description = "Events waiting to be delivered" )
+	public final int getQueueSize(){
+		return executor.getQueue().size();
+	}
+	
+	@ManagedAttribute( description = "Listener invocations currently running" )
+	public final int getActiveCount(){
+		return executor.getActiveCount();
+	}
+	
+	@ManagedAttribute( description = "Listener invocations delivered asynchronously" )
+	public final long getDeliveredCount(){
+		return deliveredAsynchronously.get();
+	}
+	
+	@ManagedAttribute( description = "Listener invocations that failed" )
+	public final long getFailedCount(){
+		return failed.get();
+	}
+	
+	//
+	
+	final boolean isAsync( final ApplicationEvent event ){
+		for( final Class< ? extends ApplicationEvent > asyncEventType : asyncEventTypes ){
+			if( asyncEventType.isInstance( event ) ){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@SuppressWarnings( "rawtypes" )
+	private void deliver( final ApplicationEvent event, final List< ApplicationListener > listeners ){
+		for( final ApplicationListener listener : listeners ){
+			executor.execute( new Runnable(){
+				@SuppressWarnings( "unchecked" )
+				@Override
+				public final void run(){
+					try{
+						listener.onApplicationEvent( event );
+						deliveredAsynchronously.incrementAndGet();
+					}
+					catch( final RuntimeException ex ){
+						failed.incrementAndGet();
+						logger.error( "Listener " + listener.getClass().getSimpleName() + " failed on " + event.getClass().getSimpleName(), ex );
+					}
+				}
+			} );
+		}
+	}
+	
+}
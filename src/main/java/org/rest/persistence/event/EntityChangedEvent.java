@@ -0,0 +1,38 @@
+package org.rest.persistence.event;
+
+import java.io.Serializable;
+
+import org.springframework.context.ApplicationEvent;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * - note: a null id means that all the entities of the given type have been affected (for example, on deleteAll)
+ */
+public abstract class EntityChangedEvent< T extends Serializable > extends ApplicationEvent{
+	private final Class< T > clazz;
+	private final Long id;
+	
+	public EntityChangedEvent( final Object sourceToSet, final Class< T > clazzToSet, final Long idToSet ){
+		super( sourceToSet );
+		
+		Preconditions.checkNotNull( clazzToSet );
+		this.clazz = clazzToSet;
+		this.id = idToSet;
+	}
+	
+	// API
+	
+	public final Class< T > getClazz(){
+		return clazz;
+	}
+	
+	public final Long getId(){
+		return id;
+	}
+	
+	public final boolean affectsAll(){
+		return id == null;
+	}
+	
+}
@@ -0,0 +1,11 @@
+package org.rest.persistence.event;
+
+import java.io.Serializable;
+
+public final class EntityDeletedEvent< T extends Serializable > extends EntityChangedEvent< T >{
+	
+	public EntityDeletedEvent( final Object sourceToSet, final Class< T > clazzToSet, final Long idToSet ){
+		super( sourceToSet, clazzToSet, idToSet );
+	}
+	
+}
@@ -0,0 +1,11 @@
+package org.rest.persistence.event;
+
+import java.io.Serializable;
+
+public final class EntityUpdatedEvent< T extends Serializable > extends EntityChangedEvent< T >{
+	
+	public EntityUpdatedEvent( final Object sourceToSet, final Class< T > clazzToSet, final Long idToSet ){
+		super( sourceToSet, clazzToSet, idToSet );
+	}
+	
+}
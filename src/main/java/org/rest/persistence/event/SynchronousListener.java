@@ -0,0 +1,8 @@
+package org.rest.persistence.event;
+
+/**
+ * Marks a listener that must receive the events on the publishing thread, inside the publishing transaction, even for the event types that are otherwise delivered asynchronously - see {@link AsyncEventMulticaster}
+ */
+public interface SynchronousListener{
+	//
+}
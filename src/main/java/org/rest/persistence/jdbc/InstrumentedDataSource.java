@@ -0,0 +1,173 @@
+package org.rest.persistence.jdbc;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Wraps the connection pool and measures how long (and how often unsuccessfully) callers wait to acquire a connection <br>
+ * - note: the pool itself (DBCP) only knows its current state, not the wait times
+ */
+@ManagedResource( objectName = "org.rest:name=dataSource",description = "Pooled JDBC DataSource" )
+public class InstrumentedDataSource implements DataSource{
+	private final BasicDataSource pool;
+	
+	private final AtomicLong acquiredCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	
+	public InstrumentedDataSource( final BasicDataSource poolToSet ){
+		super();
+		
+		Preconditions.checkNotNull( poolToSet );
+		pool = poolToSet;
+	}
+	
+	// API
+	
+	@Override
+	public Connection getConnection() throws SQLException{
+		final long start = System.nanoTime();
+		try{
+			final Connection connection = pool.getConnection();
+			acquired( System.nanoTime() - start );
+			return connection;
+		}
+		catch( final SQLException ex ){
+			failedCount.incrementAndGet();
+			throw ex;
+		}
+	}
+	
+	@Override
+	public Connection getConnection( final String username, final String password ) throws SQLException{
+		final long start = System.nanoTime();
+		try{
+			final Connection connection = pool.getConnection( username, password );
+			acquired( System.nanoTime() - start );
+			return connection;
+		}
+		catch( final SQLException ex ){
+			failedCount.incrementAndGet();
+			throw ex;
+		}
+	}
+	
+	public void close() throws SQLException{
+		pool.close();
+	}
+	
+	// statistics - pool
+	
+	@ManagedAttribute( description = "Connections currently borrowed from the pool" )
+	public int getNumActive(){
+		return pool.getNumActive();
+	}
+	
+	@ManagedAttribute( description = "Idle connections currently in the pool" )
+	public int getNumIdle(){
+		return pool.getNumIdle();
+	}
+	
+	@ManagedAttribute( description = "Maximum number of connections the pool will open" )
+	public int getMaxActive(){
+		return pool.getMaxActive();
+	}
+	
+	@ManagedAttribute( description = "Ratio of the maximum pool size currently in use (1.0 means callers will start waiting)" )
+	public double getSaturation(){
+		final int maxActive = pool.getMaxActive();
+		if( maxActive <= 0 ){
+			return 0;
+		}
+		return (double) pool.getNumActive() / maxActive;
+	}
+	
+	// statistics - wait times
+	
+	@ManagedAttribute( description = "Number of connections successfully acquired" )
+	public long getAcquiredCount(){
+		return acquiredCount.get();
+	}
+	
+	@ManagedAttribute( description = "Number of acquisitions that failed (including timeouts on an exhausted pool)" )
+	public long getFailedCount(){
+		return failedCount.get();
+	}
+	
+	@ManagedAttribute( description = "Average time, in milliseconds, spent waiting for a connection" )
+	public double getAverageWaitMillis(){
+		final long acquired = acquiredCount.get();
+		if( acquired == 0 ){
+			return 0;
+		}
+		return (double) totalWaitNanos.get() / acquired / TimeUnit.MILLISECONDS.toNanos( 1 );
+	}
+	
+	@ManagedAttribute( description = "Longest time, in milliseconds, spent waiting for a connection" )
+	public long getMaxWaitMillis(){
+		return TimeUnit.NANOSECONDS.toMillis( maxWaitNanos.get() );
+	}
+	
+	// DataSource
+	
+	@Override
+	public PrintWriter getLogWriter() throws SQLException{
+		return pool.getLogWriter();
+	}
+	@Override
+	public void setLogWriter( final PrintWriter out ) throws SQLException{
+		pool.setLogWriter( out );
+	}
+	@Override
+	public void setLoginTimeout( final int seconds ) throws SQLException{
+		pool.setLoginTimeout( seconds );
+	}
+	@Override
+	public int getLoginTimeout() throws SQLException{
+		return pool.getLoginTimeout();
+	}
+	@Override
+	public < T >T unwrap( final Class< T > iface ) throws SQLException{
+		if( iface.isInstance( this ) ){
+			return iface.cast( this );
+		}
+		return pool.unwrap( iface );
+	}
+	@Override
+	public boolean isWrapperFor( final Class< ? > iface ) throws SQLException{
+		return iface.isInstance( this ) || pool.isWrapperFor( iface );
+	}
+	/**
+	 * - note: JDBC 4.1 (Java 7); not annotated with @Override so that this still compiles on Java 6
+	 */
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException{
+		throw new SQLFeatureNotSupportedException();
+	}
+	
+	//
+	
+	private void acquired( final long waitNanos ){
+		acquiredCount.incrementAndGet();
+		totalWaitNanos.addAndGet( waitNanos );
+		
+		long currentMax = maxWaitNanos.get();
+		while( waitNanos > currentMax && !maxWaitNanos.compareAndSet( currentMax, waitNanos ) ){
+			currentMax = maxWaitNanos.get();
+		}
+	}
+	
+}
@@ -0,0 +1,82 @@
+package org.rest.persistence.jpa;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.ejb.HibernateEntityManagerFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Exposes the hit ratio of the Hibernate second level cache, per region, and of the query cache <br>
+ * - note: the counters are only collected when <code>hibernate.generate_statistics</code> is enabled
+ */
+@ManagedResource( objectName = "org.rest:name=hibernateCacheStatistics",description = "Hibernate second level and query cache statistics" )
+public class HibernateCacheStatistics{
+	private final Statistics statistics;
+	
+	public HibernateCacheStatistics( final EntityManagerFactory entityManagerFactory ){
+		super();
+		
+		Preconditions.checkArgument( entityManagerFactory instanceof HibernateEntityManagerFactory );
+		statistics = ( (HibernateEntityManagerFactory) entityManagerFactory ).getSessionFactory().getStatistics();
+	}
+	
+	// API - regions
+	
+	@ManagedAttribute( description = "The names of the second level cache regions" )
+	public String[] getRegionNames(){
+		return statistics.getSecondLevelCacheRegionNames();
+	}
+	
+	@ManagedOperation( description = "Hit ratio of a second level cache region" )
+	@ManagedOperationParameters( @ManagedOperationParameter( name = "region",description = "The name of the region" ) )
+	public double regionHitRatio( final String region ){
+		final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics( region );
+		if( regionStatistics == null ){
+			return 0;
+		}
+		return ratio( regionStatistics.getHitCount(), regionStatistics.getMissCount() );
+	}
+	
+	@ManagedOperation( description = "Entries currently held in memory by a second level cache region" )
+	@ManagedOperationParameters( @ManagedOperationParameter( name = "region",description = "The name of the region" ) )
+	public long regionSize( final String region ){
+		final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics( region );
+		if( regionStatistics == null ){
+			return 0;
+		}
+		return regionStatistics.getElementCountInMemory();
+	}
+	
+	// API - overall
+	
+	@ManagedAttribute( description = "Hit ratio of the second level cache, across all regions" )
+	public double getSecondLevelCacheHitRatio(){
+		return ratio( statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount() );
+	}
+	
+	@ManagedAttribute( description = "Hit ratio of the query cache" )
+	public double getQueryCacheHitRatio(){
+		return ratio( statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount() );
+	}
+	
+	@ManagedOperation( description = "Resets all Hibernate statistics" )
+	public void reset(){
+		statistics.clear();
+	}
+	
+	//
+	
+	static double ratio( final long hits, final long misses ){
+		final long requests = hits + misses;
+		return ( requests == 0 ) ? 0 : (double) hits / requests;
+	}
+	
+}
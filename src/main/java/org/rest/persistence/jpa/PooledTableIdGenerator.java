@@ -0,0 +1,131 @@
+package org.rest.persistence.jpa;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.jdbc.AbstractWork;
+import org.hibernate.type.Type;
+
+/**
+ * Assigns ids from blocks reserved in a single generator table (one row per entity table), instead of letting the database generate them on insert <br>
+ * - note: ids are handed out in memory, so the inserts of a flush can be batched; the table only gets one round-trip (in a transaction of its own) per block <br>
+ * - note: works the same on every supported database (H2, HSQLDB, MySQL), since it needs neither sequences nor identity columns <br>
+ * - note: declared once, for all the entities of a package, in its package-info - the size of the blocks is the <code>increment_size</code> parameter of that declaration <br>
+ * - note: the row of an entity table is seeded from the ids already in it, the first time an id is needed - so the generator can be introduced on a populated schema; where the schema is validated rather than generated, the table itself comes from <code>db/mysql/id_generator.sql</code>
+ */
+public class PooledTableIdGenerator extends TableGenerator{
+	
+	public static final String STRATEGY = "org.rest.persistence.jpa.PooledTableIdGenerator";
+	public static final String NAME = "pooledTableIdGenerator";
+	
+	private String targetTableName;
+	private String targetColumnName;
+	private volatile boolean seeded;
+	
+	public PooledTableIdGenerator(){
+		super();
+	}
+	
+	// API
+	
+	@Override
+	public void configure( final Type type, final Properties params, final Dialect dialect ) throws MappingException{
+		final Properties pooledParams = new Properties();
+		pooledParams.putAll( params );
+		pooledParams.setProperty( TABLE_PARAM, "ID_GENERATOR" );
+		pooledParams.setProperty( SEGMENT_COLUMN_PARAM, "ENTITY_TABLE" );
+		pooledParams.setProperty( VALUE_COLUMN_PARAM, "NEXT_VAL" );
+		pooledParams.setProperty( CONFIG_PREFER_SEGMENT_PER_ENTITY, "true" );
+		pooledParams.setProperty( OPT_PARAM, "pooled" );
+		
+		super.configure( type, pooledParams, dialect );
+		
+		targetTableName = params.getProperty( PersistentIdentifierGenerator.TABLE );
+		targetColumnName = params.getProperty( PersistentIdentifierGenerator.PK );
+	}
+	
+	@Override
+	public synchronized Serializable generate( final SessionImplementor session, final Object obj ){
+		if( !seeded ){
+			seed( session );
+			seeded = true;
+		}
+		return super.generate( session, obj );
+	}
+	
+	//
+	
+	/**
+	 * Inserts the row of the entity table - if it is missing and the entity table already has rows - so that the first block starts above the highest id <br>
+	 * - note: with the pooled optimizer, the stored value is the upper end of the next block - hence the increment on top of the highest id
+	 */
+	private void seed( final SessionImplementor session ){
+		session.getTransactionCoordinator().getTransaction().createIsolationDelegate().delegateWork( new AbstractWork(){
+			@Override
+			public final void execute( final Connection connection ) throws SQLException{
+				if( rowExists( connection ) ){
+					return;
+				}
+				final Long maxId = maxId( connection );
+				if( maxId == null ){
+					return; // - note: an empty entity table starts at the initial value, as the row is inserted on the first use
+				}
+				
+				final PreparedStatement insert = connection.prepareStatement( "insert into " + getTableName() + " (" + getSegmentColumnName() + ", " + getValueColumnName() + ") values (?, ?)" );
+				try{
+					insert.setString( 1, getSegmentValue() );
+					insert.setLong( 2, maxId + 1 + getIncrementSize() );
+					insert.executeUpdate();
+				}
+				finally{
+					insert.close();
+				}
+			}
+		}, true );
+	}
+	
+	private boolean rowExists( final Connection connection ) throws SQLException{
+		final PreparedStatement select = connection.prepareStatement( "select " + getValueColumnName() + " from " + getTableName() + " where " + getSegmentColumnName() + " = ?" );
+		try{
+			select.setString( 1, getSegmentValue() );
+			final ResultSet resultSet = select.executeQuery();
+			try{
+				return resultSet.next();
+			}
+			finally{
+				resultSet.close();
+			}
+		}
+		finally{
+			select.close();
+		}
+	}
+	
+	private Long maxId( final Connection connection ) throws SQLException{
+		final PreparedStatement select = connection.prepareStatement( "select max(" + targetColumnName + ") from " + targetTableName );
+		try{
+			final ResultSet resultSet = select.executeQuery();
+			try{
+				resultSet.next();
+				final long maxId = resultSet.getLong( 1 );
+				return resultSet.wasNull() ? null : maxId;
+			}
+			finally{
+				resultSet.close();
+			}
+		}
+		finally{
+			select.close();
+		}
+	}
+	
+}
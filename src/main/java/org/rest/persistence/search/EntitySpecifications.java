@@ -0,0 +1,63 @@
+package org.rest.persistence.search;
+
+import java.util.Collection;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Typed {@link Specification}s on any attribute of any entity, driven by the metamodel (the generated <code>Role_</code>, <code>Principal_</code> and <code>Privilege_</code> classes, or attributes looked up at runtime)
+ */
+public final class EntitySpecifications{
+	
+	private EntitySpecifications(){
+		throw new AssertionError();
+	}
+	
+	// API
+	
+	public static < T, V >Specification< T > equal( final SingularAttribute< ? super T, V > attribute, final V value ){
+		return new Specification< T >(){
+			@Override
+			public final Predicate toPredicate( final Root< T > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+				return cb.equal( root.get( attribute ), value );
+			}
+		};
+	}
+	
+	public static < T, V >Specification< T > notEqual( final SingularAttribute< ? super T, V > attribute, final V value ){
+		return new Specification< T >(){
+			@Override
+			public final Predicate toPredicate( final Root< T > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+				return cb.notEqual( root.get( attribute ), value );
+			}
+		};
+	}
+	
+	public static < T, V >Specification< T > in( final SingularAttribute< ? super T, V > attribute, final Collection< ? extends V > values ){
+		return new Specification< T >(){
+			@Override
+			public final Predicate toPredicate( final Root< T > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+				return root.get( attribute ).in( values );
+			}
+		};
+	}
+	
+	/**
+	 * @param pattern a SQL <code>like</code> pattern (<code>%</code> and <code>_</code> are wildcards)
+	 */
+	public static < T >Specification< T > like( final SingularAttribute< ? super T, String > attribute, final String pattern ){
+		return new Specification< T >(){
+			@Override
+			public final Predicate toPredicate( final Root< T > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+				return cb.like( root.get( attribute ), pattern );
+			}
+		};
+	}
+	
+}
@@ -0,0 +1,291 @@
+package org.rest.persistence.search;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Compiles parsed queries (see {@link QueryParser}) into {@link Specification}s of one entity type <br>
+ * - note: only the whitelisted paths (<code>name</code>, <code>roles.name</code>) can be searched - the others are rejected as if they did not exist, so that no secret attribute can be probed <br>
+ * - note: paths are resolved against the JPA metamodel and values are converted to the types of their attributes once, when the query is compiled; the compiled specifications are cached, by query string <br>
+ * - note: a constraint on a path through a collection matches the entities with at least one such element (<code>id in (subquery)</code>), so that results are never duplicated; a negated one matches the entities with none
+ */
+public final class QueryCompiler< T >{
+	private static final int CACHE_SIZE = 1000;
+	private static final char LIKE_ESCAPE = '\\';
+	
+	private final EntityType< T > entityType;
+	private final String idAttribute;
+	private final Set< String > searchablePaths;
+	
+	private final LoadingCache< String, Specification< T >> cache = CacheBuilder.newBuilder().maximumSize( CACHE_SIZE ).build( new CacheLoader< String, Specification< T >>(){
+		@Override
+		public final Specification< T > load( final String queryString ){
+			return compile( QueryParser.parse( queryString ) );
+		}
+	} );
+	
+	public QueryCompiler( final EntityType< T > entityTypeToSet, final Set< String > searchablePathsToSet ){
+		super();
+		
+		Preconditions.checkNotNull( entityTypeToSet );
+		Preconditions.checkNotNull( searchablePathsToSet );
+		entityType = entityTypeToSet;
+		idAttribute = entityTypeToSet.getId( entityTypeToSet.getIdType().getJavaType() ).getName();
+		searchablePaths = ImmutableSet.copyOf( searchablePathsToSet );
+	}
+	
+	// API
+	
+	/**
+	 * - note: fails with an {@link IllegalStateException} on malformed queries and with an {@link IllegalArgumentException} on unknown or not searchable attributes or invalid values
+	 */
+	public final Specification< T > compile( final String queryString ){
+		Preconditions.checkNotNull( queryString );
+		try{
+			return cache.getUnchecked( queryString );
+		}
+		catch( final UncheckedExecutionException ex ){ // failed compilations are not cached
+			throw Throwables.propagate( ex.getCause() );
+		}
+	}
+	
+	public final Specification< T > compile( final QueryNode node ){
+		final CompiledNode compiled = compileNode( node );
+		return new Specification< T >(){
+			@Override
+			public final Predicate toPredicate( final Root< T > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+				return compiled.toPredicate( root, query, cb );
+			}
+		};
+	}
+	
+	// compilation
+	
+	private CompiledNode compileNode( final QueryNode node ){
+		if( node instanceof QueryNode.And ){
+			return new Junction( true, compileChildren( ( (QueryNode.And) node ).getChildren() ) );
+		}
+		if( node instanceof QueryNode.Or ){
+			return new Junction( false, compileChildren( ( (QueryNode.Or) node ).getChildren() ) );
+		}
+		return compileConstraint( (QueryNode.Constraint) node );
+	}
+	
+	private List< CompiledNode > compileChildren( final List< QueryNode > children ){
+		final List< CompiledNode > compiled = Lists.newArrayListWithCapacity( children.size() );
+		for( final QueryNode child : children ){
+			compiled.add( compileNode( child ) );
+		}
+		return compiled;
+	}
+	
+	private CompiledNode compileConstraint( final QueryNode.Constraint constraint ){
+		final List< String > path = constraint.getPath();
+		final String pathName = Joiner.on( '.' ).join( path );
+		Preconditions.checkArgument( searchablePaths.contains( pathName ), "Not a searchable attribute: %s", pathName );
+		ManagedType< ? > type = entityType;
+		boolean throughCollection = false;
+		for( int i = 0; i < path.size() - 1; i++ ){
+			final Attribute< ?, ? > association = type.getAttribute( path.get( i ) );
+			Preconditions.checkArgument( association.isAssociation(), "Not an association: %s", path.get( i ) );
+			throughCollection |= association.isCollection();
+			final Type< ? > target = association.isCollection() ? ( (PluralAttribute< ?, ?, ? >) association ).getElementType() : ( (SingularAttribute< ?, ? >) association ).getType();
+			type = (ManagedType< ? >) target;
+		}
+		final Attribute< ?, ? > attribute = type.getAttribute( path.get( path.size() - 1 ) );
+		Preconditions.checkArgument( !attribute.isAssociation(), "Not a value attribute: %s", attribute.getName() );
+		
+		final QueryOperator operator = constraint.getOperator();
+		final List< Object > values = Lists.newArrayListWithCapacity( constraint.getValues().size() );
+		for( final String value : constraint.getValues() ){
+			values.add( ( operator.positive() == QueryOperator.LIKE ) ? toLikePattern( value ) : convert( value, attribute.getJavaType() ) );
+		}
+		if( operator != QueryOperator.EQ && operator != QueryOperator.NOT_EQ && operator != QueryOperator.IN && operator != QueryOperator.NOT_IN ){
+			Preconditions.checkArgument( operator.positive() != QueryOperator.LIKE || attribute.getJavaType() == String.class, "Like only applies to text: %s", attribute.getName() );
+			Preconditions.checkArgument( Comparable.class.isAssignableFrom( wrap( attribute.getJavaType() ) ), "Not comparable: %s", attribute.getName() );
+		}
+		
+		return new CompiledConstraint( path, throughCollection, operator, values );
+	}
+	
+	private static Object convert( final String value, final Class< ? > javaType ){
+		final Class< ? > type = wrap( javaType );
+		try{
+			if( type == String.class ){
+				return value;
+			}
+			if( type == Long.class ){
+				return Long.valueOf( value );
+			}
+			if( type == Integer.class ){
+				return Integer.valueOf( value );
+			}
+			if( type == Boolean.class ){
+				Preconditions.checkArgument( "true".equalsIgnoreCase( value ) || "false".equalsIgnoreCase( value ) );
+				return Boolean.valueOf( value );
+			}
+			if( type.isEnum() ){
+				return enumValue( type, value );
+			}
+		}
+		catch( final IllegalArgumentException ex ){ // including NumberFormatException
+			throw new IllegalArgumentException( "Invalid value for " + type.getSimpleName() + ": " + value, ex );
+		}
+		throw new IllegalArgumentException( "Attributes of type " + type.getSimpleName() + " can not be searched" );
+	}
+	
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	private static Object enumValue( final Class< ? > enumType, final String value ){
+		return Enum.valueOf( (Class) enumType, value );
+	}
+	
+	private static Class< ? > wrap( final Class< ? > javaType ){
+		if( javaType == long.class ){
+			return Long.class;
+		}
+		if( javaType == int.class ){
+			return Integer.class;
+		}
+		if( javaType == boolean.class ){
+			return Boolean.class;
+		}
+		return javaType;
+	}
+	
+	private static String toLikePattern( final String value ){
+		final StringBuilder pattern = new StringBuilder( value.length() + 4 );
+		for( int i = 0; i < value.length(); i++ ){
+			final char c = value.charAt( i );
+			if( c == '*' ){
+				pattern.append( '%' );
+			}
+			else{
+				if( c == '%' || c == '_' || c == LIKE_ESCAPE ){
+					pattern.append( LIKE_ESCAPE );
+				}
+				pattern.append( c );
+			}
+		}
+		return pattern.toString();
+	}
+	
+	// compiled form
+	
+	private interface CompiledNode{
+		Predicate toPredicate( final Root< ? > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb );
+	}
+	
+	private static final class Junction implements CompiledNode{
+		private final boolean conjunction;
+		private final List< CompiledNode > children;
+		
+		Junction( final boolean conjunctionToSet, final List< CompiledNode > childrenToSet ){
+			conjunction = conjunctionToSet;
+			children = ImmutableList.copyOf( childrenToSet );
+		}
+		
+		@Override
+		public final Predicate toPredicate( final Root< ? > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+			final Predicate[] predicates = new Predicate[children.size()];
+			for( int i = 0; i < predicates.length; i++ ){
+				predicates[i] = children.get( i ).toPredicate( root, query, cb );
+			}
+			return conjunction ? cb.and( predicates ) : cb.or( predicates );
+		}
+	}
+	
+	private final class CompiledConstraint implements CompiledNode{
+		private final List< String > path;
+		private final boolean throughCollection;
+		private final QueryOperator operator;
+		private final List< Object > values;
+		
+		CompiledConstraint( final List< String > pathToSet, final boolean throughCollectionToSet, final QueryOperator operatorToSet, final List< Object > valuesToSet ){
+			path = ImmutableList.copyOf( pathToSet );
+			throughCollection = throughCollectionToSet;
+			operator = operatorToSet;
+			values = ImmutableList.copyOf( valuesToSet );
+		}
+		
+		@Override
+		public final Predicate toPredicate( final Root< ? > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
+			if( !throughCollection ){
+				Path< ? > attribute = root;
+				for( final String name : path ){
+					attribute = attribute.get( name );
+				}
+				return compare( attribute, operator, cb );
+			}
+			
+			// - note: the ids of the entities with at least one matching element; negated operators exclude them
+			final Subquery< Object > matching = query.subquery( Object.class );
+			final Root< ? > subqueryRoot = matching.from( root.getJavaType() );
+			From< ?, ? > from = subqueryRoot;
+			for( int i = 0; i < path.size() - 1; i++ ){
+				from = from.join( path.get( i ) );
+			}
+			matching.select( subqueryRoot.get( idAttribute ) ).where( compare( from.get( path.get( path.size() - 1 ) ), operator.positive(), cb ) );
+			
+			final Predicate in = root.get( idAttribute ).in( matching );
+			return operator.isNegated() ? cb.not( in ) : in;
+		}
+		
+		@SuppressWarnings( { "unchecked", "rawtypes" } )
+		private Predicate compare( final Path< ? > attribute, final QueryOperator comparison, final CriteriaBuilder cb ){
+			final Object value = values.get( 0 );
+			switch( comparison ){
+				case EQ:
+					return cb.equal( attribute, value );
+				case NOT_EQ:
+					return cb.notEqual( attribute, value );
+				case IN:
+					return attribute.in( values );
+				case NOT_IN:
+					return cb.not( attribute.in( values ) );
+				case LIKE:
+					return cb.like( (Expression< String >) attribute, (String) value, LIKE_ESCAPE );
+				case NOT_LIKE:
+					return cb.notLike( (Expression< String >) attribute, (String) value, LIKE_ESCAPE );
+				case GREATER_THAN:
+					return cb.greaterThan( (Expression< Comparable >) attribute, (Comparable) value );
+				case GREATER_THAN_OR_EQ:
+					return cb.greaterThanOrEqualTo( (Expression< Comparable >) attribute, (Comparable) value );
+				case LESS_THAN:
+					return cb.lessThan( (Expression< Comparable >) attribute, (Comparable) value );
+				case LESS_THAN_OR_EQ:
+					return cb.lessThanOrEqualTo( (Expression< Comparable >) attribute, (Comparable) value );
+				default:
+					throw new IllegalStateException( "Unknown operator: " + comparison );
+			}
+		}
+	}
+	
+}
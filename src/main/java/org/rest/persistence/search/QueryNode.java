@@ -0,0 +1,108 @@
+package org.rest.persistence.search;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The parsed form of a search query - a tree of conjunctions and disjunctions, with constraints on attribute paths as leaves <br>
+ * - note: immutable, so that parsed queries can be cached and shared
+ */
+public abstract class QueryNode{
+	
+	QueryNode(){
+		super();
+	}
+	
+	// API
+	
+	/**
+	 * All the children must hold
+	 */
+	public static final class And extends QueryNode{
+		private final List< QueryNode > children;
+		
+		public And( final List< QueryNode > childrenToSet ){
+			super();
+			Preconditions.checkArgument( childrenToSet.size() > 1 );
+			children = ImmutableList.copyOf( childrenToSet );
+		}
+		
+		public final List< QueryNode > getChildren(){
+			return children;
+		}
+		
+		@Override
+		public final String toString(){
+			return "(" + StringUtils.join( children, "," ) + ")";
+		}
+	}
+	
+	/**
+	 * At least one of the children must hold
+	 */
+	public static final class Or extends QueryNode{
+		private final List< QueryNode > children;
+		
+		public Or( final List< QueryNode > childrenToSet ){
+			super();
+			Preconditions.checkArgument( childrenToSet.size() > 1 );
+			children = ImmutableList.copyOf( childrenToSet );
+		}
+		
+		public final List< QueryNode > getChildren(){
+			return children;
+		}
+		
+		@Override
+		public final String toString(){
+			return "(" + StringUtils.join( children, "|" ) + ")";
+		}
+	}
+	
+	/**
+	 * A comparison of the attribute at the end of a (dot separated) path with one or more values <br>
+	 * - note: the values are kept as text; they are converted to the type of the attribute when the query is compiled for an entity
+	 */
+	public static final class Constraint extends QueryNode{
+		private final List< String > path;
+		private final QueryOperator operator;
+		private final List< String > values;
+		
+		public Constraint( final List< String > pathToSet, final QueryOperator operatorToSet, final List< String > valuesToSet ){
+			super();
+			Preconditions.checkArgument( !pathToSet.isEmpty() );
+			Preconditions.checkNotNull( operatorToSet );
+			Preconditions.checkArgument( !valuesToSet.isEmpty() );
+			path = ImmutableList.copyOf( pathToSet );
+			operator = operatorToSet;
+			values = ImmutableList.copyOf( valuesToSet );
+		}
+		public Constraint( final String attribute, final QueryOperator operatorToSet, final String value ){
+			this( Collections.singletonList( attribute ), operatorToSet, Collections.singletonList( value ) );
+		}
+		
+		public final List< String > getPath(){
+			return path;
+		}
+		public final QueryOperator getOperator(){
+			return operator;
+		}
+		public final List< String > getValues(){
+			return values;
+		}
+		public final String getValue(){
+			return values.get( 0 );
+		}
+		
+		@Override
+		public final String toString(){
+			return StringUtils.join( path, "." ) + " " + operator + " " + values;
+		}
+	}
+	
+}
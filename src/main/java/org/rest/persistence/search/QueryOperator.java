@@ -0,0 +1,40 @@
+package org.rest.persistence.search;
+
+/**
+ * The comparisons of the query language - see {@link QueryParser} for their syntax
+ */
+public enum QueryOperator{
+	EQ( false ), NOT_EQ( true ), //
+	IN( false ), NOT_IN( true ), //
+	LIKE( false ), NOT_LIKE( true ), //
+	GREATER_THAN( false ), GREATER_THAN_OR_EQ( false ), LESS_THAN( false ), LESS_THAN_OR_EQ( false );
+	
+	private final boolean negated;
+	
+	private QueryOperator( final boolean negatedToSet ){
+		negated = negatedToSet;
+	}
+	
+	// API
+	
+	public final boolean isNegated(){
+		return negated;
+	}
+	
+	/**
+	 * - note: the positive form of a negated operator (and the operator itself otherwise)
+	 */
+	public final QueryOperator positive(){
+		switch( this ){
+			case NOT_EQ:
+				return EQ;
+			case NOT_IN:
+				return IN;
+			case NOT_LIKE:
+				return LIKE;
+			default:
+				return this;
+		}
+	}
+	
+}
@@ -0,0 +1,200 @@
+package org.rest.persistence.search;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Parses the query language of the <code>?q=</code> search parameter into a {@link QueryNode} tree: <br>
+ * - constraints: <code>path=value</code>, <code>path~=value</code> (not equal), <code>path&gt;value</code>, <code>path&gt;=value</code>, <code>path&lt;value</code>, <code>path&lt;=value</code> <br>
+ * - in: <code>path=(v1,v2)</code> and <code>path~=(v1,v2)</code>; like: a <code>*</code> in the value matches any text, so <code>name=adm*</code> is a prefix search <br>
+ * - paths: attribute names, separated by dots to follow associations (<code>privileges.name=read</code>) <br>
+ * - AND: <code>,</code> or <code>;</code> - OR: <code>|</code> - AND binds tighter than OR, and parentheses group <br>
+ * - values: letters, digits and <code>_-.@*:</code>; anything else is quoted with single quotes (a quote itself is doubled) <br>
+ * - note: malformed queries fail with an {@link IllegalStateException}; parsed queries are cached, by query string
+ */
+public final class QueryParser{
+	private static final int CACHE_SIZE = 1000;
+	
+	private static final Pattern ATTRIBUTE = Pattern.compile( "[a-zA-Z_][a-zA-Z0-9_]*" );
+	
+	private static final LoadingCache< String, QueryNode > CACHE = CacheBuilder.newBuilder().maximumSize( CACHE_SIZE ).build( new CacheLoader< String, QueryNode >(){
+		@Override
+		public final QueryNode load( final String queryString ){
+			return new QueryParser( queryString ).parseQuery();
+		}
+	} );
+	
+	private final String query;
+	private int position;
+	
+	private QueryParser( final String queryToSet ){
+		super();
+		query = queryToSet;
+	}
+	
+	// API
+	
+	public static QueryNode parse( final String queryString ){
+		Preconditions.checkNotNull( queryString );
+		try{
+			return CACHE.getUnchecked( queryString );
+		}
+		catch( final UncheckedExecutionException ex ){ // failed parses are not cached
+			throw Throwables.propagate( ex.getCause() );
+		}
+	}
+	
+	// grammar
+	
+	final QueryNode parseQuery(){
+		final QueryNode root = parseOr();
+		skipWhitespace();
+		checkSyntax( position == query.length(), "unexpected input" );
+		return root;
+	}
+	
+	private QueryNode parseOr(){
+		final List< QueryNode > children = Lists.newArrayList( parseAnd() );
+		while( accept( '|' ) ){
+			children.add( parseAnd() );
+		}
+		return ( children.size() == 1 ) ? children.get( 0 ) : new QueryNode.Or( children );
+	}
+	
+	private QueryNode parseAnd(){
+		final List< QueryNode > children = Lists.newArrayList( parseTerm() );
+		while( accept( ',' ) || accept( ';' ) ){
+			children.add( parseTerm() );
+		}
+		return ( children.size() == 1 ) ? children.get( 0 ) : new QueryNode.And( children );
+	}
+	
+	private QueryNode parseTerm(){
+		if( accept( '(' ) ){
+			final QueryNode group = parseOr();
+			checkSyntax( accept( ')' ), "missing )" );
+			return group;
+		}
+		return parseConstraint();
+	}
+	
+	private QueryNode parseConstraint(){
+		final List< String > path = Lists.newArrayList();
+		for( final String attribute : parseWord().split( "\\.", -1 ) ){
+			checkSyntax( ATTRIBUTE.matcher( attribute ).matches(), "invalid attribute path" );
+			path.add( attribute );
+		}
+		
+		final QueryOperator operator = parseOperator();
+		if( accept( '(' ) ){
+			checkSyntax( operator == QueryOperator.EQ || operator == QueryOperator.NOT_EQ, "a list of values only goes with = or ~=" );
+			final List< String > values = Lists.newArrayList( parseValue() );
+			while( accept( ',' ) ){
+				values.add( parseValue() );
+			}
+			checkSyntax( accept( ')' ), "missing )" );
+			return new QueryNode.Constraint( path, operator.isNegated() ? QueryOperator.NOT_IN : QueryOperator.IN, values );
+		}
+		
+		final String value = parseValue();
+		if( value.indexOf( '*' ) >= 0 && ( operator == QueryOperator.EQ || operator == QueryOperator.NOT_EQ ) ){
+			return new QueryNode.Constraint( path, operator.isNegated() ? QueryOperator.NOT_LIKE : QueryOperator.LIKE, Lists.newArrayList( value ) );
+		}
+		return new QueryNode.Constraint( path, operator, Lists.newArrayList( value ) );
+	}
+	
+	private QueryOperator parseOperator(){
+		if( accept( '=' ) ){
+			return QueryOperator.EQ;
+		}
+		if( accept( '~' ) || accept( '!' ) ){
+			checkSyntax( accept( '=' ), "expected =" );
+			return QueryOperator.NOT_EQ;
+		}
+		if( accept( '>' ) ){
+			return accept( '=' ) ? QueryOperator.GREATER_THAN_OR_EQ : QueryOperator.GREATER_THAN;
+		}
+		if( accept( '<' ) ){
+			return accept( '=' ) ? QueryOperator.LESS_THAN_OR_EQ : QueryOperator.LESS_THAN;
+		}
+		throw syntaxError( "expected an operator" );
+	}
+	
+	private String parseValue(){
+		skipWhitespace();
+		if( position < query.length() && query.charAt( position ) == '\'' ){
+			return parseQuoted();
+		}
+		return parseWord();
+	}
+	
+	// tokens
+	
+	private String parseWord(){
+		skipWhitespace();
+		final int start = position;
+		while( position < query.length() && isWordChar( query.charAt( position ) ) ){
+			position++;
+		}
+		checkSyntax( position > start, "expected a name or a value" );
+		return query.substring( start, position );
+	}
+	
+	private String parseQuoted(){
+		final StringBuilder value = new StringBuilder();
+		position++; // the opening quote
+		while( true ){
+			checkSyntax( position < query.length(), "unterminated quote" );
+			final char c = query.charAt( position++ );
+			if( c == '\'' ){
+				if( position < query.length() && query.charAt( position ) == '\'' ){
+					value.append( c );
+					position++;
+					continue;
+				}
+				return value.toString();
+			}
+			value.append( c );
+		}
+	}
+	
+	private boolean accept( final char expected ){
+		skipWhitespace();
+		if( position < query.length() && query.charAt( position ) == expected ){
+			position++;
+			return true;
+		}
+		return false;
+	}
+	
+	private void skipWhitespace(){
+		while( position < query.length() && Character.isWhitespace( query.charAt( position ) ) ){
+			position++;
+		}
+	}
+	
+	private static boolean isWordChar( final char c ){
+		return Character.isLetterOrDigit( c ) || c == '_' || c == '-' || c == '.' || c == '@' || c == '*' || c == ':';
+	}
+	
+	// errors
+	
+	private void checkSyntax( final boolean expression, final String message ){
+		if( !expression ){
+			throw syntaxError( message );
+		}
+	}
+	
+	private IllegalStateException syntaxError( final String message ){
+		return new IllegalStateException( "Invalid query (" + message + " at position " + position + "): " + query );
+	}
+	
+}
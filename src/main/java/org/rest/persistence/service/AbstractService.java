@@ -1,30 +1,83 @@
 package org.rest.persistence.service;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.criterion.Order;
 import org.rest.common.IEntity;
+import org.rest.common.exceptions.ResourceNotFoundException;
+import org.rest.common.util.QueryUtil;
 import org.rest.persistence.event.EntityCreatedEvent;
+import org.rest.persistence.event.EntityDeletedEvent;
+import org.rest.persistence.event.EntityUpdatedEvent;
+import org.rest.persistence.search.EntitySpecifications;
+import org.rest.persistence.search.QueryCompiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 @Transactional
 public abstract class AbstractService< T extends IEntity > implements IService< T >{
 	protected final Logger logger = LoggerFactory.getLogger( this.getClass() );
+	private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
 	
 	private Class< T > clazz;
 	
 	protected @Autowired ApplicationEventPublisher eventPublisher;
 	
+	@PersistenceContext private EntityManager entityManager;
+	
+	@Value( "${persistence.approximateCount.refreshSeconds:60}" ) long approximateCountRefreshSeconds = 60;
+	@Value( "${persistence.stream.fetchSize:100}" ) int streamFetchSize = 100;
+	private volatile ApproximateCount approximateCount;
+	private volatile QueryCompiler< T > queryCompiler;
+	
 	public AbstractService( final Class< T > clazzToSet ){
 		super();
 		
@@ -38,24 +91,196 @@ public abstract class AbstractService< T extends IEntity > implements IService<
 	@Override
 	@Transactional( readOnly = true )
 	public T findOne( final long id ){
-		return this.getDao().findOne( id );
+		final T entity = this.getDao().findOne( id );
+		if( entity != null ){
+			fetchAssociations( Collections.singletonList( entity ) );
+		}
+		return entity;
 	}
 	
 	@Override
 	@Transactional( readOnly = true )
 	public List< T > findAll(){
-		return Lists.newArrayList( this.getDao().findAll() );
+		final List< T > entities = Lists.newArrayList( this.getDao().findAll() );
+		fetchAssociations( entities );
+		return entities;
+	}
+	
+	/**
+	 * - note: the rows come from a forward only cursor with the configured JDBC fetch size, bypassing the second level cache; they are handed out in batches of that size, so that the associations of each batch are fetched with a few batched queries (see {@link #fetchAssociations(List)}), and the whole batch is detached before the next one is read
+	 */
+	@Override
+	@Transactional( readOnly = true )
+	public void streamAll( final IEntityCallback< T > callback ){
+		Preconditions.checkNotNull( callback );
+		
+		final Session session = entityManager.unwrap( Session.class );
+		final ScrollableResults cursor = session.createCriteria( clazz ).addOrder( Order.asc( "id" ) ).setReadOnly( true ).setCacheMode( CacheMode.IGNORE ).setFetchSize( streamFetchSize ).scroll( ScrollMode.FORWARD_ONLY );
+		try{
+			final List< T > batch = Lists.newArrayListWithCapacity( streamFetchSize );
+			while( cursor.next() ){
+				batch.add( clazz.cast( cursor.get( 0 ) ) );
+				if( batch.size() == streamFetchSize ){
+					handleBatch( session, batch, callback );
+				}
+			}
+			handleBatch( session, batch, callback );
+		}
+		finally{
+			cursor.close();
+		}
 	}
 	
 	@Override
 	@Transactional( readOnly = true )
 	public Page< T > findPaginated( final int page, final int size, final String sortBy ){
+		checkSortable( sortBy );
 		Sort sortInfo = null;
 		if( sortBy != null ){
 			sortInfo = new Sort( sortBy );
 		}
 		
-		return getDao().findAll( new PageRequest( page, size, sortInfo ) );
+		final Page< T > resultPage = getDao().findAll( new PageRequest( page, size, sortInfo ) );
+		fetchAssociations( resultPage.getContent() );
+		return resultPage;
+	}
+	
+	@Override
+	@Transactional( readOnly = true )
+	public List< T > findPaginatedAfter( final KeysetCursor after, final int size, final String sortBy ){
+		Preconditions.checkArgument( size > 0 );
+		checkSortable( sortBy );
+		Preconditions.checkArgument( after == null || after.isFor( sortBy ), "The cursor is not for the sort: %s", sortBy );
+		
+		final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		final CriteriaQuery< T > query = cb.createQuery( clazz );
+		final Root< T > root = query.from( clazz );
+		final Path< Long > idPath = root.get( QueryUtil.ID );
+		
+		if( sortBy == null || QueryUtil.ID.equals( sortBy ) ){
+			if( after != null ){
+				query.where( cb.greaterThan( idPath, after.getId() ) );
+			}
+			query.orderBy( cb.asc( idPath ) );
+		}
+		else{
+			final Path< String > sortPath = root.get( sortBy );
+			Preconditions.checkArgument( String.class.equals( sortPath.getJavaType() ), "Keyset pagination can only sort by id or by a text attribute: %s", sortBy );
+			if( after != null ){
+				// - note: (sortBy, id) > (sortValue, lastId), with null sort values last - the id breaks the ties, so no entity is skipped or repeated
+				if( after.isNullSortValue() ){
+					query.where( cb.and( cb.isNull( sortPath ), cb.greaterThan( idPath, after.getId() ) ) );
+				}
+				else{
+					query.where( cb.or( cb.greaterThan( sortPath, after.getSortValue() ), cb.and( cb.equal( sortPath, after.getSortValue() ), cb.greaterThan( idPath, after.getId() ) ), cb.isNull( sortPath ) ) );
+				}
+			}
+			// - note: the databases disagree on where nulls sort, so nulls last is spelled out
+			query.orderBy( cb.asc( cb.< Integer >selectCase().when( cb.isNull( sortPath ), 1 ).otherwise( 0 ) ), cb.asc( sortPath ), cb.asc( idPath ) );
+		}
+		
+		final List< T > entities = entityManager.createQuery( query ).setMaxResults( size ).getResultList();
+		fetchAssociations( entities );
+		return entities;
+	}
+	
+	@Override
+	@Transactional( readOnly = true )
+	public List< T > findPaginatedUncounted( final int page, final int size, final String sortBy ){
+		Preconditions.checkArgument( page >= 0 );
+		Preconditions.checkArgument( size > 0 );
+		checkSortable( sortBy );
+		
+		final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		final CriteriaQuery< T > query = cb.createQuery( clazz );
+		final Root< T > root = query.from( clazz );
+		if( sortBy != null ){
+			query.orderBy( cb.asc( root.get( sortBy ) ) );
+		}
+		
+		final List< T > entities = entityManager.createQuery( query ).setFirstResult( page * size ).setMaxResults( size + 1 ).getResultList();
+		fetchAssociations( entities );
+		return entities;
+	}
+	
+	// count
+	
+	@Override
+	@Transactional( readOnly = true )
+	public long countApproximately(){
+		ApproximateCount count = approximateCount;
+		if( count == null ){
+			synchronized( this ){
+				count = approximateCount;
+				if( count == null ){
+					count = new ApproximateCount( new Callable< Long >(){
+						@Override
+						public final Long call(){
+							return getDao().count();
+						}
+					}, approximateCountRefreshSeconds );
+					approximateCount = count;
+				}
+			}
+		}
+		
+		return count.get();
+	}
+	
+	// search
+	
+	@Override
+	@Transactional( readOnly = true )
+	public List< T > search( final ImmutablePair< String, ? >... constraints ){
+		Preconditions.checkArgument( constraints.length > 0 );
+		
+		Specifications< T > specifications = null;
+		for( final ImmutablePair< String, ? > constraint : constraints ){
+			final Specification< T > specification = resolveConstraint( constraint );
+			specifications = ( specifications == null ) ? Specifications.where( specification ) : specifications.and( specification );
+		}
+		return search( specifications );
+	}
+	
+	@Override
+	@Transactional( readOnly = true )
+	public List< T > search( final String queryString ){
+		return search( queryCompiler().compile( queryString ) );
+	}
+	
+	@Override
+	@Transactional( readOnly = true )
+	public Page< T > searchPaginated( final String queryString, final int page, final int size, final String sortBy ){
+		Preconditions.checkArgument( page >= 0 );
+		Preconditions.checkArgument( size > 0 );
+		checkSortable( sortBy );
+		final Specification< T > specification = queryCompiler().compile( queryString );
+		
+		final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		final CriteriaQuery< T > query = cb.createQuery( clazz );
+		final Root< T > root = query.from( clazz );
+		query.select( root ).where( specification.toPredicate( root, query, cb ) );
+		// - note: the id breaks the ties, so that the pages are stable
+		if( sortBy == null || QueryUtil.ID.equals( sortBy ) ){
+			query.orderBy( cb.asc( root.get( QueryUtil.ID ) ) );
+		}
+		else{
+			query.orderBy( cb.asc( root.get( sortBy ) ), cb.asc( root.get( QueryUtil.ID ) ) );
+		}
+		final List< T > entities = entityManager.createQuery( query ).setFirstResult( page * size ).setMaxResults( size ).getResultList();
+		
+		// - note: a first page that is not full already holds every match - no need to count them
+		long total = entities.size();
+		if( page > 0 || entities.size() == size ){
+			final CriteriaQuery< Long > countQuery = cb.createQuery( Long.class );
+			final Root< T > countRoot = countQuery.from( clazz );
+			countQuery.select( cb.count( countRoot ) ).where( specification.toPredicate( countRoot, countQuery, cb ) );
+			total = entityManager.createQuery( countQuery ).getSingleResult();
+		}
+		
+		fetchAssociations( entities );
+		final Sort sortInfo = ( sortBy == null ) ? null : new Sort( sortBy );
+		return new PageImpl< T >( entities, new PageRequest( page, size, sortInfo ), total );
 	}
 	
 	// save/create/persist
@@ -70,14 +295,108 @@ public abstract class AbstractService< T extends IEntity > implements IService<
 		return persistedEntity;
 	}
 	
+	/**
+	 * - note: the inserts are flushed together at the end, so Hibernate sends them in JDBC batches (<code>hibernate.jdbc.batch_size</code>, ordered by entity type)
+	 */
+	@Override
+	public List< T > createInBulk( final List< T > entities ){
+		Preconditions.checkNotNull( entities );
+		
+		final List< T > persistedEntities = Lists.newArrayListWithCapacity( entities.size() );
+		for( final T entity : entities ){
+			persistedEntities.add( create( Preconditions.checkNotNull( entity ) ) );
+		}
+		entityManager.flush();
+		return persistedEntities;
+	}
+	
 	// update/merge
 	
+	/**
+	 * - note: an entity without an id is saved as is; otherwise the entity must exist - see {@link #updateIfExists(IEntity)}
+	 */
 	@Override
 	public void update( final T entity ){
 		Preconditions.checkNotNull( entity );
-		// Preconditions.checkState( findOne( entity.getId() ) != null );
+		if( entity.getId() != null ){
+			if( updateIfExists( entity ) == 0 ){
+				throw new ResourceNotFoundException();
+			}
+			return;
+		}
 		
 		this.getDao().save( entity );
+		
+		eventPublisher.publishEvent( new EntityUpdatedEvent< T >( this, clazz, entity.getId() ) );
+	}
+	
+	/**
+	 * - note: the columns of the entity are written with a single conditional UPDATE - <code>where id = ? and version = ?</code>, or just <code>where id = ?</code> for an entity without a version (last write wins) - and the affected row count is the result, so nothing is read before the write <br>
+	 * - note: only when a versioned UPDATE matches no row is the id looked up, to tell an entity with a stale version ({@link OptimisticLockingFailureException}) from a missing one <br>
+	 * - note: the collection associations are not columns of the entity; they are replaced by {@link #updateAssociations(IEntity)}, once the UPDATE has matched
+	 */
+	@Override
+	public int updateIfExists( final T entity ){
+		Preconditions.checkNotNull( entity );
+		Preconditions.checkNotNull( entity.getId() );
+		
+		if( executeVersionedUpdate( entity ) == 0 ){
+			if( entity.getVersion() != null && this.getDao().exists( entity.getId() ) ){
+				throw new OptimisticLockingFailureException( "Stale version " + entity.getVersion() + " of " + clazz.getSimpleName() + " " + entity.getId() );
+			}
+			return 0;
+		}
+		updateAssociations( entity );
+		
+		eventPublisher.publishEvent( new EntityUpdatedEvent< T >( this, clazz, entity.getId() ) );
+		return 1;
+	}
+	
+	/**
+	 * - note: the existing entities (and their associations) are loaded with a single query each, the columns of the requested ones are copied onto them, and the single flush at the end writes them as JDBC batches (<code>hibernate.jdbc.batch_size</code>, ordered, with versioned data) - one versioned UPDATE per changed entity, and only its own second level cache entry is replaced <br>
+	 * - note: the version is checked as for {@link #updateIfExists(IEntity)} - against the loaded entity first, then by the batched UPDATE itself; an entity that is requested twice with a version is stale the second time <br>
+	 * - note: unlike {@link #updateIfExists(IEntity)}, an entity whose columns and associations are unchanged is not written, so its version stays as it is
+	 */
+	@Override
+	public int[] updateInBulk( final List< T > entities ){
+		Preconditions.checkNotNull( entities );
+		
+		final Map< Long, T > existing = Maps.newHashMap();
+		for( final T current : loadIntoPersistenceContext( idsOf( entities ) ) ){
+			existing.put( current.getId(), current );
+		}
+		if( !entityType().getPluralAttributes().isEmpty() ){
+			fetchAssociations( Lists.newArrayList( existing.values() ) );
+		}
+		
+		final int[] updated = new int[entities.size()];
+		final Set< Long > copied = Sets.newHashSet();
+		for( int i = 0; i < updated.length; i++ ){
+			final T entity = Preconditions.checkNotNull( entities.get( i ) );
+			final T current = existing.get( Preconditions.checkNotNull( entity.getId() ) );
+			if( current == null ){
+				continue;
+			}
+			if( current.getVersion() == null ){ // a row written before the version column existed - see executeVersionedUpdate
+				entityManager.detach( current );
+				existing.remove( entity.getId() );
+				updated[i] = updateIfExists( entity );
+				continue;
+			}
+			if( entity.getVersion() != null && ( copied.contains( entity.getId() ) || !entity.getVersion().equals( current.getVersion() ) ) ){
+				throw new OptimisticLockingFailureException( "Stale version " + entity.getVersion() + " of " + clazz.getSimpleName() + " " + entity.getId() );
+			}
+			copyColumns( entity, current );
+			copied.add( entity.getId() );
+			updateAssociations( entity );
+			updated[i] = 1;
+		}
+		flush();
+		
+		for( final Long id : copied ){
+			eventPublisher.publishEvent( new EntityUpdatedEvent< T >( this, clazz, id ) );
+		}
+		return updated;
 	}
 	
 	// delete
@@ -85,10 +404,352 @@ public abstract class AbstractService< T extends IEntity > implements IService<
 	@Override
 	public void deleteAll(){
 		this.getDao().deleteAll();
+		
+		eventPublisher.publishEvent( new EntityDeletedEvent< T >( this, clazz, null ) );
 	}
 	@Override
 	public void delete( final long id ){
 		this.getDao().delete( id );
+		
+		eventPublisher.publishEvent( new EntityDeletedEvent< T >( this, clazz, id ) );
+	}
+	/**
+	 * - note: a single <code>delete ... where id = ?</code>, whose affected row count tells whether the entity existed - nothing is read first, so there is no window between an existence check and the delete <br>
+	 * - note: the rows of the collections the entity owns go first, see {@link #deleteAssociations(Collection)}
+	 */
+	@Override
+	public boolean deleteIfExists( final long id ){
+		return deleteIfExists( id, null );
+	}
+	/**
+	 * - note: <code>delete ... where id = ? and version = ?</code> - as for {@link #updateIfExists(IEntity)}, the id is only looked up when the DELETE matches no row, to tell a stale version from a missing entity; the exception rolls back the rows of the collections deleted before
+	 */
+	@Override
+	public boolean deleteIfExists( final long id, final Long version ){
+		deleteAssociations( Collections.singleton( id ) );
+		final StringBuilder jpql = new StringBuilder( "delete from " ).append( entityType().getName() ).append( " e where e." ).append( QueryUtil.ID ).append( " = :" ).append( QueryUtil.ID );
+		if( version != null ){
+			jpql.append( " and e." ).append( versionName() ).append( " = :" ).append( versionName() );
+		}
+		final Query query = entityManager.createQuery( jpql.toString() ).setParameter( QueryUtil.ID, id );
+		if( version != null ){
+			query.setParameter( versionName(), version );
+		}
+		if( executeUpdate( query ) == 0 ){
+			if( version != null && this.getDao().exists( id ) ){
+				throw new OptimisticLockingFailureException( "Stale version " + version + " of " + clazz.getSimpleName() + " " + id );
+			}
+			return false;
+		}
+		
+		eventPublisher.publishEvent( new EntityDeletedEvent< T >( this, clazz, id ) );
+		return true;
+	}
+	/**
+	 * - note: a single query finds the ids that exist, then a single <code>delete ... where id in (?)</code> deletes them (after a single statement per owned collection, see {@link #deleteAssociations(Collection)}) - so the second level cache region of the entity is evicted once, not once per id <br>
+	 * - note: an id that is requested twice is only deleted the first time
+	 */
+	@Override
+	public boolean[] deleteInBulk( final List< Long > ids ){
+		Preconditions.checkNotNull( ids );
+		
+		final Set< Long > existing = Sets.newLinkedHashSet();
+		if( !ids.isEmpty() ){
+			final String jpql = "select e." + QueryUtil.ID + " from " + entityType().getName() + " e where e." + QueryUtil.ID + " in (:ids)";
+			existing.addAll( entityManager.createQuery( jpql, Long.class ).setParameter( "ids", ids ).getResultList() );
+		}
+		final boolean[] deleted = new boolean[ids.size()];
+		final Set< Long > remaining = Sets.newHashSet( existing );
+		for( int i = 0; i < deleted.length; i++ ){
+			deleted[i] = remaining.remove( Preconditions.checkNotNull( ids.get( i ) ) );
+		}
+		if( existing.isEmpty() ){
+			return deleted;
+		}
+		
+		deleteAssociations( existing );
+		executeUpdate( entityManager.createQuery( "delete from " + entityType().getName() + " e where e." + QueryUtil.ID + " in (:ids)" ).setParameter( "ids", existing ) );
+		
+		for( final Long id : existing ){
+			eventPublisher.publishEvent( new EntityDeletedEvent< T >( this, clazz, id ) );
+		}
+		return deleted;
+	}
+	
+	// search
+	
+	/**
+	 * The attributes that can be searched, as paths from the entity (<code>roles.name</code>) - see {@link QueryCompiler} <br>
+	 * - note: only the id by default; an attribute that is not listed can not be probed by a search, so secrets are never listed
+	 */
+	protected Set< String > searchableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID );
+	}
+	
+	/**
+	 * The attributes of the entity itself that the pages can be sorted by <br>
+	 * - note: only the id by default; sorting leaks the order of the values, so secrets are never listed
+	 */
+	protected Set< String > sortableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID );
+	}
+	
+	private void checkSortable( final String sortBy ){
+		Preconditions.checkArgument( sortBy == null || sortableAttributes().contains( sortBy ), "Not a sortable attribute: %s", sortBy );
+	}
+	
+	private List< T > search( final Specification< T > specification ){
+		final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		final CriteriaQuery< T > query = cb.createQuery( clazz );
+		final Root< T > root = query.from( clazz );
+		query.select( root ).where( specification.toPredicate( root, query, cb ) );
+		
+		final List< T > entities = entityManager.createQuery( query ).getResultList();
+		fetchAssociations( entities );
+		return entities;
+	}
+	
+	/**
+	 * - note: the key of the constraint is the name of an attribute of the entity, prefixed with <code>~</code> when negated
+	 */
+	@SuppressWarnings( "unchecked" )
+	private Specification< T > resolveConstraint( final ImmutablePair< String, ? > constraint ){
+		final String key = constraint.getLeft();
+		final boolean negated = key.startsWith( "~" );
+		final String attributeName = negated ? key.substring( 1 ) : key;
+		Preconditions.checkArgument( searchableAttributes().contains( attributeName ), "Not a searchable attribute: %s", attributeName );
+		
+		final SingularAttribute< ? super T, Object > attribute = (SingularAttribute< ? super T, Object >) entityType().getSingularAttribute( attributeName );
+		return negated ? EntitySpecifications.notEqual( attribute, constraint.getRight() ) : EntitySpecifications.equal( attribute, constraint.getRight() );
+	}
+	
+	private QueryCompiler< T > queryCompiler(){
+		QueryCompiler< T > compiler = queryCompiler;
+		if( compiler == null ){
+			// - note: racing threads may each build one; they are equivalent, and only one is kept
+			compiler = new QueryCompiler< T >( entityType(), searchableAttributes() );
+			queryCompiler = compiler;
+		}
+		return compiler;
+	}
+	
+	private EntityType< T > entityType(){
+		return entityManager.getMetamodel().entity( clazz );
+	}
+	
+	private String versionName(){
+		return entityType().getVersion( Long.class ).getName();
+	}
+	
+	// update
+	
+	/**
+	 * <code>update Entity e set e.version = coalesce(e.version, 0) + 1, e.attribute = :attribute ... where e.id = :id [and e.version = :version]</code> - over every basic attribute of the entity, except those left as they are (see {@link #attributesKeptWhenNull()}) <br>
+	 * - note: a row written before the version column existed may still hold null there (see <code>db/mysql/version.sql</code>); its first update starts it at 1, instead of leaving it null for good
+	 */
+	private int executeVersionedUpdate( final T entity ){
+		final EntityType< T > entityType = entityType();
+		final String versionName = versionName();
+		final Set< String > attributesKeptWhenNull = attributesKeptWhenNull();
+		
+		final StringBuilder jpql = new StringBuilder( "update " ).append( entityType.getName() ).append( " e set e." ).append( versionName ).append( " = coalesce(e." ).append( versionName ).append( ", 0) + 1" );
+		final Map< String, Object > values = Maps.newHashMap();
+		for( final SingularAttribute< ? super T, ? > attribute : entityType.getSingularAttributes() ){
+			if( attribute.isId() || attribute.isVersion() || attribute.isAssociation() ){
+				continue;
+			}
+			final Object value = valueOf( attribute, entity );
+			if( value == null && attributesKeptWhenNull.contains( attribute.getName() ) ){
+				continue;
+			}
+			jpql.append( ", e." ).append( attribute.getName() ).append( " = :" ).append( attribute.getName() );
+			values.put( attribute.getName(), value );
+		}
+		jpql.append( " where e." ).append( QueryUtil.ID ).append( " = :" ).append( QueryUtil.ID );
+		if( entity.getVersion() != null ){
+			jpql.append( " and e." ).append( versionName ).append( " = :" ).append( versionName );
+			values.put( versionName, entity.getVersion() );
+		}
+		values.put( QueryUtil.ID, entity.getId() );
+		
+		final Query query = entityManager.createQuery( jpql.toString() );
+		for( final Map.Entry< String, Object > value : values.entrySet() ){
+			query.setParameter( value.getKey(), value.getValue() );
+		}
+		return executeUpdate( query );
+	}
+	
+	/**
+	 * The basic attributes that an update leaves as they are when the entity holds null for them - for example a secret that is never sent back to the clients <br>
+	 * - note: none by default - an update replaces every column of the entity
+	 */
+	protected Set< String > attributesKeptWhenNull(){
+		return Collections.emptySet();
+	}
+	
+	/**
+	 * Replaces the collection associations of the entity, in the same transaction, after its row has been updated <br>
+	 * - note: nothing by default; the owned collections are not rewritten when they already hold the same entities - see {@link #sameEntities(Collection, Collection)}
+	 */
+	protected void updateAssociations( final T entity ){
+		// nothing to replace by default
+	}
+	
+	/**
+	 * - note: the references are not read - only their ids are needed to write the association
+	 */
+	protected final < A extends IEntity >Set< A > referencesTo( final Class< A > associatedClass, final Collection< A > associated ){
+		final Set< A > references = Sets.newHashSet();
+		if( associated != null ){
+			for( final A entity : associated ){
+				references.add( entityManager.getReference( associatedClass, Preconditions.checkNotNull( entity.getId() ) ) );
+			}
+		}
+		return references;
+	}
+	
+	protected static boolean sameEntities( final Collection< ? extends IEntity > current, final Collection< ? extends IEntity > requested ){
+		return idSetOf( current ).equals( idSetOf( requested ) );
+	}
+	
+	private static Set< Long > idSetOf( final Collection< ? extends IEntity > entities ){
+		final Set< Long > ids = Sets.newHashSet();
+		if( entities != null ){
+			for( final IEntity entity : entities ){
+				ids.add( entity.getId() );
+			}
+		}
+		return ids;
+	}
+	
+	// delete
+	
+	/**
+	 * Deletes the rows of the collections the entities own, right before the entities themselves <br>
+	 * - note: nothing by default - see {@link #deleteJoinRows(String, String, Collection)}
+	 */
+	protected void deleteAssociations( final Collection< Long > ids ){
+		// nothing to delete by default
+	}
+	
+	/**
+	 * - note: a bulk DELETE does not cascade to the join tables, so their rows are deleted with a statement of their own, for all the owners at once; the join table is declared as its query space, so that only the collection caches on that table are evicted
+	 */
+	protected final void deleteJoinRows( final String joinTable, final String joinColumn, final Collection< Long > ids ){
+		final Session session = entityManager.unwrap( Session.class );
+		try{
+			session.createSQLQuery( "delete from " + joinTable + " where " + joinColumn + " in (:ids)" ).addSynchronizedQuerySpace( joinTable ).setParameterList( "ids", ids ).executeUpdate();
+		}
+		catch( final RuntimeException ex ){
+			throw translate( ex );
+		}
+	}
+	
+	/**
+	 * - note: a stale version found by a batched UPDATE is translated as well (an OptimisticLockingFailureException)
+	 */
+	private void flush(){
+		try{
+			entityManager.flush();
+		}
+		catch( final RuntimeException ex ){
+			throw translate( ex );
+		}
+	}
+	
+	/**
+	 * - note: the statements do not go through the repository, so their exceptions are translated here (a broken constraint is a DataIntegrityViolationException)
+	 */
+	private static int executeUpdate( final Query query ){
+		try{
+			return query.executeUpdate();
+		}
+		catch( final RuntimeException ex ){
+			throw translate( ex );
+		}
+	}
+	
+	private static RuntimeException translate( final RuntimeException ex ){
+		final DataAccessException translated = JPA_DIALECT.translateExceptionIfPossible( ex );
+		return ( translated == null ) ? ex : translated;
+	}
+	
+	private static Object valueOf( final Attribute< ?, ? > attribute, final Object entity ){
+		if( attribute.getJavaMember() instanceof Field ){
+			final Field field = (Field) attribute.getJavaMember();
+			ReflectionUtils.makeAccessible( field );
+			return ReflectionUtils.getField( field, entity );
+		}
+		return ReflectionUtils.invokeMethod( (Method) attribute.getJavaMember(), entity );
+	}
+	
+	/**
+	 * Copies the basic attributes that {@link #executeVersionedUpdate(IEntity)} writes onto the managed entity - the id, the version and the associations are left as they are
+	 */
+	private void copyColumns( final T from, final T to ){
+		final Set< String > attributesKeptWhenNull = attributesKeptWhenNull();
+		for( final SingularAttribute< ? super T, ? > attribute : entityType().getSingularAttributes() ){
+			if( attribute.isId() || attribute.isVersion() || attribute.isAssociation() ){
+				continue;
+			}
+			final Object value = valueOf( attribute, from );
+			if( value == null && attributesKeptWhenNull.contains( attribute.getName() ) ){
+				continue;
+			}
+			if( attribute.getJavaMember() instanceof Field ){
+				final Field field = (Field) attribute.getJavaMember();
+				ReflectionUtils.makeAccessible( field );
+				ReflectionUtils.setField( field, to, value );
+			}
+			else{
+				new BeanWrapperImpl( to ).setPropertyValue( attribute.getName(), value );
+			}
+		}
+	}
+	
+	// fetch plans
+	
+	/**
+	 * The list fetch plan - associations are lazy, so the find operations load the scalar columns only; services whose representation includes associations initialize them here, for the whole batch of already loaded entities <br>
+	 * - note: the collections are batch fetched (<code>hibernate.default_batch_fetch_size</code> owners per query), one collection at a time - a fetch join across nested collections would multiply the rows, and a collection fetch join on the page query would move the pagination into memory <br>
+	 * - note: runs inside the transaction of the find operation
+	 */
+	protected void fetchAssociations( final List< T > entities ){
+		// nothing to fetch by default
+	}
+	
+	private List< T > loadIntoPersistenceContext( final List< Long > ids ){
+		final List< Long > existingIds = Lists.newArrayList( Iterables.filter( ids, Predicates.notNull() ) );
+		if( existingIds.isEmpty() ){
+			return Lists.newArrayList();
+		}
+		
+		final CriteriaQuery< T > query = entityManager.getCriteriaBuilder().createQuery( clazz );
+		final Root< T > root = query.from( clazz );
+		return entityManager.createQuery( query.select( root ).where( root.get( "id" ).in( existingIds ) ) ).getResultList();
+	}
+	
+	private void handleBatch( final Session session, final List< T > batch, final IEntityCallback< T > callback ){
+		if( batch.isEmpty() ){
+			return;
+		}
+		
+		fetchAssociations( batch );
+		for( final T entity : batch ){
+			callback.handle( entity );
+		}
+		// - note: the session only ever holds the current batch - nothing else is loaded in this read only transaction
+		session.clear();
+		batch.clear();
+	}
+	
+	protected static List< Long > idsOf( final List< ? extends IEntity > entities ){
+		return Lists.newArrayList( Lists.transform( entities, new Function< IEntity, Long >(){
+			@Override
+			public final Long apply( final IEntity entity ){
+				return entity.getId();
+			}
+		} ) );
 	}
 	
 	//
@@ -0,0 +1,61 @@
+package org.rest.persistence.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Total number of entities, cached and - once stale - refreshed in the background <br>
+ * - note: only the very first read waits for the COUNT; afterwards readers get the last known value while the refresh runs
+ */
+final class ApproximateCount{
+	private static final String KEY = "count";
+	private static final ExecutorService refresher = Executors.newSingleThreadExecutor( new ThreadFactoryBuilder().setDaemon( true ).setNameFormat( "approximate-count-%d" ).build() );
+	
+	private final LoadingCache< String, Long > cache;
+	
+	ApproximateCount( final Callable< Long > counter, final long refreshAfterSeconds ){
+		this( counter, refreshAfterSeconds, Ticker.systemTicker() );
+	}
+	
+	/**
+	 * - note: the ticker only decides when the count is stale; it is replaced in tests
+	 */
+	ApproximateCount( final Callable< Long > counter, final long refreshAfterSeconds, final Ticker ticker ){
+		super();
+		
+		Preconditions.checkNotNull( counter );
+		Preconditions.checkArgument( refreshAfterSeconds > 0 );
+		Preconditions.checkNotNull( ticker );
+		
+		cache = CacheBuilder.newBuilder().ticker( ticker ).refreshAfterWrite( refreshAfterSeconds, TimeUnit.SECONDS ).build( new CacheLoader< String, Long >(){
+			@Override
+			public final Long load( final String key ) throws Exception{
+				return counter.call();
+			}
+			@Override
+			public final ListenableFuture< Long > reload( final String key, final Long oldValue ){
+				final ListenableFutureTask< Long > task = ListenableFutureTask.create( counter );
+				refresher.execute( task );
+				return task;
+			}
+		} );
+	}
+	
+	// API
+	
+	final long get(){
+		return cache.getUnchecked( KEY );
+	}
+	
+}
@@ -0,0 +1,10 @@
+package org.rest.persistence.service;
+
+/**
+ * Receives the entities of a streamed retrieval, one at a time - see {@link IService#streamAll(IEntityCallback)}
+ */
+public interface IEntityCallback< T >{
+	
+	void handle( final T entity );
+	
+}
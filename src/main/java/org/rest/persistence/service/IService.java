@@ -1,5 +1,8 @@
 package org.rest.persistence.service;
 
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.rest.common.IEntity;
 import org.rest.common.IRestDao;
 import org.springframework.data.domain.Page;
@@ -10,8 +13,91 @@ public interface IService< T extends IEntity > extends IRestDao< T >{
 	
 	Page< T > findPaginated( final int page, final int size, final String sortBy );
 	
+	/**
+	 * Streams all the entities, in id order, without ever holding more than a batch of them in memory <br>
+	 * - note: the callback runs inside the (read only) transaction, while the cursor is open; the entities it receives are detached right after it returns
+	 */
+	void streamAll( final IEntityCallback< T > callback );
+	
+	/**
+	 * Keyset (seek) pagination - retrieves the entities that come strictly after the cursor, without counting them <br>
+	 * - note: the cost is the same for every page, no matter how deep the walk goes
+	 * @param after the cursor of the last entity already seen, from a walk with the same sort (an {@link IllegalArgumentException} otherwise); null to start from the beginning
+	 * @param sortBy the attribute to sort and seek on (entities with a null value come last); null means by id
+	 */
+	List< T > findPaginatedAfter( final KeysetCursor after, final int size, final String sortBy );
+	
+	/**
+	 * Offset pagination without the COUNT query - retrieves up to size + 1 entities; the extra one, if present, only signals that there is a next page
+	 */
+	List< T > findPaginatedUncounted( final int page, final int size, final String sortBy );
+	
+	/**
+	 * - note: the total is cached and refreshed in the background, so it may be slightly out of date
+	 */
+	long countApproximately();
+	
+	// search
+	
+	/**
+	 * Finds the entities that match all the constraints - the key of a constraint is the name of an attribute, prefixed with <code>~</code> for not equal
+	 */
+	List< T > search( final ImmutablePair< String, ? >... constraints );
+	
+	/**
+	 * - note: see {@link org.rest.persistence.search.QueryParser} for the query language; only the searchable attributes of the service can be constrained - the others fail with an {@link IllegalArgumentException}
+	 */
+	List< T > search( final String queryString );
+	
+	/**
+	 * - note: sorted by the given attribute (then by id), or by id - only the sortable attributes of the service are accepted; the matches are only counted when they do not all fit on the first page
+	 */
+	Page< T > searchPaginated( final String queryString, final int page, final int size, final String sortBy );
+	
+	// create
+	
+	/**
+	 * Creates all the entities in a single transaction - either all of them are created, or none
+	 * @return the created entities, in the same order
+	 */
+	List< T > createInBulk( final List< T > entities );
+	
+	// update
+	
+	/**
+	 * Updates all the entities (that exist) in a single transaction - see {@link #updateIfExists(IEntity)}
+	 * @return the number of updated entities, for each entity in order
+	 */
+	int[] updateInBulk( final List< T > entities );
+	
+	/**
+	 * Updates the entity if it exists, without failing when it does not - so that callers need no separate existence check
+	 * @return the number of updated entities - 0 if there is no entity with this id
+	 */
+	int updateIfExists( final T entity );
+	
 	// delete
 	
+	/**
+	 * Deletes all the entities (that exist) in a single transaction - see {@link #deleteIfExists(long)}
+	 * @return whether an entity was deleted, for each id in order
+	 */
+	boolean[] deleteInBulk( final List< Long > ids );
+	
+	/**
+	 * Deletes the entity if it exists, without failing when it does not - so that callers need no separate existence check
+	 * @return whether an entity was deleted
+	 */
+	boolean deleteIfExists( final long id );
+	
+	/**
+	 * Deletes the entity if it exists with the given version - the version is part of the DELETE itself, so the entity can not change between a check and the delete
+	 * @param version the version the entity must still have; null to delete whatever the version
+	 * @return whether an entity was deleted - false if there is no entity with this id
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if the entity exists with another version
+	 */
+	boolean deleteIfExists( final long id, final Long version );
+	
 	void deleteAll();
 	
 }
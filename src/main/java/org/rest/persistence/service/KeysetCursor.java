@@ -0,0 +1,156 @@
+package org.rest.persistence.service;
+
+import java.nio.charset.Charset;
+
+import org.apache.commons.codec.binary.Base64;
+import org.rest.common.IEntity;
+import org.rest.common.util.QueryUtil;
+import org.springframework.beans.BeanWrapperImpl;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Position in a keyset (seek) paginated walk of a resource: the id and (when sorting by something other than the id) the sort attribute and the sort value of the last entity seen <br>
+ * - note: clients only ever see the opaque token form of this; the sort attribute is part of it, so that a cursor is never used to seek in a walk with another sort <br>
+ * - note: entities with a null sort value come last (then by id); a cursor past such an entity is marked as such
+ */
+public final class KeysetCursor{
+	private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+	private static final char SEPARATOR = ':';
+	private static final char SORT_VALUE = '=';
+	private static final char NULL_SORT_VALUE = '!';
+	
+	private final long id;
+	private final String sortBy;
+	private final String sortValue;
+	private final boolean nullSortValue;
+	
+	/**
+	 * @param sortByToSet the sort attribute; null (or the id) for the sort by id, in which case there is no sort value
+	 */
+	public KeysetCursor( final long idToSet, final String sortByToSet, final String sortValueToSet ){
+		this( idToSet, sortByToSet, sortValueToSet, false );
+	}
+	
+	private KeysetCursor( final long idToSet, final String sortByToSet, final String sortValueToSet, final boolean nullSortValueToSet ){
+		super();
+		
+		id = idToSet;
+		sortBy = sortAttribute( sortByToSet );
+		sortValue = sortValueToSet;
+		nullSortValue = nullSortValueToSet;
+		Preconditions.checkArgument( ( sortBy == null ) == ( sortValue == null && !nullSortValue ), "A cursor has a sort value exactly when it is not for the sort by id" );
+	}
+	
+	/**
+	 * - note: the cursor after an entity whose sort value is null - only entities with a null sort value and a greater id follow it
+	 */
+	public static KeysetCursor withNullSortValue( final long id, final String sortBy ){
+		Preconditions.checkArgument( sortAttribute( sortBy ) != null, "A cursor by id has no sort value" );
+		return new KeysetCursor( id, sortBy, null, true );
+	}
+	
+	// API
+	
+	public final long getId(){
+		return id;
+	}
+	
+	/**
+	 * @return the sort attribute; null for the sort by id
+	 */
+	public final String getSortBy(){
+		return sortBy;
+	}
+	
+	public final String getSortValue(){
+		return sortValue;
+	}
+	
+	/**
+	 * @return true if the cursor is for a sort by value, and the last entity seen had a null sort value
+	 */
+	public final boolean isNullSortValue(){
+		return nullSortValue;
+	}
+	
+	/**
+	 * @return true if the cursor comes from a walk with the given sort (null or the id for the sort by id)
+	 */
+	public final boolean isFor( final String sortByToCheck ){
+		return Objects.equal( sortBy, sortAttribute( sortByToCheck ) );
+	}
+	
+	/**
+	 * - note: <code>id</code>, <code>id:sortBy=sortValue</code> or <code>id:sortBy!</code> - the sort attributes are names, which never hold the markers, so the sort value is taken as it is
+	 */
+	public final String toToken(){
+		final String raw;
+		if( sortBy == null ){
+			raw = String.valueOf( id );
+		}
+		else if( nullSortValue ){
+			raw = id + String.valueOf( SEPARATOR ) + sortBy + NULL_SORT_VALUE;
+		}
+		else{
+			raw = id + String.valueOf( SEPARATOR ) + sortBy + SORT_VALUE + sortValue;
+		}
+		return Base64.encodeBase64URLSafeString( raw.getBytes( UTF_8 ) );
+	}
+	
+	/**
+	 * @return the cursor, or null if the token is empty (which means the walk starts from the beginning)
+	 * @throws IllegalArgumentException if the token is not a valid cursor
+	 */
+	public static KeysetCursor fromToken( final String token ){
+		if( token == null || token.isEmpty() ){
+			return null;
+		}
+		
+		final String raw = new String( Base64.decodeBase64( token ), UTF_8 );
+		final int separatorIndex = raw.indexOf( SEPARATOR );
+		try{
+			if( separatorIndex == -1 ){
+				return new KeysetCursor( Long.parseLong( raw ), null, null );
+			}
+			final long id = Long.parseLong( raw.substring( 0, separatorIndex ) );
+			final String sort = raw.substring( separatorIndex + 1 );
+			final int valueIndex = sort.indexOf( SORT_VALUE );
+			final int nullIndex = sort.indexOf( NULL_SORT_VALUE );
+			if( nullIndex > 0 && ( valueIndex == -1 || nullIndex < valueIndex ) ){
+				Preconditions.checkArgument( nullIndex == sort.length() - 1 );
+				return withNullSortValue( id, sort.substring( 0, nullIndex ) );
+			}
+			Preconditions.checkArgument( valueIndex > 0 );
+			return new KeysetCursor( id, sort.substring( 0, valueIndex ), sort.substring( valueIndex + 1 ) );
+		}
+		catch( final IllegalArgumentException ex ){ // including NumberFormatException
+			throw new IllegalArgumentException( "Invalid cursor: " + token, ex );
+		}
+	}
+	
+	/**
+	 * - note: the cursor pointing after the given entity, for the given sort
+	 */
+	public static KeysetCursor after( final IEntity entity, final String sortBy ){
+		Preconditions.checkNotNull( entity );
+		Preconditions.checkNotNull( entity.getId() );
+		
+		if( sortAttribute( sortBy ) == null ){
+			return new KeysetCursor( entity.getId(), null, null );
+		}
+		final Object value = new BeanWrapperImpl( entity ).getPropertyValue( sortBy );
+		return ( value == null ) ? withNullSortValue( entity.getId(), sortBy ) : new KeysetCursor( entity.getId(), sortBy, value.toString() );
+	}
+	
+	//
+	
+	/**
+	 * @return the sort attribute, or null for the sort by id
+	 */
+	private static String sortAttribute( final String sortBy ){
+		return ( sortBy == null || QueryUtil.ID.equals( sortBy ) ) ? null : sortBy;
+	}
+	
+}
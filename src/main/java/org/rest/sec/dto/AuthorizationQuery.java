@@ -0,0 +1,72 @@
+package org.rest.sec.dto;
+
+import java.util.List;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import com.google.common.collect.Lists;
+
+/**
+ * One question of a batch authorization request: does the principal (by name) hold the privilege - or each of the privileges
+ */
+public class AuthorizationQuery{
+	
+	private String principal;
+	private String privilege;
+	private List< String > privileges;
+	
+	public AuthorizationQuery(){
+		super();
+	}
+	public AuthorizationQuery( final String principalToSet, final List< String > privilegesToSet ){
+		super();
+		
+		principal = principalToSet;
+		privileges = privilegesToSet;
+	}
+	
+	// API
+	
+	public String getPrincipal(){
+		return principal;
+	}
+	public void setPrincipal( final String principalToSet ){
+		principal = principalToSet;
+	}
+	
+	public String getPrivilege(){
+		return privilege;
+	}
+	public void setPrivilege( final String privilegeToSet ){
+		privilege = privilegeToSet;
+	}
+	
+	public List< String > getPrivileges(){
+		return privileges;
+	}
+	public void setPrivileges( final List< String > privilegesToSet ){
+		privileges = privilegesToSet;
+	}
+	
+	/**
+	 * @return the privileges asked about - the single privilege first, if both forms are used
+	 */
+	public List< String > privilegesAsked(){
+		final List< String > asked = Lists.newArrayList();
+		if( privilege != null ){
+			asked.add( privilege );
+		}
+		if( privileges != null ){
+			asked.addAll( privileges );
+		}
+		return asked;
+	}
+	
+	//
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder( this ).append( "principal", principal ).append( "privilege", privilege ).append( "privileges", privileges ).toString();
+	}
+	
+}
@@ -18,14 +18,14 @@ import com.thoughtworks.xstream.annotations.XStreamImplicit;
 public class User implements IEntity{
 	
 	@XStreamAsAttribute private Long id;
+	@XStreamAsAttribute private Long version;
 	
 	private String name;
 	private String password;
 	
 	/* Marshalling */
 	// - note: this gets rid of the collection entirely
-	@XStreamImplicit// - note: this requires: xstream.addDefaultImplementation( java.util.HashSet.class, PersistentSet.class );
-	                // @XStreamConverter( value = HibernateCollectionConverter.class )
+	@XStreamImplicit
 	private Set< Role > roles;
 	
 	public User(){
@@ -44,6 +44,7 @@ public class User implements IEntity{
 		name = principal.getName();
 		roles = principal.getRoles();
 		id = principal.getId();
+		version = principal.getVersion();
 	}
 	
 	// API
@@ -57,6 +58,15 @@ public class User implements IEntity{
 		id = idToSet;
 	}
 	
+	@Override
+	public Long getVersion(){
+		return version;
+	}
+	@Override
+	public void setVersion( final Long versionToSet ){
+		version = versionToSet;
+	}
+	
 	public String getName(){
 		return name;
 	}
@@ -6,28 +6,33 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.Version;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.annotations.OptimisticLock;
 import org.rest.common.IEntity;
+import org.rest.persistence.jpa.PooledTableIdGenerator;
 
 import com.thoughtworks.xstream.annotations.XStreamImplicit;
 
 @Entity
 @XmlRootElement
 public class Principal implements IEntity{
+	public static final String ROLES_JOIN_TABLE = "Principal_Role";
 	
-	@Id @GeneratedValue( strategy = GenerationType.AUTO ) @Column( name = "PRINCIPAL_ID" ) private Long id;
+	@Id @GeneratedValue( generator = PooledTableIdGenerator.NAME ) @Column( name = "PRINCIPAL_ID" ) private Long id;
+	@Version @Column( name = "VERSION",nullable = false,columnDefinition = "bigint default 0 not null" ) private Long version;
 	@Column( unique = true,nullable = false ) private String name;
 	@Column( nullable = false ) private String password;
 	//@formatter:off
-	@ManyToMany( /*cascade = { CascadeType.REMOVE },*/fetch = FetchType.EAGER )
-	@JoinTable( joinColumns = { @JoinColumn( name = "PRINCIPAL_ID",referencedColumnName = "PRINCIPAL_ID" ) },inverseJoinColumns = { @JoinColumn( name = "ROLE_ID",referencedColumnName = "ROLE_ID" ) } )
+	@ManyToMany( /*cascade = { CascadeType.REMOVE },*/fetch = FetchType.LAZY )
+	@JoinTable( name = Principal.ROLES_JOIN_TABLE,joinColumns = { @JoinColumn( name = "PRINCIPAL_ID",referencedColumnName = "PRINCIPAL_ID" ) },inverseJoinColumns = { @JoinColumn( name = "ROLE_ID",referencedColumnName = "ROLE_ID" ) } )
+	@OptimisticLock( excluded = true )// - note: the version is checked and incremented by the UPDATE of the principal itself, which always comes first
 	@XStreamImplicit
 	private Set< Role > roles;
 	//@formatter:on
@@ -54,6 +59,15 @@ public class Principal implements IEntity{
 		id = idToSet;
 	}
 	
+	@Override
+	public Long getVersion(){
+		return version;
+	}
+	@Override
+	public void setVersion( final Long versionToSet ){
+		version = versionToSet;
+	}
+	
 	public String getName(){
 		return name;
 	}
@@ -10,6 +10,7 @@ import javax.persistence.metamodel.StaticMetamodel;
 public abstract class Principal_ {
 
 	public static volatile SingularAttribute<Principal, Long> id;
+	public static volatile SingularAttribute<Principal, Long> version;
 	public static volatile SetAttribute<Principal, Role> roles;
 	public static volatile SingularAttribute<Principal, String> name;
 	public static volatile SingularAttribute<Principal, String> password;
@@ -3,17 +3,19 @@ package org.rest.sec.model;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Version;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.rest.common.IEntity;
+import org.rest.persistence.jpa.PooledTableIdGenerator;
 
 @Entity
 @XmlRootElement
 public class Privilege implements IEntity{
 	
-	@Id @GeneratedValue( strategy = GenerationType.AUTO ) @Column( name = "PRIV_ID" ) private Long id;
+	@Id @GeneratedValue( generator = PooledTableIdGenerator.NAME ) @Column( name = "PRIV_ID" ) private Long id;
+	@Version @Column( name = "VERSION",nullable = false,columnDefinition = "bigint default 0 not null" ) private Long version;
 	@Column( unique = true,nullable = false ) private String name;
 	
 	public Privilege(){
@@ -35,6 +37,15 @@ public class Privilege implements IEntity{
 		id = idToSet;
 	}
 	
+	@Override
+	public Long getVersion(){
+		return version;
+	}
+	@Override
+	public void setVersion( final Long versionToSet ){
+		version = versionToSet;
+	}
+	
 	public String getName(){
 		return name;
 	}
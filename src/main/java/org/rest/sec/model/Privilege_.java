@@ -9,6 +9,7 @@ import javax.persistence.metamodel.StaticMetamodel;
 public abstract class Privilege_ {
 
 	public static volatile SingularAttribute<Privilege, Long> id;
+	public static volatile SingularAttribute<Privilege, Long> version;
 	public static volatile SingularAttribute<Privilege, String> name;
 
 }
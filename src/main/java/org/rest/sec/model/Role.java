@@ -6,15 +6,17 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.Version;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.annotations.OptimisticLock;
 import org.rest.common.IEntity;
+import org.rest.persistence.jpa.PooledTableIdGenerator;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
@@ -24,13 +26,16 @@ import com.thoughtworks.xstream.annotations.XStreamImplicit;
 @XmlRootElement
 @XStreamAlias( "role" )
 public class Role implements IEntity{
+	public static final String PRIVILEGES_JOIN_TABLE = "Role_Privilege";
 	
-	@Id @GeneratedValue( strategy = GenerationType.AUTO ) @Column( name = "ROLE_ID" ) @XStreamAsAttribute private Long id;
+	@Id @GeneratedValue( generator = PooledTableIdGenerator.NAME ) @Column( name = "ROLE_ID" ) @XStreamAsAttribute private Long id;
+	@Version @Column( name = "VERSION",nullable = false,columnDefinition = "bigint default 0 not null" ) @XStreamAsAttribute private Long version;
 	@Column( unique = true,nullable = false ) private String name;
 	
 	//@formatter:off
-	@ManyToMany( /*cascade = { CascadeType.REMOVE },*/fetch = FetchType.EAGER )
-	@JoinTable( joinColumns = { @JoinColumn( name = "ROLE_ID",referencedColumnName = "ROLE_ID" ) },inverseJoinColumns = { @JoinColumn( name = "PRIV_ID",referencedColumnName = "PRIV_ID" ) } )
+	@ManyToMany( /*cascade = { CascadeType.REMOVE },*/fetch = FetchType.LAZY )
+	@JoinTable( name = Role.PRIVILEGES_JOIN_TABLE,joinColumns = { @JoinColumn( name = "ROLE_ID",referencedColumnName = "ROLE_ID" ) },inverseJoinColumns = { @JoinColumn( name = "PRIV_ID",referencedColumnName = "PRIV_ID" ) } )
+	@OptimisticLock( excluded = true )// - note: the version is checked and incremented by the UPDATE of the role itself, which always comes first
 	@XStreamImplicit
 	private Set< Privilege > privileges;
 	//@formatter:on
@@ -59,6 +64,15 @@ public class Role implements IEntity{
 		id = idToSet;
 	}
 	
+	@Override
+	public Long getVersion(){
+		return version;
+	}
+	@Override
+	public void setVersion( final Long versionToSet ){
+		version = versionToSet;
+	}
+	
 	public String getName(){
 		return name;
 	}
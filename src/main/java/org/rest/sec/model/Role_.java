@@ -10,6 +10,7 @@ import javax.persistence.metamodel.StaticMetamodel;
 public abstract class Role_ {
 
 	public static volatile SingularAttribute<Role, Long> id;
+	public static volatile SingularAttribute<Role, Long> version;
 	public static volatile SingularAttribute<Role, String> name;
 	public static volatile SetAttribute<Role, Privilege> privileges;
 
@@ -0,0 +1,10 @@
+/**
+ * - note: the id generator of the entities is declared once, here - see {@link org.rest.persistence.jpa.PooledTableIdGenerator}
+ */
+@GenericGenerator( name = PooledTableIdGenerator.NAME,strategy = PooledTableIdGenerator.STRATEGY,parameters = { @Parameter( name = TableGenerator.INCREMENT_PARAM,value = "50" ) } )
+package org.rest.sec.model;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.rest.persistence.jpa.PooledTableIdGenerator;
@@ -3,9 +3,18 @@ package org.rest.sec.persistence.dao;
 import org.rest.sec.model.Principal;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 public interface IPrincipalJpaDAO extends JpaRepository< Principal, Long >, JpaSpecificationExecutor< Principal >{
 	
 	Principal findByName( final String name );
 	
+	// fetch plans
+	
+	/**
+	 * Authentication fetch plan - the principal, its roles and their privileges, in a single query
+	 */
+	@Query( "select distinct p from Principal p left join fetch p.roles r left join fetch r.privileges where p.name = ?1" )
+	Principal findByNameFetchAuthorities( final String name );
+	
 }
@@ -1,11 +1,15 @@
 package org.rest.sec.persistence.dao;
 
+import javax.persistence.QueryHint;
+
 import org.rest.sec.model.Privilege;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface IPrivilegeJpaDAO extends JpaRepository< Privilege, Long >, JpaSpecificationExecutor< Privilege >{
 	
+	@QueryHints( @QueryHint( name = "org.hibernate.cacheable",value = "true" ) )
 	Privilege findByName( final String name );
 	
 }
@@ -1,11 +1,15 @@
 package org.rest.sec.persistence.dao;
 
+import javax.persistence.QueryHint;
+
 import org.rest.sec.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface IRoleJpaDAO extends JpaRepository< Role, Long >, JpaSpecificationExecutor< Role >{
 	
+	@QueryHints( @QueryHint( name = "org.hibernate.cacheable",value = "true" ) )
 	Role findByName( final String name );
 	
 }
@@ -0,0 +1,238 @@
+package org.rest.sec.persistence.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * In memory, materialized {@link EffectivePrivileges} of each Principal, keyed by the id of the Principal <br>
+ * - the privileges of each known Role are indexed as well, so that a change to a Role is applied incrementally, without going back to the datastore <br>
+ * - changes are only applied once the transaction that made them commits; a changed Principal is recomputed from the index of its new roles, and anything that cannot be recomputed from the index is dropped and materialized again on the next lookup <br>
+ * - note: the changes and the writes of {@link #materialize(Principal, long)} are serialized on the store, and every change moves the generation; privileges read from the datastore before a change was applied are returned, but not kept - so an older read can never overwrite a newer change <br>
+ * - note: entries also expire a fixed time after they were written, so that a change that was missed is not served forever - see {@link EffectivePrivilegeStoreInvalidationListener}
+ */
+@Component
+@ManagedResource( objectName = "org.rest:name=effectivePrivileges",description = "Materialized effective privileges, keyed by Principal id" )
+public class EffectivePrivilegeStore implements InitializingBean{
+	private final Logger logger = LoggerFactory.getLogger( getClass() );
+	
+	@Value( "${security.effectivePrivileges.maxSize:10000}" ) long maxSize = 10000;
+	@Value( "${security.effectivePrivileges.expireAfterWriteSeconds:3600}" ) long expireAfterWriteSeconds = 3600;
+	
+	private Cache< Long, EffectivePrivileges > principals;
+	private final ConcurrentMap< Long, ImmutableMap< Long, String > > rolePrivileges = Maps.newConcurrentMap();
+	private final AtomicLong generation = new AtomicLong();
+	
+	public EffectivePrivilegeStore(){
+		super();
+	}
+	
+	// API - lookup
+	
+	/**
+	 * @return the materialized privileges of the principal, or null if they are not (or no longer) materialized
+	 */
+	public final EffectivePrivileges find( final long principalId ){
+		return principals.getIfPresent( principalId );
+	}
+	
+	/**
+	 * @return the current generation - to be taken before the principal to materialize is read from the datastore
+	 */
+	public final long generation(){
+		return generation.get();
+	}
+	
+	/**
+	 * Materializes the privileges from a Principal whose roles and privileges are initialized
+	 * @param readAtGeneration the {@link #generation()} taken before the principal was read; if a change was applied since, the privileges are returned but not kept
+	 */
+	public final EffectivePrivileges materialize( final Principal principal, final long readAtGeneration ){
+		Preconditions.checkNotNull( principal );
+		Preconditions.checkNotNull( principal.getId() );
+		
+		final Set< Long > roleIds = Sets.newHashSet();
+		final Map< Long, ImmutableMap< Long, String > > privilegesByRole = Maps.newHashMap();
+		final Map< Long, String > privileges = Maps.newHashMap();
+		for( final Role role : principal.getRoles() ){
+			final ImmutableMap< Long, String > privilegesOfRole = privilegesOf( role );
+			privilegesByRole.put( role.getId(), privilegesOfRole );
+			roleIds.add( role.getId() );
+			privileges.putAll( privilegesOfRole );
+		}
+		
+		final EffectivePrivileges effectivePrivileges = new EffectivePrivileges( principal.getId(), roleIds, privileges );
+		synchronized( this ){
+			if( generation.get() == readAtGeneration ){
+				rolePrivileges.putAll( privilegesByRole );
+				principals.put( principal.getId(), effectivePrivileges );
+			}
+		}
+		return effectivePrivileges;
+	}
+	
+	// API - incremental changes
+	
+	/**
+	 * The privileges of the role have changed - must be called with the managed Role, inside the transaction that changed it
+	 */
+	public final void roleChanged( final Role role ){
+		Preconditions.checkNotNull( role );
+		Preconditions.checkNotNull( role.getId() );
+		
+		final long roleId = role.getId();
+		final ImmutableMap< Long, String > privilegesOfRole = privilegesOf( role );
+		afterCommit( new Runnable(){
+			@Override
+			public final void run(){
+				synchronized( EffectivePrivilegeStore.this ){
+					generation.incrementAndGet();
+					rolePrivileges.put( roleId, privilegesOfRole );
+					for( final EffectivePrivileges effectivePrivileges : principals.asMap().values() ){
+						if( effectivePrivileges.hasRole( roleId ) ){
+							recompute( effectivePrivileges.getPrincipalId(), effectivePrivileges.getRoleIds() );
+						}
+					}
+				}
+			}
+		} );
+	}
+	
+	/**
+	 * The roles of the principal have changed - must be called with the managed Principal, inside the transaction that changed it <br>
+	 * - note: the privileges are recomputed from the index of its new roles; when one of them is not indexed, the entry is dropped instead
+	 */
+	public final void principalChanged( final Principal principal ){
+		Preconditions.checkNotNull( principal );
+		Preconditions.checkNotNull( principal.getId() );
+		
+		final long principalId = principal.getId();
+		final Set< Long > roleIds = Sets.newHashSet();
+		for( final Role role : principal.getRoles() ){
+			roleIds.add( role.getId() );
+		}
+		afterCommit( new Runnable(){
+			@Override
+			public final void run(){
+				synchronized( EffectivePrivilegeStore.this ){
+					generation.incrementAndGet();
+					recompute( principalId, roleIds );
+				}
+			}
+		} );
+	}
+	
+	// invalidation
+	
+	@ManagedOperation( description = "Drops every materialized entry" )
+	public final synchronized void invalidateAll(){
+		generation.incrementAndGet();
+		principals.invalidateAll();
+		rolePrivileges.clear();
+	}
+	
+	public final synchronized void invalidatePrincipal( final long principalId ){
+		generation.incrementAndGet();
+		principals.invalidate( principalId );
+	}
+	
+	public final synchronized void invalidateRole( final long roleId ){
+		generation.incrementAndGet();
+		rolePrivileges.remove( roleId );
+		final Iterator< EffectivePrivileges > entries = principals.asMap().values().iterator();
+		while( entries.hasNext() ){
+			if( entries.next().hasRole( roleId ) ){
+				entries.remove();
+			}
+		}
+	}
+	
+	// statistics
+	
+	@ManagedAttribute( description = "Number of principals with materialized privileges" )
+	public final long getPrincipalCount(){
+		return principals.size();
+	}
+	
+	@ManagedAttribute( description = "Number of indexed roles" )
+	public final int getRoleCount(){
+		return rolePrivileges.size();
+	}
+	
+	// Spring
+	
+	@Override
+	public final void afterPropertiesSet(){
+		Preconditions.checkState( maxSize >= 0 );
+		Preconditions.checkState( expireAfterWriteSeconds > 0 );
+		
+		principals = CacheBuilder.newBuilder().maximumSize( maxSize ).expireAfterWrite( expireAfterWriteSeconds, TimeUnit.SECONDS ).build();
+		logger.info( "Effective privileges store initialized with maxSize={} and expireAfterWriteSeconds={}", maxSize, expireAfterWriteSeconds );
+	}
+	
+	//
+	
+	/**
+	 * - note: a role that is not indexed means the privileges cannot be recomputed in memory, so the entry is dropped instead; only called while holding the store
+	 */
+	final void recompute( final long principalId, final Set< Long > roleIds ){
+		final Map< Long, String > privileges = Maps.newHashMap();
+		for( final Long roleId : roleIds ){
+			final ImmutableMap< Long, String > privilegesOfRole = ( roleId == null ) ? null : rolePrivileges.get( roleId );
+			if( privilegesOfRole == null ){
+				principals.invalidate( principalId );
+				return;
+			}
+			privileges.putAll( privilegesOfRole );
+		}
+		
+		principals.put( principalId, new EffectivePrivileges( principalId, roleIds, privileges ) );
+	}
+	
+	static ImmutableMap< Long, String > privilegesOf( final Role role ){
+		final ImmutableMap.Builder< Long, String > privileges = ImmutableMap.builder();
+		for( final Privilege privilege : role.getPrivileges() ){
+			privileges.put( privilege.getId(), privilege.getName() );
+		}
+		return privileges.build();
+	}
+	
+	static void afterCommit( final Runnable change ){
+		if( !TransactionSynchronizationManager.isSynchronizationActive() ){
+			change.run();
+			return;
+		}
+		
+		TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter(){
+			@Override
+			public final void afterCommit(){
+				change.run();
+			}
+		} );
+	}
+	
+}
@@ -0,0 +1,79 @@
+package org.rest.sec.persistence.service;
+
+import org.rest.persistence.event.EntityChangedEvent;
+import org.rest.persistence.event.EntityDeletedEvent;
+import org.rest.persistence.event.EntityUpdatedEvent;
+import org.rest.persistence.event.SynchronousListener;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.rest.sec.persistence.dao.IPrincipalJpaDAO;
+import org.rest.sec.persistence.dao.IRoleJpaDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps the {@link EffectivePrivilegeStore} consistent with the Principal, Role and Privilege data <br>
+ * - an updated role is applied incrementally: it is read back inside the publishing transaction (where the update left it in the persistence context) and applied once that transaction commits <br>
+ * - an updated principal is recomputed from the index of its new roles, read back inside the publishing transaction the same way <br>
+ * - deleted principals, deleted roles and any privilege change drop the affected entries
+ */
+@SuppressWarnings( "rawtypes" )
+@Component
+final class EffectivePrivilegeStoreInvalidationListener implements ApplicationListener< EntityChangedEvent >, SynchronousListener{
+	
+	@Autowired EffectivePrivilegeStore effectivePrivilegeStore;
+	
+	@Autowired IRoleJpaDAO roleDao;
+	@Autowired IPrincipalJpaDAO principalDao;
+	
+	// API
+	
+	@Override
+	public final void onApplicationEvent( final EntityChangedEvent ev ){
+		Preconditions.checkNotNull( ev );
+		
+		final Class clazz = ev.getClazz();
+		final Long id = ev.getId();
+		if( Privilege.class.equals( clazz ) || ( ev.affectsAll() && ( Role.class.equals( clazz ) || Principal.class.equals( clazz ) ) ) ){
+			EffectivePrivilegeStore.afterCommit( new Runnable(){
+				@Override
+				public final void run(){
+					effectivePrivilegeStore.invalidateAll();
+				}
+			} );
+		}
+		else if( ev instanceof EntityUpdatedEvent && Role.class.equals( clazz ) ){
+			final Role role = roleDao.findOne( id );
+			if( role != null ){
+				effectivePrivilegeStore.roleChanged( role );
+			}
+		}
+		else if( ev instanceof EntityDeletedEvent && Role.class.equals( clazz ) ){
+			EffectivePrivilegeStore.afterCommit( new Runnable(){
+				@Override
+				public final void run(){
+					effectivePrivilegeStore.invalidateRole( id );
+				}
+			} );
+		}
+		else if( ev instanceof EntityUpdatedEvent && Principal.class.equals( clazz ) ){
+			final Principal principal = principalDao.findOne( id );
+			if( principal != null ){
+				effectivePrivilegeStore.principalChanged( principal );
+			}
+		}
+		else if( ev instanceof EntityDeletedEvent && Principal.class.equals( clazz ) ){
+			EffectivePrivilegeStore.afterCommit( new Runnable(){
+				@Override
+				public final void run(){
+					effectivePrivilegeStore.invalidatePrincipal( id );
+				}
+			} );
+		}
+	}
+	
+}
@@ -0,0 +1,62 @@
+package org.rest.sec.persistence.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The materialized union of the privileges granted to a Principal through all of its roles <br>
+ * - note: immutable; the privileges are held as id to name, so that both the ids and the authority names are available without touching the entities
+ */
+public final class EffectivePrivileges{
+	private final long principalId;
+	private final ImmutableSet< Long > roleIds;
+	private final ImmutableMap< Long, String > privileges;
+	
+	public EffectivePrivileges( final long principalIdToSet, final Set< Long > roleIdsToSet, final Map< Long, String > privilegesToSet ){
+		super();
+		
+		Preconditions.checkNotNull( roleIdsToSet );
+		Preconditions.checkNotNull( privilegesToSet );
+		
+		principalId = principalIdToSet;
+		roleIds = ImmutableSet.copyOf( roleIdsToSet );
+		privileges = ImmutableMap.copyOf( privilegesToSet );
+	}
+	
+	// API
+	
+	public final long getPrincipalId(){
+		return principalId;
+	}
+	
+	public final Set< Long > getRoleIds(){
+		return roleIds;
+	}
+	
+	public final Set< Long > getPrivilegeIds(){
+		return privileges.keySet();
+	}
+	
+	public final Collection< String > getPrivilegeNames(){
+		return privileges.values();
+	}
+	
+	public final boolean hasRole( final long roleId ){
+		return roleIds.contains( roleId );
+	}
+	
+	//
+	
+	@Override
+	public final String toString(){
+		return new ToStringBuilder( this ).append( "principalId", principalId ).append( "roleIds", roleIds ).append( "privileges", privileges ).toString();
+	}
+	
+}
@@ -7,4 +7,9 @@ public interface IPrincipalService extends IService< Principal >{
 	
 	Principal findByName( final String name );
 	
+	/**
+	 * - note: the roles of the returned principal are not initialized - use when its privileges come from the {@link EffectivePrivilegeStore}
+	 */
+	Principal findByNameWithoutRoles( final String name );
+	
 }
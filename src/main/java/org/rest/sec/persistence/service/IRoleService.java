@@ -1,8 +1,5 @@
 package org.rest.sec.persistence.service;
 
-import java.util.List;
-
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.rest.persistence.service.IService;
 import org.rest.sec.model.Role;
 
@@ -10,6 +7,4 @@ public interface IRoleService extends IService< Role >{
 	
 	Role findByName( final String name );
 	
-	List< Role > search( final ImmutablePair< String, ? >... constraints );
-	
 }
@@ -1,13 +1,23 @@
 package org.rest.sec.persistence.service.impl;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.rest.common.util.QueryUtil;
 import org.rest.persistence.service.AbstractService;
 import org.rest.sec.model.Principal;
+import org.rest.sec.model.Principal_;
+import org.rest.sec.model.Role;
 import org.rest.sec.persistence.dao.IPrincipalJpaDAO;
 import org.rest.sec.persistence.service.IPrincipalService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.ImmutableSet;
+
 @Service
 @Transactional
 public class PrincipalServiceImpl extends AbstractService< Principal > implements IPrincipalService{
@@ -23,9 +33,69 @@ public class PrincipalServiceImpl extends AbstractService< Principal > implement
 	@Override
 	@Transactional( readOnly = true )
 	public Principal findByName( final String name ){
+		return dao.findByNameFetchAuthorities( name );
+	}
+	
+	@Override
+	@Transactional( readOnly = true )
+	public Principal findByNameWithoutRoles( final String name ){
 		return dao.findByName( name );
 	}
 	
+	// search
+	
+	/**
+	 * - note: the password is never searchable - a prefix search would reveal it a character at a time
+	 */
+	@Override
+	protected final Set< String > searchableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID, QueryUtil.NAME, "roles.id", "roles.name", "roles.privileges.id", "roles.privileges.name" );
+	}
+	
+	@Override
+	protected final Set< String > sortableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID, QueryUtil.NAME );
+	}
+	
+	// update
+	
+	/**
+	 * - note: the password is never sent back to the clients, so an update without one keeps the current password
+	 */
+	@Override
+	protected final Set< String > attributesKeptWhenNull(){
+		return ImmutableSet.of( Principal_.password.getName() );
+	}
+	
+	@Override
+	protected final void updateAssociations( final Principal entity ){
+		final Principal current = dao.findOne( entity.getId() );
+		if( !sameEntities( current.getRoles(), entity.getRoles() ) ){
+			current.setRoles( referencesTo( Role.class, entity.getRoles() ) );
+		}
+	}
+	
+	// delete
+	
+	@Override
+	protected final void deleteAssociations( final Collection< Long > ids ){
+		deleteJoinRows( Principal.ROLES_JOIN_TABLE, "PRINCIPAL_ID", ids );
+	}
+	
+	// fetch plans
+	
+	/**
+	 * - note: iterating the roles of the first principal batch loads those of the next principals as well; the privileges of the roles are batch loaded the same way, or come from the collection cache
+	 */
+	@Override
+	protected final void fetchAssociations( final List< Principal > entities ){
+		for( final Principal principal : entities ){
+			for( final Role role : principal.getRoles() ){
+				Hibernate.initialize( role.getPrivileges() );
+			}
+		}
+	}
+	
 	// Spring
 	
 	@Override
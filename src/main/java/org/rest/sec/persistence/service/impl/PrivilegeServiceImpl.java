@@ -1,5 +1,8 @@
 package org.rest.sec.persistence.service.impl;
 
+import java.util.Set;
+
+import org.rest.common.util.QueryUtil;
 import org.rest.persistence.service.AbstractService;
 import org.rest.sec.model.Privilege;
 import org.rest.sec.persistence.dao.IPrivilegeJpaDAO;
@@ -8,6 +11,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.ImmutableSet;
+
 @Service
 @Transactional
 public class PrivilegeServiceImpl extends AbstractService< Privilege > implements IPrivilegeService{
@@ -25,6 +30,18 @@ public class PrivilegeServiceImpl extends AbstractService< Privilege > implement
 		return getDao().findByName( name );
 	}
 	
+	// search
+	
+	@Override
+	protected final Set< String > searchableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID, QueryUtil.NAME );
+	}
+	
+	@Override
+	protected final Set< String > sortableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID, QueryUtil.NAME );
+	}
+	
 	// Spring
 	
 	@Override
@@ -1,25 +1,21 @@
 package org.rest.sec.persistence.service.impl;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-
-import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.hibernate.Hibernate;
+import org.rest.common.util.QueryUtil;
 import org.rest.persistence.service.AbstractService;
+import org.rest.sec.model.Privilege;
 import org.rest.sec.model.Role;
-import org.rest.sec.model.Role_;
 import org.rest.sec.persistence.dao.IRoleJpaDAO;
 import org.rest.sec.persistence.service.IRoleService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableSet;
 
 @Service
 @Transactional
@@ -33,68 +29,16 @@ public class RoleServiceImpl extends AbstractService< Role > implements IRoleSer
 	
 	// API
 	
-	// sandbox
-	
-	@Override
-	public List< Role > search( final ImmutablePair< String, ? >... constraints ){
-		final Specification< Role > firstSpec = resolveConstraint( constraints[0] );
-		Specifications< Role > specifications = Specifications.where( firstSpec );
-		for( int i = 1; i < constraints.length; i++ ){
-			specifications = specifications.and( resolveConstraint( constraints[i] ) );
-		}
-		if( firstSpec == null ){
-			return Lists.newArrayList();
-		}
-		
-		return getDao().findAll( specifications );
-	}
-	private Specification< Role > resolveConstraint( final ImmutablePair< String, ? > constraint ){
-		String constraintName = constraint.getLeft();
-		boolean negated = false;
-		if( constraintName.startsWith( "~" ) ){
-			negated = true;
-			constraintName = constraintName.substring( 1 );
-		}
-		
-		if( constraintName.equals( "name" ) ){
-			return byName( (String) constraint.getRight(), negated );
-		}
-		if( constraintName.equals( "id" ) ){
-			return byId( (Long) constraint.getRight(), negated );
-		}
-		return null;
-	}
-	
-	// search
-	
-	public static Specification< Role > byId( final Long id, final boolean negated ){
-		return new Specification< Role >(){
-			@Override
-			public final Predicate toPredicate( final Root< Role > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
-				if( negated ){
-					return cb.notEqual( root.get( Role_.id ), id );
-				}
-				return cb.equal( root.get( Role_.id ), id );
-			}
-		};
-	}
-	public static Specification< Role > byName( final String name, final boolean negated ){
-		return new Specification< Role >(){
-			@Override
-			public final Predicate toPredicate( final Root< Role > root, final CriteriaQuery< ? > query, final CriteriaBuilder cb ){
-				if( negated ){
-					return cb.notEqual( root.get( Role_.name ), name );
-				}
-				return cb.equal( root.get( Role_.name ), name );
-			}
-		};
-	}
-	
 	// get/find
 	
 	@Override
 	public Role findByName( final String name ){
-		return dao.findByName( name );
+		final Role role = dao.findByName( name );
+		if( role != null ){
+			// - note: once warm, both the query and the privileges collection are served by the second level cache
+			Hibernate.initialize( role.getPrivileges() );
+		}
+		return role;
 	}
 	
 	// create
@@ -113,6 +57,44 @@ public class RoleServiceImpl extends AbstractService< Role > implements IRoleSer
 		return super.create( entity );
 	}
 	
+	// search
+	
+	@Override
+	protected final Set< String > searchableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID, QueryUtil.NAME, "privileges.id", "privileges.name" );
+	}
+	
+	@Override
+	protected final Set< String > sortableAttributes(){
+		return ImmutableSet.of( QueryUtil.ID, QueryUtil.NAME );
+	}
+	
+	// update
+	
+	@Override
+	protected final void updateAssociations( final Role entity ){
+		final Role current = dao.findOne( entity.getId() );
+		if( !sameEntities( current.getPrivileges(), entity.getPrivileges() ) ){
+			current.setPrivileges( referencesTo( Privilege.class, entity.getPrivileges() ) );
+		}
+	}
+	
+	// delete
+	
+	@Override
+	protected final void deleteAssociations( final Collection< Long > ids ){
+		deleteJoinRows( Role.PRIVILEGES_JOIN_TABLE, "ROLE_ID", ids );
+	}
+	
+	// fetch plans
+	
+	@Override
+	protected final void fetchAssociations( final List< Role > entities ){
+		for( final Role role : entities ){
+			Hibernate.initialize( role.getPrivileges() );
+		}
+	}
+	
 	// Spring
 	
 	@Override
@@ -2,7 +2,10 @@ package org.rest.sec.persistence.service.impl.dto;
 
 import java.util.List;
 
-import org.rest.common.web.RestPreconditions;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.rest.common.exceptions.ResourceNotFoundException;
+import org.rest.persistence.service.IEntityCallback;
+import org.rest.persistence.service.KeysetCursor;
 import org.rest.sec.dto.PrincipalToUserFunction;
 import org.rest.sec.dto.User;
 import org.rest.sec.model.Principal;
@@ -52,15 +55,68 @@ public class UserServiceImpl implements IUserService{
 	@Override
 	public List< User > findAll(){
 		final List< Principal > allPrincipalEntities = principalService.findAll();
-		final List< User > allUsers = Lists.transform( allPrincipalEntities, new PrincipalToUserFunction() );
+		final List< User > allUsers = Lists.newArrayList( Lists.transform( allPrincipalEntities, new PrincipalToUserFunction() ) );
 		
 		return allUsers;
 	}
 	
+	@Override
+	public void streamAll( final IEntityCallback< User > callback ){
+		principalService.streamAll( new IEntityCallback< Principal >(){
+			@Override
+			public final void handle( final Principal principal ){
+				callback.handle( new User( principal ) );
+			}
+		} );
+	}
+	
 	@Override
 	public Page< User > findPaginated( final int page, final int size, final String sortBy ){
 		final Page< Principal > principalsPaginated = principalService.findPaginated( page, size, sortBy );
-		final List< User > usersPaginated = Lists.transform( principalsPaginated.getContent(), new PrincipalToUserFunction() );
+		final List< User > usersPaginated = Lists.newArrayList( Lists.transform( principalsPaginated.getContent(), new PrincipalToUserFunction() ) );
+		
+		Sort sortInfo = null;
+		if( sortBy != null ){
+			sortInfo = new Sort( sortBy );
+		}
+		return new PageImpl< User >( usersPaginated, new PageRequest( page, size, sortInfo ), principalsPaginated.getTotalElements() );
+	}
+	
+	@Override
+	public List< User > findPaginatedAfter( final KeysetCursor after, final int size, final String sortBy ){
+		final List< Principal > principalsPaginated = principalService.findPaginatedAfter( after, size, sortBy );
+		return Lists.newArrayList( Lists.transform( principalsPaginated, new PrincipalToUserFunction() ) );
+	}
+	
+	@Override
+	public List< User > findPaginatedUncounted( final int page, final int size, final String sortBy ){
+		final List< Principal > principalsPaginated = principalService.findPaginatedUncounted( page, size, sortBy );
+		return Lists.newArrayList( Lists.transform( principalsPaginated, new PrincipalToUserFunction() ) );
+	}
+	
+	// count
+	
+	@Override
+	public long countApproximately(){
+		return principalService.countApproximately();
+	}
+	
+	// search
+	
+	@Override
+	public List< User > search( final ImmutablePair< String, ? >... constraints ){
+		return Lists.newArrayList( Lists.transform( principalService.search( constraints ), new PrincipalToUserFunction() ) );
+	}
+	
+	@Override
+	public List< User > search( final String queryString ){
+		return Lists.newArrayList( Lists.transform( principalService.search( queryString ), new PrincipalToUserFunction() ) );
+	}
+	
+	@Override
+	public Page< User > searchPaginated( final String queryString, final int page, final int size, final String sortBy ){
+		final Page< Principal > principalsPaginated = principalService.searchPaginated( queryString, page, size, sortBy );
+		final List< User > usersPaginated = Lists.newArrayList( Lists.transform( principalsPaginated.getContent(), new PrincipalToUserFunction() ) );
 		
 		Sort sortInfo = null;
 		if( sortBy != null ){
@@ -76,19 +132,49 @@ public class UserServiceImpl implements IUserService{
 		final Principal newPrincipalEntity = new Principal( entity.getName(), entity.getPassword(), entity.getRoles() );
 		principalService.create( newPrincipalEntity );
 		entity.setId( newPrincipalEntity.getId() );
+		entity.setVersion( newPrincipalEntity.getVersion() );
 		return entity;
 	}
 	
+	@Override
+	public List< User > createInBulk( final List< User > entities ){
+		final List< Principal > newPrincipalEntities = Lists.newArrayListWithCapacity( entities.size() );
+		for( final User entity : entities ){
+			newPrincipalEntities.add( new Principal( entity.getName(), entity.getPassword(), entity.getRoles() ) );
+		}
+		principalService.createInBulk( newPrincipalEntities );
+		
+		for( int i = 0; i < entities.size(); i++ ){
+			entities.get( i ).setId( newPrincipalEntities.get( i ).getId() );
+			entities.get( i ).setVersion( newPrincipalEntities.get( i ).getVersion() );
+		}
+		return entities;
+	}
+	
 	// update
 	
 	@Override
 	public void update( final User entity ){
-		final Principal principalToUpdate = RestPreconditions.checkNotNull( principalService.findOne( entity.getId() ) );
-		
-		principalToUpdate.setName( entity.getName() );
-		principalToUpdate.setRoles( entity.getRoles() );
-		
-		principalService.update( principalToUpdate );
+		if( updateIfExists( entity ) == 0 ){
+			throw new ResourceNotFoundException();
+		}
+	}
+	
+	/**
+	 * - note: the name and the roles are replaced, with the version the client saw; the password is not part of the update - see {@link org.rest.sec.persistence.service.impl.PrincipalServiceImpl}
+	 */
+	@Override
+	public int updateIfExists( final User entity ){
+		return principalService.updateIfExists( principalOf( entity ) );
+	}
+	
+	@Override
+	public int[] updateInBulk( final List< User > entities ){
+		final List< Principal > principals = Lists.newArrayListWithCapacity( entities.size() );
+		for( final User entity : entities ){
+			principals.add( principalOf( entity ) );
+		}
+		return principalService.updateInBulk( principals );
 	}
 	
 	// delete
@@ -98,9 +184,33 @@ public class UserServiceImpl implements IUserService{
 		principalService.delete( id );
 	}
 	
+	@Override
+	public boolean deleteIfExists( final long id ){
+		return principalService.deleteIfExists( id );
+	}
+	
+	@Override
+	public boolean deleteIfExists( final long id, final Long version ){
+		return principalService.deleteIfExists( id, version );
+	}
+	
+	@Override
+	public boolean[] deleteInBulk( final List< Long > ids ){
+		return principalService.deleteInBulk( ids );
+	}
+	
 	@Override
 	public void deleteAll(){
 		principalService.deleteAll();
 	}
 	
+	//
+	
+	private static Principal principalOf( final User entity ){
+		final Principal principal = new Principal( entity.getName(), null, entity.getRoles() );
+		principal.setId( entity.getId() );
+		principal.setVersion( entity.getVersion() );
+		return principal;
+	}
+	
 }
@@ -65,6 +65,7 @@ public class SecuritySetup implements ApplicationListener< ContextRefreshedEvent
 	private void createPrivileges(){
 		createPrivilegeIfNotExisting( SecurityConstants.CAN_USER_WRITE );
 		createPrivilegeIfNotExisting( SecurityConstants.CAN_ROLE_WRITE );
+		createPrivilegeIfNotExisting( SecurityConstants.CAN_AUTHORIZATION_DECIDE );
 	}
 	final void createPrivilegeIfNotExisting( final String name ){
 		final Privilege entityByName = privilegeService.findByName( name );
@@ -79,8 +80,9 @@ public class SecuritySetup implements ApplicationListener< ContextRefreshedEvent
 	private void createRoles(){
 		final Privilege privilegeUserWrite = privilegeService.findByName( SecurityConstants.CAN_USER_WRITE );
 		final Privilege privilegeRoleWrite = privilegeService.findByName( SecurityConstants.CAN_ROLE_WRITE );
+		final Privilege privilegeAuthorizationDecide = privilegeService.findByName( SecurityConstants.CAN_AUTHORIZATION_DECIDE );
 		
-		createRoleIfNotExisting( SecurityConstants.ROLE_ADMIN, Sets.<Privilege> newHashSet( privilegeUserWrite, privilegeRoleWrite ) );
+		createRoleIfNotExisting( SecurityConstants.ROLE_ADMIN, Sets.<Privilege> newHashSet( privilegeUserWrite, privilegeRoleWrite, privilegeAuthorizationDecide ) );
 	}
 	final void createRoleIfNotExisting( final String name, final Set< Privilege > privileges ){
 		final Role entityByName = roleService.findByName( name );
@@ -89,6 +91,11 @@ public class SecuritySetup implements ApplicationListener< ContextRefreshedEvent
 			entity.setPrivileges( privileges );
 			roleService.create( entity );
 		}
+		else if( !entityByName.getPrivileges().containsAll( privileges ) ){
+			// - note: a privilege introduced after the role was created is granted to it as well
+			entityByName.getPrivileges().addAll( privileges );
+			roleService.update( entityByName );
+		}
 	}
 	
 	// Principal/User
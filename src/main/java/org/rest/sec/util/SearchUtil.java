@@ -1,10 +1,14 @@
 package org.rest.sec.util;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.rest.client.template.impl.ClientOperations;
+import org.rest.persistence.search.QueryNode;
+import org.rest.persistence.search.QueryOperator;
+import org.rest.persistence.search.QueryParser;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
@@ -24,23 +28,37 @@ public final class SearchUtil{
 	
 	//
 	
+	/**
+	 * The simple form of the query language - a conjunction of (possibly negated) equality constraints on <code>id</code> and <code>name</code> <br>
+	 * - note: the key of a negated constraint is prefixed with {@link #NEGATION}; richer queries are parsed with {@link QueryParser} directly
+	 */
 	public static List< ImmutablePair< String, ? >> parseQueryString( final String queryString ){
 		Preconditions.checkNotNull( queryString );
-		Preconditions.checkState( queryString.matches( "(id~?=[0-9]+)?,?(name~?=[0-9a-zA-Z]+)?" ) );
+		final QueryNode query = QueryParser.parse( queryString );
+		final List< QueryNode > constraints = ( query instanceof QueryNode.And ) ? ( (QueryNode.And) query ).getChildren() : Collections.singletonList( query );
 		
 		final List< ImmutablePair< String, ? >> tuplesList = Lists.newArrayList();
-		final String[] tuples = queryString.split( SEPARATOR );
-		for( final String tuple : tuples ){
-			final String[] keyAndValue = tuple.split( NEGATION + "?" + OP );
-			Preconditions.checkState( keyAndValue.length == 2 );
-			tuplesList.add( constructTuple( keyAndValue[0], keyAndValue[1] ) );
+		for( final QueryNode node : constraints ){
+			Preconditions.checkState( node instanceof QueryNode.Constraint );
+			final QueryNode.Constraint constraint = (QueryNode.Constraint) node;
+			Preconditions.checkState( constraint.getOperator() == QueryOperator.EQ || constraint.getOperator() == QueryOperator.NOT_EQ );
+			Preconditions.checkState( constraint.getPath().size() == 1 );
+			final String key = constraint.getPath().get( 0 );
+			Preconditions.checkState( key.equals( ID ) || key.equals( NAME ) );
+			
+			tuplesList.add( constructTuple( constraint.getOperator().isNegated() ? NEGATION + key : key, constraint.getValue() ) );
 		}
 		
 		return tuplesList;
 	}
 	private static ImmutablePair< String, ? > constructTuple( final String key, final String value ){
 		if( key.endsWith( ID ) ){
-			return new ImmutablePair< String, Long >( key, Long.parseLong( value ) );
+			try{
+				return new ImmutablePair< String, Long >( key, Long.parseLong( value ) );
+			}
+			catch( final NumberFormatException ex ){
+				throw new IllegalStateException( "Invalid id: " + value, ex );
+			}
 		}
 		return new ImmutablePair< String, String >( key, value );
 	}
@@ -2,9 +2,16 @@ package org.rest.sec.web.controller;
 
 import java.util.Collection;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.rest.common.util.HttpConstants;
 import org.rest.sec.dto.User;
 import org.rest.sec.model.Privilege;
 import org.rest.sec.model.Role;
+import org.rest.security.PrincipalUserDetails;
+import org.rest.security.token.AuthenticationTokenService;
+import org.rest.security.token.BearerTokenAuthentication;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -25,6 +32,8 @@ import com.google.common.collect.Sets;
 @Controller
 public class AuthenticationController{
 	
+	@Autowired AuthenticationTokenService authenticationTokenService;
+	
 	public AuthenticationController(){
 		super();
 	}
@@ -34,8 +43,12 @@ public class AuthenticationController{
 	@RequestMapping( method = RequestMethod.POST,value = "/authentication" )
 	@ResponseStatus( HttpStatus.CREATED )
 	@ResponseBody
-	public User createAuthentication(){
+	public User createAuthentication( final HttpServletResponse response ){
 		final Authentication authenticationInSpring = SecurityContextHolder.getContext().getAuthentication();
+		if( authenticationInSpring.getPrincipal() instanceof PrincipalUserDetails ){
+			final String token = authenticationTokenService.issue( (PrincipalUserDetails) authenticationInSpring.getPrincipal() );
+			response.setHeader( HttpConstants.AUTH_TOKEN_HEADER, token );
+		}
 		
 		final Function< GrantedAuthority, Privilege > springAuthorityToPrivilegeFunction = new Function< GrantedAuthority, Privilege >(){
 			@Override
@@ -50,4 +63,16 @@ public class AuthenticationController{
 		return authenticationResource;
 	}
 	
+	/**
+	 * Revokes the bearer token the request was authenticated with, if any
+	 */
+	@RequestMapping( method = RequestMethod.DELETE,value = "/authentication" )
+	@ResponseStatus( HttpStatus.NO_CONTENT )
+	public void deleteAuthentication(){
+		final Authentication authenticationInSpring = SecurityContextHolder.getContext().getAuthentication();
+		if( authenticationInSpring instanceof BearerTokenAuthentication ){
+			authenticationTokenService.revoke( ( (BearerTokenAuthentication) authenticationInSpring ).getToken() );
+		}
+	}
+	
 }
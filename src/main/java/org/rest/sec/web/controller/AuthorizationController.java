@@ -0,0 +1,119 @@
+package org.rest.sec.web.controller;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.rest.common.exceptions.BadRequestException;
+import org.rest.common.web.RestPreconditions;
+import org.rest.sec.dto.AuthorizationQuery;
+import org.rest.sec.util.SecurityConstants;
+import org.rest.security.MyUserDetailsService;
+import org.rest.security.PrincipalUserDetails;
+import org.rest.security.PrivilegeBitSet;
+import org.rest.security.PrivilegeOrdinals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+
+/**
+ * Answers batches of authorization questions - "does principal X hold privilege Y" - in a single round-trip <br>
+ * - the answers come from the same resolved (and cached) authority data as authentication itself <br>
+ * - note: the answers disclose the privileges of any principal, so asking requires a privilege of its own
+ */
+@Controller
+public class AuthorizationController{
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	
+	@Autowired MyUserDetailsService userDetailsService;
+	
+	@Autowired PrivilegeOrdinals privilegeOrdinals;
+	
+	@Value( "${authorization.maxBatchSize:1000}" ) int maxBatchSize;
+	
+	public AuthorizationController(){
+		super();
+	}
+	
+	// API
+	
+	/**
+	 * The answer is streamed as a JSON array with one string per query, in the order of the queries; each string has one character per privilege asked, in order: <code>1</code> if held, <code>0</code> if not <br>
+	 * - note: an unknown principal holds no privileges; e.g. <code>["1", "10", "000"]</code> <br>
+	 * - note: the whole batch is validated before anything is written - a missing query, or more than <code>authorization.maxBatchSize</code> queries, is a <code>400 Bad Request</code>, never a response cut short mid-array
+	 */
+	@RequestMapping( method = RequestMethod.POST,value = "/authorization" )
+	@Secured( SecurityConstants.CAN_AUTHORIZATION_DECIDE )
+	public void decide( @RequestBody final AuthorizationQuery[] queries, final HttpServletResponse response ) throws IOException{
+		RestPreconditions.checkRequestElementNotNull( queries );
+		checkBatch( queries );
+		
+		response.setContentType( MediaType.APPLICATION_JSON.toString() );
+		final Map< String, PrivilegeBitSet > privilegesByPrincipal = Maps.newHashMap();
+		final StringBuilder answer = new StringBuilder();
+		
+		final JsonGenerator generator = JSON_FACTORY.createJsonGenerator( response.getOutputStream(), JsonEncoding.UTF8 );
+		generator.writeStartArray();
+		for( final AuthorizationQuery query : queries ){
+			final PrivilegeBitSet granted = privilegesOf( query.getPrincipal(), privilegesByPrincipal );
+			
+			answer.setLength( 0 );
+			for( final String privilege : query.privilegesAsked() ){
+				final boolean held = privilege != null && granted.contains( privilegeOrdinals.existingOrdinalOf( privilege ) );
+				answer.append( held ? '1' : '0' );
+			}
+			generator.writeString( answer.toString() );
+		}
+		generator.writeEndArray();
+		generator.close();
+	}
+	
+	//
+	
+	private void checkBatch( final AuthorizationQuery[] queries ){
+		if( queries.length > maxBatchSize ){
+			throw new BadRequestException( "At most " + maxBatchSize + " queries can be asked at once, but " + queries.length + " were" );
+		}
+		for( int i = 0; i < queries.length; i++ ){
+			if( queries[i] == null ){
+				throw new BadRequestException( "Query " + i + " is missing" );
+			}
+		}
+	}
+	
+	/**
+	 * - note: each principal is resolved once per batch, however many queries mention it
+	 */
+	private PrivilegeBitSet privilegesOf( final String principal, final Map< String, PrivilegeBitSet > privilegesByPrincipal ){
+		if( principal == null ){
+			return PrivilegeBitSet.EMPTY;
+		}
+		
+		PrivilegeBitSet privileges = privilegesByPrincipal.get( principal );
+		if( privileges == null ){
+			try{
+				final PrincipalUserDetails userDetails = (PrincipalUserDetails) userDetailsService.loadUserByUsername( principal );
+				privileges = Objects.firstNonNull( userDetails.getPrivileges(), PrivilegeBitSet.EMPTY );
+			}
+			catch( final UsernameNotFoundException ex ){
+				privileges = PrivilegeBitSet.EMPTY;
+			}
+			privilegesByPrincipal.put( principal, privileges );
+		}
+		return privileges;
+	}
+	
+}
@@ -1,7 +1,10 @@
 package org.rest.sec.web.controller;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.rest.common.exceptions.ConflictException;
@@ -9,6 +12,7 @@ import org.rest.common.web.RestPreconditions;
 import org.rest.sec.model.Privilege;
 import org.rest.sec.persistence.service.IPrivilegeService;
 import org.rest.web.common.AbstractController;
+import org.rest.web.common.BulkItemResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.http.HttpStatus;
@@ -34,26 +38,45 @@ public class PrivilegeController extends AbstractController< Privilege >{
 	
 	// API
 	
+	// search
+	
+	@RequestMapping( params = { "q" },method = RequestMethod.GET )
+	@ResponseBody
+	public List< Privilege > search( @RequestParam( "q" ) final String queryString, @RequestParam( value = "page",defaultValue = "0" ) final int page, @RequestParam( value = "size",defaultValue = DEFAULT_SEARCH_PAGE_SIZE ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
+		return searchInternal( queryString, page, size, sortBy, uriBuilder, response );
+	}
+	
 	// find - all/paginated
 	
-	@RequestMapping( params = { "page", "size"/*, "sortBy"*/},method = RequestMethod.GET )
+	@RequestMapping( params = { "page", "size", "!q"/*, "sortBy"*/},method = RequestMethod.GET )
+	@ResponseBody
+	public List< Privilege > findPaginated( @RequestParam( "page" ) final int page, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, @RequestParam( value = "count",required = false ) final Boolean count, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findPaginatedInternal( page, size, sortBy, count, uriBuilder, request, response );
+	}
+	
+	@RequestMapping( params = { "after", "size" },method = RequestMethod.GET )
 	@ResponseBody
-	public List< Privilege > findPaginated( @RequestParam( "page" ) final int page, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
-		return findPaginatedInternal( page, size, sortBy, uriBuilder, response );
+	public List< Privilege > findPaginatedAfter( @RequestParam( "after" ) final String after, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findPaginatedAfterInternal( after, size, sortBy, uriBuilder, request, response );
 	}
 	
 	@RequestMapping( method = RequestMethod.GET )
 	@ResponseBody
-	public List< Privilege > findAll(){
-		return findAllInternal();
+	public List< Privilege > findAll( final HttpServletRequest request, final HttpServletResponse response ){
+		return findAllInternal( request, response );
+	}
+	
+	@RequestMapping( params = "stream",method = RequestMethod.GET )
+	public void findAllStreaming( final HttpServletRequest request, final HttpServletResponse response ) throws IOException{
+		streamAllInternal( request, response );
 	}
 	
 	// find - one
 	
 	@RequestMapping( value = "/{id}",method = RequestMethod.GET )
 	@ResponseBody
-	public Privilege findOne( @PathVariable( "id" ) final Long id, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
-		return findOneInternal( id, uriBuilder, response );
+	public Privilege findOne( @PathVariable( "id" ) final Long id, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findOneInternal( id, uriBuilder, request, response );
 	}
 	
 	@RequestMapping( params = "name",method = RequestMethod.GET )
@@ -84,16 +107,36 @@ public class PrivilegeController extends AbstractController< Privilege >{
 	
 	@RequestMapping( method = RequestMethod.PUT )
 	@ResponseStatus( HttpStatus.OK )
-	public void update( @RequestBody final Privilege resource ){
-		updateInternal( resource );
+	public void update( @RequestBody final Privilege resource, final HttpServletRequest request ){
+		updateInternal( resource, request );
 	}
 	
 	// delete
 	
 	@RequestMapping( value = "/{id}",method = RequestMethod.DELETE )
 	@ResponseStatus( HttpStatus.NO_CONTENT )
-	public void delete( @PathVariable( "id" ) final Long id ){
-		deleteByIdInternal( id );
+	public void delete( @PathVariable( "id" ) final Long id, final HttpServletRequest request ){
+		deleteByIdInternal( id, request );
+	}
+	
+	// bulk
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.POST,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	public List< BulkItemResult > createInBulk( @RequestBody final Privilege[] resources ){
+		return createInBulkInternal( Arrays.asList( resources ) );
+	}
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.PUT,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	public List< BulkItemResult > updateInBulk( @RequestBody final Privilege[] resources ){
+		return updateInBulkInternal( Arrays.asList( resources ) );
+	}
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.DELETE,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	public List< BulkItemResult > deleteInBulk( @RequestBody final Long[] ids ){
+		return deleteInBulkInternal( Arrays.asList( ids ) );
 	}
 	
 	// Spring
@@ -1,17 +1,20 @@
 package org.rest.sec.web.controller;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.rest.common.exceptions.ConflictException;
 import org.rest.common.web.RestPreconditions;
+import org.rest.sec.model.Privilege;
 import org.rest.sec.model.Role;
 import org.rest.sec.persistence.service.IRoleService;
-import org.rest.sec.util.SearchUtil;
 import org.rest.sec.util.SecurityConstants;
 import org.rest.web.common.AbstractController;
+import org.rest.web.common.BulkItemResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.http.HttpStatus;
@@ -40,37 +43,43 @@ public class RoleController extends AbstractController< Role >{
 	
 	// search
 	
-	@SuppressWarnings( "unchecked" )
 	@RequestMapping( params = { "q" },method = RequestMethod.GET )
 	@ResponseBody
-	public List< Role > search( @RequestParam( "q" ) final String queryString ){
-		final List< ImmutablePair< String, ? >> parsedQuery = SearchUtil.parseQueryString( queryString );
-		
-		final List< Role > results = getService().search( parsedQuery.toArray( new ImmutablePair[parsedQuery.size()] ) );
-		
-		return results;
+	public List< Role > search( @RequestParam( "q" ) final String queryString, @RequestParam( value = "page",defaultValue = "0" ) final int page, @RequestParam( value = "size",defaultValue = DEFAULT_SEARCH_PAGE_SIZE ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
+		return searchInternal( queryString, page, size, sortBy, uriBuilder, response );
 	}
 
 	// find - all/paginated
 	
-	@RequestMapping( params = { "page", "size" },method = RequestMethod.GET )
+	@RequestMapping( params = { "page", "size", "!q" },method = RequestMethod.GET )
+	@ResponseBody
+	public List< Role > findPaginated( @RequestParam( "page" ) final int page, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, @RequestParam( value = "count",required = false ) final Boolean count, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findPaginatedInternal( page, size, sortBy, count, uriBuilder, request, response );
+	}
+	
+	@RequestMapping( params = { "after", "size" },method = RequestMethod.GET )
 	@ResponseBody
-	public List< Role > findPaginated( @RequestParam( "page" ) final int page, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
-		return findPaginatedInternal( page, size, sortBy, uriBuilder, response );
+	public List< Role > findPaginatedAfter( @RequestParam( "after" ) final String after, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findPaginatedAfterInternal( after, size, sortBy, uriBuilder, request, response );
 	}
 	
 	@RequestMapping( method = RequestMethod.GET )
 	@ResponseBody
-	public List< Role > findAll(){
-		return findAllInternal();
+	public List< Role > findAll( final HttpServletRequest request, final HttpServletResponse response ){
+		return findAllInternal( request, response );
+	}
+	
+	@RequestMapping( params = "stream",method = RequestMethod.GET )
+	public void findAllStreaming( final HttpServletRequest request, final HttpServletResponse response ) throws IOException{
+		streamAllInternal( request, response );
 	}
 	
 	// find - one
 	
 	@RequestMapping( value = "/{id}",method = RequestMethod.GET )
 	@ResponseBody
-	public Role findOne( @PathVariable( "id" ) final Long id, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
-		return findOneInternal( id, uriBuilder, response );
+	public Role findOne( @PathVariable( "id" ) final Long id, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findOneInternal( id, uriBuilder, request, response );
 	}
 	
 	@RequestMapping( params = "name",method = RequestMethod.GET )
@@ -103,8 +112,8 @@ public class RoleController extends AbstractController< Role >{
 	@RequestMapping( method = RequestMethod.PUT )
 	@ResponseStatus( HttpStatus.OK )
 	@Secured( SecurityConstants.CAN_ROLE_WRITE )
-	public void update( @RequestBody final Role resource ){
-		updateInternal( resource );
+	public void update( @RequestBody final Role resource, final HttpServletRequest request ){
+		updateInternal( resource, request );
 	}
 	
 	// delete
@@ -112,8 +121,31 @@ public class RoleController extends AbstractController< Role >{
 	@RequestMapping( value = "/{id}",method = RequestMethod.DELETE )
 	@ResponseStatus( HttpStatus.NO_CONTENT )
 	@Secured( SecurityConstants.CAN_ROLE_WRITE )
-	public void delete( @PathVariable( "id" ) final Long id ){
-		deleteByIdInternal( id );
+	public void delete( @PathVariable( "id" ) final Long id, final HttpServletRequest request ){
+		deleteByIdInternal( id, request );
+	}
+	
+	// bulk
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.POST,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	@Secured( SecurityConstants.CAN_ROLE_WRITE )
+	public List< BulkItemResult > createInBulk( @RequestBody final Role[] resources ){
+		return createInBulkInternal( Arrays.asList( resources ) );
+	}
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.PUT,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	@Secured( SecurityConstants.CAN_ROLE_WRITE )
+	public List< BulkItemResult > updateInBulk( @RequestBody final Role[] resources ){
+		return updateInBulkInternal( Arrays.asList( resources ) );
+	}
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.DELETE,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	@Secured( SecurityConstants.CAN_ROLE_WRITE )
+	public List< BulkItemResult > deleteInBulk( @RequestBody final Long[] ids ){
+		return deleteInBulkInternal( Arrays.asList( ids ) );
 	}
 	
 	// Spring
@@ -123,4 +155,9 @@ public class RoleController extends AbstractController< Role >{
 		return service;
 	}
 	
+	@Override
+	protected final Class< ? >[] nestedEntities(){
+		return new Class< ? >[] { Privilege.class };
+	}
+	
 }
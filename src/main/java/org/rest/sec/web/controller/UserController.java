@@ -1,15 +1,22 @@
 package org.rest.sec.web.controller;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.rest.common.exceptions.ConflictException;
 import org.rest.common.web.RestPreconditions;
 import org.rest.sec.dto.User;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
 import org.rest.sec.persistence.service.dto.IUserService;
 import org.rest.sec.util.SecurityConstants;
 import org.rest.web.common.AbstractController;
+import org.rest.web.common.BulkItemResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.http.HttpStatus;
@@ -36,12 +43,26 @@ public class UserController extends AbstractController< User >{
 	
 	// API
 	
+	// search
+	
+	@RequestMapping( params = { "q" },method = RequestMethod.GET )
+	@ResponseBody
+	public List< User > search( @RequestParam( "q" ) final String queryString, @RequestParam( value = "page",defaultValue = "0" ) final int page, @RequestParam( value = "size",defaultValue = DEFAULT_SEARCH_PAGE_SIZE ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
+		return searchInternal( queryString, page, size, sortBy, uriBuilder, response );
+	}
+	
 	// find - all/paginated
 	
-	@RequestMapping( params = { "page", "size" },method = RequestMethod.GET )
+	@RequestMapping( params = { "page", "size", "!q" },method = RequestMethod.GET )
 	@ResponseBody
-	public List< User > findPaginated( @RequestParam( "page" ) final int page, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
-		return findPaginatedInternal( page, size, sortBy, uriBuilder, response );
+	public List< User > findPaginated( @RequestParam( "page" ) final int page, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, @RequestParam( value = "count",required = false ) final Boolean count, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findPaginatedInternal( page, size, sortBy, count, uriBuilder, request, response );
+	}
+	
+	@RequestMapping( params = { "after", "size" },method = RequestMethod.GET )
+	@ResponseBody
+	public List< User > findPaginatedAfter( @RequestParam( "after" ) final String after, @RequestParam( "size" ) final int size, @RequestParam( value = "sortBy",required = false ) final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findPaginatedAfterInternal( after, size, sortBy, uriBuilder, request, response );
 	}
 	
 	@RequestMapping( method = RequestMethod.GET )
@@ -50,12 +71,17 @@ public class UserController extends AbstractController< User >{
 		findAllRedirectToPagination( uriBuilder, response );
 	}
 	
+	@RequestMapping( params = "stream",method = RequestMethod.GET )
+	public void findAllStreaming( final HttpServletRequest request, final HttpServletResponse response ) throws IOException{
+		streamAllInternal( request, response );
+	}
+	
 	// find - one
 	
 	@RequestMapping( value = "/{id}",method = RequestMethod.GET )
 	@ResponseBody
-	public User findOne( @PathVariable( "id" ) final Long id, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
-		return findOneInternal( id, uriBuilder, response );
+	public User findOne( @PathVariable( "id" ) final Long id, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		return findOneInternal( id, uriBuilder, request, response );
 	}
 	
 	@RequestMapping( params = "name",method = RequestMethod.GET )
@@ -88,8 +114,8 @@ public class UserController extends AbstractController< User >{
 	@RequestMapping( method = RequestMethod.PUT )
 	@ResponseStatus( HttpStatus.OK )
 	@Secured( SecurityConstants.CAN_USER_WRITE )
-	public void update( @RequestBody final User resource ){
-		updateInternal( resource );
+	public void update( @RequestBody final User resource, final HttpServletRequest request ){
+		updateInternal( resource, request );
 	}
 	
 	// delete
@@ -97,8 +123,31 @@ public class UserController extends AbstractController< User >{
 	@RequestMapping( value = "/{id}",method = RequestMethod.DELETE )
 	@ResponseStatus( HttpStatus.NO_CONTENT )
 	@Secured( SecurityConstants.CAN_USER_WRITE )
-	public void delete( @PathVariable( "id" ) final Long id ){
-		deleteByIdInternal( id );
+	public void delete( @PathVariable( "id" ) final Long id, final HttpServletRequest request ){
+		deleteByIdInternal( id, request );
+	}
+	
+	// bulk
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.POST,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	// @Secured( SecurityConstants.PRIVILEGE_USER_WRITE )
+	public List< BulkItemResult > createInBulk( @RequestBody final User[] resources ){
+		return createInBulkInternal( Arrays.asList( resources ) );
+	}
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.PUT,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	@Secured( SecurityConstants.CAN_USER_WRITE )
+	public List< BulkItemResult > updateInBulk( @RequestBody final User[] resources ){
+		return updateInBulkInternal( Arrays.asList( resources ) );
+	}
+	
+	@RequestMapping( value = "/bulk",method = RequestMethod.DELETE,produces = { "application/xml", "application/json" } )
+	@ResponseBody
+	@Secured( SecurityConstants.CAN_USER_WRITE )
+	public List< BulkItemResult > deleteInBulk( @RequestBody final Long[] ids ){
+		return deleteInBulkInternal( Arrays.asList( ids ) );
 	}
 	
 	// Spring
@@ -108,4 +157,22 @@ public class UserController extends AbstractController< User >{
 		return service;
 	}
 	
+	/**
+	 * - note: the principal table is the one that grows, so uncounted pages still get a last link, from the approximate count
+	 */
+	@Override
+	protected final boolean approximateCountEnabled(){
+		return true;
+	}
+	
+	@Override
+	protected final Class< ? > entityClass(){
+		return Principal.class;
+	}
+	
+	@Override
+	protected final Class< ? >[] nestedEntities(){
+		return new Class< ? >[] { Role.class, Privilege.class };
+	}
+	
 }
@@ -2,27 +2,21 @@ package org.rest.security;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.rest.sec.model.Principal;
-import org.rest.sec.model.Privilege;
-import org.rest.sec.model.Role;
+import org.rest.sec.persistence.service.EffectivePrivilegeStore;
+import org.rest.sec.persistence.service.EffectivePrivileges;
 import org.rest.sec.persistence.service.IPrincipalService;
-import org.rest.sec.persistence.service.IRoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
-import com.google.common.base.Function;
-import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Collections2;
-import com.google.common.collect.Sets;
 
 /**
  * Database user authentication service.
@@ -32,7 +26,11 @@ public final class MyUserDetailsService implements UserDetailsService{
 	
 	@Autowired IPrincipalService principalService;
 	
-	@Autowired IRoleService roleService;
+	@Autowired UserDetailsCache userDetailsCache;
+	
+	@Autowired EffectivePrivilegeStore effectivePrivilegeStore;
+	
+	@Autowired PrivilegeOrdinals privilegeOrdinals;
 	
 	public MyUserDetailsService(){
 		super();
@@ -41,28 +39,45 @@ public final class MyUserDetailsService implements UserDetailsService{
 	// API - public
 	
 	/**
-	 * Loads the user from the datastore, by it's user name <br>
+	 * Loads the user by it's user name - from the cache, or from the datastore on a cache miss <br>
 	 */
 	@Override
 	public final UserDetails loadUserByUsername( final String username ){
 		Preconditions.checkNotNull( username );
 		
-		final Principal principal = principalService.findByName( username );
+		return userDetailsCache.get( username, new Callable< PrincipalUserDetails >(){
+			@Override
+			public final PrincipalUserDetails call(){
+				return loadUserByUsernameFromDatastore( username );
+			}
+		} );
+	}
+	
+	//
+	
+	/**
+	 * - note: the principal itself is a single row lookup; its privileges are a keyed lookup in the {@link EffectivePrivilegeStore} - the roles and privileges are only joined in when they are not materialized yet
+	 */
+	final PrincipalUserDetails loadUserByUsernameFromDatastore( final String username ){
+		final Principal principal = principalService.findByNameWithoutRoles( username );
 		if( principal == null ){
 			throw new UsernameNotFoundException( "Username was not found: " + username );
 		}
 		
-		final Set< Role > rolesOfUser = principal.getRoles();
-		final Set< Privilege > privileges = Sets.newHashSet();
-		for( final Role roleOfUser : rolesOfUser ){
-			privileges.addAll( roleOfUser.getPrivileges() );
+		EffectivePrivileges effectivePrivileges = effectivePrivilegeStore.find( principal.getId() );
+		if( effectivePrivileges == null ){
+			final long generation = effectivePrivilegeStore.generation();
+			final Principal principalWithAuthorities = principalService.findByName( username );
+			if( principalWithAuthorities == null ){
+				throw new UsernameNotFoundException( "Username was not found: " + username );
+			}
+			effectivePrivileges = effectivePrivilegeStore.materialize( principalWithAuthorities, generation );
 		}
-		final Function< Object, String > toStringFunction = Functions.toStringFunction();
-		final Collection< String > rolesToString = Collections2.transform( privileges, toStringFunction );
-		final String[] roleStringsAsArray = rolesToString.toArray( new String[rolesToString.size()] );
-		final List< GrantedAuthority > auths = AuthorityUtils.createAuthorityList( roleStringsAsArray );
 		
-		return new User( principal.getName(), principal.getPassword(), auths );
+		final Collection< String > privilegeNames = effectivePrivileges.getPrivilegeNames();
+		final List< GrantedAuthority > auths = AuthorityUtils.createAuthorityList( privilegeNames.toArray( new String[privilegeNames.size()] ) );
+		
+		return new PrincipalUserDetails( principal.getId(), principal.getName(), principal.getPassword(), auths, effectivePrivileges.getRoleIds(), effectivePrivileges.getPrivilegeIds(), privilegeOrdinals.bitSetOf( privilegeNames ) );
 	}
 	
 }
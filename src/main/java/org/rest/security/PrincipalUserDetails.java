@@ -0,0 +1,59 @@
+package org.rest.security;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Fully resolved {@link User} which also remembers which Principal, Roles and Privileges it was built from <br>
+ * - note: these ids are what allows the {@link UserDetailsCache} to invalidate precisely when any of them change <br>
+ * - the granted privileges are also held as a {@link PrivilegeBitSet}, which is what the {@link PrivilegeBitSetVoter} checks
+ */
+public final class PrincipalUserDetails extends User{
+	private final long principalId;
+	private final Set< Long > roleIds;
+	private final Set< Long > privilegeIds;
+	private final PrivilegeBitSet privileges;
+	
+	public PrincipalUserDetails( final long principalIdToSet, final String username, final String password, final Collection< ? extends GrantedAuthority > authorities, final Set< Long > roleIdsToSet, final Set< Long > privilegeIdsToSet ){
+		this( principalIdToSet, username, password, authorities, roleIdsToSet, privilegeIdsToSet, null );
+	}
+	public PrincipalUserDetails( final long principalIdToSet, final String username, final String password, final Collection< ? extends GrantedAuthority > authorities, final Set< Long > roleIdsToSet, final Set< Long > privilegeIdsToSet, final PrivilegeBitSet privilegesToSet ){
+		super( username, password, authorities );
+		
+		Preconditions.checkNotNull( roleIdsToSet );
+		Preconditions.checkNotNull( privilegeIdsToSet );
+		
+		principalId = principalIdToSet;
+		roleIds = ImmutableSet.copyOf( roleIdsToSet );
+		privilegeIds = ImmutableSet.copyOf( privilegeIdsToSet );
+		privileges = privilegesToSet;
+	}
+	
+	// API
+	
+	public final long getPrincipalId(){
+		return principalId;
+	}
+	
+	public final boolean hasRole( final long roleId ){
+		return roleIds.contains( roleId );
+	}
+	
+	public final boolean hasPrivilege( final long privilegeId ){
+		return privilegeIds.contains( privilegeId );
+	}
+	
+	/**
+	 * @return the granted privileges as a bitset, or null if they were not encoded (the authorities are then the only source)
+	 */
+	public final PrivilegeBitSet getPrivileges(){
+		return privileges;
+	}
+	
+}
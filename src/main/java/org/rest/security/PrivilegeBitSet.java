@@ -0,0 +1,112 @@
+package org.rest.security;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Immutable set of granted privileges, one bit per privilege ordinal (see {@link PrivilegeOrdinals}) <br>
+ * - note: checking a privilege is a single array access, regardless of how many privileges are granted or exist
+ */
+public final class PrivilegeBitSet{
+	public static final PrivilegeBitSet EMPTY = new PrivilegeBitSet( new long[ 0 ] );
+	
+	private final long[] words;
+	
+	private PrivilegeBitSet( final long[] wordsToSet ){
+		super();
+		
+		words = wordsToSet;
+	}
+	
+	public static PrivilegeBitSet of( final int... ordinals ){
+		Preconditions.checkNotNull( ordinals );
+		
+		int maxOrdinal = -1;
+		for( final int ordinal : ordinals ){
+			Preconditions.checkArgument( ordinal >= 0, "Invalid privilege ordinal: %s", ordinal );
+			maxOrdinal = Math.max( maxOrdinal, ordinal );
+		}
+		if( maxOrdinal < 0 ){
+			return EMPTY;
+		}
+		
+		final long[] words = new long[ ( maxOrdinal >>> 6 ) + 1 ];
+		for( final int ordinal : ordinals ){
+			words[ordinal >>> 6] |= 1L << ordinal;
+		}
+		return new PrivilegeBitSet( words );
+	}
+	
+	public static PrivilegeBitSet fromLongArray( final long[] words ){
+		Preconditions.checkNotNull( words );
+		
+		return ( words.length == 0 ) ? EMPTY : new PrivilegeBitSet( words.clone() );
+	}
+	
+	// API
+	
+	/**
+	 * - note: a negative ordinal (an unknown privilege) is never contained
+	 */
+	public final boolean contains( final int ordinal ){
+		if( ordinal < 0 ){
+			return false;
+		}
+		final int wordIndex = ordinal >>> 6;
+		return wordIndex < words.length && ( words[wordIndex] & ( 1L << ordinal ) ) != 0;
+	}
+	
+	/**
+	 * @return the first ordinal contained in the set that is greater than or equal to the given one, or -1 if there is none
+	 */
+	public final int nextOrdinal( final int fromOrdinal ){
+		Preconditions.checkArgument( fromOrdinal >= 0 );
+		
+		int wordIndex = fromOrdinal >>> 6;
+		if( wordIndex >= words.length ){
+			return -1;
+		}
+		long word = words[wordIndex] & ( -1L << fromOrdinal );
+		while( true ){
+			if( word != 0 ){
+				return ( wordIndex << 6 ) + Long.numberOfTrailingZeros( word );
+			}
+			if( ++wordIndex == words.length ){
+				return -1;
+			}
+			word = words[wordIndex];
+		}
+	}
+	
+	public final long[] toLongArray(){
+		return words.clone();
+	}
+	
+	public final int size(){
+		int size = 0;
+		for( final long word : words ){
+			size += Long.bitCount( word );
+		}
+		return size;
+	}
+	
+	//
+	
+	@Override
+	public final int hashCode(){
+		return Arrays.hashCode( words );
+	}
+	
+	@Override
+	public final boolean equals( final Object obj ){
+		if( this == obj ){
+			return true;
+		}
+		if( !( obj instanceof PrivilegeBitSet ) ){
+			return false;
+		}
+		return Arrays.equals( words, ( (PrivilegeBitSet) obj ).words );
+	}
+	
+}
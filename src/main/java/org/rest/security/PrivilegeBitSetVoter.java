@@ -0,0 +1,130 @@
+package org.rest.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Votes on <code>@Secured</code> privileges - the same attributes as the default <code>RoleVoter</code> (prefixed with <code>ROLE_</code>) <br>
+ * - for a {@link PrincipalUserDetails}, the privilege is checked as a single bit of its {@link PrivilegeBitSet} <br>
+ * - for any other principal, falls back to comparing the names of the granted authorities <br>
+ * - note: the attributes of a secured method are the same collection instance on every call, so their ordinals are resolved once per collection (by identity) and reused
+ */
+@Component
+public class PrivilegeBitSetVoter implements AccessDecisionVoter< Object >{
+	static final String PRIVILEGE_PREFIX = "ROLE_";
+	
+	@Autowired PrivilegeOrdinals privilegeOrdinals;
+	
+	final ConcurrentMap< Collection< ConfigAttribute >, ResolvedPrivileges > resolved = new MapMaker().weakKeys().makeMap();
+	
+	public PrivilegeBitSetVoter(){
+		super();
+	}
+	
+	// API
+	
+	@Override
+	public final boolean supports( final ConfigAttribute attribute ){
+		return attribute.getAttribute() != null && attribute.getAttribute().startsWith( PRIVILEGE_PREFIX );
+	}
+	
+	@Override
+	public final boolean supports( final Class< ? > clazz ){
+		return true;
+	}
+	
+	@Override
+	public final int vote( final Authentication authentication, final Object object, final Collection< ConfigAttribute > attributes ){
+		if( authentication == null ){
+			return ACCESS_DENIED;
+		}
+		
+		final ResolvedPrivileges privileges = resolve( attributes );
+		if( privileges.names.length == 0 ){
+			return ACCESS_ABSTAIN;
+		}
+		
+		final Object principal = authentication.getPrincipal();
+		final PrivilegeBitSet granted = ( principal instanceof PrincipalUserDetails ) ? ( (PrincipalUserDetails) principal ).getPrivileges() : null;
+		if( granted != null ){
+			for( final int ordinal : privileges.ordinals ){
+				if( granted.contains( ordinal ) ){
+					return ACCESS_GRANTED;
+				}
+			}
+		}
+		else{
+			for( final String privilegeName : privileges.names ){
+				if( hasAuthority( authentication, privilegeName ) ){
+					return ACCESS_GRANTED;
+				}
+			}
+		}
+		
+		return ACCESS_DENIED;
+	}
+	
+	//
+	
+	/**
+	 * - note: a privilege that no principal was granted yet has no ordinal (-1); it may get one later, so such resolutions are not kept
+	 */
+	private ResolvedPrivileges resolve( final Collection< ConfigAttribute > attributes ){
+		final ResolvedPrivileges existing = resolved.get( attributes );
+		if( existing != null ){
+			return existing;
+		}
+		
+		final List< String > names = Lists.newArrayListWithCapacity( attributes.size() );
+		for( final ConfigAttribute attribute : attributes ){
+			if( supports( attribute ) ){
+				names.add( attribute.getAttribute() );
+			}
+		}
+		final ResolvedPrivileges privileges = new ResolvedPrivileges( names.toArray( new String[ names.size() ] ), new int[ names.size() ] );
+		boolean allKnown = true;
+		for( int i = 0; i < privileges.names.length; i++ ){
+			privileges.ordinals[i] = privilegeOrdinals.existingOrdinalOf( privileges.names[i] );
+			allKnown &= privileges.ordinals[i] >= 0;
+		}
+		
+		if( allKnown ){
+			resolved.put( attributes, privileges );
+		}
+		return privileges;
+	}
+	
+
+	private static boolean hasAuthority( final Authentication authentication, final String privilegeName ){
+		for( final GrantedAuthority authority : authentication.getAuthorities() ){
+			if( privilegeName.equals( authority.getAuthority() ) ){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	static final class ResolvedPrivileges{
+		final String[] names;
+		final int[] ordinals;
+		
+		ResolvedPrivileges( final String[] namesToSet, final int[] ordinalsToSet ){
+			super();
+			
+			names = namesToSet;
+			ordinals = ordinalsToSet;
+		}
+	}
+	
+}
@@ -0,0 +1,98 @@
+package org.rest.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Assigns each privilege (by name) a dense ordinal - 0, 1, 2... in the order in which privileges are first seen <br>
+ * - note: ordinals are never reassigned, so a {@link PrivilegeBitSet} stays valid for as long as the application runs; they are not persisted
+ */
+@Component
+@ManagedResource( objectName = "org.rest:name=privilegeOrdinals",description = "Dense ordinals of the privileges" )
+public class PrivilegeOrdinals{
+	
+	private final ConcurrentMap< String, Integer > ordinals = Maps.newConcurrentMap();
+	private final List< GrantedAuthority > authorities = new CopyOnWriteArrayList< GrantedAuthority >();
+	
+	public PrivilegeOrdinals(){
+		super();
+	}
+	
+	// API
+	
+	/**
+	 * @return the ordinal of the privilege - assigned now if the privilege has not been seen before
+	 */
+	public final int ordinalOf( final String privilegeName ){
+		Preconditions.checkNotNull( privilegeName );
+		
+		final Integer existing = ordinals.get( privilegeName );
+		if( existing != null ){
+			return existing;
+		}
+		synchronized( ordinals ){
+			final Integer existingNow = ordinals.get( privilegeName );
+			if( existingNow != null ){
+				return existingNow;
+			}
+			final int ordinal = ordinals.size();
+			authorities.add( new SimpleGrantedAuthority( privilegeName ) );
+			ordinals.put( privilegeName, ordinal );
+			return ordinal;
+		}
+	}
+	
+	/**
+	 * @return the ordinal of the privilege, or -1 if no principal was ever granted it
+	 */
+	public final int existingOrdinalOf( final String privilegeName ){
+		final Integer existing = ordinals.get( privilegeName );
+		return ( existing == null ) ? -1 : existing;
+	}
+	
+	public final PrivilegeBitSet bitSetOf( final Collection< String > privilegeNames ){
+		Preconditions.checkNotNull( privilegeNames );
+		
+		final int[] ordinalsOfPrivileges = new int[ privilegeNames.size() ];
+		int i = 0;
+		for( final String privilegeName : privilegeNames ){
+			ordinalsOfPrivileges[i++] = ordinalOf( privilegeName );
+		}
+		return PrivilegeBitSet.of( ordinalsOfPrivileges );
+	}
+	
+	/**
+	 * - note: the reverse of {@link #bitSetOf(Collection)}; the authority instances are shared, not created per call
+	 */
+	public final List< GrantedAuthority > authoritiesOf( final PrivilegeBitSet privileges ){
+		Preconditions.checkNotNull( privileges );
+		
+		final List< GrantedAuthority > authoritiesOfPrivileges = Lists.newArrayListWithCapacity( privileges.size() );
+		for( int ordinal = privileges.nextOrdinal( 0 ); ordinal >= 0; ordinal = privileges.nextOrdinal( ordinal + 1 ) ){
+			if( ordinal < authorities.size() ){
+				authoritiesOfPrivileges.add( authorities.get( ordinal ) );
+			}
+		}
+		return authoritiesOfPrivileges;
+	}
+	
+	// statistics
+	
+	@ManagedAttribute( description = "Number of privileges with an assigned ordinal" )
+	public final int getSize(){
+		return ordinals.size();
+	}
+	
+}
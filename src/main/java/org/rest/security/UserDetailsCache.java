@@ -0,0 +1,154 @@
+package org.rest.security;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded, expiring cache of fully resolved {@link PrincipalUserDetails}, keyed by username <br>
+ * - note: because the security chain is stateless, this is what stands between every single request and the datastore
+ */
+@Component
+@ManagedResource( objectName = "org.rest:name=userDetailsCache",description = "Cache of resolved UserDetails, keyed by username" )
+public class UserDetailsCache implements InitializingBean{
+	private final Logger logger = LoggerFactory.getLogger( getClass() );
+	
+	@Value( "${security.userDetailsCache.maxSize:1000}" ) long maxSize;
+	@Value( "${security.userDetailsCache.expireAfterWriteSeconds:300}" ) long expireAfterWriteSeconds;
+	
+	private Cache< String, PrincipalUserDetails > cache;
+	private final AtomicLong invalidationCount = new AtomicLong();
+	
+	public UserDetailsCache(){
+		super();
+	}
+	
+	// API
+	
+	/**
+	 * - note: the loader is only invoked on a miss, and only once per username, even when multiple requests miss concurrently
+	 */
+	public final PrincipalUserDetails get( final String username, final Callable< PrincipalUserDetails > loader ){
+		Preconditions.checkNotNull( username );
+		Preconditions.checkNotNull( loader );
+		
+		try{
+			return cache.get( username, loader );
+		}
+		catch( final ExecutionException ex ){
+			throw Throwables.propagate( ex.getCause() );
+		}
+		catch( final UncheckedExecutionException ex ){
+			throw Throwables.propagate( ex.getCause() );
+		}
+	}
+	
+	// invalidation
+	
+	@ManagedOperation( description = "Drops every cached entry" )
+	public final void invalidateAll(){
+		invalidationCount.addAndGet( cache.size() );
+		cache.invalidateAll();
+	}
+	
+	public final void invalidatePrincipal( final long principalId ){
+		invalidateIf( new Predicate< PrincipalUserDetails >(){
+			@Override
+			public final boolean apply( final PrincipalUserDetails input ){
+				return input.getPrincipalId() == principalId;
+			}
+		} );
+	}
+	
+	public final void invalidateRole( final long roleId ){
+		invalidateIf( new Predicate< PrincipalUserDetails >(){
+			@Override
+			public final boolean apply( final PrincipalUserDetails input ){
+				return input.hasRole( roleId );
+			}
+		} );
+	}
+	
+	public final void invalidatePrivilege( final long privilegeId ){
+		invalidateIf( new Predicate< PrincipalUserDetails >(){
+			@Override
+			public final boolean apply( final PrincipalUserDetails input ){
+				return input.hasPrivilege( privilegeId );
+			}
+		} );
+	}
+	
+	// statistics
+	
+	@ManagedAttribute( description = "Number of cached entries" )
+	public final long getSize(){
+		return cache.size();
+	}
+	
+	@ManagedAttribute( description = "Number of lookups served from the cache" )
+	public final long getHitCount(){
+		return cache.stats().hitCount();
+	}
+	
+	@ManagedAttribute( description = "Number of lookups that had to go to the datastore" )
+	public final long getMissCount(){
+		return cache.stats().missCount();
+	}
+	
+	@ManagedAttribute( description = "Number of entries evicted because of size or expiration" )
+	public final long getEvictionCount(){
+		return cache.stats().evictionCount();
+	}
+	
+	@ManagedAttribute( description = "Number of entries dropped because the underlying Principal, Role or Privilege changed" )
+	public final long getInvalidationCount(){
+		return invalidationCount.get();
+	}
+	
+	@ManagedAttribute( description = "Ratio of lookups served from the cache" )
+	public final double getHitRate(){
+		return cache.stats().hitRate();
+	}
+	
+	// Spring
+	
+	@Override
+	public final void afterPropertiesSet(){
+		Preconditions.checkState( maxSize >= 0 );
+		Preconditions.checkState( expireAfterWriteSeconds >= 0 );
+		
+		cache = CacheBuilder.newBuilder().maximumSize( maxSize ).expireAfterWrite( expireAfterWriteSeconds, TimeUnit.SECONDS ).build();
+		logger.info( "UserDetails cache initialized with maxSize={} and expireAfterWriteSeconds={}", maxSize, expireAfterWriteSeconds );
+	}
+	
+	//
+	
+	private void invalidateIf( final Predicate< PrincipalUserDetails > predicate ){
+		final Iterator< PrincipalUserDetails > entries = cache.asMap().values().iterator();
+		while( entries.hasNext() ){
+			if( predicate.apply( entries.next() ) ){
+				entries.remove();
+				invalidationCount.incrementAndGet();
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,63 @@
+package org.rest.security;
+
+import org.rest.persistence.event.EntityChangedEvent;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps the {@link UserDetailsCache} consistent with the Principal, Role and Privilege data <br>
+ * - note: the entries are dropped both right away and again after the transaction completes, so that a concurrent load cannot re-cache data that is about to change
+ */
+@SuppressWarnings( "rawtypes" )
+@Component
+final class UserDetailsCacheInvalidationListener implements ApplicationListener< EntityChangedEvent >{
+	
+	@Autowired private UserDetailsCache userDetailsCache;
+	
+	// API
+	
+	@Override
+	public final void onApplicationEvent( final EntityChangedEvent ev ){
+		Preconditions.checkNotNull( ev );
+		
+		invalidate( ev.getClazz(), ev.getId() );
+		if( TransactionSynchronizationManager.isSynchronizationActive() ){
+			TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter(){
+				@Override
+				public final void afterCompletion( final int status ){
+					invalidate( ev.getClazz(), ev.getId() );
+				}
+			} );
+		}
+	}
+	
+	//
+	
+	final void invalidate( final Class clazz, final Long id ){
+		if( !Principal.class.equals( clazz ) && !Role.class.equals( clazz ) && !Privilege.class.equals( clazz ) ){
+			return;
+		}
+		
+		if( id == null ){
+			userDetailsCache.invalidateAll();
+		}
+		else if( Principal.class.equals( clazz ) ){
+			userDetailsCache.invalidatePrincipal( id );
+		}
+		else if( Role.class.equals( clazz ) ){
+			userDetailsCache.invalidateRole( id );
+		}
+		else{
+			userDetailsCache.invalidatePrivilege( id );
+		}
+	}
+	
+}
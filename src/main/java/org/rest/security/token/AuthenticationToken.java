@@ -0,0 +1,72 @@
+package org.rest.security.token;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.rest.security.PrivilegeBitSet;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The (verified) content of a bearer token issued by the {@link AuthenticationTokenService}
+ */
+public final class AuthenticationToken{
+	private final long tokenId;
+	private final long principalId;
+	private final String username;
+	private final long issuedAt;
+	private final long expiresAt;
+	private final PrivilegeBitSet privileges;
+	
+	public AuthenticationToken( final long tokenIdToSet, final long principalIdToSet, final String usernameToSet, final long issuedAtToSet, final long expiresAtToSet, final PrivilegeBitSet privilegesToSet ){
+		super();
+		
+		Preconditions.checkNotNull( usernameToSet );
+		Preconditions.checkNotNull( privilegesToSet );
+		
+		tokenId = tokenIdToSet;
+		principalId = principalIdToSet;
+		username = usernameToSet;
+		issuedAt = issuedAtToSet;
+		expiresAt = expiresAtToSet;
+		privileges = privilegesToSet;
+	}
+	
+	// API
+	
+	public final long getTokenId(){
+		return tokenId;
+	}
+	
+	public final long getPrincipalId(){
+		return principalId;
+	}
+	
+	public final String getUsername(){
+		return username;
+	}
+	
+	/**
+	 * - note: milliseconds since the epoch
+	 */
+	public final long getIssuedAt(){
+		return issuedAt;
+	}
+	
+	/**
+	 * - note: milliseconds since the epoch
+	 */
+	public final long getExpiresAt(){
+		return expiresAt;
+	}
+	
+	public final PrivilegeBitSet getPrivileges(){
+		return privileges;
+	}
+	
+	//
+	
+	@Override
+	public final String toString(){
+		return new ToStringBuilder( this ).append( "tokenId", tokenId ).append( "principalId", principalId ).append( "username", username ).append( "expiresAt", expiresAt ).toString();
+	}
+	
+}
@@ -0,0 +1,51 @@
+package org.rest.security.token;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.rest.common.util.HttpConstants;
+import org.rest.security.PrivilegeOrdinals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * Authenticates requests carrying a <code>Authorization: Bearer ...</code> token issued by the {@link AuthenticationTokenService} <br>
+ * - note: no datastore access; a missing or invalid token simply leaves the request unauthenticated, for Basic/Digest (or the entry point) to deal with
+ */
+@Component
+public final class AuthenticationTokenFilter extends GenericFilterBean{
+	
+	@Autowired AuthenticationTokenService authenticationTokenService;
+	
+	@Autowired PrivilegeOrdinals privilegeOrdinals;
+	
+	public AuthenticationTokenFilter(){
+		super();
+	}
+	
+	// API
+	
+	@Override
+	public final void doFilter( final ServletRequest request, final ServletResponse response, final FilterChain chain ) throws IOException, ServletException{
+		final String header = ( (HttpServletRequest) request ).getHeader( HttpConstants.AUTHORIZATION_HEADER );
+		if( header != null && header.startsWith( HttpConstants.BEARER_PREFIX ) ){
+			final AuthenticationToken token = authenticationTokenService.verify( header.substring( HttpConstants.BEARER_PREFIX.length() ).trim() );
+			if( token != null ){
+				SecurityContextHolder.getContext().setAuthentication( new BearerTokenAuthentication( token, privilegeOrdinals.authoritiesOf( token.getPrivileges() ) ) );
+			}
+			else{
+				logger.debug( "Rejected bearer token" );
+			}
+		}
+		
+		chain.doFilter( request, response );
+	}
+	
+}
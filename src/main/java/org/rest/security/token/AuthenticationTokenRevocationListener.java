@@ -0,0 +1,54 @@
+package org.rest.security.token;
+
+import org.rest.persistence.event.EntityChangedEvent;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Revokes the tokens whose embedded privileges may no longer be accurate: those of a changed principal, or all of them when a role or privilege changes <br>
+ * - note: the tokens are revoked both right away and again after the transaction completes, so that a token issued before the change committed (still with the old privileges) is revoked as well
+ */
+@SuppressWarnings( "rawtypes" )
+@Component
+final class AuthenticationTokenRevocationListener implements ApplicationListener< EntityChangedEvent >{
+	
+	@Autowired private AuthenticationTokenService authenticationTokenService;
+	
+	// API
+	
+	@Override
+	public final void onApplicationEvent( final EntityChangedEvent ev ){
+		Preconditions.checkNotNull( ev );
+		
+		revoke( ev );
+		if( TransactionSynchronizationManager.isSynchronizationActive() ){
+			TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter(){
+				@Override
+				public final void afterCompletion( final int status ){
+					revoke( ev );
+				}
+			} );
+		}
+	}
+	
+	//
+	
+	final void revoke( final EntityChangedEvent ev ){
+		final Class clazz = ev.getClazz();
+		if( Principal.class.equals( clazz ) && !ev.affectsAll() ){
+			authenticationTokenService.revokePrincipal( ev.getId() );
+		}
+		else if( Principal.class.equals( clazz ) || Role.class.equals( clazz ) || Privilege.class.equals( clazz ) ){
+			authenticationTokenService.revokeAll();
+		}
+	}
+	
+}
@@ -0,0 +1,346 @@
+package org.rest.security.token;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Base64;
+import org.rest.security.PrincipalUserDetails;
+import org.rest.security.PrivilegeBitSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed, expiring bearer tokens - verification is entirely in memory <br>
+ * - the token embeds the id and name of the principal and its privileges, as a {@link PrivilegeBitSet} <br>
+ * - signing keys are generated in memory and rotated periodically; a retired key still verifies until the last token it signed has expired <br>
+ * - revocation is checked with three map/field lookups: all tokens, all tokens of a principal (both by issue time), or a single token <br>
+ * - revocations are evicted once every token they apply to has expired anyway - checked on revocation and, at most every half token lifetime, during verification <br>
+ * - note: the keys and the privilege ordinals only live as long as the application, so a restart invalidates all tokens
+ */
+@Component
+@ManagedResource( objectName = "org.rest:name=authenticationTokens",description = "Signed bearer tokens issued by /authentication" )
+public class AuthenticationTokenService implements InitializingBean{
+	private final Logger logger = LoggerFactory.getLogger( getClass() );
+	
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final int KEY_SIZE_BYTES = 32;
+	private static final byte VERSION = 1;
+	
+	@Value( "${security.token.validitySeconds:900}" ) long validitySeconds = 900;
+	@Value( "${security.token.keyRotationSeconds:3600}" ) long keyRotationSeconds = 3600;
+	
+	private final SecureRandom random = new SecureRandom();
+	private final ThreadLocal< Mac > macs = new ThreadLocal< Mac >(){
+		@Override
+		protected final Mac initialValue(){
+			try{
+				return Mac.getInstance( ALGORITHM );
+			}
+			catch( final GeneralSecurityException ex ){
+				throw Throwables.propagate( ex );
+			}
+		}
+	};
+	
+	private final AtomicInteger keyIds = new AtomicInteger();
+	private final ConcurrentMap< Integer, SigningKey > keys = Maps.newConcurrentMap();
+	private volatile SigningKey currentKey;
+	
+	private volatile long allRevokedBefore;
+	private final ConcurrentMap< Long, Long > principalsRevokedBefore = Maps.newConcurrentMap();
+	private final ConcurrentMap< Long, Long > revokedTokens = Maps.newConcurrentMap();
+	private final AtomicLong nextPruneAt = new AtomicLong();
+	
+	private final AtomicLong issuedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	
+	public AuthenticationTokenService(){
+		super();
+	}
+	
+	// API
+	
+	public final String issue( final PrincipalUserDetails user ){
+		Preconditions.checkNotNull( user );
+		Preconditions.checkArgument( user.getPrivileges() != null, "The privileges of the user are not encoded" );
+		
+		final SigningKey key = signingKey();
+		final long now = System.currentTimeMillis();
+		final long[] privilegeWords = user.getPrivileges().toLongArray();
+		
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 + privilegeWords.length * 8 );
+		final DataOutputStream payload = new DataOutputStream( bytes );
+		try{
+			payload.writeByte( VERSION );
+			payload.writeInt( key.id );
+			payload.writeLong( random.nextLong() );
+			payload.writeLong( user.getPrincipalId() );
+			payload.writeLong( now );
+			payload.writeLong( now + TimeUnit.SECONDS.toMillis( validitySeconds ) );
+			payload.writeUTF( user.getUsername() );
+			payload.writeShort( privilegeWords.length );
+			for( final long word : privilegeWords ){
+				payload.writeLong( word );
+			}
+		}
+		catch( final IOException ex ){
+			throw new IllegalStateException( ex );
+		}
+		
+		final byte[] payloadBytes = bytes.toByteArray();
+		issuedCount.incrementAndGet();
+		return Base64.encodeBase64URLSafeString( payloadBytes ) + "." + Base64.encodeBase64URLSafeString( sign( key, payloadBytes ) );
+	}
+	
+	/**
+	 * @return the content of the token, or null if the token is malformed, not correctly signed, expired or revoked
+	 */
+	public final AuthenticationToken verify( final String token ){
+		final AuthenticationToken verified = verifyInternal( token );
+		if( verified == null ){
+			rejectedCount.incrementAndGet();
+		}
+		return verified;
+	}
+	
+	// revocation
+	
+	public final void revoke( final AuthenticationToken token ){
+		Preconditions.checkNotNull( token );
+		
+		revokedTokens.put( token.getTokenId(), token.getExpiresAt() );
+		pruneRevocationsIfDue( System.currentTimeMillis() );
+	}
+	
+	public final void revokePrincipal( final long principalId ){
+		final long now = System.currentTimeMillis();
+		principalsRevokedBefore.put( principalId, now );
+		pruneRevocationsIfDue( now );
+	}
+	
+	@ManagedOperation( description = "Revokes every token issued so far" )
+	public final void revokeAll(){
+		allRevokedBefore = System.currentTimeMillis();
+		principalsRevokedBefore.clear();
+		revokedTokens.clear();
+	}
+	
+	// keys
+	
+	@ManagedOperation( description = "Starts signing with a new key; tokens signed with the previous keys remain valid until they expire" )
+	public final synchronized void rotateKey(){
+		final long now = System.currentTimeMillis();
+		final byte[] secret = new byte[ KEY_SIZE_BYTES ];
+		random.nextBytes( secret );
+		
+		final SigningKey newKey = new SigningKey( keyIds.incrementAndGet(), new SecretKeySpec( secret, ALGORITHM ), now );
+		keys.put( newKey.id, newKey );
+		final SigningKey previousKey = currentKey;
+		currentKey = newKey;
+		if( previousKey != null ){
+			previousKey.retiredAt = now;
+		}
+		
+		// keys retired for longer than a token lives can no longer have valid tokens
+		final Iterator< SigningKey > allKeys = keys.values().iterator();
+		while( allKeys.hasNext() ){
+			final SigningKey key = allKeys.next();
+			if( key.retiredAt != 0 && key.retiredAt + TimeUnit.SECONDS.toMillis( validitySeconds ) < now ){
+				allKeys.remove();
+			}
+		}
+		logger.info( "Rotated the token signing key; {} key(s) can verify tokens", keys.size() );
+	}
+	
+	// statistics
+	
+	@ManagedAttribute( description = "Number of tokens issued" )
+	public final long getIssuedCount(){
+		return issuedCount.get();
+	}
+	
+	@ManagedAttribute( description = "Number of tokens rejected as malformed, forged, expired or revoked" )
+	public final long getRejectedCount(){
+		return rejectedCount.get();
+	}
+	
+	@ManagedAttribute( description = "Number of keys that can verify tokens" )
+	public final int getKeyCount(){
+		return keys.size();
+	}
+	
+	@ManagedAttribute( description = "Number of individually revoked tokens that have not expired yet" )
+	public final int getRevokedTokenCount(){
+		return revokedTokens.size();
+	}
+	
+	@ManagedAttribute( description = "Number of principals whose revoked tokens have not all expired yet" )
+	public final int getRevokedPrincipalCount(){
+		return principalsRevokedBefore.size();
+	}
+	
+	// Spring
+	
+	@Override
+	public final void afterPropertiesSet(){
+		Preconditions.checkState( validitySeconds > 0 );
+		Preconditions.checkState( keyRotationSeconds > 0 );
+		
+		rotateKey();
+	}
+	
+	//
+	
+	final AuthenticationToken verifyInternal( final String token ){
+		if( token == null ){
+			return null;
+		}
+		final int separator = token.indexOf( '.' );
+		if( separator <= 0 || separator == token.length() - 1 ){
+			return null;
+		}
+		final byte[] payloadBytes = Base64.decodeBase64( token.substring( 0, separator ) );
+		final byte[] signature = Base64.decodeBase64( token.substring( separator + 1 ) );
+		
+		try{
+			final DataInputStream payload = new DataInputStream( new ByteArrayInputStream( payloadBytes ) );
+			if( payload.readByte() != VERSION ){
+				return null;
+			}
+			final SigningKey key = keys.get( payload.readInt() );
+			if( key == null || !MessageDigest.isEqual( signature, sign( key, payloadBytes ) ) ){
+				return null;
+			}
+			
+			final long tokenId = payload.readLong();
+			final long principalId = payload.readLong();
+			final long issuedAt = payload.readLong();
+			final long expiresAt = payload.readLong();
+			final long now = System.currentTimeMillis();
+			if( expiresAt <= now ){
+				return null;
+			}
+			pruneRevocationsIfDue( now );
+			if( isRevoked( tokenId, principalId, issuedAt ) ){
+				return null;
+			}
+			
+			final String username = payload.readUTF();
+			final long[] privilegeWords = new long[ payload.readUnsignedShort() ];
+			for( int i = 0; i < privilegeWords.length; i++ ){
+				privilegeWords[i] = payload.readLong();
+			}
+			return new AuthenticationToken( tokenId, principalId, username, issuedAt, expiresAt, PrivilegeBitSet.fromLongArray( privilegeWords ) );
+		}
+		catch( final IOException ex ){
+			return null; // truncated payload
+		}
+	}
+	
+	private boolean isRevoked( final long tokenId, final long principalId, final long issuedAt ){
+		if( issuedAt <= allRevokedBefore ){
+			return true;
+		}
+		final Long principalRevokedBefore = principalsRevokedBefore.get( principalId );
+		if( principalRevokedBefore != null && issuedAt <= principalRevokedBefore ){
+			return true;
+		}
+		return revokedTokens.containsKey( tokenId );
+	}
+	
+	/**
+	 * - note: only one caller prunes per interval; the others go on without waiting
+	 */
+	private void pruneRevocationsIfDue( final long now ){
+		final long pruneAt = nextPruneAt.get();
+		if( now < pruneAt ){
+			return;
+		}
+		final long intervalMillis = Math.max( 1000, TimeUnit.SECONDS.toMillis( validitySeconds ) / 2 );
+		if( nextPruneAt.compareAndSet( pruneAt, now + intervalMillis ) ){
+			pruneRevocations( now );
+		}
+	}
+	
+	/**
+	 * Evicts the revocations that can no longer match a valid token: single tokens past their expiry, and principals revoked longer ago than a token lives <br>
+	 * - note: an entry is only removed if it still holds the value that was checked, so that a principal revoked again meanwhile stays revoked
+	 */
+	final void pruneRevocations( final long now ){
+		for( final Map.Entry< Long, Long > token : revokedTokens.entrySet() ){
+			if( token.getValue() <= now ){
+				revokedTokens.remove( token.getKey(), token.getValue() );
+			}
+		}
+		
+		final long validityMillis = TimeUnit.SECONDS.toMillis( validitySeconds );
+		for( final Map.Entry< Long, Long > principal : principalsRevokedBefore.entrySet() ){
+			if( principal.getValue() + validityMillis <= now ){
+				principalsRevokedBefore.remove( principal.getKey(), principal.getValue() );
+			}
+		}
+	}
+	
+	private SigningKey signingKey(){
+		final SigningKey key = currentKey;
+		if( key.createdAt + TimeUnit.SECONDS.toMillis( keyRotationSeconds ) > System.currentTimeMillis() ){
+			return key;
+		}
+		synchronized( this ){
+			if( currentKey == key ){
+				rotateKey();
+			}
+			return currentKey;
+		}
+	}
+	
+	private byte[] sign( final SigningKey key, final byte[] payloadBytes ){
+		final Mac mac = macs.get();
+		try{
+			mac.init( key.secret );
+		}
+		catch( final GeneralSecurityException ex ){
+			throw Throwables.propagate( ex );
+		}
+		return mac.doFinal( payloadBytes );
+	}
+	
+	static final class SigningKey{
+		final int id;
+		final SecretKeySpec secret;
+		final long createdAt;
+		volatile long retiredAt;
+		
+		SigningKey( final int idToSet, final SecretKeySpec secretToSet, final long createdAtToSet ){
+			id = idToSet;
+			secret = secretToSet;
+			createdAt = createdAtToSet;
+		}
+	}
+	
+}
@@ -0,0 +1,45 @@
+package org.rest.security.token;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.rest.security.PrincipalUserDetails;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Authentication established from a verified bearer token - the principal is a {@link PrincipalUserDetails} carrying the privileges embedded in the token
+ */
+public final class BearerTokenAuthentication extends AbstractAuthenticationToken{
+	private final AuthenticationToken token;
+	private final PrincipalUserDetails principal;
+	
+	public BearerTokenAuthentication( final AuthenticationToken tokenToSet, final Collection< ? extends GrantedAuthority > authorities ){
+		super( authorities );
+		
+		Preconditions.checkNotNull( tokenToSet );
+		
+		token = tokenToSet;
+		principal = new PrincipalUserDetails( token.getPrincipalId(), token.getUsername(), "", authorities, Collections.<Long> emptySet(), Collections.<Long> emptySet(), token.getPrivileges() );
+		setAuthenticated( true );
+	}
+	
+	// API
+	
+	public final AuthenticationToken getToken(){
+		return token;
+	}
+	
+	@Override
+	public final Object getCredentials(){
+		return null;
+	}
+	
+	@Override
+	public final PrincipalUserDetails getPrincipal(){
+		return principal;
+	}
+	
+}
@@ -1,14 +1,49 @@
 package org.rest.spring.context;
 
+import java.util.List;
+
+import org.rest.persistence.event.AsyncEventMulticaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportResource;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+
+import com.google.common.collect.Lists;
 
 @Configuration
 @ImportResource( "classpath*:contextConfig.xml" )
 public class ContextConfig{
 	
+	@Value( "${event.async.types:org.rest.persistence.event.EntityCreatedEvent}" ) private Class< ? >[] asyncEventTypes;
+	@Value( "${event.async.threads:2}" ) private int asyncEventThreads;
+	@Value( "${event.async.queueCapacity:1000}" ) private int asyncEventQueueCapacity;
+	
 	public ContextConfig(){
 		super();
 	}
 	
+	// beans
+	
+	/**
+	 * - note: exposes the statistics of every bean annotated with @ManagedResource (caches, pools, etc) over JMX
+	 */
+	@Bean
+	public AnnotationMBeanExporter mbeanExporter(){
+		return new AnnotationMBeanExporter();
+	}
+	
+	/**
+	 * - note: replaces the default (synchronous) multicaster of the context - the name is what the context looks it up by
+	 */
+	@Bean
+	public AsyncEventMulticaster applicationEventMulticaster(){
+		final List< Class< ? extends ApplicationEvent >> eventTypes = Lists.newArrayList();
+		for( final Class< ? > asyncEventType : asyncEventTypes ){
+			eventTypes.add( asyncEventType.asSubclass( ApplicationEvent.class ) );
+		}
+		return new AsyncEventMulticaster( eventTypes, asyncEventThreads, asyncEventQueueCapacity );
+	}
+	
 }
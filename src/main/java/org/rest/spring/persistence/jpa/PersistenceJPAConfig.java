@@ -4,16 +4,22 @@ import java.util.Properties;
 
 import javax.sql.DataSource;
 
+import org.apache.commons.dbcp.BasicDataSource;
+import org.rest.persistence.jdbc.InstrumentedDataSource;
+import org.rest.persistence.jpa.HibernateCacheStatistics;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportResource;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.MutablePersistenceUnitInfo;
+import org.springframework.orm.jpa.persistenceunit.PersistenceUnitPostProcessor;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -25,12 +31,25 @@ public class PersistenceJPAConfig{
 	
 	@Value( "${jdbc.driverClassName}" ) private String driverClassName;
 	@Value( "${jdbc.url}" ) private String url;
+	
+	// connection pool
+	@Value( "${jdbc.pool.initialSize}" ) int poolInitialSize;
+	@Value( "${jdbc.pool.minIdle}" ) int poolMinIdle;
+	@Value( "${jdbc.pool.maxActive}" ) int poolMaxActive;
+	@Value( "${jdbc.pool.maxWaitMillis}" ) long poolMaxWaitMillis;
+	@Value( "${jdbc.pool.validationQuery}" ) String poolValidationQuery;
+	@Value( "${jdbc.pool.validationIntervalMillis}" ) long poolValidationIntervalMillis;
+	@Value( "${jdbc.pool.leakTimeoutSeconds}" ) int poolLeakTimeoutSeconds;
 	@Value( "${jpa.generateDdl}" ) boolean jpaGenerateDdl;
 	
 	// Hibernate specific
 	@Value( "${hibernate.dialect}" ) String hibernateDialect;
 	@Value( "${hibernate.show_sql}" ) boolean hibernateShowSql;
 	@Value( "${hibernate.hbm2ddl.auto}" ) String hibernateHbm2ddlAuto;
+	@Value( "${hibernate.cache.use_second_level_cache}" ) boolean hibernateSecondLevelCache;
+	@Value( "${hibernate.cache.use_query_cache}" ) boolean hibernateQueryCache;
+	@Value( "${hibernate.jdbc.batch_size:50}" ) int hibernateJdbcBatchSize;
+	@Value( "${hibernate.default_batch_fetch_size:50}" ) int hibernateBatchFetchSize;
 	
 	public PersistenceJPAConfig(){
 		super();
@@ -56,16 +75,47 @@ public class PersistenceJPAConfig{
 		
 		factoryBean.setJpaProperties( additionlProperties() );
 		
+		// - note: only entity classes are scanned - the package declaring the id generator (package-info) is listed explicitly
+		factoryBean.setPersistenceUnitPostProcessors( new PersistenceUnitPostProcessor(){
+			@Override
+			public final void postProcessPersistenceUnitInfo( final MutablePersistenceUnitInfo persistenceUnitInfo ){
+				persistenceUnitInfo.addManagedClassName( Privilege.class.getPackage().getName() );
+			}
+		} );
+		
 		return factoryBean;
 	}
 	
-	@Bean
+	@Bean( destroyMethod = "close" )
 	public DataSource restDataSource(){
-		final DriverManagerDataSource dataSource = new DriverManagerDataSource();
+		return new InstrumentedDataSource( pooledDataSource() );
+	}
+	
+	final BasicDataSource pooledDataSource(){
+		final BasicDataSource dataSource = new BasicDataSource();
 		dataSource.setDriverClassName( driverClassName );
 		dataSource.setUrl( url );
 		dataSource.setUsername( "restUser" );
 		dataSource.setPassword( "restmy5ql" );
+		
+		// size and acquisition timeout
+		dataSource.setInitialSize( poolInitialSize );
+		dataSource.setMinIdle( poolMinIdle );
+		dataSource.setMaxIdle( poolMaxActive );
+		dataSource.setMaxActive( poolMaxActive );
+		dataSource.setMaxWait( poolMaxWaitMillis );
+		
+		// validation - on borrow, and in the background for idle connections
+		dataSource.setValidationQuery( poolValidationQuery );
+		dataSource.setTestOnBorrow( true );
+		dataSource.setTestWhileIdle( true );
+		dataSource.setTimeBetweenEvictionRunsMillis( poolValidationIntervalMillis );
+		
+		// leak detection - connections held longer than the timeout are reclaimed and the borrowing stack trace is logged
+		dataSource.setRemoveAbandoned( true );
+		dataSource.setRemoveAbandonedTimeout( poolLeakTimeoutSeconds );
+		dataSource.setLogAbandoned( true );
+		
 		return dataSource;
 	}
 	
@@ -77,6 +127,11 @@ public class PersistenceJPAConfig{
 		return transactionManager;
 	}
 	
+	@Bean
+	public HibernateCacheStatistics hibernateCacheStatistics(){
+		return new HibernateCacheStatistics( entityManagerFactoryBean().getObject() );
+	}
+	
 	@Bean
 	public PersistenceExceptionTranslationPostProcessor persistenceExceptionTranslationPostProcessor(){
 		return new PersistenceExceptionTranslationPostProcessor();
@@ -88,6 +143,26 @@ public class PersistenceJPAConfig{
 			{
 				// use this to inject additional properties in the EntityManager
 				setProperty( "hibernate.hbm2ddl.auto", hibernateHbm2ddlAuto );
+				
+				// second level cache - in process (ehcache); region sizes and expiry are in ehcache.xml
+				setProperty( "hibernate.cache.use_second_level_cache", String.valueOf( hibernateSecondLevelCache ) );
+				setProperty( "hibernate.cache.use_query_cache", String.valueOf( hibernateQueryCache ) );
+				setProperty( "hibernate.cache.region.factory_class", "org.hibernate.cache.ehcache.EhCacheRegionFactory" );
+				setProperty( "hibernate.generate_statistics", String.valueOf( hibernateSecondLevelCache ) );
+				
+				// second level cache - regions: the role/privilege catalog is small and read mostly
+				setProperty( "hibernate.ejb.classcache." + Role.class.getName(), "read-write" );
+				setProperty( "hibernate.ejb.classcache." + Privilege.class.getName(), "read-write" );
+				setProperty( "hibernate.ejb.collectioncache." + Role.class.getName() + ".privileges", "read-write" );
+				
+				// JDBC batching - the statements of a flush are grouped by entity type, so that bulk writes go out in few round-trips; versioned updates and deletes are batched too
+				setProperty( "hibernate.jdbc.batch_size", String.valueOf( hibernateJdbcBatchSize ) );
+				setProperty( "hibernate.order_inserts", "true" );
+				setProperty( "hibernate.order_updates", "true" );
+				setProperty( "hibernate.jdbc.batch_versioned_data", "true" );
+				
+				// batch fetching - lazy collections and proxies are initialized for up to this many owners per query, so that the list fetch plans need no fetch joins
+				setProperty( "hibernate.default_batch_fetch_size", String.valueOf( hibernateBatchFetchSize ) );
 			}
 		};
 	}
@@ -2,14 +2,16 @@ package org.rest.spring.web;
 
 import java.util.List;
 
-import org.rest.sec.dto.User;
-import org.rest.sec.model.Privilege;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.rest.web.marshalling.SecBinaryHttpMessageConverter;
+import org.rest.web.marshalling.SecJsonModule;
+import org.rest.web.marshalling.SecXmlMarshaller;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
 import org.springframework.http.converter.xml.MarshallingHttpMessageConverter;
-import org.springframework.oxm.xstream.XStreamMarshaller;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
@@ -25,31 +27,47 @@ public class WebConfig extends WebMvcConfigurerAdapter{
 	// beans
 	
 	@Bean
-	public XStreamMarshaller xstreamMarshaller(){
-		final XStreamMarshaller xStreamMarshaller = new XStreamMarshaller();
-		xStreamMarshaller.setAutodetectAnnotations( true );
-		// xStreamMarshaller.setSupportedClasses( new Class[ ] { User.class, Privilege.class } );
-		xStreamMarshaller.setAnnotatedClass( User.class );
-		xStreamMarshaller.setAnnotatedClass( Privilege.class );
-		
-		// this.xstreamMarshaller().getXStream().addDefaultImplementation( java.util.HashSet.class, PersistentSet.class );
-		
-		return xStreamMarshaller;
+	public SecXmlMarshaller xmlMarshaller(){
+		return new SecXmlMarshaller();
 	}
 	@Bean
 	public MarshallingHttpMessageConverter marshallingHttpMessageConverter(){
 		final MarshallingHttpMessageConverter marshallingHttpMessageConverter = new MarshallingHttpMessageConverter();
-		marshallingHttpMessageConverter.setMarshaller( xstreamMarshaller() );
-		marshallingHttpMessageConverter.setUnmarshaller( xstreamMarshaller() );
+		marshallingHttpMessageConverter.setMarshaller( xmlMarshaller() );
+		marshallingHttpMessageConverter.setUnmarshaller( xmlMarshaller() );
 		
 		return marshallingHttpMessageConverter;
 	}
 	
+	/**
+	 * - note: shared, so that the streaming serializers of {@link SecJsonModule} and the buffers recycled by its <code>JsonFactory</code> are used everywhere JSON is written
+	 */
+	@Bean
+	public ObjectMapper jacksonObjectMapper(){
+		final ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule( new SecJsonModule() );
+		
+		return objectMapper;
+	}
+	@Bean
+	public MappingJacksonHttpMessageConverter mappingJacksonHttpMessageConverter(){
+		final MappingJacksonHttpMessageConverter mappingJacksonHttpMessageConverter = new MappingJacksonHttpMessageConverter();
+		mappingJacksonHttpMessageConverter.setObjectMapper( jacksonObjectMapper() );
+		
+		return mappingJacksonHttpMessageConverter;
+	}
+	@Bean
+	public SecBinaryHttpMessageConverter binaryHttpMessageConverter(){
+		return new SecBinaryHttpMessageConverter();
+	}
+	
 	@Override
 	public void configureMessageConverters( final List< HttpMessageConverter< ? >> converters ){
 		super.configureMessageConverters( converters );
 		
 		converters.add( marshallingHttpMessageConverter() );
+		converters.add( mappingJacksonHttpMessageConverter() ); // after XML, which stays the default representation
+		converters.add( binaryHttpMessageConverter() ); // only when asked for explicitly
 	}
 	
 }
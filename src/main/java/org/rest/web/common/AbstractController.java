@@ -1,27 +1,34 @@
 package org.rest.web.common;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.http.HttpHeaders;
 import org.rest.common.IEntity;
-import org.rest.common.event.PaginatedResultsRetrievedEvent;
 import org.rest.common.event.ResourceCreatedEvent;
-import org.rest.common.event.SingleResourceRetrievedEvent;
 import org.rest.common.exceptions.BadRequestException;
 import org.rest.common.exceptions.ConflictException;
+import org.rest.common.exceptions.PreconditionFailedException;
 import org.rest.common.exceptions.ResourceNotFoundException;
+import org.rest.common.web.ETags;
 import org.rest.common.web.RestPreconditions;
 import org.rest.persistence.service.IService;
+import org.rest.persistence.service.KeysetCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.google.common.base.Preconditions;
@@ -30,20 +37,34 @@ import com.google.common.collect.Lists;
 public abstract class AbstractController< T extends IEntity >{
 	protected final Logger logger = LoggerFactory.getLogger( getClass() );
 	
+	/** the page size of search results, when the client does not give one */
+	protected static final String DEFAULT_SEARCH_PAGE_SIZE = "50";
+	
 	private Class< T > clazz;
+	private final ResourceLinks links;
 	
 	@Autowired private ApplicationEventPublisher eventPublisher;
+	@Autowired private CollectionVersions collectionVersions;
+	@Autowired private EntityStreamWriter entityStreamWriter;
+	
+	@Value( "${persistence.bulk.chunkSize:500}" ) private int bulkChunkSize;
 	
 	public AbstractController( final Class< T > clazzToSet ){
 		super();
 		
 		Preconditions.checkNotNull( clazzToSet );
 		clazz = clazzToSet;
+		links = ResourceLinks.forResource( clazzToSet );
 	}
 	
 	// find/get
 	
-	protected final T findOneInternal( final Long id, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
+	/**
+	 * - note: answers with <code>304 Not Modified</code> (and a null resource) when the <code>If-None-Match</code> request header still matches
+	 */
+	protected final T findOneInternal( final Long id, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		// - note: read before the entity, so that a concurrent change of a nested entity can only make the tag stale, never wrong
+		final String nestedTag = nestedTag();
 		T resource = null;
 		try{
 			resource = RestPreconditions.checkNotNull( getService().findOne( id ) );
@@ -54,15 +75,31 @@ public abstract class AbstractController< T extends IEntity >{
 			throw new ConflictException( ex );
 		}
 		
-		eventPublisher.publishEvent( new SingleResourceRetrievedEvent< T >( clazz, uriBuilder, response ) );
+		if( notModified( etagOf( resource, nestedTag ), request, response ) ){
+			return null;
+		}
+		links.addCollectionLink( uriBuilder, response );
 		
 		return resource;
 	}
 	
-	protected final List< T > findAllInternal(){
+	protected final List< T > findAllInternal( final HttpServletRequest request, final HttpServletResponse response ){
+		if( notModified( collectionEtag(), request, response ) ){
+			return null;
+		}
 		return getService().findAll();
 	}
 	
+	/**
+	 * The streaming mode of {@link #findAllInternal(HttpServletRequest, HttpServletResponse)} - same representation, but written to the response as the entities are read, instead of being collected first
+	 */
+	protected final void streamAllInternal( final HttpServletRequest request, final HttpServletResponse response ) throws IOException{
+		if( notModified( collectionEtag(), request, response ) ){
+			return;
+		}
+		entityStreamWriter.writeAll( getService(), request, response );
+	}
+	
 	protected final void findAllRedirectToPagination( final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
 		final String resourceName = clazz.getSimpleName().toString().toLowerCase();
 		final String locationValue = uriBuilder.path( "/" + resourceName ).build().encode().toUriString() + "?page=0&size=10";
@@ -74,6 +111,11 @@ public abstract class AbstractController< T extends IEntity >{
 		try{
 			resultPage = getService().findPaginated( page, size, sortBy );
 		}
+		catch( final IllegalArgumentException argEx ){ // on an attribute that can not be sorted by
+			logger.error( "IllegalArgumentException on find operation" );
+			logger.warn( "IllegalArgumentException on find operation", argEx );
+			throw new BadRequestException( argEx );
+		}
 		catch( final InvalidDataAccessApiUsageException apiEx ){
 			logger.error( "InvalidDataAccessApiUsageException on find operation" );
 			logger.warn( "InvalidDataAccessApiUsageException on find operation", apiEx );
@@ -83,7 +125,118 @@ public abstract class AbstractController< T extends IEntity >{
 		if( page > resultPage.getTotalPages() ){
 			throw new ResourceNotFoundException();
 		}
-		eventPublisher.publishEvent( new PaginatedResultsRetrievedEvent< T >( clazz, uriBuilder, response, page, resultPage.getTotalPages(), size ) );
+		links.addPageLinks( uriBuilder, response, page, resultPage.getTotalPages(), size, sortBy, page < resultPage.getTotalPages() - 1 );
+		
+		return Lists.newArrayList( resultPage.getContent() );
+	}
+	/**
+	 * @param count whether to COUNT the total number of entities; null means the default of the resource - see {@link #countByDefault()}
+	 */
+	protected final List< T > findPaginatedInternal( final int page, final int size, final String sortBy, final Boolean count, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		if( notModified( collectionEtag(), request, response ) ){
+			return null;
+		}
+		
+		final boolean shouldCount = ( count == null ) ? countByDefault() : count;
+		if( shouldCount ){
+			return findPaginatedInternal( page, size, sortBy, uriBuilder, response );
+		}
+		if( size < 1 ){
+			throw new BadRequestException( "Invalid page size: " + size );
+		}
+		
+		List< T > resultPage = null;
+		try{
+			// - note: one extra entity is retrieved, only to find out if there is a next page (instead of counting)
+			resultPage = getService().findPaginatedUncounted( page, size, sortBy );
+		}
+		catch( final IllegalArgumentException argEx ){ // on invalid page or sort
+			logger.error( "IllegalArgumentException on find operation" );
+			logger.warn( "IllegalArgumentException on find operation", argEx );
+			throw new BadRequestException( argEx );
+		}
+		catch( final InvalidDataAccessApiUsageException apiEx ){
+			logger.error( "InvalidDataAccessApiUsageException on find operation" );
+			logger.warn( "InvalidDataAccessApiUsageException on find operation", apiEx );
+			throw new BadRequestException( apiEx );
+		}
+		
+		if( page > 0 && resultPage.isEmpty() ){
+			throw new ResourceNotFoundException();
+		}
+		final boolean hasNextPage = resultPage.size() > size;
+		if( hasNextPage ){
+			resultPage = resultPage.subList( 0, size );
+		}
+		final int totalPages = approximateCountEnabled() ? (int) ( ( getService().countApproximately() + size - 1 ) / size ) : -1;
+		links.addPageLinks( uriBuilder, response, page, totalPages, size, sortBy, hasNextPage );
+		
+		return Lists.newArrayList( resultPage );
+	}
+	protected final List< T > findPaginatedAfterInternal( final String after, final int size, final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletRequest request, final HttpServletResponse response ){
+		if( notModified( collectionEtag(), request, response ) ){
+			return null;
+		}
+		if( size < 1 ){
+			throw new BadRequestException( "Invalid page size: " + size );
+		}
+		
+		List< T > resultPage = null;
+		try{
+			// - note: one extra entity is retrieved, only to find out if there is a next page (instead of counting)
+			resultPage = getService().findPaginatedAfter( KeysetCursor.fromToken( after ), size + 1, sortBy );
+		}
+		catch( final IllegalArgumentException argEx ){ // on invalid cursor or sort
+			logger.error( "IllegalArgumentException on find operation" );
+			logger.warn( "IllegalArgumentException on find operation", argEx );
+			throw new BadRequestException( argEx );
+		}
+		catch( final InvalidDataAccessApiUsageException apiEx ){
+			logger.error( "InvalidDataAccessApiUsageException on find operation" );
+			logger.warn( "InvalidDataAccessApiUsageException on find operation", apiEx );
+			throw new BadRequestException( apiEx );
+		}
+		
+		String nextCursor = null;
+		if( resultPage.size() > size ){
+			resultPage = resultPage.subList( 0, size );
+			nextCursor = KeysetCursor.after( resultPage.get( size - 1 ), sortBy ).toToken();
+		}
+		links.addKeysetLinks( uriBuilder, response, after, nextCursor, size, sortBy );
+		
+		return Lists.newArrayList( resultPage );
+	}
+	
+	// search
+	
+	/**
+	 * - note: see {@link org.rest.persistence.search.QueryParser} for the query language; malformed queries, unknown attributes and invalid values are answered with <code>400 Bad Request</code>
+	 */
+	protected final List< T > searchInternal( final String queryString, final int page, final int size, final String sortBy, final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
+		if( size < 1 ){
+			throw new BadRequestException( "Invalid page size: " + size );
+		}
+		
+		Page< T > resultPage = null;
+		try{
+			resultPage = getService().searchPaginated( queryString, page, size, sortBy );
+		}
+		catch( final IllegalStateException queryEx ){ // on a malformed query
+			throw new BadRequestException( queryEx );
+		}
+		catch( final IllegalArgumentException queryEx ){ // on an unknown attribute, an invalid value or an invalid page or sort
+			throw new BadRequestException( queryEx );
+		}
+		catch( final InvalidDataAccessApiUsageException apiEx ){
+			logger.error( "InvalidDataAccessApiUsageException on search operation" );
+			logger.warn( "InvalidDataAccessApiUsageException on search operation", apiEx );
+			throw new BadRequestException( apiEx );
+		}
+		
+		if( page > 0 && page >= resultPage.getTotalPages() ){
+			throw new ResourceNotFoundException();
+		}
+		links.addSearchPageLinks( uriBuilder, response, queryString, page, resultPage.getTotalPages(), size, sortBy, page < resultPage.getTotalPages() - 1 );
 		
 		return Lists.newArrayList( resultPage.getContent() );
 	}
@@ -124,13 +277,22 @@ public abstract class AbstractController< T extends IEntity >{
 	
 	// update
 	
-	protected final void updateInternal( final T resource ){
+	/**
+	 * - note: fails with <code>412 Precondition Failed</code> when the <code>If-Match</code> request header no longer matches the current resource, and with <code>409 Conflict</code> when the version of the resource is stale <br>
+	 * - note: existence and version are checked by the service, inside the update transaction - a missing resource is reported as no updated entities, not as an exception; the version matched by <code>If-Match</code> replaces the one of the body, so it is the UPDATE itself that checks it, see {@link #matchedVersion(long, HttpServletRequest)}
+	 */
+	protected final void updateInternal( final T resource, final HttpServletRequest request ){
 		RestPreconditions.checkRequestElementNotNull( resource );
 		RestPreconditions.checkRequestElementNotNull( resource.getId() );
-		RestPreconditions.checkNotNull( getService().findOne( resource.getId() ) );
+		final Long matchedVersion = matchedVersion( resource.getId(), request );
+		if( matchedVersion != null ){
+			resource.setVersion( matchedVersion );
+		}
 		
 		try{
-			getService().update( resource );
+			if( getService().updateIfExists( resource ) == 0 ){
+				throw new ResourceNotFoundException();
+			}
 		}
 		// this is so that the service layer can MANUALLY throw exceptions that get handled by the exception translation mechanism
 		catch( final IllegalStateException illegalState ){
@@ -148,13 +310,33 @@ public abstract class AbstractController< T extends IEntity >{
 			logger.warn( "DataIntegrityViolationException on update operation for: " + resource.getClass().getSimpleName(), dataEx );
 			throw new ConflictException( dataEx );
 		}
+		catch( final OptimisticLockingFailureException lockEx ){ // on a stale version
+			logger.error( "OptimisticLockingFailureException on update operation for: " + resource.getClass().getSimpleName() );
+			logger.warn( "OptimisticLockingFailureException on update operation for: " + resource.getClass().getSimpleName(), lockEx );
+			if( matchedVersion != null ){
+				throw new PreconditionFailedException( "Resource has been modified since the entity tag was read" );
+			}
+			throw new ConflictException( lockEx );
+		}
 	}
 	
 	// delete/remove
 	
-	protected final void deleteByIdInternal( final long id ){
+	/**
+	 * - note: the version matched by <code>If-Match</code> is part of the DELETE, see {@link #matchedVersion(long, HttpServletRequest)} - a resource changed in between fails with <code>412 Precondition Failed</code>
+	 */
+	protected final void deleteByIdInternal( final long id, final HttpServletRequest request ){
+		final Long matchedVersion = matchedVersion( id, request );
+		
 		try{
-			getService().delete( id );
+			if( !getService().deleteIfExists( id, matchedVersion ) ){
+				throw new ResourceNotFoundException();
+			}
+		}
+		catch( final OptimisticLockingFailureException lockEx ){ // on a stale version
+			logger.error( "OptimisticLockingFailureException on delete operation" );
+			logger.warn( "OptimisticLockingFailureException on delete operation", lockEx );
+			throw new PreconditionFailedException( "Resource has been modified since the entity tag was read" );
 		}
 		catch( final InvalidDataAccessApiUsageException dataEx ){
 			logger.error( "InvalidDataAccessApiUsageException on delete operation" );
@@ -167,8 +349,275 @@ public abstract class AbstractController< T extends IEntity >{
 		}
 	}
 	
+	// bulk
+	
+	/**
+	 * - note: every chunk of the request is created in a transaction of its own; when a chunk fails, its items are retried one by one, so that each item gets its own result <br>
+	 * - note: the results are in the order of the request
+	 */
+	protected final List< BulkItemResult > createInBulkInternal( final List< T > resources ){
+		RestPreconditions.checkRequestElementNotNull( resources );
+		final BulkItemResult[] results = new BulkItemResult[resources.size()];
+		final List< Integer > indexes = Lists.newArrayList();
+		for( int i = 0; i < resources.size(); i++ ){
+			final T resource = resources.get( i );
+			if( resource == null || resource.getId() != null ){
+				results[i] = new BulkItemResult( i, HttpStatus.CONFLICT, null, "New resources must not have an id" );
+			}
+			else{
+				indexes.add( i );
+			}
+		}
+		
+		for( final List< Integer > chunk : Lists.partition( indexes, bulkChunkSize ) ){
+			final List< T > chunkResources = elementsAt( resources, chunk );
+			try{
+				getService().createInBulk( chunkResources );
+				for( final Integer index : chunk ){
+					results[index] = new BulkItemResult( index, HttpStatus.CREATED, resources.get( index ).getId(), null );
+				}
+			}
+			catch( final RuntimeException chunkEx ){
+				logger.warn( "Bulk create of a chunk failed; retrying its items one by one", chunkEx );
+				for( final Integer index : chunk ){
+					results[index] = createItem( index, resources.get( index ) );
+				}
+			}
+		}
+		
+		return Arrays.asList( results );
+	}
+	
+	/**
+	 * - note: see {@link #createInBulkInternal(List)}
+	 */
+	protected final List< BulkItemResult > updateInBulkInternal( final List< T > resources ){
+		RestPreconditions.checkRequestElementNotNull( resources );
+		final BulkItemResult[] results = new BulkItemResult[resources.size()];
+		final List< Integer > indexes = Lists.newArrayList();
+		for( int i = 0; i < resources.size(); i++ ){
+			final T resource = resources.get( i );
+			if( resource == null || resource.getId() == null ){
+				results[i] = new BulkItemResult( i, HttpStatus.CONFLICT, null, "Updated resources must have an id" );
+			}
+			else{
+				indexes.add( i );
+			}
+		}
+		
+		for( final List< Integer > chunk : Lists.partition( indexes, bulkChunkSize ) ){
+			try{
+				final int[] updated = getService().updateInBulk( elementsAt( resources, chunk ) );
+				for( int i = 0; i < chunk.size(); i++ ){
+					final int index = chunk.get( i );
+					results[index] = new BulkItemResult( index, ( updated[i] == 0 ) ? HttpStatus.NOT_FOUND : HttpStatus.OK, resources.get( index ).getId(), null );
+				}
+			}
+			catch( final RuntimeException chunkEx ){
+				logger.warn( "Bulk update of a chunk failed; retrying its items one by one", chunkEx );
+				for( final Integer index : chunk ){
+					results[index] = updateItem( index, resources.get( index ) );
+				}
+			}
+		}
+		
+		return Arrays.asList( results );
+	}
+	
+	/**
+	 * - note: see {@link #createInBulkInternal(List)}
+	 */
+	protected final List< BulkItemResult > deleteInBulkInternal( final List< Long > ids ){
+		RestPreconditions.checkRequestElementNotNull( ids );
+		final BulkItemResult[] results = new BulkItemResult[ids.size()];
+		final List< Integer > indexes = Lists.newArrayList();
+		for( int i = 0; i < ids.size(); i++ ){
+			if( ids.get( i ) == null ){
+				results[i] = new BulkItemResult( i, HttpStatus.NOT_FOUND, null, null );
+			}
+			else{
+				indexes.add( i );
+			}
+		}
+		
+		for( final List< Integer > chunk : Lists.partition( indexes, bulkChunkSize ) ){
+			try{
+				final boolean[] deleted = getService().deleteInBulk( elementsAt( ids, chunk ) );
+				for( int i = 0; i < chunk.size(); i++ ){
+					final int index = chunk.get( i );
+					results[index] = new BulkItemResult( index, deleted[i] ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND, ids.get( index ), null );
+				}
+			}
+			catch( final RuntimeException chunkEx ){
+				logger.warn( "Bulk delete of a chunk failed; retrying its items one by one", chunkEx );
+				for( final Integer index : chunk ){
+					results[index] = deleteItem( index, ids.get( index ) );
+				}
+			}
+		}
+		
+		return Arrays.asList( results );
+	}
+	
+	private BulkItemResult createItem( final int index, final T resource ){
+		// - note: the failed chunk may have assigned an id and version before rolling back
+		resource.setId( null );
+		resource.setVersion( null );
+		try{
+			getService().create( resource );
+			return new BulkItemResult( index, HttpStatus.CREATED, resource.getId(), null );
+		}
+		catch( final RuntimeException itemEx ){
+			return failedItem( index, null, itemEx );
+		}
+	}
+	
+	private BulkItemResult updateItem( final int index, final T resource ){
+		try{
+			final HttpStatus status = ( getService().updateIfExists( resource ) == 0 ) ? HttpStatus.NOT_FOUND : HttpStatus.OK;
+			return new BulkItemResult( index, status, resource.getId(), null );
+		}
+		catch( final RuntimeException itemEx ){
+			return failedItem( index, resource.getId(), itemEx );
+		}
+	}
+	
+	private BulkItemResult deleteItem( final int index, final Long id ){
+		try{
+			final HttpStatus status = getService().deleteIfExists( id ) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND;
+			return new BulkItemResult( index, status, id, null );
+		}
+		catch( final RuntimeException itemEx ){
+			return failedItem( index, id, itemEx );
+		}
+	}
+	
+	/**
+	 * The result of an item that failed on its own, with the status it would have had as a single request - any failure of the item is its own result, so one item can never fail the items after it <br>
+	 * - note: the message is fixed per status - the message of the exception may hold the statement or the values of the item, so it is only logged
+	 */
+	private BulkItemResult failedItem( final int index, final Long id, final RuntimeException itemEx ){
+		final HttpStatus status;
+		final String message;
+		if( itemEx instanceof IllegalStateException || itemEx instanceof DataAccessException ){ // on unique constraint or on a stale version
+			status = HttpStatus.CONFLICT;
+			message = "The resource conflicts with the current state of the server";
+		}
+		else if( itemEx instanceof IllegalArgumentException ){
+			status = HttpStatus.BAD_REQUEST;
+			message = "The resource is not valid";
+		}
+		else{
+			status = HttpStatus.INTERNAL_SERVER_ERROR;
+			message = "The resource could not be processed";
+		}
+		logger.warn( "Bulk item " + index + " failed with " + status.value(), itemEx );
+		return new BulkItemResult( index, status, id, message );
+	}
+	
+	private static < E >List< E > elementsAt( final List< E > elements, final List< Integer > indexes ){
+		final List< E > selected = Lists.newArrayListWithCapacity( indexes.size() );
+		for( final Integer index : indexes ){
+			selected.add( elements.get( index ) );
+		}
+		return selected;
+	}
+	
+	// conditional requests
+	
+	private String nestedTag(){
+		final Class< ? >[] nestedEntities = nestedEntities();
+		return ( nestedEntities.length == 0 ) ? null : collectionVersions.tagOf( nestedEntities );
+	}
+	
+	private String etagOf( final T resource, final String nestedTag ){
+		if( nestedTag == null ){
+			return ETags.of( resource.getId(), resource.getVersion() );
+		}
+		return ETags.of( resource.getId(), resource.getVersion(), nestedTag );
+	}
+	
+	private String collectionEtag(){
+		final Class< ? >[] nestedEntities = nestedEntities();
+		final Class< ? >[] entityTypes = new Class< ? >[nestedEntities.length + 1];
+		entityTypes[0] = entityClass();
+		System.arraycopy( nestedEntities, 0, entityTypes, 1, nestedEntities.length );
+		return ETags.of( collectionVersions.tagOf( entityTypes ) );
+	}
+	
+	/**
+	 * Sets the validators on the response and answers <code>304 Not Modified</code> if the client representation is still current
+	 */
+	private boolean notModified( final String etag, final HttpServletRequest request, final HttpServletResponse response ){
+		response.setHeader( HttpHeaders.ETAG, etag );
+		response.setHeader( HttpHeaders.VARY, HttpHeaders.ACCEPT );
+		if( ETags.noneMatchFails( request.getHeader( HttpHeaders.IF_NONE_MATCH ), etag ) ){
+			response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * The version the write must be conditional on, as named by the <code>If-Match</code> request header <br>
+	 * - note: a single tag of the resource names its version, which is taken as it is - nothing is read, the conditional write checks it; only a header naming several versions (or the unversioned tag of a legacy row) is compared with the current resource
+	 * @return the version; null if there is no <code>If-Match</code> header, or it accepts any version (<code>*</code>)
+	 * @throws PreconditionFailedException if the header names no version of the current representation of the resource
+	 */
+	private Long matchedVersion( final long id, final HttpServletRequest request ){
+		final List< String > versions = ETags.versionsMatchedBy( request.getHeader( HttpHeaders.IF_MATCH ), id, nestedTag() );
+		if( versions == null ){
+			return null;
+		}
+		if( versions.isEmpty() ){
+			throw new PreconditionFailedException( "Resource has been modified; the entity tag does not match the current representation" );
+		}
+		if( versions.size() == 1 ){
+			try{
+				return Long.valueOf( versions.get( 0 ) );
+			}
+			catch( final NumberFormatException notAVersion ){
+				// the tag of an entity without a version - compared with the current resource below
+			}
+		}
+		
+		final T current = RestPreconditions.checkNotNull( getService().findOne( id ) );
+		if( !versions.contains( String.valueOf( current.getVersion() ) ) ){
+			throw new PreconditionFailedException( "Resource has been modified; current entity tag is: " + etagOf( current, nestedTag() ) );
+		}
+		return current.getVersion();
+	}
+	
 	// template method
 	
 	protected abstract IService< T > getService();
 	
+	/**
+	 * - note: whether paginated retrieval runs the COUNT query when the client does not say (via ?count=); resources backed by large tables can turn this off
+	 */
+	protected boolean countByDefault(){
+		return true;
+	}
+	
+	/**
+	 * - note: whether uncounted paginated retrieval uses the (cached, approximate) total to still provide the last page link
+	 */
+	protected boolean approximateCountEnabled(){
+		return false;
+	}
+	
+	/**
+	 * - note: the entity type whose changes invalidate the collection entity tag; resources exposed as DTOs return the backing entity
+	 */
+	protected Class< ? > entityClass(){
+		return clazz;
+	}
+	
+	/**
+	 * - note: the entity types embedded in the representation of the resource, whose changes must also invalidate its entity tags
+	 */
+	protected Class< ? >[] nestedEntities(){
+		return new Class< ? >[0];
+	}
+	
 }
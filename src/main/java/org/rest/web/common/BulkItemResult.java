@@ -0,0 +1,69 @@
+package org.rest.web.common;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.springframework.http.HttpStatus;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+
+/**
+ * The outcome of one item of a bulk request: its position in the request, the status it would have had as a single request, and the id of the resource (when there is one)
+ */
+@XStreamAlias( "result" )
+public class BulkItemResult{
+	
+	@XStreamAsAttribute private int index;
+	@XStreamAsAttribute private int status;
+	@XStreamAsAttribute private Long id;
+	private String message;
+	
+	public BulkItemResult(){
+		super();
+	}
+	public BulkItemResult( final int indexToSet, final HttpStatus statusToSet, final Long idToSet, final String messageToSet ){
+		super();
+		
+		index = indexToSet;
+		status = statusToSet.value();
+		id = idToSet;
+		message = messageToSet;
+	}
+	
+	// API
+	
+	public int getIndex(){
+		return index;
+	}
+	public void setIndex( final int indexToSet ){
+		index = indexToSet;
+	}
+	
+	public int getStatus(){
+		return status;
+	}
+	public void setStatus( final int statusToSet ){
+		status = statusToSet;
+	}
+	
+	public Long getId(){
+		return id;
+	}
+	public void setId( final Long idToSet ){
+		id = idToSet;
+	}
+	
+	public String getMessage(){
+		return message;
+	}
+	public void setMessage( final String messageToSet ){
+		message = messageToSet;
+	}
+	
+	//
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder( this ).append( "index", index ).append( "status", status ).append( "id", id ).toString();
+	}
+	
+}
@@ -0,0 +1,54 @@
+package org.rest.web.common;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.rest.common.util.QueryUtil;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Computes the entity tag of a collection resource from the data itself, without running the query behind the collection <br>
+ * - note: the tag of an entity type is its row count, greatest id and sum of versions - a create raises the greatest id (ids are never reused), a delete lowers the count and an update raises the version; so any committed change, made by any node of the cluster, changes the tag <br>
+ * - note: a single aggregate query per entity type, over the id and version columns only <br>
+ * - note: the tag is read before the collection; a change committed in between leaves the client with a tag older than its representation, which only costs it a full response on its next request
+ */
+@Component
+public class CollectionVersions{
+	
+	@PersistenceContext private EntityManager entityManager;
+	
+	public CollectionVersions(){
+		super();
+	}
+	
+	// API
+	
+	/**
+	 * @return the current tag of the given entity types - changes whenever an entity of any of these types is created, updated or deleted
+	 */
+	public final String tagOf( final Class< ? >... entityTypes ){
+		Preconditions.checkArgument( entityTypes.length > 0 );
+		
+		final StringBuilder tag = new StringBuilder();
+		for( final Class< ? > entityType : entityTypes ){
+			if( tag.length() > 0 ){
+				tag.append( '.' );
+			}
+			final Object[] aggregates = (Object[]) entityManager.createQuery( "select count(e), max(e." + QueryUtil.ID + "), sum(e.version) from " + entityManager.getMetamodel().entity( entityType ).getName() + " e" ).getSingleResult();
+			tag.append( valueOf( aggregates[0] ) ).append( '.' ).append( valueOf( aggregates[1] ) ).append( '.' ).append( valueOf( aggregates[2] ) );
+		}
+		return tag.toString();
+	}
+	
+	//
+	
+	/**
+	 * - note: max and sum are null over no rows (and sum over only legacy, unversioned rows)
+	 */
+	private static String valueOf( final Object aggregate ){
+		return ( aggregate == null ) ? "0" : aggregate.toString();
+	}
+	
+}
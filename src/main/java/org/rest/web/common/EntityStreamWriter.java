@@ -0,0 +1,120 @@
+package org.rest.web.common;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.rest.persistence.service.IEntityCallback;
+import org.rest.persistence.service.IService;
+import org.rest.web.marshalling.SecXmlMarshaller;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Writes a whole collection resource straight to the response, one entity at a time, as the service streams it - so the memory used does not depend on the size of the collection <br>
+ * - note: the representation is the one of the (non streamed) list: a JSON array, or a <code>list</code> element, as written by XStream
+ */
+@Component
+public class EntityStreamWriter{
+	private static final String XML_LIST = "list";
+	
+	@Autowired private ObjectMapper objectMapper;
+	@Autowired private SecXmlMarshaller xmlMarshaller;
+	
+	public EntityStreamWriter(){
+		super();
+	}
+	
+	// API
+	
+	public final void writeAll( final IService< ? > service, final HttpServletRequest request, final HttpServletResponse response ) throws IOException{
+		if( prefersJson( request ) ){
+			writeAllAsJson( service, response );
+		}
+		else{
+			writeAllAsXml( service, response );
+		}
+	}
+	
+	//
+	
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	final void writeAllAsJson( final IService service, final HttpServletResponse response ) throws IOException{
+		response.setContentType( MediaType.APPLICATION_JSON.toString() );
+		final JsonGenerator generator = objectMapper.getJsonFactory().createJsonGenerator( response.getOutputStream(), JsonEncoding.UTF8 );
+		generator.writeStartArray();
+		service.streamAll( new IEntityCallback< Object >(){
+			@Override
+			public final void handle( final Object entity ){
+				try{
+					objectMapper.writeValue( generator, entity );
+				}
+				catch( final IOException ioEx ){
+					throw Throwables.propagate( ioEx );
+				}
+			}
+		} );
+		generator.writeEndArray();
+		generator.close();
+	}
+	
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	final void writeAllAsXml( final IService service, final HttpServletResponse response ) throws IOException{
+		response.setContentType( MediaType.APPLICATION_XML.toString() );
+		response.setCharacterEncoding( Charsets.UTF_8.name() );
+		try{
+			final XMLStreamWriter writer = xmlMarshaller.createWriter( response.getOutputStream() );
+			writer.writeStartElement( XML_LIST );
+			service.streamAll( new IEntityCallback< Object >(){
+				@Override
+				public final void handle( final Object entity ){
+					try{
+						xmlMarshaller.writeElement( entity, writer );
+					}
+					catch( final XMLStreamException xmlEx ){
+						throw Throwables.propagate( xmlEx );
+					}
+				}
+			} );
+			writer.writeEndElement();
+			writer.flush();
+		}
+		catch( final XMLStreamException xmlEx ){
+			throw new IOException( xmlEx );
+		}
+	}
+	
+	/**
+	 * - note: XML, as for the rest of the API, unless JSON is the most preferred of the two
+	 */
+	final boolean prefersJson( final HttpServletRequest request ){
+		final String accept = request.getHeader( HttpHeaders.ACCEPT );
+		if( accept == null ){
+			return false;
+		}
+		final List< MediaType > mediaTypes = MediaType.parseMediaTypes( accept );
+		MediaType.sortByQualityValue( mediaTypes );
+		for( final MediaType mediaType : mediaTypes ){
+			if( !mediaType.isWildcardSubtype() && mediaType.includes( MediaType.APPLICATION_JSON ) ){
+				return true;
+			}
+			if( mediaType.includes( MediaType.APPLICATION_XML ) ){
+				return false;
+			}
+		}
+		return false;
+	}
+	
+}
@@ -0,0 +1,160 @@
+package org.rest.web.common;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.rest.common.util.RESTURIUtil;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * The discoverability (<code>Link</code>) headers of a resource, written straight to the response from fragments precomputed once per resource <br>
+ * - note: the only per request work is rendering the base URI (scheme, host, context and servlet path) once, and appending the numbers; the sort, when there is one, is carried by every link of the page; the output is exactly what building every URI with {@link UriComponentsBuilder} produces
+ */
+public final class ResourceLinks{
+	private static final ConcurrentMap< Class< ? >, ResourceLinks > REGISTRY = Maps.newConcurrentMap();
+	
+	private final String collectionLinkSuffix;
+	private final String pagePrefix;
+	private final String searchPrefix;
+	private final String keysetPrefix;
+	private final String sizeParam;
+	private final String sortParam;
+	
+	private ResourceLinks( final Class< ? > clazz ){
+		super();
+		
+		final String resourcePath = "/" + clazz.getSimpleName().toLowerCase();
+		collectionLinkSuffix = resourcePath + ">; rel=\"" + RESTURIUtil.REL_COLLECTION + "\"";
+		pagePrefix = resourcePath + "?page=";
+		searchPrefix = resourcePath + "?q=";
+		keysetPrefix = resourcePath + "?after=";
+		sizeParam = "&size=";
+		sortParam = "&sortBy=";
+	}
+	
+	// API
+	
+	/**
+	 * @return the (shared) links of the given resource
+	 */
+	public static ResourceLinks forResource( final Class< ? > clazz ){
+		Preconditions.checkNotNull( clazz );
+		
+		final ResourceLinks links = REGISTRY.get( clazz );
+		if( links != null ){
+			return links;
+		}
+		final ResourceLinks newLinks = new ResourceLinks( clazz );
+		final ResourceLinks existingLinks = REGISTRY.putIfAbsent( clazz, newLinks );
+		return ( existingLinks != null ) ? existingLinks : newLinks;
+	}
+	
+	/**
+	 * - note: the link to the collection, from a single resource
+	 */
+	public final void addCollectionLink( final UriComponentsBuilder uriBuilder, final HttpServletResponse response ){
+		response.addHeader( HttpHeaders.LINK, "<" + baseUriOf( uriBuilder ) + collectionLinkSuffix );
+	}
+	
+	/**
+	 * @param totalPages the total number of pages; not positive if it was not counted, in which case there is no last link
+	 * @param sortBy the sort of the page; null if there is none
+	 */
+	public final void addPageLinks( final UriComponentsBuilder uriBuilder, final HttpServletResponse response, final int page, final int totalPages, final int pageSize, final String sortBy, final boolean hasNextPage ){
+		addPageLinks( pagePrefix, uriBuilder, response, page, totalPages, pageSize, sortSuffix( sortBy ), hasNextPage );
+	}
+	
+	/**
+	 * The page links of the results of a search - the same as {@link #addPageLinks(UriComponentsBuilder, HttpServletResponse, int, int, int, String, boolean)}, with the (encoded) query in front
+	 */
+	public final void addSearchPageLinks( final UriComponentsBuilder uriBuilder, final HttpServletResponse response, final String queryString, final int page, final int totalPages, final int pageSize, final String sortBy, final boolean hasNextPage ){
+		addPageLinks( searchPrefix + encode( queryString ) + "&page=", uriBuilder, response, page, totalPages, pageSize, sortSuffix( sortBy ), hasNextPage );
+	}
+	
+	/**
+	 * - note: the cursors are URL safe tokens, so they are appended as they are
+	 * @param cursor the cursor of the current page; null or empty for the first page
+	 * @param nextCursor the cursor of the next page; null if this is the last page
+	 * @param sortBy the sort of the walk; null if it is by id - the cursors only hold for the sort they come from
+	 */
+	public final void addKeysetLinks( final UriComponentsBuilder uriBuilder, final HttpServletResponse response, final String cursor, final String nextCursor, final int pageSize, final String sortBy ){
+		final boolean hasFirst = cursor != null && !cursor.isEmpty();
+		if( nextCursor == null && !hasFirst ){
+			return;
+		}
+		final String baseUri = baseUriOf( uriBuilder );
+		final String sortSuffix = sortSuffix( sortBy );
+		
+		final StringBuilder linkHeader = new StringBuilder( 256 );
+		if( nextCursor != null ){
+			appendKeysetLink( linkHeader, baseUri, nextCursor, pageSize, sortSuffix, RESTURIUtil.REL_NEXT );
+		}
+		if( hasFirst ){
+			appendKeysetLink( linkHeader, baseUri, "", pageSize, sortSuffix, RESTURIUtil.REL_FIRST );
+		}
+		
+		response.addHeader( HttpHeaders.LINK, linkHeader.toString() );
+	}
+	
+	//
+	
+	private void addPageLinks( final String prefix, final UriComponentsBuilder uriBuilder, final HttpServletResponse response, final int page, final int totalPages, final int pageSize, final String sortSuffix, final boolean hasNextPage ){
+		final String baseUri = baseUriOf( uriBuilder );
+		
+		final StringBuilder linkHeader = new StringBuilder( 256 );
+		if( hasNextPage ){
+			appendPageLink( linkHeader, baseUri, prefix, page + 1, pageSize, sortSuffix, RESTURIUtil.REL_NEXT );
+		}
+		if( page > 0 ){
+			appendPageLink( linkHeader, baseUri, prefix, page - 1, pageSize, sortSuffix, RESTURIUtil.REL_PREV );
+			appendPageLink( linkHeader, baseUri, prefix, 0, pageSize, sortSuffix, RESTURIUtil.REL_FIRST );
+		}
+		if( hasNextPage && totalPages > 1 && page < totalPages - 1 ){
+			appendPageLink( linkHeader, baseUri, prefix, totalPages, pageSize, sortSuffix, RESTURIUtil.REL_LAST );
+		}
+		
+		response.addHeader( HttpHeaders.LINK, linkHeader.toString() );
+	}
+	
+	private void appendPageLink( final StringBuilder linkHeader, final String baseUri, final String prefix, final int page, final int pageSize, final String sortSuffix, final String rel ){
+		appendSeparatorIfNecessary( linkHeader );
+		linkHeader.append( '<' ).append( baseUri ).append( prefix ).append( page ).append( sizeParam ).append( pageSize ).append( sortSuffix ).append( ">; rel=\"" ).append( rel ).append( '"' );
+	}
+	
+	private void appendKeysetLink( final StringBuilder linkHeader, final String baseUri, final String cursor, final int pageSize, final String sortSuffix, final String rel ){
+		appendSeparatorIfNecessary( linkHeader );
+		linkHeader.append( '<' ).append( baseUri ).append( keysetPrefix ).append( cursor ).append( sizeParam ).append( pageSize ).append( sortSuffix ).append( ">; rel=\"" ).append( rel ).append( '"' );
+	}
+	
+	private String sortSuffix( final String sortBy ){
+		return ( sortBy == null ) ? "" : sortParam + encode( sortBy );
+	}
+	
+	private static String encode( final String queryParam ){
+		try{
+			return URLEncoder.encode( queryParam, Charsets.UTF_8.name() );
+		}
+		catch( final UnsupportedEncodingException ex ){
+			throw new IllegalStateException( ex );
+		}
+	}
+	
+	private static void appendSeparatorIfNecessary( final StringBuilder linkHeader ){
+		if( linkHeader.length() > 0 ){
+			linkHeader.append( ", " );
+		}
+	}
+	
+	private static String baseUriOf( final UriComponentsBuilder uriBuilder ){
+		return uriBuilder.build().encode().toUriString();
+	}
+	
+}
@@ -0,0 +1,377 @@
+package org.rest.web.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.rest.common.web.ETags;
+
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Compresses the response body with the negotiated encoding - once it is known to reach the minimum size: until then the body is buffered, and a smaller one is written as is, with its Content-Length <br>
+ * - note: a compressed representation is a different one, so it gets <code>Vary: Accept-Encoding</code>, and its entity tag (if any) gets the encoding appended - it stays strong, so it still matches on <code>If-Match</code> (see {@link ETags})
+ */
+final class CompressingResponseWrapper extends HttpServletResponseWrapper{
+	private static final int BUFFER_SIZE = 8192;
+	private static final String WEAK_PREFIX = "W/";
+	/** magic, CM (deflate), FLG (none), MTIME (none), XFL, OS (unknown) */
+	private static final byte[] GZIP_HEADER = new byte[ ] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+	
+	private final String encoding;
+	private final DeflaterPool deflaters;
+	private final int minSize;
+	
+	private CompressingOutputStream outputStream;
+	private PrintWriter writer;
+	private boolean outputStreamUsed;
+	private boolean varySet;
+	private boolean bypassed;
+	private String etag;
+	
+	CompressingResponseWrapper( final HttpServletResponse response, final String encodingToSet, final DeflaterPool deflatersToSet, final int minSizeToSet ){
+		super( response );
+		
+		encoding = encodingToSet;
+		deflaters = deflatersToSet;
+		minSize = minSizeToSet;
+	}
+	
+	// API - body
+	
+	@Override
+	public final ServletOutputStream getOutputStream(){
+		if( writer != null ){
+			throw new IllegalStateException( "getWriter() has already been called for this response" );
+		}
+		outputStreamUsed = true;
+		return stream();
+	}
+	
+	@Override
+	public final PrintWriter getWriter() throws IOException{
+		if( writer == null ){
+			if( outputStreamUsed ){
+				throw new IllegalStateException( "getOutputStream() has already been called for this response" );
+			}
+			writer = new PrintWriter( new OutputStreamWriter( stream(), getCharacterEncoding() ) );
+		}
+		return writer;
+	}
+	
+	@Override
+	public final void flushBuffer() throws IOException{
+		if( writer != null ){
+			writer.flush();
+		}
+		// - note: until the body is known to be compressed or not, flushing would commit the response without its Content-Encoding
+		if( outputStream != null && outputStream.isCompressing() ){
+			outputStream.flush();
+			super.flushBuffer();
+		}
+	}
+	
+	@Override
+	public final void resetBuffer(){
+		super.resetBuffer();
+		if( outputStream != null ){
+			outputStream.resetBuffer();
+		}
+	}
+	
+	@Override
+	public final void reset(){
+		super.reset();
+		if( outputStream != null ){
+			outputStream.resetBuffer();
+		}
+		varySet = false;
+		etag = null;
+	}
+	
+	// API - headers
+	
+	/**
+	 * - note: the length is the one of the body as written - only known once it is
+	 */
+	@Override
+	public final void setContentLength( final int len ){
+		//
+	}
+	
+	@Override
+	public final void setHeader( final String name, final String value ){
+		if( !intercepted( name, value ) ){
+			super.setHeader( name, value );
+		}
+		else if( HttpHeaders.VARY.equalsIgnoreCase( name ) ){
+			super.setHeader( name, withAcceptEncoding( value ) );
+		}
+		else if( HttpHeaders.ETAG.equalsIgnoreCase( name ) ){
+			super.setHeader( name, value );
+		}
+	}
+	
+	@Override
+	public final void addHeader( final String name, final String value ){
+		if( !intercepted( name, value ) ){
+			super.addHeader( name, value );
+		}
+		else if( HttpHeaders.VARY.equalsIgnoreCase( name ) ){
+			super.addHeader( name, withAcceptEncoding( value ) );
+		}
+		else if( HttpHeaders.ETAG.equalsIgnoreCase( name ) ){
+			super.addHeader( name, value );
+		}
+	}
+	
+	@Override
+	public final void setIntHeader( final String name, final int value ){
+		if( !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase( name ) ){
+			super.setIntHeader( name, value );
+		}
+	}
+	
+	@Override
+	public final void addIntHeader( final String name, final int value ){
+		if( !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase( name ) ){
+			super.addIntHeader( name, value );
+		}
+	}
+	
+	// API - errors
+	
+	@Override
+	public final void sendError( final int sc ) throws IOException{
+		bypassed = true;
+		super.sendError( sc );
+	}
+	
+	@Override
+	public final void sendError( final int sc, final String msg ) throws IOException{
+		bypassed = true;
+		super.sendError( sc, msg );
+	}
+	
+	@Override
+	public final void sendRedirect( final String location ) throws IOException{
+		bypassed = true;
+		super.sendRedirect( location );
+	}
+	
+	// lifecycle
+	
+	/**
+	 * Writes what is still buffered - compressed or not - once the request has been handled
+	 */
+	final void finish() throws IOException{
+		if( writer != null ){
+			writer.flush();
+		}
+		if( outputStream != null && !bypassed ){
+			outputStream.finish();
+		}
+	}
+	
+	/**
+	 * - note: must always be called, even when the request fails, to return the deflater to the pool
+	 */
+	final void release(){
+		if( outputStream != null ){
+			outputStream.release();
+		}
+	}
+	
+	final boolean isCompressed(){
+		return outputStream != null && outputStream.isCompressing();
+	}
+	
+	/**
+	 * @return the number of bytes of the body before, and after, compression - or 0 if it was not compressed
+	 */
+	final long getUncompressedSize(){
+		return isCompressed() ? outputStream.uncompressedSize : 0;
+	}
+	final long getCompressedSize(){
+		return isCompressed() ? outputStream.compressedSize : 0;
+	}
+	
+	//
+	
+	private CompressingOutputStream stream(){
+		if( outputStream == null ){
+			outputStream = new CompressingOutputStream();
+		}
+		return outputStream;
+	}
+	
+	/**
+	 * - note: the Content-Length is dropped, the Vary is extended with Accept-Encoding, and the ETag is kept aside - in case the body is compressed
+	 * @return true if the header needs more than passing through
+	 */
+	private boolean intercepted( final String name, final String value ){
+		if( HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase( name ) ){
+			return true;
+		}
+		if( HttpHeaders.VARY.equalsIgnoreCase( name ) ){
+			varySet = true;
+			return true;
+		}
+		if( HttpHeaders.ETAG.equalsIgnoreCase( name ) ){
+			etag = value;
+			return true;
+		}
+		return false;
+	}
+	
+	private static String withAcceptEncoding( final String vary ){
+		if( vary == null || vary.trim().isEmpty() ){
+			return HttpHeaders.ACCEPT_ENCODING;
+		}
+		return vary.toLowerCase( Locale.ENGLISH ).contains( HttpHeaders.ACCEPT_ENCODING.toLowerCase( Locale.ENGLISH ) ) ? vary : vary + ", " + HttpHeaders.ACCEPT_ENCODING;
+	}
+	
+	private void beforeCommit( final boolean compressing ){
+		if( !varySet ){
+			super.addHeader( HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING );
+		}
+		if( compressing ){
+			super.setHeader( HttpHeaders.CONTENT_ENCODING, encoding );
+			if( etag != null && !etag.startsWith( WEAK_PREFIX ) ){
+				super.setHeader( HttpHeaders.ETAG, ETags.withEncoding( etag, encoding ) );
+			}
+		}
+	}
+	
+	/**
+	 * Buffers the body up to the minimum size, then compresses it straight to the response
+	 */
+	final class CompressingOutputStream extends ServletOutputStream{
+		private byte[] buffer;
+		private int count;
+		
+		private DeflaterOutputStream compressed;
+		private Deflater deflater;
+		private CRC32 crc;
+		
+		long uncompressedSize;
+		long compressedSize;
+		
+		CompressingOutputStream(){
+			super();
+		}
+		
+		@Override
+		public final void write( final int b ) throws IOException{
+			if( compressed == null && count < minSize ){
+				buffer()[count++] = (byte) b;
+				return;
+			}
+			write( new byte[ ] { (byte) b }, 0, 1 );
+		}
+		
+		@Override
+		public final void write( final byte[] b, final int off, final int len ) throws IOException{
+			if( compressed == null ){
+				if( count + len <= minSize ){
+					System.arraycopy( b, off, buffer(), count, len );
+					count += len;
+					return;
+				}
+				startCompressing();
+			}
+			compressed.write( b, off, len );
+			if( crc != null ){
+				crc.update( b, off, len );
+			}
+			uncompressedSize += len;
+		}
+		
+		@Override
+		public final void flush() throws IOException{
+			if( compressed != null ){
+				compressed.flush();
+			}
+		}
+		
+		final boolean isCompressing(){
+			return compressed != null;
+		}
+		
+		final void resetBuffer(){
+			if( compressed == null ){
+				count = 0;
+			}
+		}
+		
+		final void finish() throws IOException{
+			if( compressed == null ){
+				if( count > 0 ){
+					beforeCommit( false );
+					getResponse().setContentLength( count );
+					getResponse().getOutputStream().write( buffer, 0, count );
+				}
+				return;
+			}
+			
+			compressed.finish();
+			compressedSize = deflater.getTotalOut();
+			if( crc != null ){
+				final OutputStream out = getResponse().getOutputStream();
+				writeIntLE( out, (int) crc.getValue() );
+				writeIntLE( out, (int) uncompressedSize );
+				compressedSize += GZIP_HEADER.length + 8;
+			}
+			release();
+		}
+		
+		final void release(){
+			if( deflater != null ){
+				deflaters.release( deflater );
+				deflater = null;
+			}
+		}
+		
+		//
+		
+		private byte[] buffer(){
+			if( buffer == null ){
+				buffer = new byte[ minSize ];
+			}
+			return buffer;
+		}
+		
+		private void startCompressing() throws IOException{
+			beforeCommit( true );
+			
+			final OutputStream out = getResponse().getOutputStream();
+			deflater = deflaters.borrow();
+			if( CompressionFilter.GZIP.equals( encoding ) ){
+				out.write( GZIP_HEADER );
+				crc = new CRC32();
+			}
+			compressed = new DeflaterOutputStream( out, deflater, BUFFER_SIZE );
+			if( count > 0 ){
+				write( buffer, 0, count );
+			}
+			buffer = null;
+		}
+		
+		private void writeIntLE( final OutputStream out, final int value ) throws IOException{
+			out.write( value & 0xff );
+			out.write( ( value >>> 8 ) & 0xff );
+			out.write( ( value >>> 16 ) & 0xff );
+			out.write( ( value >>> 24 ) & 0xff );
+		}
+	}
+	
+}
@@ -0,0 +1,272 @@
+package org.rest.web.compression;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.GenericFilterBean;
+
+import com.google.common.base.Splitter;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Negotiated compression of the responses (<code>Accept-Encoding: gzip</code>, or <code>deflate</code>) that reach a minimum size, and decompression of the compressed request bodies (bulk uploads) <br>
+ * - note: the deflaters are pooled - see {@link DeflaterPool} <br>
+ * - note: a request body may not inflate beyond a maximum size - past it, the request fails with a 413 <br>
+ * - note: mapped in web.xml ahead of the security filter chain, through a DelegatingFilterProxy - so the name of the bean matters
+ */
+@Component( "compressionFilter" )
+@ManagedResource( objectName = "org.rest:name=compressionFilter",description = "Compression of the responses and decompression of the requests" )
+public final class CompressionFilter extends GenericFilterBean{
+	static final String GZIP = "gzip";
+	static final String DEFLATE = "deflate";
+	private static final String X_GZIP = "x-gzip";
+	private static final String IDENTITY = "identity";
+	private static final String ANY = "*";
+	private static final String HEAD = "HEAD";
+	
+	private static final Splitter LIST_SPLITTER = Splitter.on( ',' ).trimResults().omitEmptyStrings();
+	private static final Splitter PARAMETER_SPLITTER = Splitter.on( ';' ).trimResults().omitEmptyStrings();
+	
+	@Value( "${web.compression.enabled:true}" ) boolean enabled = true;
+	@Value( "${web.compression.minSize:1024}" ) int minSize = 1024;
+	@Value( "${web.compression.level:6}" ) int level = 6;
+	@Value( "${web.compression.deflaterPoolSize:32}" ) int deflaterPoolSize = 32;
+	@Value( "${web.compression.maxInflatedSize:10485760}" ) long maxInflatedSize = 10485760;
+	
+	private DeflaterPool gzipDeflaters;
+	private DeflaterPool deflateDeflaters;
+	
+	private final AtomicLong compressedCount = new AtomicLong();
+	private final AtomicLong uncompressedCount = new AtomicLong();
+	private final AtomicLong uncompressedBytes = new AtomicLong();
+	private final AtomicLong compressedBytes = new AtomicLong();
+	private final AtomicLong decompressedRequestCount = new AtomicLong();
+	private final AtomicLong rejectedRequestCount = new AtomicLong();
+	
+	public CompressionFilter(){
+		super();
+	}
+	
+	// lifecycle
+	
+	@Override
+	protected final void initFilterBean(){
+		gzipDeflaters = new DeflaterPool( level, true, deflaterPoolSize );
+		deflateDeflaters = new DeflaterPool( level, false, deflaterPoolSize );
+	}
+	
+	@Override
+	public final void destroy(){
+		gzipDeflaters.clear();
+		deflateDeflaters.clear();
+	}
+	
+	// API
+	
+	@Override
+	public final void doFilter( final ServletRequest request, final ServletResponse response, final FilterChain chain ) throws IOException, ServletException{
+		final HttpServletRequest httpRequest = (HttpServletRequest) request;
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+		
+		DecompressingRequestWrapper decompressingRequest = null;
+		final String contentEncoding = supportedContentEncoding( httpRequest.getHeader( HttpHeaders.CONTENT_ENCODING ) );
+		if( contentEncoding == null ){
+			httpResponse.sendError( HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding: " + httpRequest.getHeader( HttpHeaders.CONTENT_ENCODING ) );
+			return;
+		}
+		if( !IDENTITY.equals( contentEncoding ) ){
+			decompressingRequest = new DecompressingRequestWrapper( httpRequest, contentEncoding, maxInflatedSize );
+			decompressedRequestCount.incrementAndGet();
+			httpResponse = decompressingRequest.reportingLimitOn( httpResponse );
+		}
+		final HttpServletRequest effectiveRequest = ( decompressingRequest != null ) ? decompressingRequest : httpRequest;
+		
+		final String encoding = ( enabled && !HEAD.equals( httpRequest.getMethod() ) ) ? negotiate( httpRequest.getHeader( HttpHeaders.ACCEPT_ENCODING ) ) : null;
+		if( encoding == null ){
+			try{
+				chain.doFilter( effectiveRequest, httpResponse );
+			}
+			catch( final IOException ioEx ){
+				rejectIfTooLarge( decompressingRequest, httpResponse, ioEx );
+			}
+			catch( final ServletException servletEx ){
+				rejectIfTooLarge( decompressingRequest, httpResponse, servletEx );
+			}
+			finally{
+				close( decompressingRequest );
+			}
+			countRejected( decompressingRequest );
+			return;
+		}
+		
+		final CompressingResponseWrapper compressingResponse = new CompressingResponseWrapper( httpResponse, encoding, GZIP.equals( encoding ) ? gzipDeflaters : deflateDeflaters, minSize );
+		try{
+			chain.doFilter( effectiveRequest, compressingResponse );
+			compressingResponse.finish();
+		}
+		catch( final IOException ioEx ){
+			rejectIfTooLarge( decompressingRequest, compressingResponse, ioEx );
+		}
+		catch( final ServletException servletEx ){
+			rejectIfTooLarge( decompressingRequest, compressingResponse, servletEx );
+		}
+		finally{
+			compressingResponse.release();
+			close( decompressingRequest );
+		}
+		countRejected( decompressingRequest );
+		
+		if( compressingResponse.isCompressed() ){
+			compressedCount.incrementAndGet();
+			uncompressedBytes.addAndGet( compressingResponse.getUncompressedSize() );
+			compressedBytes.addAndGet( compressingResponse.getCompressedSize() );
+		}
+		else{
+			uncompressedCount.incrementAndGet();
+		}
+	}
+	
+	// statistics
+	
+	@ManagedAttribute( description = "Number of responses compressed" )
+	public long getCompressedCount(){
+		return compressedCount.get();
+	}
+	
+	@ManagedAttribute( description = "Number of responses that could have been compressed, but were below the minimum size" )
+	public long getUncompressedCount(){
+		return uncompressedCount.get();
+	}
+	
+	@ManagedAttribute( description = "Size of the compressed responses, as a ratio of their uncompressed size" )
+	public double getCompressionRatio(){
+		final long uncompressed = uncompressedBytes.get();
+		if( uncompressed == 0 ){
+			return 0;
+		}
+		return (double) compressedBytes.get() / uncompressed;
+	}
+	
+	@ManagedAttribute( description = "Number of compressed request bodies decompressed" )
+	public long getDecompressedRequestCount(){
+		return decompressedRequestCount.get();
+	}
+	
+	@ManagedAttribute( description = "Number of compressed request bodies rejected for inflating beyond the maximum size" )
+	public long getRejectedRequestCount(){
+		return rejectedRequestCount.get();
+	}
+	
+	@ManagedAttribute( description = "Deflaters currently idle in the pools" )
+	public int getIdleDeflaterCount(){
+		return gzipDeflaters.getIdleCount() + deflateDeflaters.getIdleCount();
+	}
+	
+	// negotiation
+	
+	/**
+	 * - note: gzip is preferred over deflate at equal quality - some clients get the zlib wrapping of deflate wrong
+	 * @return the encoding to compress the response with, or null if the client accepts neither
+	 */
+	static String negotiate( final String acceptEncoding ){
+		if( acceptEncoding == null ){
+			return null;
+		}
+		float gzip = -1;
+		float deflate = -1;
+		float any = -1;
+		for( final String candidate : LIST_SPLITTER.split( acceptEncoding ) ){
+			final int separator = candidate.indexOf( ';' );
+			final String coding = ( ( separator < 0 ) ? candidate : candidate.substring( 0, separator ) ).trim().toLowerCase( Locale.ENGLISH );
+			final float quality = ( separator < 0 ) ? 1 : qualityOf( candidate.substring( separator + 1 ) );
+			if( GZIP.equals( coding ) || X_GZIP.equals( coding ) ){
+				gzip = quality;
+			}
+			else if( DEFLATE.equals( coding ) ){
+				deflate = quality;
+			}
+			else if( ANY.equals( coding ) ){
+				any = quality;
+			}
+		}
+		gzip = ( gzip < 0 ) ? any : gzip;
+		deflate = ( deflate < 0 ) ? any : deflate;
+		
+		if( gzip > 0 && gzip >= deflate ){
+			return GZIP;
+		}
+		if( deflate > 0 ){
+			return DEFLATE;
+		}
+		return null;
+	}
+	
+	/**
+	 * @return the encoding of the request body - identity if there is none - or null if it is not supported
+	 */
+	static String supportedContentEncoding( final String contentEncoding ){
+		if( contentEncoding == null ){
+			return IDENTITY;
+		}
+		final String coding = contentEncoding.trim().toLowerCase( Locale.ENGLISH );
+		if( coding.isEmpty() || IDENTITY.equals( coding ) ){
+			return IDENTITY;
+		}
+		if( GZIP.equals( coding ) || X_GZIP.equals( coding ) ){
+			return GZIP;
+		}
+		if( DEFLATE.equals( coding ) ){
+			return DEFLATE;
+		}
+		return null;
+	}
+	
+	private static float qualityOf( final String parameters ){
+		for( final String parameter : PARAMETER_SPLITTER.split( parameters ) ){
+			if( parameter.startsWith( "q=" ) ){
+				try{
+					return Float.parseFloat( parameter.substring( 2 ).trim() );
+				}
+				catch( final NumberFormatException numberFormatEx ){
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+	
+	/**
+	 * - note: a failure to read the body that propagates all the way up is reported as a 413 as well - any other failure is rethrown
+	 */
+	private static < E extends Exception >void rejectIfTooLarge( final DecompressingRequestWrapper decompressingRequest, final HttpServletResponse response, final E ex ) throws E, IOException{
+		if( decompressingRequest == null || !decompressingRequest.isLimitExceeded() || response.isCommitted() ){
+			throw ex;
+		}
+		response.sendError( HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, decompressingRequest.limitMessage() );
+	}
+	
+	private void countRejected( final DecompressingRequestWrapper decompressingRequest ){
+		if( decompressingRequest != null && decompressingRequest.isLimitExceeded() ){
+			rejectedRequestCount.incrementAndGet();
+		}
+	}
+	
+	private static void close( final DecompressingRequestWrapper decompressingRequest ) throws IOException{
+		if( decompressingRequest != null ){
+			decompressingRequest.close();
+		}
+	}
+	
+}
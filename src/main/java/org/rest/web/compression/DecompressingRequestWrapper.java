@@ -0,0 +1,195 @@
+package org.rest.web.compression;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Presents a compressed request body (<code>Content-Encoding: gzip</code> or <code>deflate</code>) as the uncompressed one - without the Content-Encoding and Content-Length of the compressed body <br>
+ * - note: the inflated bytes are counted, and reading fails once they exceed the maximum - a small body can inflate to gigabytes (decompression bomb); the failure is reported as a 413, see {@link #reportingLimitOn(HttpServletResponse)}
+ */
+final class DecompressingRequestWrapper extends HttpServletRequestWrapper{
+	private static final int BUFFER_SIZE = 8192;
+	
+	private final String encoding;
+	private final long maxInflatedSize;
+	private long inflatedSize;
+	private boolean limitExceeded;
+	private InputStream decompressed;
+	private ServletInputStream inputStream;
+	private BufferedReader reader;
+	
+	DecompressingRequestWrapper( final HttpServletRequest request, final String encodingToSet, final long maxInflatedSizeToSet ){
+		super( request );
+		
+		encoding = encodingToSet;
+		maxInflatedSize = maxInflatedSizeToSet;
+	}
+	
+	// API
+	
+	@Override
+	public final ServletInputStream getInputStream() throws IOException{
+		if( reader != null ){
+			throw new IllegalStateException( "getReader() has already been called for this request" );
+		}
+		return decompressedStream();
+	}
+	
+	@Override
+	public final BufferedReader getReader() throws IOException{
+		if( reader == null ){
+			if( inputStream != null ){
+				throw new IllegalStateException( "getInputStream() has already been called for this request" );
+			}
+			final String characterEncoding = getCharacterEncoding();
+			reader = new BufferedReader( new InputStreamReader( decompressedStream(), ( characterEncoding == null ) ? Charsets.ISO_8859_1.name() : characterEncoding ) );
+		}
+		return reader;
+	}
+	
+	@Override
+	public final int getContentLength(){
+		return -1;
+	}
+	
+	@Override
+	public final String getHeader( final String name ){
+		return isHidden( name ) ? null : super.getHeader( name );
+	}
+	
+	@Override
+	public final int getIntHeader( final String name ){
+		return isHidden( name ) ? -1 : super.getIntHeader( name );
+	}
+	
+	@SuppressWarnings( "rawtypes" )
+	@Override
+	public final Enumeration getHeaders( final String name ){
+		return isHidden( name ) ? Collections.enumeration( Collections.emptyList() ) : super.getHeaders( name );
+	}
+	
+	@SuppressWarnings( "rawtypes" )
+	@Override
+	public final Enumeration getHeaderNames(){
+		final List< String > names = Lists.newArrayList();
+		for( final Enumeration all = super.getHeaderNames(); all.hasMoreElements(); ){
+			final String name = (String) all.nextElement();
+			if( !isHidden( name ) ){
+				names.add( name );
+			}
+		}
+		return Collections.enumeration( names );
+	}
+	
+	/**
+	 * @return true if the body inflated beyond the maximum - whoever was reading it got an IOException
+	 */
+	final boolean isLimitExceeded(){
+		return limitExceeded;
+	}
+	
+	/**
+	 * - note: the body is read by the message converters, which report any failure to read it as a 400 - once the limit is exceeded, the error sent is a 413 instead
+	 */
+	final HttpServletResponse reportingLimitOn( final HttpServletResponse response ){
+		return new HttpServletResponseWrapper( response ){
+			@Override
+			public final void sendError( final int sc ) throws IOException{
+				if( limitExceeded ){
+					super.sendError( HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, limitMessage() );
+				}
+				else{
+					super.sendError( sc );
+				}
+			}
+			@Override
+			public final void sendError( final int sc, final String msg ) throws IOException{
+				if( limitExceeded ){
+					super.sendError( HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, limitMessage() );
+				}
+				else{
+					super.sendError( sc, msg );
+				}
+			}
+		};
+	}
+	
+	final String limitMessage(){
+		return "The decompressed request body exceeds " + maxInflatedSize + " bytes";
+	}
+	
+	/**
+	 * - note: releases the native memory of the inflater right away, rather than on finalization
+	 */
+	final void close() throws IOException{
+		if( decompressed != null ){
+			decompressed.close();
+		}
+	}
+	
+	//
+	
+	private ServletInputStream decompressedStream() throws IOException{
+		if( inputStream == null ){
+			final InputStream compressed = super.getInputStream();
+			decompressed = CompressionFilter.GZIP.equals( encoding ) ? new GZIPInputStream( compressed, BUFFER_SIZE ) : new InflaterInputStream( compressed );
+			inputStream = new ServletInputStream(){
+				@Override
+				public final int read() throws IOException{
+					final int b = decompressed.read();
+					if( b >= 0 ){
+						inflated( 1 );
+					}
+					return b;
+				}
+				@Override
+				public final int read( final byte[] b, final int off, final int len ) throws IOException{
+					final int read = decompressed.read( b, off, len );
+					if( read > 0 ){
+						inflated( read );
+					}
+					return read;
+				}
+				@Override
+				public final int available() throws IOException{
+					return decompressed.available();
+				}
+				@Override
+				public final void close() throws IOException{
+					decompressed.close();
+				}
+			};
+		}
+		return inputStream;
+	}
+	
+	private void inflated( final int count ) throws IOException{
+		inflatedSize += count;
+		if( inflatedSize > maxInflatedSize ){
+			limitExceeded = true;
+			throw new IOException( limitMessage() );
+		}
+	}
+	
+	private static boolean isHidden( final String name ){
+		return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase( name ) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase( name );
+	}
+	
+}
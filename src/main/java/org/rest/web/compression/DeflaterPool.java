@@ -0,0 +1,53 @@
+package org.rest.web.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of {@link Deflater}s of one compression level and format - a Deflater holds native memory, only released by {@link Deflater#end()} (or finalization), so creating one per response is costly <br>
+ * - note: never blocks; when empty, a new Deflater is created, and when full, a returned one is ended
+ */
+final class DeflaterPool{
+	private final int level;
+	private final boolean nowrap;
+	private final BlockingQueue< Deflater > idle;
+	
+	/**
+	 * @param nowrapToSet true for the raw format wrapped by gzip, false for the zlib format of <code>Content-Encoding: deflate</code>
+	 */
+	DeflaterPool( final int levelToSet, final boolean nowrapToSet, final int capacity ){
+		super();
+		
+		level = levelToSet;
+		nowrap = nowrapToSet;
+		idle = new ArrayBlockingQueue< Deflater >( capacity );
+	}
+	
+	// API
+	
+	final Deflater borrow(){
+		final Deflater deflater = idle.poll();
+		return ( deflater != null ) ? deflater : new Deflater( level, nowrap );
+	}
+	
+	final void release( final Deflater deflater ){
+		deflater.reset();
+		if( !idle.offer( deflater ) ){
+			deflater.end();
+		}
+	}
+	
+	final int getIdleCount(){
+		return idle.size();
+	}
+	
+	final void clear(){
+		Deflater deflater = idle.poll();
+		while( deflater != null ){
+			deflater.end();
+			deflater = idle.poll();
+		}
+	}
+	
+}
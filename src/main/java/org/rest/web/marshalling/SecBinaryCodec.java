@@ -0,0 +1,523 @@
+package org.rest.web.marshalling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.rest.web.common.BulkItemResult;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Compact binary representation of the security resources - for service to service calls, which have no use for a text format <br>
+ * - a document is: the format version, the type of the resources, the shape (a single resource, a list or an array - the last two followed by the number of elements), then the resources <br>
+ * - a resource is: a byte with a bit set for each of its nullable properties that is present, then the present properties, in declaration order; numbers are (zig-zag) varints, strings are the varint length of their UTF-8 bytes followed by the bytes, collections are their varint size followed by the elements <br>
+ * - note: role and privilege names are interned per document - the first occurrence is written in full, any later one as the index of the first <br>
+ * - note: thread safe; the state of a document (the interned names) lives only as long as its reading or writing
+ */
+public final class SecBinaryCodec{
+	static final int FORMAT_VERSION = 1;
+	
+	/** the content is not trusted: sizes read from it are only used to presize up to this, and strings are not read beyond it */
+	static final int SIZE_LIMIT = 64 * 1024;
+	
+	// types
+	static final int PRIVILEGE = 1;
+	static final int ROLE = 2;
+	static final int PRINCIPAL = 3;
+	static final int USER = 4;
+	static final int BULK_ITEM_RESULT = 5;
+	static final int ID = 6;
+	
+	// shapes
+	static final int SINGLE = 0;
+	static final int LIST = 1;
+	static final int ARRAY = 2;
+	
+	// properties
+	static final int HAS_ID = 1;
+	static final int HAS_VERSION = 1 << 1;
+	static final int HAS_NAME = 1 << 2;
+	static final int HAS_PASSWORD = 1 << 3;
+	static final int HAS_COLLECTION = 1 << 4;
+	static final int HAS_MESSAGE = 1 << 1;
+	
+	public SecBinaryCodec(){
+		super();
+	}
+	
+	// API
+	
+	/**
+	 * - note: only the lists the resources are read into and returned as (a {@link List}, an {@link ArrayList}) are supported - their element type is only known once they are written, and writing one fails, before anything is written, unless its elements are all of the same supported type
+	 */
+	public final boolean supports( final Class< ? > clazz ){
+		if( clazz == List.class || clazz == ArrayList.class ){
+			return true;
+		}
+		if( clazz.isArray() ){
+			return typeOf( clazz.getComponentType() ) != 0;
+		}
+		final int type = typeOf( clazz );
+		return type != 0 && type != ID;
+	}
+	
+	/**
+	 * @throws IllegalArgumentException if the resources are not of a supported type
+	 */
+	public final void write( final Object graph, final OutputStream outputStream ) throws IOException{
+		final Output output = new Output( new BufferedOutputStream( outputStream ) );
+		output.writeVarint( FORMAT_VERSION );
+		if( graph.getClass().isArray() ){
+			final int type = typeOf( graph.getClass().getComponentType() );
+			checkType( type, graph.getClass() );
+			output.writeVarint( type );
+			output.writeVarint( ARRAY );
+			output.writeVarint( Array.getLength( graph ) );
+			for( final Object element : (Object[]) graph ){
+				output.writeResource( type, element );
+			}
+		}
+		else if( graph instanceof List ){
+			final List< ? > list = (List< ? >) graph;
+			final Class< ? > elementClass = ( list.isEmpty() || list.get( 0 ) == null ) ? Privilege.class : list.get( 0 ).getClass();
+			final int type = typeOf( elementClass );
+			checkType( type, elementClass );
+			checkElements( type, list );
+			output.writeVarint( type );
+			output.writeVarint( LIST );
+			output.writeVarint( list.size() );
+			for( final Object element : list ){
+				output.writeResource( type, element );
+			}
+		}
+		else{
+			final int type = typeOf( graph.getClass() );
+			checkType( type, graph.getClass() );
+			output.writeVarint( type );
+			output.writeVarint( SINGLE );
+			output.writeResource( type, graph );
+		}
+		output.flush();
+	}
+	
+	/**
+	 * @return the resource, or the {@link List} or array of resources, that was written
+	 * @throws IllegalArgumentException if the content is not a document of this format
+	 * @throws EOFException if the content ends before the document does
+	 */
+	public final Object read( final InputStream inputStream ) throws IOException{
+		final Input input = new Input( new BufferedInputStream( inputStream ) );
+		final int version = input.readVarint();
+		if( version != FORMAT_VERSION ){
+			throw new IllegalArgumentException( "Unsupported format version: " + version );
+		}
+		final int type = input.readVarint();
+		final int shape = input.readVarint();
+		if( shape == SINGLE ){
+			return input.readResource( type );
+		}
+		if( shape != LIST && shape != ARRAY ){
+			throw new IllegalArgumentException( "Unknown shape: " + shape );
+		}
+		
+		final int size = input.readVarint();
+		final List< Object > elements = Lists.newArrayListWithCapacity( Math.min( size, SIZE_LIMIT ) );
+		for( int i = 0; i < size; i++ ){
+			elements.add( input.readResource( type ) );
+		}
+		return ( shape == LIST ) ? elements : elements.toArray( (Object[]) Array.newInstance( classOf( type ), size ) );
+	}
+	
+	// types
+	
+	static int typeOf( final Class< ? > clazz ){
+		if( Privilege.class.isAssignableFrom( clazz ) ){
+			return PRIVILEGE;
+		}
+		if( Role.class.isAssignableFrom( clazz ) ){
+			return ROLE;
+		}
+		if( Principal.class.isAssignableFrom( clazz ) ){
+			return PRINCIPAL;
+		}
+		if( User.class.isAssignableFrom( clazz ) ){
+			return USER;
+		}
+		if( BulkItemResult.class.isAssignableFrom( clazz ) ){
+			return BULK_ITEM_RESULT;
+		}
+		if( Long.class.equals( clazz ) ){
+			return ID;
+		}
+		return 0;
+	}
+	
+	static Class< ? > classOf( final int type ){
+		switch( type ){
+			case PRIVILEGE:
+				return Privilege.class;
+			case ROLE:
+				return Role.class;
+			case PRINCIPAL:
+				return Principal.class;
+			case USER:
+				return User.class;
+			case BULK_ITEM_RESULT:
+				return BulkItemResult.class;
+			case ID:
+				return Long.class;
+			default:
+				throw new IllegalArgumentException( "Unknown type: " + type );
+		}
+	}
+	
+	static void checkType( final int type, final Class< ? > clazz ){
+		if( type == 0 ){
+			throw new IllegalArgumentException( "Unsupported type: " + clazz.getName() );
+		}
+	}
+	
+	static void checkElements( final int type, final List< ? > list ){
+		for( final Object element : list ){
+			if( element == null || typeOf( element.getClass() ) != type ){
+				throw new IllegalArgumentException( "Not all the elements of the list are of the same supported type: " + element );
+			}
+		}
+	}
+	
+	/**
+	 * The writing of one document
+	 */
+	static final class Output{
+		private final OutputStream out;
+		private final Map< String, Integer > internedNames = Maps.newHashMap();
+		
+		Output( final OutputStream outToSet ){
+			super();
+			
+			out = outToSet;
+		}
+		
+		final void writeResource( final int type, final Object resource ) throws IOException{
+			if( resource == null || typeOf( resource.getClass() ) != type ){
+				throw new IllegalArgumentException( "Expected an element of type " + classOf( type ).getName() + ", but was: " + resource );
+			}
+			switch( type ){
+				case PRIVILEGE:
+					writePrivilege( (Privilege) resource );
+					break;
+				case ROLE:
+					writeRole( (Role) resource );
+					break;
+				case PRINCIPAL:
+					final Principal principal = (Principal) resource;
+					writePrincipal( principal.getId(), principal.getVersion(), principal.getName(), principal.getPassword(), principal.getRoles() );
+					break;
+				case USER:
+					final User user = (User) resource;
+					writePrincipal( user.getId(), user.getVersion(), user.getName(), user.getPassword(), user.getRoles() );
+					break;
+				case BULK_ITEM_RESULT:
+					writeBulkItemResult( (BulkItemResult) resource );
+					break;
+				default:
+					writeVarlong( (Long) resource );
+			}
+		}
+		
+		final void writePrivilege( final Privilege privilege ) throws IOException{
+			out.write( mask( privilege.getId(), HAS_ID ) | mask( privilege.getVersion(), HAS_VERSION ) | mask( privilege.getName(), HAS_NAME ) );
+			writeOptionalLong( privilege.getId() );
+			writeOptionalLong( privilege.getVersion() );
+			writeInterned( privilege.getName() );
+		}
+		
+		final void writeRole( final Role role ) throws IOException{
+			final Set< Privilege > privileges = role.getPrivileges();
+			out.write( mask( role.getId(), HAS_ID ) | mask( role.getVersion(), HAS_VERSION ) | mask( role.getName(), HAS_NAME ) | mask( privileges, HAS_COLLECTION ) );
+			writeOptionalLong( role.getId() );
+			writeOptionalLong( role.getVersion() );
+			writeInterned( role.getName() );
+			if( privileges != null ){
+				writeVarint( privileges.size() );
+				for( final Privilege privilege : privileges ){
+					writePrivilege( privilege );
+				}
+			}
+		}
+		
+		final void writePrincipal( final Long id, final Long version, final String name, final String password, final Set< Role > roles ) throws IOException{
+			out.write( mask( id, HAS_ID ) | mask( version, HAS_VERSION ) | mask( name, HAS_NAME ) | mask( password, HAS_PASSWORD ) | mask( roles, HAS_COLLECTION ) );
+			writeOptionalLong( id );
+			writeOptionalLong( version );
+			writeString( name );
+			writeString( password );
+			if( roles != null ){
+				writeVarint( roles.size() );
+				for( final Role role : roles ){
+					writeRole( role );
+				}
+			}
+		}
+		
+		final void writeBulkItemResult( final BulkItemResult result ) throws IOException{
+			out.write( mask( result.getId(), HAS_ID ) | mask( result.getMessage(), HAS_MESSAGE ) );
+			writeVarlong( result.getIndex() );
+			writeVarlong( result.getStatus() );
+			writeOptionalLong( result.getId() );
+			writeString( result.getMessage() );
+		}
+		
+		// primitives
+		
+		final void writeOptionalLong( final Long value ) throws IOException{
+			if( value != null ){
+				writeVarlong( value );
+			}
+		}
+		
+		/**
+		 * - note: zig-zag, so that small negative numbers are short as well
+		 */
+		final void writeVarlong( final long value ) throws IOException{
+			long remaining = ( value << 1 ) ^ ( value >> 63 );
+			while( ( remaining & ~0x7FL ) != 0 ){
+				out.write( (int) ( ( remaining & 0x7F ) | 0x80 ) );
+				remaining >>>= 7;
+			}
+			out.write( (int) remaining );
+		}
+		
+		/**
+		 * - note: the value is not negative
+		 */
+		final void writeVarint( final int value ) throws IOException{
+			int remaining = value;
+			while( ( remaining & ~0x7F ) != 0 ){
+				out.write( ( remaining & 0x7F ) | 0x80 );
+				remaining >>>= 7;
+			}
+			out.write( remaining );
+		}
+		
+		final void writeString( final String value ) throws IOException{
+			if( value != null ){
+				final byte[] bytes = value.getBytes( Charsets.UTF_8 );
+				writeVarint( bytes.length );
+				out.write( bytes );
+			}
+		}
+		
+		/**
+		 * - note: the lowest bit tells a reference to an earlier occurrence (the index follows) from a new name (the length follows)
+		 */
+		final void writeInterned( final String value ) throws IOException{
+			if( value == null ){
+				return;
+			}
+			final Integer index = internedNames.get( value );
+			if( index != null ){
+				writeVarint( ( index << 1 ) | 1 );
+				return;
+			}
+			internedNames.put( value, internedNames.size() );
+			final byte[] bytes = value.getBytes( Charsets.UTF_8 );
+			writeVarint( bytes.length << 1 );
+			out.write( bytes );
+		}
+		
+		final void flush() throws IOException{
+			out.flush();
+		}
+		
+		static int mask( final Object value, final int bit ){
+			return ( value == null ) ? 0 : bit;
+		}
+	}
+	
+	/**
+	 * The reading of one document
+	 */
+	static final class Input{
+		private final InputStream in;
+		private final List< String > internedNames = Lists.newArrayList();
+		
+		Input( final InputStream inToSet ){
+			super();
+			
+			in = inToSet;
+		}
+		
+		final Object readResource( final int type ) throws IOException{
+			switch( type ){
+				case PRIVILEGE:
+					return readPrivilege();
+				case ROLE:
+					return readRole();
+				case PRINCIPAL:
+					final Principal principal = new Principal();
+					final int principalMask = readByte();
+					principal.setId( readOptionalLong( principalMask, HAS_ID ) );
+					principal.setVersion( readOptionalLong( principalMask, HAS_VERSION ) );
+					principal.setName( readString( principalMask, HAS_NAME ) );
+					principal.setPassword( readString( principalMask, HAS_PASSWORD ) );
+					principal.setRoles( readRoles( principalMask ) );
+					return principal;
+				case USER:
+					final User user = new User();
+					final int userMask = readByte();
+					user.setId( readOptionalLong( userMask, HAS_ID ) );
+					user.setVersion( readOptionalLong( userMask, HAS_VERSION ) );
+					user.setName( readString( userMask, HAS_NAME ) );
+					user.setPassword( readString( userMask, HAS_PASSWORD ) );
+					user.setRoles( readRoles( userMask ) );
+					return user;
+				case BULK_ITEM_RESULT:
+					final BulkItemResult result = new BulkItemResult();
+					final int resultMask = readByte();
+					result.setIndex( (int) readVarlong() );
+					result.setStatus( (int) readVarlong() );
+					result.setId( readOptionalLong( resultMask, HAS_ID ) );
+					result.setMessage( readString( resultMask, HAS_MESSAGE ) );
+					return result;
+				case ID:
+					return readVarlong();
+				default:
+					throw new IllegalArgumentException( "Unknown type: " + type );
+			}
+		}
+		
+		final Privilege readPrivilege() throws IOException{
+			final Privilege privilege = new Privilege();
+			final int mask = readByte();
+			privilege.setId( readOptionalLong( mask, HAS_ID ) );
+			privilege.setVersion( readOptionalLong( mask, HAS_VERSION ) );
+			privilege.setName( readInterned( mask, HAS_NAME ) );
+			return privilege;
+		}
+		
+		final Role readRole() throws IOException{
+			final Role role = new Role();
+			final int mask = readByte();
+			role.setId( readOptionalLong( mask, HAS_ID ) );
+			role.setVersion( readOptionalLong( mask, HAS_VERSION ) );
+			role.setName( readInterned( mask, HAS_NAME ) );
+			if( ( mask & HAS_COLLECTION ) != 0 ){
+				final int size = readVarint();
+				final Set< Privilege > privileges = Sets.newHashSetWithExpectedSize( Math.min( size, SIZE_LIMIT ) );
+				for( int i = 0; i < size; i++ ){
+					privileges.add( readPrivilege() );
+				}
+				role.setPrivileges( privileges );
+			}
+			return role;
+		}
+		
+		final Set< Role > readRoles( final int mask ) throws IOException{
+			if( ( mask & HAS_COLLECTION ) == 0 ){
+				return null;
+			}
+			final int size = readVarint();
+			final Set< Role > roles = Sets.newHashSetWithExpectedSize( Math.min( size, SIZE_LIMIT ) );
+			for( int i = 0; i < size; i++ ){
+				roles.add( readRole() );
+			}
+			return roles;
+		}
+		
+		// primitives
+		
+		final int readByte() throws IOException{
+			final int value = in.read();
+			if( value < 0 ){
+				throw new EOFException( "The document ends unexpectedly" );
+			}
+			return value;
+		}
+		
+		final Long readOptionalLong( final int mask, final int bit ) throws IOException{
+			return ( ( mask & bit ) == 0 ) ? null : readVarlong();
+		}
+		
+		final long readVarlong() throws IOException{
+			long raw = 0;
+			for( int shift = 0; shift < 64; shift += 7 ){
+				final int b = readByte();
+				raw |= (long) ( b & 0x7F ) << shift;
+				if( ( b & 0x80 ) == 0 ){
+					return ( raw >>> 1 ) ^ -( raw & 1 );
+				}
+			}
+			throw new IllegalArgumentException( "Malformed varint" );
+		}
+		
+		final int readVarint() throws IOException{
+			int value = 0;
+			for( int shift = 0; shift < 32; shift += 7 ){
+				final int b = readByte();
+				value |= ( b & 0x7F ) << shift;
+				if( ( b & 0x80 ) == 0 ){
+					if( value < 0 ){
+						throw new IllegalArgumentException( "Malformed varint" );
+					}
+					return value;
+				}
+			}
+			throw new IllegalArgumentException( "Malformed varint" );
+		}
+		
+		final String readString( final int mask, final int bit ) throws IOException{
+			return ( ( mask & bit ) == 0 ) ? null : new String( readBytes( readVarint() ), Charsets.UTF_8 );
+		}
+		
+		final String readInterned( final int mask, final int bit ) throws IOException{
+			if( ( mask & bit ) == 0 ){
+				return null;
+			}
+			final int header = readVarint();
+			if( ( header & 1 ) != 0 ){
+				final int index = header >>> 1;
+				if( index >= internedNames.size() ){
+					throw new IllegalArgumentException( "Unknown interned name: " + index );
+				}
+				return internedNames.get( index );
+			}
+			final String value = new String( readBytes( header >>> 1 ), Charsets.UTF_8 );
+			internedNames.add( value );
+			return value;
+		}
+		
+		final byte[] readBytes( final int length ) throws IOException{
+			if( length > SIZE_LIMIT ){
+				throw new IllegalArgumentException( "String too long: " + length );
+			}
+			final byte[] bytes = new byte[ length ];
+			int read = 0;
+			while( read < length ){
+				final int count = in.read( bytes, read, length - read );
+				if( count < 0 ){
+					throw new EOFException( "The document ends unexpectedly" );
+				}
+				read += count;
+			}
+			return bytes;
+		}
+	}
+	
+}
@@ -0,0 +1,79 @@
+package org.rest.web.marshalling;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+/**
+ * Reads and writes the security resources in the compact binary representation of {@link SecBinaryCodec}, as {@link #MEDIA_TYPE}
+ */
+public final class SecBinaryHttpMessageConverter extends AbstractHttpMessageConverter< Object >{
+	public static final MediaType MEDIA_TYPE = new MediaType( "application", "x-sec-binary" );
+	
+	private final SecBinaryCodec codec = new SecBinaryCodec();
+	private boolean listsWrittenByDefault = true;
+	
+	public SecBinaryHttpMessageConverter(){
+		super( MEDIA_TYPE );
+	}
+	
+	// API
+	
+	/**
+	 * @param listsWrittenByDefaultToSet false to write a {@link List} only when {@link #MEDIA_TYPE} is asked for explicitly - for a client that lists this converter first, so that a List body whose elements are not resources (ids, for example) is written by the converters after it, instead of failing here <br>
+	 * - note: the element type of a list is only known once it is written, so this can not be decided by its class; a server negotiates the media type by the Accept header before writing, and keeps the default
+	 */
+	public final void setListsWrittenByDefault( final boolean listsWrittenByDefaultToSet ){
+		listsWrittenByDefault = listsWrittenByDefaultToSet;
+	}
+	
+	@Override
+	public final boolean canWrite( final Class< ? > clazz, final MediaType mediaType ){
+		if( !listsWrittenByDefault && mediaType == null && List.class.isAssignableFrom( clazz ) ){
+			return false;
+		}
+		return super.canWrite( clazz, mediaType );
+	}
+	
+	@Override
+	protected final boolean supports( final Class< ? > clazz ){
+		return codec.supports( clazz );
+	}
+	
+	@Override
+	protected final Object readInternal( final Class< ? extends Object > clazz, final HttpInputMessage inputMessage ) throws IOException{
+		final Object resource;
+		try{
+			resource = codec.read( inputMessage.getBody() );
+		}
+		catch( final IllegalArgumentException illegalArgumentEx ){
+			throw new HttpMessageNotReadableException( "Could not read " + MEDIA_TYPE + ": " + illegalArgumentEx.getMessage(), illegalArgumentEx );
+		}
+		catch( final EOFException eofEx ){
+			throw new HttpMessageNotReadableException( "Could not read " + MEDIA_TYPE + ": " + eofEx.getMessage(), eofEx );
+		}
+		
+		if( !clazz.isInstance( resource ) ){
+			throw new HttpMessageNotReadableException( "Expected " + clazz.getName() + ", but the content is " + resource.getClass().getName() );
+		}
+		return resource;
+	}
+	
+	@Override
+	protected final void writeInternal( final Object resource, final HttpOutputMessage outputMessage ) throws IOException{
+		try{
+			codec.write( resource, outputMessage.getBody() );
+		}
+		catch( final IllegalArgumentException illegalArgumentEx ){
+			throw new HttpMessageNotWritableException( "Could not write " + MEDIA_TYPE + ": " + illegalArgumentEx.getMessage(), illegalArgumentEx );
+		}
+	}
+	
+}
@@ -0,0 +1,347 @@
+package org.rest.web.marshalling;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.module.SimpleModule;
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Hand written JSON serializers and deserializers for the security resources - they write and read straight through the streaming {@link JsonGenerator}/{@link JsonParser}, without bean introspection or intermediate trees <br>
+ * - note: the representation is exactly the one of the (reflection based) bean serialization: the same properties, nulls included <br>
+ * - note: the entities are read through their getters only, so Hibernate proxies and persistent collections are never introspected
+ */
+public final class SecJsonModule extends SimpleModule{
+	
+	static final String ID = "id";
+	static final String VERSION = "version";
+	static final String NAME = "name";
+	static final String PASSWORD = "password";
+	static final String ROLES = "roles";
+	static final String PRIVILEGES = "privileges";
+	
+	public SecJsonModule(){
+		super( "SecJsonModule", new Version( 1, 0, 0, null ) );
+		
+		addSerializer( Privilege.class, new PrivilegeSerializer() );
+		addSerializer( Role.class, new RoleSerializer() );
+		addSerializer( Principal.class, new PrincipalSerializer() );
+		addSerializer( User.class, new UserSerializer() );
+		
+		addDeserializer( Privilege.class, new PrivilegeDeserializer() );
+		addDeserializer( Role.class, new RoleDeserializer() );
+		addDeserializer( Principal.class, new PrincipalDeserializer() );
+		addDeserializer( User.class, new UserDeserializer() );
+	}
+	
+	// serializers
+	
+	static final class PrivilegeSerializer extends JsonSerializer< Privilege >{
+		@Override
+		public final void serialize( final Privilege privilege, final JsonGenerator generator, final SerializerProvider provider ) throws IOException{
+			writePrivilege( privilege, generator );
+		}
+	}
+	
+	static final class RoleSerializer extends JsonSerializer< Role >{
+		@Override
+		public final void serialize( final Role role, final JsonGenerator generator, final SerializerProvider provider ) throws IOException{
+			writeRole( role, generator );
+		}
+	}
+	
+	static final class PrincipalSerializer extends JsonSerializer< Principal >{
+		@Override
+		public final void serialize( final Principal principal, final JsonGenerator generator, final SerializerProvider provider ) throws IOException{
+			generator.writeStartObject();
+			writeLong( generator, ID, principal.getId() );
+			writeLong( generator, VERSION, principal.getVersion() );
+			generator.writeStringField( NAME, principal.getName() );
+			generator.writeStringField( PASSWORD, principal.getPassword() );
+			writeRoles( principal.getRoles(), generator );
+			generator.writeEndObject();
+		}
+	}
+	
+	static final class UserSerializer extends JsonSerializer< User >{
+		@Override
+		public final void serialize( final User user, final JsonGenerator generator, final SerializerProvider provider ) throws IOException{
+			generator.writeStartObject();
+			writeLong( generator, ID, user.getId() );
+			writeLong( generator, VERSION, user.getVersion() );
+			generator.writeStringField( NAME, user.getName() );
+			generator.writeStringField( PASSWORD, user.getPassword() );
+			writeRoles( user.getRoles(), generator );
+			generator.writeEndObject();
+		}
+	}
+	
+	static void writePrivilege( final Privilege privilege, final JsonGenerator generator ) throws IOException{
+		generator.writeStartObject();
+		writeLong( generator, ID, privilege.getId() );
+		writeLong( generator, VERSION, privilege.getVersion() );
+		generator.writeStringField( NAME, privilege.getName() );
+		generator.writeEndObject();
+	}
+	
+	static void writeRole( final Role role, final JsonGenerator generator ) throws IOException{
+		generator.writeStartObject();
+		writeLong( generator, ID, role.getId() );
+		writeLong( generator, VERSION, role.getVersion() );
+		generator.writeStringField( NAME, role.getName() );
+		
+		generator.writeFieldName( PRIVILEGES );
+		final Set< Privilege > privileges = role.getPrivileges();
+		if( privileges == null ){
+			generator.writeNull();
+		}
+		else{
+			generator.writeStartArray();
+			for( final Privilege privilege : privileges ){
+				writePrivilege( privilege, generator );
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+	
+	static void writeRoles( final Set< Role > roles, final JsonGenerator generator ) throws IOException{
+		generator.writeFieldName( ROLES );
+		if( roles == null ){
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartArray();
+		for( final Role role : roles ){
+			writeRole( role, generator );
+		}
+		generator.writeEndArray();
+	}
+	
+	static void writeLong( final JsonGenerator generator, final String fieldName, final Long value ) throws IOException{
+		generator.writeFieldName( fieldName );
+		if( value == null ){
+			generator.writeNull();
+		}
+		else{
+			generator.writeNumber( value.longValue() );
+		}
+	}
+	
+	// deserializers
+	
+	static final class PrivilegeDeserializer extends JsonDeserializer< Privilege >{
+		@Override
+		public final Privilege deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException{
+			return readPrivilege( parser, context );
+		}
+	}
+	
+	static final class RoleDeserializer extends JsonDeserializer< Role >{
+		@Override
+		public final Role deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException{
+			return readRole( parser, context );
+		}
+	}
+	
+	static final class PrincipalDeserializer extends JsonDeserializer< Principal >{
+		@Override
+		public final Principal deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException{
+			final Principal principal = new Principal();
+			for( String field = startObject( parser, context, Principal.class ); field != null; field = nextField( parser ) ){
+				if( ID.equals( field ) ){
+					principal.setId( readLong( parser, context ) );
+				}
+				else if( VERSION.equals( field ) ){
+					principal.setVersion( readLong( parser, context ) );
+				}
+				else if( NAME.equals( field ) ){
+					principal.setName( readString( parser, context ) );
+				}
+				else if( PASSWORD.equals( field ) ){
+					principal.setPassword( readString( parser, context ) );
+				}
+				else if( ROLES.equals( field ) ){
+					principal.setRoles( readRoles( parser, context ) );
+				}
+				else{
+					throw context.unknownFieldException( principal, field );
+				}
+			}
+			return principal;
+		}
+	}
+	
+	static final class UserDeserializer extends JsonDeserializer< User >{
+		@Override
+		public final User deserialize( final JsonParser parser, final DeserializationContext context ) throws IOException{
+			final User user = new User();
+			for( String field = startObject( parser, context, User.class ); field != null; field = nextField( parser ) ){
+				if( ID.equals( field ) ){
+					user.setId( readLong( parser, context ) );
+				}
+				else if( VERSION.equals( field ) ){
+					user.setVersion( readLong( parser, context ) );
+				}
+				else if( NAME.equals( field ) ){
+					user.setName( readString( parser, context ) );
+				}
+				else if( PASSWORD.equals( field ) ){
+					user.setPassword( readString( parser, context ) );
+				}
+				else if( ROLES.equals( field ) ){
+					user.setRoles( readRoles( parser, context ) );
+				}
+				else{
+					throw context.unknownFieldException( user, field );
+				}
+			}
+			return user;
+		}
+	}
+	
+	static Privilege readPrivilege( final JsonParser parser, final DeserializationContext context ) throws IOException{
+		final Privilege privilege = new Privilege();
+		for( String field = startObject( parser, context, Privilege.class ); field != null; field = nextField( parser ) ){
+			if( ID.equals( field ) ){
+				privilege.setId( readLong( parser, context ) );
+			}
+			else if( VERSION.equals( field ) ){
+				privilege.setVersion( readLong( parser, context ) );
+			}
+			else if( NAME.equals( field ) ){
+				privilege.setName( readString( parser, context ) );
+			}
+			else{
+				throw context.unknownFieldException( privilege, field );
+			}
+		}
+		return privilege;
+	}
+	
+	static Role readRole( final JsonParser parser, final DeserializationContext context ) throws IOException{
+		final Role role = new Role();
+		for( String field = startObject( parser, context, Role.class ); field != null; field = nextField( parser ) ){
+			if( ID.equals( field ) ){
+				role.setId( readLong( parser, context ) );
+			}
+			else if( VERSION.equals( field ) ){
+				role.setVersion( readLong( parser, context ) );
+			}
+			else if( NAME.equals( field ) ){
+				role.setName( readString( parser, context ) );
+			}
+			else if( PRIVILEGES.equals( field ) ){
+				final Set< Privilege > privileges = startArray( parser, context ) ? Sets.< Privilege > newHashSet() : null;
+				if( privileges != null ){
+					while( parser.nextToken() != JsonToken.END_ARRAY ){
+						privileges.add( readPrivilege( parser, context ) );
+					}
+				}
+				role.setPrivileges( privileges );
+			}
+			else{
+				throw context.unknownFieldException( role, field );
+			}
+		}
+		return role;
+	}
+	
+	static Set< Role > readRoles( final JsonParser parser, final DeserializationContext context ) throws IOException{
+		if( !startArray( parser, context ) ){
+			return null;
+		}
+		final Set< Role > roles = Sets.newHashSet();
+		while( parser.nextToken() != JsonToken.END_ARRAY ){
+			roles.add( readRole( parser, context ) );
+		}
+		return roles;
+	}
+	
+	// parsing
+	
+	/**
+	 * - note: leaves the parser on the name of the first field
+	 * @return the name of the first field; null for an empty object
+	 */
+	static String startObject( final JsonParser parser, final DeserializationContext context, final Class< ? > type ) throws IOException{
+		JsonToken token = parser.getCurrentToken();
+		if( token == JsonToken.START_OBJECT ){
+			token = parser.nextToken();
+		}
+		if( token == JsonToken.END_OBJECT ){
+			return null;
+		}
+		if( token != JsonToken.FIELD_NAME ){
+			throw context.mappingException( type );
+		}
+		return parser.getCurrentName();
+	}
+	
+	/**
+	 * - note: the current value must have been fully read
+	 * @return the name of the next field; null at the end of the object
+	 */
+	static String nextField( final JsonParser parser ) throws IOException{
+		return ( parser.nextToken() == JsonToken.FIELD_NAME ) ? parser.getCurrentName() : null;
+	}
+	
+	/**
+	 * @return false if the value is null
+	 */
+	static boolean startArray( final JsonParser parser, final DeserializationContext context ) throws IOException{
+		final JsonToken token = parser.nextToken();
+		if( token == JsonToken.VALUE_NULL ){
+			return false;
+		}
+		if( token != JsonToken.START_ARRAY ){
+			throw context.mappingException( Collection.class );
+		}
+		return true;
+	}
+	
+	static Long readLong( final JsonParser parser, final DeserializationContext context ) throws IOException{
+		final JsonToken token = parser.nextToken();
+		if( token == JsonToken.VALUE_NULL ){
+			return null;
+		}
+		if( token == JsonToken.VALUE_NUMBER_INT ){
+			return parser.getLongValue();
+		}
+		if( token == JsonToken.VALUE_STRING ){ // as the bean deserializer, which accepts numbers in text
+			try{
+				return Long.valueOf( parser.getText().trim() );
+			}
+			catch( final NumberFormatException ex ){
+				throw context.weirdStringException( Long.class, "not a valid Long value" );
+			}
+		}
+		throw context.mappingException( Long.class );
+	}
+	
+	static String readString( final JsonParser parser, final DeserializationContext context ) throws IOException{
+		final JsonToken token = parser.nextToken();
+		if( token == JsonToken.VALUE_NULL ){
+			return null;
+		}
+		if( token.isScalarValue() ){
+			return parser.getText();
+		}
+		throw context.mappingException( String.class );
+	}
+	
+}
@@ -0,0 +1,596 @@
+package org.rest.web.marshalling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.rest.web.common.BulkItemResult;
+import org.springframework.oxm.Marshaller;
+import org.springframework.oxm.MarshallingFailureException;
+import org.springframework.oxm.Unmarshaller;
+import org.springframework.oxm.UnmarshallingFailureException;
+import org.springframework.oxm.xstream.XStreamMarshaller;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * XML marshaller for the security resources - precomputed mappers for {@link User}, {@link Principal}, {@link Role}, {@link Privilege} and {@link BulkItemResult}, and for lists and arrays of them, reading and writing straight through StAX <br>
+ * - note: the representation is exactly the one XStream produces for the annotated classes (element names, attributes, implicit collections), so XStream clients keep working; XStream references are never written, and are not read <br>
+ * - note: anything else is delegated to an XStream marshaller, whose annotations are all processed up front (no autodetection, which mutates the shared XStream under lock) <br>
+ * - note: thread safe; the StAX factories and the mappers are created once and only read afterwards
+ */
+public final class SecXmlMarshaller implements Marshaller, Unmarshaller{
+	static final String LIST = "list";
+	static final String ARRAY_SUFFIX = "-array";
+	
+	/** how far the StAX parser may read ahead while finding out if a document is one of the mapped representations (its root element, and the first element of a list) - a document that is not is then handed to XStream from its start */
+	static final int PEEK_LIMIT = 64 * 1024;
+	static final int BUFFER_SIZE = 8192;
+	
+	private final XMLInputFactory inputFactory;
+	private final XMLOutputFactory outputFactory;
+	
+	private final Map< String, XmlMapper< ? >> mappersByElement;
+	private final ConcurrentMap< Class< ? >, Optional< XmlMapper< ? >>> mappersByClass;
+	
+	private final XStreamMarshaller fallback;
+	
+	public SecXmlMarshaller(){
+		super();
+		
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+		inputFactory.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+		inputFactory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+		outputFactory = XMLOutputFactory.newInstance();
+		
+		final List< XmlMapper< ? >> mappers = Lists.< XmlMapper< ? >> newArrayList( new PrivilegeMapper(), new RoleMapper(), new PrincipalMapper(), new UserMapper(), new BulkItemResultMapper() );
+		final ImmutableMap.Builder< String, XmlMapper< ? >> byElement = ImmutableMap.builder();
+		mappersByClass = Maps.newConcurrentMap();
+		for( final XmlMapper< ? > mapper : mappers ){
+			byElement.put( mapper.elementName, mapper );
+			mappersByClass.put( mapper.type, Optional.< XmlMapper< ? >> of( mapper ) );
+		}
+		mappersByElement = byElement.build();
+		
+		fallback = new XStreamMarshaller();
+		fallback.setAnnotatedClass( User.class );
+		fallback.setAnnotatedClass( Principal.class );
+		fallback.setAnnotatedClass( Role.class );
+		fallback.setAnnotatedClass( Privilege.class );
+		fallback.setAnnotatedClass( BulkItemResult.class );
+	}
+	
+	// API
+	
+	@Override
+	public final boolean supports( final Class< ? > clazz ){
+		return true;
+	}
+	
+	@Override
+	public final void marshal( final Object graph, final Result result ) throws IOException{
+		if( !( result instanceof StreamResult ) || !isMapped( graph ) ){
+			fallback.marshal( graph, result );
+			return;
+		}
+		
+		final OutputStream outputStream = ( (StreamResult) result ).getOutputStream();
+		final Writer writer = ( (StreamResult) result ).getWriter();
+		try{
+			if( outputStream != null ){
+				writeDocument( graph, outputFactory.createXMLStreamWriter( outputStream, "UTF-8" ) );
+			}
+			else if( writer != null ){
+				writeDocument( graph, outputFactory.createXMLStreamWriter( writer ) );
+			}
+			else{
+				fallback.marshal( graph, result );
+			}
+		}
+		catch( final XMLStreamException xmlEx ){
+			throw new MarshallingFailureException( "Could not marshal " + graph.getClass().getName(), xmlEx );
+		}
+	}
+	
+	@Override
+	public final Object unmarshal( final Source source ) throws IOException{
+		if( !( source instanceof StreamSource ) ){
+			return fallback.unmarshal( source );
+		}
+		
+		final StreamSource streamSource = (StreamSource) source;
+		if( streamSource.getInputStream() != null ){
+			final InputStream inputStream = streamSource.getInputStream().markSupported() ? streamSource.getInputStream() : new BufferedInputStream( streamSource.getInputStream(), BUFFER_SIZE );
+			inputStream.mark( PEEK_LIMIT );
+			final XMLStreamReader reader = createReader( inputStream );
+			final String rootElement = peekRootElement( reader );
+			if( rootElement != null ){
+				return readDocument( rootElement, reader );
+			}
+			inputStream.reset();
+			return fallback.unmarshal( new StreamSource( inputStream ) );
+		}
+		if( streamSource.getReader() != null ){
+			final Reader characterReader = streamSource.getReader().markSupported() ? streamSource.getReader() : new BufferedReader( streamSource.getReader(), BUFFER_SIZE );
+			characterReader.mark( PEEK_LIMIT );
+			final XMLStreamReader reader = createReader( characterReader );
+			final String rootElement = peekRootElement( reader );
+			if( rootElement != null ){
+				return readDocument( rootElement, reader );
+			}
+			characterReader.reset();
+			return fallback.unmarshal( new StreamSource( characterReader ) );
+		}
+		
+		return fallback.unmarshal( source );
+	}
+	
+	/**
+	 * Writes a single resource as an element of an enclosing document - used to stream a collection one element at a time
+	 * @throws IllegalArgumentException if the resource is not one of the mapped ones
+	 */
+	public final void writeElement( final Object resource, final XMLStreamWriter writer ) throws XMLStreamException{
+		final XmlMapper< ? > mapper = mapperFor( resource.getClass() );
+		if( mapper == null ){
+			throw new IllegalArgumentException( "No XML mapper for " + resource.getClass().getName() );
+		}
+		mapper.write( resource, writer );
+	}
+	
+	public final XMLStreamWriter createWriter( final OutputStream outputStream ) throws XMLStreamException{
+		return outputFactory.createXMLStreamWriter( outputStream, "UTF-8" );
+	}
+	
+	// writing
+	
+	final boolean isMapped( final Object graph ){
+		if( graph.getClass().isArray() ){
+			return mapperFor( graph.getClass().getComponentType() ) != null && isMappedElements( (Object[]) graph );
+		}
+		if( graph.getClass() == ArrayList.class ){ // as XStream, which names any other list by its class
+			return isMappedElements( ( (List< ? >) graph ).toArray() );
+		}
+		return mapperFor( graph.getClass() ) != null;
+	}
+	
+	private final boolean isMappedElements( final Object[] elements ){
+		for( final Object element : elements ){
+			if( element == null || mapperFor( element.getClass() ) == null ){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private final void writeDocument( final Object graph, final XMLStreamWriter writer ) throws XMLStreamException{
+		if( graph.getClass().isArray() ){
+			writer.writeStartElement( mapperFor( graph.getClass().getComponentType() ).elementName + ARRAY_SUFFIX );
+			for( final Object element : (Object[]) graph ){
+				writeElement( element, writer );
+			}
+			writer.writeEndElement();
+		}
+		else if( graph instanceof List ){
+			writer.writeStartElement( LIST );
+			for( final Object element : (List< ? >) graph ){
+				writeElement( element, writer );
+			}
+			writer.writeEndElement();
+		}
+		else{
+			writeElement( graph, writer );
+		}
+		writer.flush();
+		writer.close();
+	}
+	
+	/**
+	 * - note: a subclass (a Hibernate proxy, for instance) is written as the mapped class it extends
+	 * @return the mapper of the class, or null if there is none
+	 */
+	final XmlMapper< ? > mapperFor( final Class< ? > clazz ){
+		Optional< XmlMapper< ? >> mapper = mappersByClass.get( clazz );
+		if( mapper == null ){
+			mapper = ( clazz.getSuperclass() == null ) ? Optional.< XmlMapper< ? >> absent() : Optional.< XmlMapper< ? >> fromNullable( mapperFor( clazz.getSuperclass() ) );
+			mappersByClass.putIfAbsent( clazz, mapper );
+		}
+		return mapper.orNull();
+	}
+	
+	// reading
+	
+	private final XMLStreamReader createReader( final InputStream inputStream ){
+		try{
+			return inputFactory.createXMLStreamReader( inputStream );
+		}
+		catch( final XMLStreamException xmlEx ){
+			throw new UnmarshallingFailureException( "Could not read XML", xmlEx );
+		}
+	}
+	private final XMLStreamReader createReader( final Reader reader ){
+		try{
+			return inputFactory.createXMLStreamReader( reader );
+		}
+		catch( final XMLStreamException xmlEx ){
+			throw new UnmarshallingFailureException( "Could not read XML", xmlEx );
+		}
+	}
+	
+	/**
+	 * - note: leaves the reader on the root element, or, for a list, on its first element (or its end)
+	 * @return the name of the root element if the document is one of the mapped representations; null otherwise, or if it could not be read this far
+	 */
+	final String peekRootElement( final XMLStreamReader reader ){
+		try{
+			if( reader.nextTag() != XMLStreamConstants.START_ELEMENT ){
+				return null;
+			}
+			final String rootElement = reader.getLocalName();
+			if( mappersByElement.containsKey( rootElement ) ){
+				return rootElement;
+			}
+			if( rootElement.endsWith( ARRAY_SUFFIX ) ){
+				return mappersByElement.containsKey( rootElement.substring( 0, rootElement.length() - ARRAY_SUFFIX.length() ) ) ? rootElement : null;
+			}
+			if( LIST.equals( rootElement ) ){
+				final boolean isEmpty = reader.nextTag() == XMLStreamConstants.END_ELEMENT;
+				return ( isEmpty || mappersByElement.containsKey( reader.getLocalName() ) ) ? rootElement : null;
+			}
+			return null;
+		}
+		catch( final XMLStreamException xmlEx ){
+			return null;
+		}
+	}
+	
+	final Object readDocument( final String rootElement, final XMLStreamReader reader ){
+		try{
+			final XmlMapper< ? > mapper = mappersByElement.get( rootElement );
+			if( mapper != null ){
+				return mapper.read( reader );
+			}
+			if( LIST.equals( rootElement ) ){
+				return readElements( reader );
+			}
+			
+			reader.nextTag();
+			final List< Object > elements = readElements( reader );
+			final Object array = Array.newInstance( mappersByElement.get( rootElement.substring( 0, rootElement.length() - ARRAY_SUFFIX.length() ) ).type, elements.size() );
+			return elements.toArray( (Object[]) array );
+		}
+		catch( final XMLStreamException xmlEx ){
+			throw new UnmarshallingFailureException( "Could not read <" + rootElement + ">", xmlEx );
+		}
+	}
+	
+	/**
+	 * - note: the reader is on the first element (or on the end of the enclosing one)
+	 */
+	private final List< Object > readElements( final XMLStreamReader reader ) throws XMLStreamException{
+		final List< Object > elements = Lists.newArrayList();
+		while( reader.getEventType() == XMLStreamConstants.START_ELEMENT ){
+			final XmlMapper< ? > mapper = mappersByElement.get( reader.getLocalName() );
+			if( mapper == null ){
+				throw unexpectedElement( reader );
+			}
+			elements.add( mapper.read( reader ) );
+			reader.nextTag();
+		}
+		return elements;
+	}
+	
+	// mappers
+	
+	/**
+	 * Writes and reads one resource as an element
+	 */
+	abstract static class XmlMapper< T >{
+		final Class< T > type;
+		final String elementName;
+		
+		XmlMapper( final Class< T > typeToSet, final String elementNameToSet ){
+			super();
+			
+			type = typeToSet;
+			elementName = elementNameToSet;
+		}
+		
+		final void write( final Object resource, final XMLStreamWriter writer ) throws XMLStreamException{
+			writer.writeStartElement( elementName );
+			writeContent( type.cast( resource ), writer );
+			writer.writeEndElement();
+		}
+		
+		/**
+		 * - note: the writer is right after the start of the element - attributes come first
+		 */
+		abstract void writeContent( final T resource, final XMLStreamWriter writer ) throws XMLStreamException;
+		
+		/**
+		 * - note: the reader is on the start of the element, and is left on its end
+		 */
+		abstract T read( final XMLStreamReader reader ) throws XMLStreamException;
+	}
+	
+	static final class PrivilegeMapper extends XmlMapper< Privilege >{
+		PrivilegeMapper(){
+			super( Privilege.class, Privilege.class.getName() );
+		}
+		
+		@Override
+		final void writeContent( final Privilege privilege, final XMLStreamWriter writer ) throws XMLStreamException{
+			writeTextElement( writer, "id", privilege.getId() );
+			writeTextElement( writer, "version", privilege.getVersion() );
+			writeTextElement( writer, "name", privilege.getName() );
+		}
+		
+		@Override
+		final Privilege read( final XMLStreamReader reader ) throws XMLStreamException{
+			final Privilege privilege = new Privilege();
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT ){
+				final String element = reader.getLocalName();
+				if( "id".equals( element ) ){
+					privilege.setId( toLong( reader.getElementText() ) );
+				}
+				else if( "version".equals( element ) ){
+					privilege.setVersion( toLong( reader.getElementText() ) );
+				}
+				else if( "name".equals( element ) ){
+					privilege.setName( reader.getElementText() );
+				}
+				else{
+					throw unexpectedElement( reader );
+				}
+			}
+			return privilege;
+		}
+	}
+	
+	static final class RoleMapper extends XmlMapper< Role >{
+		private final PrivilegeMapper privilegeMapper = new PrivilegeMapper();
+		
+		RoleMapper(){
+			super( Role.class, "role" );
+		}
+		
+		@Override
+		final void writeContent( final Role role, final XMLStreamWriter writer ) throws XMLStreamException{
+			writeAttribute( writer, "id", role.getId() );
+			writeAttribute( writer, "version", role.getVersion() );
+			writeTextElement( writer, "name", role.getName() );
+			if( role.getPrivileges() != null ){
+				for( final Privilege privilege : role.getPrivileges() ){
+					privilegeMapper.write( privilege, writer );
+				}
+			}
+		}
+		
+		@Override
+		final Role read( final XMLStreamReader reader ) throws XMLStreamException{
+			final Role role = new Role();
+			role.setId( toLong( reader.getAttributeValue( null, "id" ) ) );
+			role.setVersion( toLong( reader.getAttributeValue( null, "version" ) ) );
+			Set< Privilege > privileges = null;
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT ){
+				final String element = reader.getLocalName();
+				if( "name".equals( element ) ){
+					role.setName( reader.getElementText() );
+				}
+				else if( privilegeMapper.elementName.equals( element ) ){
+					privileges = ( privileges == null ) ? Sets.< Privilege > newHashSet() : privileges;
+					privileges.add( privilegeMapper.read( reader ) );
+				}
+				else{
+					throw unexpectedElement( reader );
+				}
+			}
+			role.setPrivileges( privileges );
+			return role;
+		}
+	}
+	
+	static final class PrincipalMapper extends XmlMapper< Principal >{
+		private final RoleMapper roleMapper = new RoleMapper();
+		
+		PrincipalMapper(){
+			super( Principal.class, Principal.class.getName() );
+		}
+		
+		@Override
+		final void writeContent( final Principal principal, final XMLStreamWriter writer ) throws XMLStreamException{
+			writeTextElement( writer, "id", principal.getId() );
+			writeTextElement( writer, "version", principal.getVersion() );
+			writeTextElement( writer, "name", principal.getName() );
+			writeTextElement( writer, "password", principal.getPassword() );
+			writeRoles( roleMapper, principal.getRoles(), writer );
+		}
+		
+		@Override
+		final Principal read( final XMLStreamReader reader ) throws XMLStreamException{
+			final Principal principal = new Principal();
+			Set< Role > roles = null;
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT ){
+				final String element = reader.getLocalName();
+				if( "id".equals( element ) ){
+					principal.setId( toLong( reader.getElementText() ) );
+				}
+				else if( "version".equals( element ) ){
+					principal.setVersion( toLong( reader.getElementText() ) );
+				}
+				else if( "name".equals( element ) ){
+					principal.setName( reader.getElementText() );
+				}
+				else if( "password".equals( element ) ){
+					principal.setPassword( reader.getElementText() );
+				}
+				else if( roleMapper.elementName.equals( element ) ){
+					roles = ( roles == null ) ? Sets.< Role > newHashSet() : roles;
+					roles.add( roleMapper.read( reader ) );
+				}
+				else{
+					throw unexpectedElement( reader );
+				}
+			}
+			principal.setRoles( roles );
+			return principal;
+		}
+	}
+	
+	static final class UserMapper extends XmlMapper< User >{
+		private final RoleMapper roleMapper = new RoleMapper();
+		
+		UserMapper(){
+			super( User.class, "user" );
+		}
+		
+		@Override
+		final void writeContent( final User user, final XMLStreamWriter writer ) throws XMLStreamException{
+			writeAttribute( writer, "id", user.getId() );
+			writeAttribute( writer, "version", user.getVersion() );
+			writeTextElement( writer, "name", user.getName() );
+			writeTextElement( writer, "password", user.getPassword() );
+			writeRoles( roleMapper, user.getRoles(), writer );
+		}
+		
+		@Override
+		final User read( final XMLStreamReader reader ) throws XMLStreamException{
+			final User user = new User();
+			user.setId( toLong( reader.getAttributeValue( null, "id" ) ) );
+			user.setVersion( toLong( reader.getAttributeValue( null, "version" ) ) );
+			Set< Role > roles = null;
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT ){
+				final String element = reader.getLocalName();
+				if( "name".equals( element ) ){
+					user.setName( reader.getElementText() );
+				}
+				else if( "password".equals( element ) ){
+					user.setPassword( reader.getElementText() );
+				}
+				else if( roleMapper.elementName.equals( element ) ){
+					roles = ( roles == null ) ? Sets.< Role > newHashSet() : roles;
+					roles.add( roleMapper.read( reader ) );
+				}
+				else{
+					throw unexpectedElement( reader );
+				}
+			}
+			user.setRoles( roles );
+			return user;
+		}
+	}
+	
+	static final class BulkItemResultMapper extends XmlMapper< BulkItemResult >{
+		BulkItemResultMapper(){
+			super( BulkItemResult.class, "result" );
+		}
+		
+		@Override
+		final void writeContent( final BulkItemResult result, final XMLStreamWriter writer ) throws XMLStreamException{
+			writer.writeAttribute( "index", String.valueOf( result.getIndex() ) );
+			writer.writeAttribute( "status", String.valueOf( result.getStatus() ) );
+			writeAttribute( writer, "id", result.getId() );
+			writeTextElement( writer, "message", result.getMessage() );
+		}
+		
+		@Override
+		final BulkItemResult read( final XMLStreamReader reader ) throws XMLStreamException{
+			final BulkItemResult result = new BulkItemResult();
+			result.setIndex( toInt( reader.getAttributeValue( null, "index" ) ) );
+			result.setStatus( toInt( reader.getAttributeValue( null, "status" ) ) );
+			result.setId( toLong( reader.getAttributeValue( null, "id" ) ) );
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT ){
+				if( "message".equals( reader.getLocalName() ) ){
+					result.setMessage( reader.getElementText() );
+				}
+				else{
+					throw unexpectedElement( reader );
+				}
+			}
+			return result;
+		}
+	}
+	
+	// util
+	
+	static void writeRoles( final RoleMapper roleMapper, final Set< Role > roles, final XMLStreamWriter writer ) throws XMLStreamException{
+		if( roles == null ){
+			return;
+		}
+		for( final Role role : roles ){
+			roleMapper.write( role, writer );
+		}
+	}
+	
+	/**
+	 * - note: as XStream, a null value is not written at all
+	 */
+	static void writeAttribute( final XMLStreamWriter writer, final String name, final Object value ) throws XMLStreamException{
+		if( value != null ){
+			writer.writeAttribute( name, value.toString() );
+		}
+	}
+	
+	/**
+	 * - note: as XStream, a null value is not written at all
+	 */
+	static void writeTextElement( final XMLStreamWriter writer, final String name, final Object value ) throws XMLStreamException{
+		if( value != null ){
+			writer.writeStartElement( name );
+			writer.writeCharacters( value.toString() );
+			writer.writeEndElement();
+		}
+	}
+	
+	static Long toLong( final String value ) throws XMLStreamException{
+		try{
+			return ( value == null ) ? null : Long.valueOf( value.trim() );
+		}
+		catch( final NumberFormatException numberFormatEx ){
+			throw new XMLStreamException( "Not a valid number: " + value );
+		}
+	}
+	
+	static int toInt( final String value ) throws XMLStreamException{
+		try{
+			return ( value == null ) ? 0 : Integer.parseInt( value.trim() );
+		}
+		catch( final NumberFormatException numberFormatEx ){
+			throw new XMLStreamException( "Not a valid number: " + value );
+		}
+	}
+	
+	static XMLStreamException unexpectedElement( final XMLStreamReader reader ){
+		return new XMLStreamException( "Unexpected element <" + reader.getLocalName() + ">", reader.getLocation() );
+	}
+	
+}
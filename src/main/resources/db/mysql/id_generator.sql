@@ -0,0 +1,13 @@
+-- The table the entity ids are reserved from (see org.rest.persistence.jpa.PooledTableIdGenerator) - for the schemas that are validated rather than generated (hbm2ddl=validate)
+-- The rows are seeded above the highest existing id: with the pooled optimizer, the stored value is the upper end of the next block (max + 1 + increment_size, see org/rest/sec/model/package-info.java)
+-- The generator seeds a missing row the same way on its first use, so the inserts below are only needed to seed ahead of the application
+
+create table if not exists ID_GENERATOR (
+	ENTITY_TABLE varchar(255) not null,
+	NEXT_VAL bigint,
+	primary key ( ENTITY_TABLE )
+) engine = InnoDB;
+
+insert into ID_GENERATOR ( ENTITY_TABLE, NEXT_VAL ) select 'Principal', max( PRINCIPAL_ID ) + 1 + 50 from Principal having max( PRINCIPAL_ID ) is not null and not exists ( select 1 from ID_GENERATOR where ENTITY_TABLE = 'Principal' );
+insert into ID_GENERATOR ( ENTITY_TABLE, NEXT_VAL ) select 'Role', max( ROLE_ID ) + 1 + 50 from Role having max( ROLE_ID ) is not null and not exists ( select 1 from ID_GENERATOR where ENTITY_TABLE = 'Role' );
+insert into ID_GENERATOR ( ENTITY_TABLE, NEXT_VAL ) select 'Privilege', max( PRIV_ID ) + 1 + 50 from Privilege having max( PRIV_ID ) is not null and not exists ( select 1 from ID_GENERATOR where ENTITY_TABLE = 'Privilege' );
@@ -0,0 +1,14 @@
+-- The version columns of the optimistically locked entities (see org.rest.persistence.service.AbstractService#updateIfExists) - for the schemas that are validated rather than generated (hbm2ddl=validate)
+-- The existing rows start at version 0, so the first conditional update of each of them already matches on its version
+
+alter table Principal add VERSION bigint not null default 0;
+alter table Role add VERSION bigint not null default 0;
+alter table Privilege add VERSION bigint not null default 0;
+
+-- Where hbm2ddl=update already added the columns as nullable, the rows it left with null are repaired instead:
+-- update Principal set VERSION = 0 where VERSION is null;
+-- alter table Principal modify VERSION bigint not null default 0;
+-- update Role set VERSION = 0 where VERSION is null;
+-- alter table Role modify VERSION bigint not null default 0;
+-- update Privilege set VERSION = 0 where VERSION is null;
+-- alter table Privilege modify VERSION bigint not null default 0;
@@ -0,0 +1,60 @@
+package org.rest.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.ExecutionContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectionReuseInterceptorUnitTest{
+	
+	private ConnectionReuseInterceptor instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new ConnectionReuseInterceptor();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenRequestIsSentOverNewConnection_thenItIsNotCountedAsReused(){
+		instance.process( new BasicHttpRequest( "GET", "/api/role" ), contextWithConnection( 0 ) );
+		
+		assertEquals( 1, instance.getRequestCount() );
+		assertEquals( 0, instance.getReusedCount() );
+	}
+	
+	@Test
+	public final void whenRequestIsSentOverUsedConnection_thenItIsCountedAsReused(){
+		instance.process( new BasicHttpRequest( "GET", "/api/role" ), contextWithConnection( 0 ) );
+		instance.process( new BasicHttpRequest( "GET", "/api/role" ), contextWithConnection( 1 ) );
+		instance.process( new BasicHttpRequest( "GET", "/api/role" ), contextWithConnection( 2 ) );
+		
+		assertEquals( 3, instance.getRequestCount() );
+		assertEquals( 2, instance.getReusedCount() );
+	}
+	
+	// util
+	
+	private final HttpContext contextWithConnection( final long requestsAlreadySent ){
+		final HttpConnectionMetrics metrics = mock( HttpConnectionMetrics.class );
+		when( metrics.getRequestCount() ).thenReturn( requestsAlreadySent );
+		final HttpConnection connection = mock( HttpConnection.class );
+		when( connection.getMetrics() ).thenReturn( metrics );
+		
+		final HttpContext context = new BasicHttpContext();
+		context.setAttribute( ExecutionContext.HTTP_CONNECTION, connection );
+		return context;
+	}
+	
+}
@@ -0,0 +1,112 @@
+package org.rest.common.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ETagsUnitTest{
+	
+	private static final String ETAG = ETags.of( 1l, 3l );
+	
+	// tests - of
+	
+	@Test
+	public final void whenTagIsBuilt_thenPartsAreJoinedAndQuoted(){
+		assertEquals( "\"1-3\"", ETAG );
+		assertEquals( "\"1-3-a.7\"", ETags.of( 1l, 3l, "a.7" ) );
+	}
+	
+	@Test
+	public final void whenTagOfCompressedRepresentationIsBuilt_thenItIsStrongAndCarriesTheEncoding(){
+		assertEquals( "\"1-3-gzip\"", ETags.withEncoding( ETAG, "gzip" ) );
+	}
+	
+	// tests - If-None-Match
+	
+	@Test
+	public final void givenNoIfNoneMatchHeader_thenConditionDoesNotFail(){
+		assertFalse( ETags.noneMatchFails( null, ETAG ) );
+	}
+	
+	@Test
+	public final void givenSameTag_whenIfNoneMatchIsEvaluated_thenConditionFails(){
+		assertTrue( ETags.noneMatchFails( "\"1-3\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenWeakSameTag_whenIfNoneMatchIsEvaluated_thenConditionFails(){
+		assertTrue( ETags.noneMatchFails( "W/\"1-3\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenTagOfCompressedRepresentation_whenIfNoneMatchIsEvaluated_thenConditionFails(){
+		assertTrue( ETags.noneMatchFails( "\"1-3-gzip\"", ETAG ) );
+		assertTrue( ETags.noneMatchFails( "\"1-3-deflate\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenTagList_whenIfNoneMatchIsEvaluated_thenAnyMatchingTagFailsTheCondition(){
+		assertTrue( ETags.noneMatchFails( "\"1-2\", \"1-3\"", ETAG ) );
+		assertFalse( ETags.noneMatchFails( "\"1-1\", \"1-2\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenWildcard_whenIfNoneMatchIsEvaluated_thenConditionFails(){
+		assertTrue( ETags.noneMatchFails( "*", ETAG ) );
+	}
+	
+	// tests - If-Match
+	
+	@Test
+	public final void givenNoIfMatchHeader_thenConditionDoesNotFail(){
+		assertFalse( ETags.matchFails( null, ETAG ) );
+	}
+	
+	@Test
+	public final void givenStaleTag_whenIfMatchIsEvaluated_thenConditionFails(){
+		assertTrue( ETags.matchFails( "\"1-2\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenWeakSameTag_whenIfMatchIsEvaluated_thenConditionFails(){
+		assertTrue( ETags.matchFails( "W/\"1-3\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenTagOfCompressedRepresentation_whenIfMatchIsEvaluated_thenConditionDoesNotFail(){
+		assertFalse( ETags.matchFails( "\"1-3-gzip\"", ETAG ) );
+		assertTrue( ETags.matchFails( "\"1-2-gzip\"", ETAG ) );
+	}
+	
+	@Test
+	public final void givenCurrentTagOrWildcard_whenIfMatchIsEvaluated_thenConditionDoesNotFail(){
+		assertFalse( ETags.matchFails( "\"1-2\", \"1-3\"", ETAG ) );
+		assertFalse( ETags.matchFails( "*", ETAG ) );
+	}
+	
+	// tests - If-Match versions
+	
+	@Test
+	public final void givenTagOfTheEntity_whenItsVersionsAreRead_thenTheVersionIsFound(){
+		assertEquals( Arrays.asList( "3" ), ETags.versionsMatchedBy( "\"1-3\"", 1l, null ) );
+		assertEquals( Arrays.asList( "3" ), ETags.versionsMatchedBy( "\"1-3-a.7-gzip\"", 1l, "a.7" ) );
+	}
+	
+	@Test
+	public final void givenTagsOfOtherEntitiesOrSuffixes_whenVersionsAreRead_thenNoneIsFound(){
+		assertEquals( Collections.emptyList(), ETags.versionsMatchedBy( "\"2-3\", W/\"1-3\", \"1-3-a.6\"", 1l, "a.7" ) );
+	}
+	
+	@Test
+	public final void givenWildcardOrNoHeader_whenVersionsAreRead_thenAnyVersionIsAccepted(){
+		assertNull( ETags.versionsMatchedBy( "\"1-2\", *", 1l, null ) );
+		assertNull( ETags.versionsMatchedBy( null, 1l, null ) );
+	}
+	
+}
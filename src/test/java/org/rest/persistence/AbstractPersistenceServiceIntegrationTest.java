@@ -2,19 +2,26 @@ package org.rest.persistence;
 
 import static org.hamcrest.Matchers.hasItem;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.hamcrest.Matchers;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.rest.common.IEntity;
+import org.rest.common.util.QueryUtil;
+import org.rest.persistence.service.KeysetCursor;
 import org.rest.persistence.service.IService;
 import org.rest.util.IdUtil;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
 import org.springframework.test.annotation.Rollback;
 
 public abstract class AbstractPersistenceServiceIntegrationTest< T extends IEntity >{
@@ -79,6 +86,45 @@ public abstract class AbstractPersistenceServiceIntegrationTest< T extends IEnti
 		assertEquals( existingEntity, retrievedEntity );
 	}
 	
+	// find - keyset
+	
+	@Test
+	public final void givenCursorOfAWalkByName_whenTheWalkContinuesByName_thenEntitiesAfterTheCursorAreFound(){
+		final T existingEntity = persistNewEntity();
+		
+		final List< T > found = getService().findPaginatedAfter( new KeysetCursor( existingEntity.getId(), QueryUtil.NAME, "" ), 10, QueryUtil.NAME );
+		
+		assertFalse( found.isEmpty() );
+	}
+	@Test( expected = IllegalArgumentException.class )
+	public final void givenCursorOfAWalkByName_whenAWalkByIdContinuesFromIt_thenException(){
+		final T existingEntity = persistNewEntity();
+		
+		getService().findPaginatedAfter( new KeysetCursor( existingEntity.getId(), QueryUtil.NAME, "" ), 10, null );
+	}
+	
+	// search
+	
+	@Test
+	public final void givenEntityExists_whenSearchedById_thenEntityIsFound(){
+		final T existingEntity = persistNewEntity();
+		
+		final List< T > found = getService().search( "id=" + existingEntity.getId() );
+		
+		assertThat( found, hasItem( existingEntity ) );
+	}
+	@Test
+	public final void givenEntitiesExist_whenSearchIsPaginated_thenPageIsBoundedAndCounted(){
+		final T existingEntity1 = persistNewEntity();
+		final T existingEntity2 = persistNewEntity();
+		
+		final Page< T > firstPage = getService().searchPaginated( "id=(" + existingEntity1.getId() + "," + existingEntity2.getId() + ")", 0, 1, null );
+		
+		assertEquals( 1, firstPage.getContent().size() );
+		assertEquals( 2, firstPage.getTotalElements() );
+		assertEquals( existingEntity1.getId(), firstPage.getContent().get( 0 ).getId() );
+	}
+	
 	// create
 	
 	@Test( expected = RuntimeException.class )
@@ -149,6 +195,40 @@ public abstract class AbstractPersistenceServiceIntegrationTest< T extends IEnti
 		final T updatedEntity = getService().findOne( existingEntity.getId() );
 		assertEquals( existingEntity, updatedEntity );
 	}
+	@Test
+	public void givenEntityDoesNotExist_whenEntityIsUpdatedIfExists_thenNothingIsUpdated(){
+		final T unpersistedEntity = createNewEntity();
+		unpersistedEntity.setId( IdUtil.randomPositiveLong() );
+		
+		assertEquals( 0, getService().updateIfExists( unpersistedEntity ) );
+	}
+	@Test
+	public void givenEntityExists_whenEntityIsUpdatedIfExists_thenOneEntityIsUpdated(){
+		final T existingEntity = persistNewEntity();
+		changeEntity( existingEntity );
+		
+		assertEquals( 1, getService().updateIfExists( existingEntity ) );
+	}
+	@Test
+	public void givenEntityExists_whenEntityIsUpdatedIfExists_thenVersionIsIncremented(){
+		final T existingEntity = persistNewEntity();
+		final long version = existingEntity.getVersion();
+		changeEntity( existingEntity );
+		
+		getService().updateIfExists( existingEntity );
+		
+		assertEquals( Long.valueOf( version + 1 ), getService().findOne( existingEntity.getId() ).getVersion() );
+	}
+	@Test( expected = OptimisticLockingFailureException.class )
+	public void givenEntityWasUpdatedMeanwhile_whenEntityWithStaleVersionIsUpdated_thenException(){
+		final T existingEntity = persistNewEntity();
+		final T concurrentlyChangedEntity = getService().findOne( existingEntity.getId() );
+		changeEntity( concurrentlyChangedEntity );
+		getService().update( concurrentlyChangedEntity );
+		
+		changeEntity( existingEntity );
+		getService().update( existingEntity );
+	}
 	
 	// delete
 	
@@ -181,6 +261,91 @@ public abstract class AbstractPersistenceServiceIntegrationTest< T extends IEnti
 		// Then
 		assertNull( getService().findOne( existingEntity.getId() ) );
 	}
+	@Test
+	public void givenEntityDoesNotExist_whenEntityIsDeletedIfExists_thenNothingIsDeleted(){
+		assertFalse( getService().deleteIfExists( IdUtil.randomPositiveLong() ) );
+	}
+	@Test
+	public void givenEntityExists_whenEntityIsDeletedIfExists_thenEntityIsDeleted(){
+		final T existingEntity = persistNewEntity();
+		
+		assertTrue( getService().deleteIfExists( existingEntity.getId() ) );
+		assertNull( getService().findOne( existingEntity.getId() ) );
+	}
+	@Test
+	public void givenEntityExists_whenEntityIsDeletedIfExistsWithItsVersion_thenEntityIsDeleted(){
+		final T existingEntity = persistNewEntity();
+		
+		assertTrue( getService().deleteIfExists( existingEntity.getId(), getService().findOne( existingEntity.getId() ).getVersion() ) );
+		assertNull( getService().findOne( existingEntity.getId() ) );
+	}
+	@Test( expected = OptimisticLockingFailureException.class )
+	public void givenEntityWasUpdatedMeanwhile_whenEntityIsDeletedIfExistsWithStaleVersion_thenException(){
+		final T existingEntity = persistNewEntity();
+		final long version = getService().findOne( existingEntity.getId() ).getVersion();
+		final T concurrentlyChangedEntity = getService().findOne( existingEntity.getId() );
+		changeEntity( concurrentlyChangedEntity );
+		getService().update( concurrentlyChangedEntity );
+		
+		getService().deleteIfExists( existingEntity.getId(), version );
+	}
+	
+	// bulk
+	
+	@SuppressWarnings( "unchecked" )
+	@Test
+	public void whenEntitiesAreCreatedInBulk_thenEntitiesAreRetrievable(){
+		final List< T > createdEntities = getService().createInBulk( Arrays.asList( createNewEntity(), createNewEntity() ) );
+		
+		for( final T createdEntity : createdEntities ){
+			assertNotNull( getService().findOne( createdEntity.getId() ) );
+		}
+	}
+	@Test
+	public void givenOneOfTheEntitiesExists_whenEntitiesAreDeletedInBulk_thenOnlyTheExistingEntityIsDeleted(){
+		final T existingEntity = persistNewEntity();
+		
+		final boolean[] deleted = getService().deleteInBulk( Arrays.asList( existingEntity.getId(), IdUtil.randomPositiveLong() ) );
+		
+		assertTrue( deleted[0] );
+		assertFalse( deleted[1] );
+		assertNull( getService().findOne( existingEntity.getId() ) );
+	}
+	@Test
+	public void givenEntityIsRequestedTwice_whenEntitiesAreDeletedInBulk_thenItIsDeletedOnlyOnce(){
+		final T existingEntity = persistNewEntity();
+		
+		final boolean[] deleted = getService().deleteInBulk( Arrays.asList( existingEntity.getId(), existingEntity.getId() ) );
+		
+		assertTrue( deleted[0] );
+		assertFalse( deleted[1] );
+	}
+	@SuppressWarnings( "unchecked" )
+	@Test
+	public void givenOneOfTheEntitiesExists_whenEntitiesAreUpdatedInBulk_thenOnlyTheExistingEntityIsUpdated(){
+		final T existingEntity = persistNewEntity();
+		final long version = getService().findOne( existingEntity.getId() ).getVersion();
+		changeEntity( existingEntity );
+		final T missingEntity = createNewEntity();
+		missingEntity.setId( IdUtil.randomPositiveLong() );
+		
+		final int[] updated = getService().updateInBulk( Arrays.asList( existingEntity, missingEntity ) );
+		
+		assertEquals( 1, updated[0] );
+		assertEquals( 0, updated[1] );
+		assertEquals( Long.valueOf( version + 1 ), getService().findOne( existingEntity.getId() ).getVersion() );
+	}
+	@SuppressWarnings( "unchecked" )
+	@Test( expected = OptimisticLockingFailureException.class )
+	public void givenEntityWasUpdatedMeanwhile_whenEntityWithStaleVersionIsUpdatedInBulk_thenException(){
+		final T existingEntity = persistNewEntity();
+		final T concurrentlyChangedEntity = getService().findOne( existingEntity.getId() );
+		changeEntity( concurrentlyChangedEntity );
+		getService().update( concurrentlyChangedEntity );
+		
+		changeEntity( existingEntity );
+		getService().updateInBulk( Arrays.asList( existingEntity ) );
+	}
 	
 	// delete all
 	
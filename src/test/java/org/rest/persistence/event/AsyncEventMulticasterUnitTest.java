@@ -0,0 +1,143 @@
+package org.rest.persistence.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.model.Role;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.Lists;
+
+public class AsyncEventMulticasterUnitTest{
+	
+	private AsyncEventMulticaster instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		final List< Class< ? extends ApplicationEvent >> asyncEventTypes = Lists.newArrayList();
+		asyncEventTypes.add( EntityCreatedEvent.class );
+		instance = new AsyncEventMulticaster( asyncEventTypes, 1, 10 );
+	}
+	
+	@After
+	public final void after(){
+		instance.destroy();
+		if( TransactionSynchronizationManager.isSynchronizationActive() ){
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenOtherEventIsPublished_thenItIsDeliveredOnThePublishingThread(){
+		final RecordingListener listener = new RecordingListener( 1 );
+		instance.addApplicationListener( listener );
+		
+		// When
+		instance.multicastEvent( new EntityUpdatedEvent< Role >( this, Role.class, 1l ) );
+		
+		// Then
+		assertSame( Thread.currentThread(), listener.thread );
+	}
+	
+	@Test
+	public final void whenAsyncEventIsPublished_thenItIsDeliveredOnThePool() throws InterruptedException{
+		final RecordingListener listener = new RecordingListener( 1 );
+		instance.addApplicationListener( listener );
+		
+		// When
+		instance.multicastEvent( createdEvent() );
+		
+		// Then
+		assertTrue( listener.delivered.await( 5, TimeUnit.SECONDS ) );
+		assertNotSame( Thread.currentThread(), listener.thread );
+	}
+	
+	@Test
+	public final void givenSynchronousListener_whenAsyncEventIsPublished_thenItIsDeliveredOnThePublishingThread(){
+		final RecordingListener listener = new SynchronousRecordingListener();
+		instance.addApplicationListener( listener );
+		
+		// When
+		instance.multicastEvent( createdEvent() );
+		
+		// Then
+		assertSame( Thread.currentThread(), listener.thread );
+	}
+	
+	@Test
+	public final void givenTransaction_whenAsyncEventIsPublished_thenItIsDeliveredOnlyAfterCommit() throws InterruptedException{
+		final RecordingListener listener = new RecordingListener( 1 );
+		instance.addApplicationListener( listener );
+		TransactionSynchronizationManager.initSynchronization();
+		
+		// When
+		instance.multicastEvent( createdEvent() );
+		
+		// Then
+		assertEquals( 1, listener.delivered.getCount() );
+		for( final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() ){
+			synchronization.afterCommit();
+		}
+		assertTrue( listener.delivered.await( 5, TimeUnit.SECONDS ) );
+	}
+	
+	@Test
+	public final void givenTransaction_whenAsyncEventIsPublishedAndTransactionRollsBack_thenItIsNotDelivered() throws InterruptedException{
+		final RecordingListener listener = new RecordingListener( 1 );
+		instance.addApplicationListener( listener );
+		TransactionSynchronizationManager.initSynchronization();
+		
+		// When
+		instance.multicastEvent( createdEvent() );
+		for( final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() ){
+			synchronization.afterCompletion( TransactionSynchronization.STATUS_ROLLED_BACK );
+		}
+		
+		// Then
+		assertEquals( 1, listener.delivered.getCount() );
+	}
+	
+	// util
+	
+	private final EntityCreatedEvent< Role > createdEvent(){
+		return new EntityCreatedEvent< Role >( this, Role.class, new Role() );
+	}
+	
+	static class RecordingListener implements ApplicationListener< ApplicationEvent >{
+		final CountDownLatch delivered;
+		volatile Thread thread;
+		
+		RecordingListener( final int expectedEvents ){
+			delivered = new CountDownLatch( expectedEvents );
+		}
+		
+		@Override
+		public final void onApplicationEvent( final ApplicationEvent event ){
+			thread = Thread.currentThread();
+			delivered.countDown();
+		}
+	}
+	
+	static final class SynchronousRecordingListener extends RecordingListener implements SynchronousListener{
+		SynchronousRecordingListener(){
+			super( 1 );
+		}
+	}
+	
+}
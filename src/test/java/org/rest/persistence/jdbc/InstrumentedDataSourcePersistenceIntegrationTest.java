@@ -0,0 +1,76 @@
+package org.rest.persistence.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.rest.spring.context.ContextTestConfig;
+import org.rest.spring.persistence.jpa.PersistenceJPAConfig;
+import org.rest.spring.testing.TestingTestConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+@RunWith( SpringJUnit4ClassRunner.class )
+@ContextConfiguration( classes = { TestingTestConfig.class, PersistenceJPAConfig.class, ContextTestConfig.class },loader = AnnotationConfigContextLoader.class )
+public class InstrumentedDataSourcePersistenceIntegrationTest{
+	
+	@Autowired private DataSource restDataSource;
+	
+	@Value( "${jdbc.pool.maxActive}" ) private int poolMaxActive;
+	
+	private InstrumentedDataSource instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before() throws SQLException{
+		instance = restDataSource.unwrap( InstrumentedDataSource.class );
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenDataSourceIsInspected_thenItIsTheConfiguredPool(){
+		assertEquals( poolMaxActive, instance.getMaxActive() );
+	}
+	
+	@Test
+	public final void whenConnectionIsAcquired_thenItIsBorrowedUntilClosed() throws SQLException{
+		final long acquiredBefore = instance.getAcquiredCount();
+		final int activeBefore = instance.getNumActive();
+		
+		// When
+		final Connection connection = instance.getConnection();
+		final int activeWhileBorrowed;
+		try{
+			activeWhileBorrowed = instance.getNumActive();
+		}
+		finally{
+			connection.close();
+		}
+		
+		// Then
+		assertEquals( acquiredBefore + 1, instance.getAcquiredCount() );
+		assertEquals( activeBefore + 1, activeWhileBorrowed );
+		assertEquals( activeBefore, instance.getNumActive() );
+	}
+	
+	@Test
+	public final void whenConnectionIsReturned_thenItIsKeptIdleForTheNextCaller() throws SQLException{
+		instance.getConnection().close();
+		
+		assertTrue( instance.getNumIdle() > 0 );
+		assertTrue( instance.getSaturation() < 1 );
+	}
+	
+}
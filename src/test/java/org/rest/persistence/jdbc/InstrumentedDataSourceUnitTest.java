@@ -0,0 +1,91 @@
+package org.rest.persistence.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InstrumentedDataSourceUnitTest{
+	
+	private BasicDataSource pool;
+	private InstrumentedDataSource instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		pool = mock( BasicDataSource.class );
+		instance = new InstrumentedDataSource( pool );
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenConnectionIsAcquired_thenItComesFromThePoolAndIsCounted() throws SQLException{
+		final Connection connection = mock( Connection.class );
+		when( pool.getConnection() ).thenReturn( connection );
+		
+		// When
+		final Connection acquired = instance.getConnection();
+		
+		// Then
+		assertSame( connection, acquired );
+		assertEquals( 1, instance.getAcquiredCount() );
+		assertEquals( 0, instance.getFailedCount() );
+	}
+	
+	@Test
+	public final void givenPoolIsExhausted_whenConnectionIsRequested_thenFailureIsCountedAndRethrown() throws SQLException{
+		final SQLException timeout = new SQLException( "Cannot get a connection, pool error Timeout waiting for idle object" );
+		when( pool.getConnection() ).thenThrow( timeout );
+		
+		// When
+		try{
+			instance.getConnection();
+			fail();
+		}
+		catch( final SQLException ex ){
+			assertSame( timeout, ex );
+		}
+		
+		// Then
+		assertEquals( 0, instance.getAcquiredCount() );
+		assertEquals( 1, instance.getFailedCount() );
+	}
+	
+	@Test
+	public final void givenNoConnectionWasAcquired_whenWaitTimesAreRead_thenTheyAreZero(){
+		assertEquals( 0, instance.getAverageWaitMillis(), 0 );
+		assertEquals( 0, instance.getMaxWaitMillis() );
+	}
+	
+	@Test
+	public final void givenHalfThePoolIsBorrowed_whenSaturationIsRead_thenItIsOneHalf(){
+		when( pool.getNumActive() ).thenReturn( 10 );
+		when( pool.getMaxActive() ).thenReturn( 20 );
+		
+		assertEquals( 0.5, instance.getSaturation(), 0 );
+	}
+	
+	@Test
+	public final void givenPoolIsUnbounded_whenSaturationIsRead_thenItIsZero(){
+		when( pool.getNumActive() ).thenReturn( 10 );
+		when( pool.getMaxActive() ).thenReturn( -1 );
+		
+		assertEquals( 0, instance.getSaturation(), 0 );
+	}
+	
+	@Test
+	public final void whenUnwrappedToItsOwnType_thenInstanceIsReturned() throws SQLException{
+		assertSame( instance, instance.unwrap( InstrumentedDataSource.class ) );
+	}
+	
+}
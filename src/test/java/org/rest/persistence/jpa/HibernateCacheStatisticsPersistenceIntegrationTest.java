@@ -0,0 +1,94 @@
+package org.rest.persistence.jpa;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.hamcrest.Matchers.hasItemInArray;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.rest.sec.model.Role;
+import org.rest.sec.persistence.service.IPrincipalService;
+import org.rest.sec.persistence.service.IPrivilegeService;
+import org.rest.sec.persistence.service.IRoleService;
+import org.rest.spring.context.ContextTestConfig;
+import org.rest.spring.persistence.jpa.PersistenceJPAConfig;
+import org.rest.spring.testing.TestingTestConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+@RunWith( SpringJUnit4ClassRunner.class )
+@ContextConfiguration( classes = { TestingTestConfig.class, PersistenceJPAConfig.class, ContextTestConfig.class },loader = AnnotationConfigContextLoader.class )
+public class HibernateCacheStatisticsPersistenceIntegrationTest{
+	private static final String ROLE_REGION = Role.class.getName();
+	
+	@Autowired private IPrivilegeService privilegeService;
+	@Autowired private IRoleService roleService;
+	@Autowired private IPrincipalService principalService;
+	
+	@Autowired private HibernateCacheStatistics instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		principalService.deleteAll();
+		roleService.deleteAll();
+		privilegeService.deleteAll();
+		
+		instance.reset();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenCacheIsConfigured_thenTheCatalogRegionsExist(){
+		assertThat( instance.getRegionNames(), hasItemInArray( ROLE_REGION ) );
+		assertThat( instance.getRegionNames(), hasItemInArray( ROLE_REGION + ".privileges" ) );
+	}
+	
+	@Test
+	public final void givenRoleWasRead_whenItIsReadAgain_thenItComesFromTheSecondLevelCache(){
+		final Role role = roleService.create( new Role( randomAlphabetic( 8 ) ) );
+		roleService.findOne( role.getId() );
+		
+		// When
+		roleService.findOne( role.getId() );
+		
+		// Then
+		assertTrue( instance.regionHitRatio( ROLE_REGION ) > 0 );
+		assertTrue( instance.regionSize( ROLE_REGION ) > 0 );
+	}
+	
+	@Test
+	public final void givenRoleWasFoundByName_whenItIsFoundByNameAgain_thenTheQueryComesFromTheQueryCache(){
+		final String name = randomAlphabetic( 8 );
+		roleService.create( new Role( name ) );
+		roleService.findByName( name );
+		
+		// When
+		final Role role = roleService.findByName( name );
+		
+		// Then
+		assertEquals( name, role.getName() );
+		assertTrue( instance.getQueryCacheHitRatio() > 0 );
+	}
+	
+	@Test
+	public final void givenCacheWasUsed_whenStatisticsAreReset_thenRatiosStartOver(){
+		final Role role = roleService.create( new Role( randomAlphabetic( 8 ) ) );
+		roleService.findOne( role.getId() );
+		
+		// When
+		instance.reset();
+		
+		// Then
+		assertEquals( 0, instance.regionHitRatio( ROLE_REGION ), 0 );
+		assertEquals( 0, instance.getSecondLevelCacheHitRatio(), 0 );
+	}
+	
+}
@@ -0,0 +1,82 @@
+package org.rest.persistence.jpa;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.ejb.HibernateEntityManagerFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HibernateCacheStatisticsUnitTest{
+	private static final String REGION = "org.rest.sec.model.Role";
+	
+	private Statistics statistics;
+	private HibernateCacheStatistics instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		statistics = mock( Statistics.class );
+		final SessionFactory sessionFactory = mock( SessionFactory.class );
+		when( sessionFactory.getStatistics() ).thenReturn( statistics );
+		final HibernateEntityManagerFactory entityManagerFactory = mock( HibernateEntityManagerFactory.class );
+		when( entityManagerFactory.getSessionFactory() ).thenReturn( sessionFactory );
+		
+		instance = new HibernateCacheStatistics( entityManagerFactory );
+	}
+	
+	// tests
+	
+	@Test( expected = IllegalArgumentException.class )
+	public final void givenEntityManagerFactoryIsNotHibernate_whenStatisticsAreCreated_thenException(){
+		new HibernateCacheStatistics( mock( EntityManagerFactory.class ) );
+	}
+	
+	@Test
+	public final void givenRegionHasHitsAndMisses_whenHitRatioIsRead_thenItIsTheShareOfHits(){
+		final SecondLevelCacheStatistics regionStatistics = mock( SecondLevelCacheStatistics.class );
+		when( regionStatistics.getHitCount() ).thenReturn( 3l );
+		when( regionStatistics.getMissCount() ).thenReturn( 1l );
+		when( regionStatistics.getElementCountInMemory() ).thenReturn( 4l );
+		when( statistics.getSecondLevelCacheStatistics( REGION ) ).thenReturn( regionStatistics );
+		
+		assertEquals( 0.75, instance.regionHitRatio( REGION ), 0 );
+		assertEquals( 4, instance.regionSize( REGION ) );
+	}
+	
+	@Test
+	public final void givenRegionDoesNotExist_whenItIsRead_thenRatioAndSizeAreZero(){
+		assertEquals( 0, instance.regionHitRatio( "unknown" ), 0 );
+		assertEquals( 0, instance.regionSize( "unknown" ) );
+	}
+	
+	@Test
+	public final void givenCacheWasNotUsed_whenHitRatiosAreRead_thenTheyAreZero(){
+		assertEquals( 0, instance.getSecondLevelCacheHitRatio(), 0 );
+		assertEquals( 0, instance.getQueryCacheHitRatio(), 0 );
+	}
+	
+	@Test
+	public final void givenQueriesHitTheCache_whenQueryCacheHitRatioIsRead_thenItIsTheShareOfHits(){
+		when( statistics.getQueryCacheHitCount() ).thenReturn( 1l );
+		when( statistics.getQueryCacheMissCount() ).thenReturn( 1l );
+		
+		assertEquals( 0.5, instance.getQueryCacheHitRatio(), 0 );
+	}
+	
+	@Test
+	public final void whenStatisticsAreReset_thenHibernateStatisticsAreCleared(){
+		instance.reset();
+		
+		verify( statistics ).clear();
+	}
+	
+}
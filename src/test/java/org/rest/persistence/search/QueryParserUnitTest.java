@@ -0,0 +1,109 @@
+package org.rest.persistence.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class QueryParserUnitTest{
+	
+	// tests - constraints
+	
+	@Test
+	public final void whenEqualityIsParsed_thenConstraintIsCorrect(){
+		final QueryNode.Constraint constraint = (QueryNode.Constraint) QueryParser.parse( "name=admin" );
+		
+		assertEquals( Arrays.asList( "name" ), constraint.getPath() );
+		assertEquals( QueryOperator.EQ, constraint.getOperator() );
+		assertEquals( "admin", constraint.getValue() );
+	}
+	@Test
+	public final void whenNegatedEqualityIsParsed_thenOperatorIsNotEq(){
+		assertEquals( QueryOperator.NOT_EQ, ( (QueryNode.Constraint) QueryParser.parse( "id~=3" ) ).getOperator() );
+	}
+	@Test
+	public final void whenRangesAreParsed_thenOperatorsAreCorrect(){
+		assertEquals( QueryOperator.GREATER_THAN, ( (QueryNode.Constraint) QueryParser.parse( "id>3" ) ).getOperator() );
+		assertEquals( QueryOperator.GREATER_THAN_OR_EQ, ( (QueryNode.Constraint) QueryParser.parse( "id>=3" ) ).getOperator() );
+		assertEquals( QueryOperator.LESS_THAN, ( (QueryNode.Constraint) QueryParser.parse( "id<3" ) ).getOperator() );
+		assertEquals( QueryOperator.LESS_THAN_OR_EQ, ( (QueryNode.Constraint) QueryParser.parse( "id<=3" ) ).getOperator() );
+	}
+	@Test
+	public final void whenValueListIsParsed_thenOperatorIsIn(){
+		final QueryNode.Constraint constraint = (QueryNode.Constraint) QueryParser.parse( "id=(1, 2,3)" );
+		
+		assertEquals( QueryOperator.IN, constraint.getOperator() );
+		assertEquals( Arrays.asList( "1", "2", "3" ), constraint.getValues() );
+	}
+	@Test
+	public final void whenWildcardValueIsParsed_thenOperatorIsLike(){
+		assertEquals( QueryOperator.LIKE, ( (QueryNode.Constraint) QueryParser.parse( "name=adm*" ) ).getOperator() );
+		assertEquals( QueryOperator.NOT_LIKE, ( (QueryNode.Constraint) QueryParser.parse( "name~=adm*" ) ).getOperator() );
+	}
+	@Test
+	public final void whenAssociationPathIsParsed_thenPathIsSplit(){
+		assertEquals( Arrays.asList( "privileges", "name" ), ( (QueryNode.Constraint) QueryParser.parse( "privileges.name=read" ) ).getPath() );
+	}
+	@Test
+	public final void whenQuotedValueIsParsed_thenValueIsUnquoted(){
+		assertEquals( "it's (a, b)", ( (QueryNode.Constraint) QueryParser.parse( "name='it''s (a, b)'" ) ).getValue() );
+	}
+	
+	// tests - conjunctions and disjunctions
+	
+	@Test
+	public final void whenAndIsParsed_thenAllConstraintsAreChildren(){
+		final QueryNode query = QueryParser.parse( "id=1,name=a;name~=b" );
+		
+		assertTrue( query instanceof QueryNode.And );
+		assertEquals( 3, ( (QueryNode.And) query ).getChildren().size() );
+	}
+	@Test
+	public final void whenAndAndOrAreMixed_thenAndBindsTighter(){
+		final QueryNode query = QueryParser.parse( "id=1|id=2,name=a" );
+		
+		assertTrue( query instanceof QueryNode.Or );
+		assertTrue( ( (QueryNode.Or) query ).getChildren().get( 1 ) instanceof QueryNode.And );
+	}
+	@Test
+	public final void whenGroupIsParsed_thenGroupBindsTighter(){
+		final QueryNode query = QueryParser.parse( "(id=1|id=2),name=a" );
+		
+		assertTrue( query instanceof QueryNode.And );
+		assertTrue( ( (QueryNode.And) query ).getChildren().get( 0 ) instanceof QueryNode.Or );
+	}
+	
+	// tests - caching
+	
+	@Test
+	public final void whenSameQueryIsParsedTwice_thenParsedQueryIsReused(){
+		assertSame( QueryParser.parse( "name=cached" ), QueryParser.parse( "name=cached" ) );
+	}
+	
+	// tests - malformed
+	
+	@Test( expected = IllegalStateException.class )
+	public final void whenOperatorIsMissing_thenException(){
+		QueryParser.parse( "name" );
+	}
+	@Test( expected = IllegalStateException.class )
+	public final void whenGroupIsNotClosed_thenException(){
+		QueryParser.parse( "(id=1|id=2" );
+	}
+	@Test( expected = IllegalStateException.class )
+	public final void whenValueListIsUsedWithRange_thenException(){
+		QueryParser.parse( "id>(1,2)" );
+	}
+	@Test( expected = IllegalStateException.class )
+	public final void whenAttributePathIsInvalid_thenException(){
+		QueryParser.parse( "privileges..name=a" );
+	}
+	@Test( expected = IllegalStateException.class )
+	public final void whenQuoteIsNotClosed_thenException(){
+		QueryParser.parse( "name='a" );
+	}
+	
+}
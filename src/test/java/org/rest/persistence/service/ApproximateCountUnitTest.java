@@ -0,0 +1,103 @@
+package org.rest.persistence.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class ApproximateCountUnitTest{
+	private static final long REFRESH_AFTER_SECONDS = 60;
+	
+	private AtomicLong counts;
+	private CountDownLatch secondCount;
+	private FakeTicker ticker;
+	private ApproximateCount instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		counts = new AtomicLong();
+		secondCount = new CountDownLatch( 2 );
+		ticker = new FakeTicker();
+		instance = new ApproximateCount( new Callable< Long >(){
+			@Override
+			public final Long call(){
+				secondCount.countDown();
+				return counts.incrementAndGet() * 100;
+			}
+		}, REFRESH_AFTER_SECONDS, ticker );
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenCountIsReadForTheFirstTime_thenCounterIsCalledOnce(){
+		assertEquals( 100, instance.get() );
+		assertEquals( 1, counts.get() );
+	}
+	
+	@Test
+	public final void givenCountIsFresh_whenCountIsReadAgain_thenCounterIsNotCalledAgain(){
+		instance.get();
+		ticker.advance( REFRESH_AFTER_SECONDS - 1 );
+		
+		// When
+		final long count = instance.get();
+		
+		// Then
+		assertEquals( 100, count );
+		assertEquals( 1, counts.get() );
+	}
+	
+	@Test
+	public final void givenCountIsStale_whenCountIsRead_thenLastCountIsReturnedAndRefreshedInTheBackground() throws InterruptedException{
+		instance.get();
+		ticker.advance( REFRESH_AFTER_SECONDS + 1 );
+		
+		// When
+		final long count = instance.get();
+		
+		// Then
+		assertEquals( 100, count );
+		assertTrue( secondCount.await( 5, TimeUnit.SECONDS ) );
+		assertEquals( 200, awaitCountOtherThan( 100 ) );
+	}
+	
+	// util
+	
+	/**
+	 * - note: the refreshed value is stored once the background count completes, shortly after the counter returns
+	 */
+	private long awaitCountOtherThan( final long previous ) throws InterruptedException{
+		final long deadline = System.currentTimeMillis() + 5000;
+		long count = instance.get();
+		while( count == previous && System.currentTimeMillis() < deadline ){
+			Thread.sleep( 10 );
+			count = instance.get();
+		}
+		return count;
+	}
+	
+	static final class FakeTicker extends Ticker{
+		private final AtomicLong nanos = new AtomicLong();
+		
+		@Override
+		public final long read(){
+			return nanos.get();
+		}
+		
+		final void advance( final long seconds ){
+			nanos.addAndGet( TimeUnit.SECONDS.toNanos( seconds ) );
+		}
+	}
+	
+}
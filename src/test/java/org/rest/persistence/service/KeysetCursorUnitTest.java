@@ -0,0 +1,142 @@
+package org.rest.persistence.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+import org.rest.sec.model.Role;
+
+import com.google.common.base.Charsets;
+
+public class KeysetCursorUnitTest{
+	
+	// tests
+	
+	@Test
+	public final void givenCursorById_whenTokenIsDecoded_thenCursorIsTheSame(){
+		final KeysetCursor cursor = new KeysetCursor( 42l, null, null );
+		
+		// When
+		final KeysetCursor decoded = KeysetCursor.fromToken( cursor.toToken() );
+		
+		// Then
+		assertEquals( 42l, decoded.getId() );
+		assertNull( decoded.getSortBy() );
+		assertNull( decoded.getSortValue() );
+	}
+	
+	@Test
+	public final void givenCursorBySortValue_whenTokenIsDecoded_thenCursorIsTheSame(){
+		final KeysetCursor cursor = new KeysetCursor( 42l, "name", "some:name=x!" );
+		
+		// When
+		final KeysetCursor decoded = KeysetCursor.fromToken( cursor.toToken() );
+		
+		// Then
+		assertEquals( 42l, decoded.getId() );
+		assertEquals( "name", decoded.getSortBy() );
+		assertEquals( "some:name=x!", decoded.getSortValue() );
+	}
+	
+	@Test
+	public final void whenEmptyTokenIsDecoded_thenThereIsNoCursor(){
+		assertNull( KeysetCursor.fromToken( "" ) );
+	}
+	
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenInvalidTokenIsDecoded_thenException(){
+		KeysetCursor.fromToken( "invalid" );
+	}
+	
+	@Test
+	public final void givenEntity_whenCursorAfterItIsCreatedForSortByName_thenCursorHoldsIdAndName(){
+		final Role entity = new Role( "someRole" );
+		entity.setId( 7l );
+		
+		// When
+		final KeysetCursor cursor = KeysetCursor.after( entity, "name" );
+		
+		// Then
+		assertEquals( 7l, cursor.getId() );
+		assertEquals( "someRole", cursor.getSortValue() );
+		assertTrue( cursor.isFor( "name" ) );
+		assertFalse( cursor.isFor( null ) );
+	}
+	
+	@Test
+	public final void givenCursorById_whenSortIsChecked_thenItIsForTheSortById(){
+		final KeysetCursor cursor = KeysetCursor.fromToken( new KeysetCursor( 42l, null, null ).toToken() );
+		
+		assertTrue( cursor.isFor( null ) );
+		assertTrue( cursor.isFor( "id" ) );
+		assertFalse( cursor.isFor( "name" ) );
+	}
+	
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenTokenWithSortByIdAndSortValueIsDecoded_thenException(){
+		KeysetCursor.fromToken( Base64.encodeBase64URLSafeString( "42:id=a".getBytes( Charsets.UTF_8 ) ) );
+	}
+	
+	// tests - null sort values
+	
+	@Test
+	public final void givenEntityWithNullSortValue_whenCursorAfterItIsCreated_thenCursorIsMarkedAsNullSortValue(){
+		final Role entity = new Role( null );
+		entity.setId( 7l );
+		
+		// When
+		final KeysetCursor cursor = KeysetCursor.after( entity, "name" );
+		
+		// Then
+		assertEquals( 7l, cursor.getId() );
+		assertNull( cursor.getSortValue() );
+		assertTrue( cursor.isNullSortValue() );
+	}
+	
+	@Test
+	public final void givenCursorWithNullSortValue_whenTokenIsDecoded_thenCursorIsTheSame(){
+		final KeysetCursor cursor = KeysetCursor.withNullSortValue( 42l, "name" );
+		
+		// When
+		final KeysetCursor decoded = KeysetCursor.fromToken( cursor.toToken() );
+		
+		// Then
+		assertEquals( 42l, decoded.getId() );
+		assertEquals( "name", decoded.getSortBy() );
+		assertNull( decoded.getSortValue() );
+		assertTrue( decoded.isNullSortValue() );
+	}
+	
+	@Test
+	public final void givenCursorWithNullSortValue_whenTokenIsCreated_thenItDiffersFromTheCursorById(){
+		assertFalse( new KeysetCursor( 42l, null, null ).toToken().equals( KeysetCursor.withNullSortValue( 42l, "name" ).toToken() ) );
+	}
+	
+	@Test
+	public final void givenCursorWithEmptySortValue_whenTokenIsDecoded_thenSortValueIsEmptyNotNull(){
+		final KeysetCursor decoded = KeysetCursor.fromToken( new KeysetCursor( 42l, "name", "" ).toToken() );
+		
+		assertEquals( "", decoded.getSortValue() );
+		assertFalse( decoded.isNullSortValue() );
+	}
+	
+	@Test
+	public final void givenSortValueEndingWithTheNullMarker_whenTokenIsDecoded_thenSortValueIsKept(){
+		final KeysetCursor decoded = KeysetCursor.fromToken( new KeysetCursor( 42l, "name", "wow!" ).toToken() );
+		
+		assertEquals( "wow!", decoded.getSortValue() );
+		assertFalse( decoded.isNullSortValue() );
+	}
+	
+	@Test
+	public final void givenEntity_whenCursorAfterItIsCreatedForSortById_thenCursorIsNotMarkedAsNullSortValue(){
+		final Role entity = new Role( null );
+		entity.setId( 7l );
+		
+		assertFalse( KeysetCursor.after( entity, null ).isNullSortValue() );
+	}
+	
+}
@@ -0,0 +1,168 @@
+package org.rest.sec.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.rest.client.RestTemplateFactory;
+import org.rest.sec.util.SecurityConstants;
+import org.rest.spring.client.ClientTestConfig;
+import org.rest.spring.context.ContextTestConfig;
+import org.rest.spring.testing.TestingTestConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.springframework.web.client.RestTemplate;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Compares the pooled, keep-alive client with one that opens a connection per request, under concurrent callers - the reuse is asserted, the throughput is logged
+ */
+@RunWith( SpringJUnit4ClassRunner.class )
+@ContextConfiguration( classes = { TestingTestConfig.class, ClientTestConfig.class, ContextTestConfig.class },loader = AnnotationConfigContextLoader.class )
+public class ConnectionPoolClientRESTIntegrationTest{
+	private static final Logger logger = LoggerFactory.getLogger( ConnectionPoolClientRESTIntegrationTest.class );
+	private static final int THREADS = 8;
+	private static final int REQUESTS_PER_THREAD = 25;
+	
+	@Autowired private RestTemplateFactory restTemplateFactory;
+	@Autowired private RestTemplate restTemplate;
+	@Autowired private ExamplePaths paths;
+	
+	@Value( "${host}" ) private String host;
+	@Value( "${port}" ) private int port;
+	
+	private RestTemplateFactory unpooledFactory;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		authenticate( restTemplate );
+		
+		unpooledFactory = new RestTemplateFactory();
+		unpooledFactory.afterPropertiesSet();
+		httpClientOf( unpooledFactory.getObject() ).setReuseStrategy( new NoConnectionReuseStrategy() );
+		authenticate( unpooledFactory.getObject() );
+	}
+	
+	@After
+	public final void after(){
+		unpooledFactory.destroy();
+	}
+	
+	// tests
+	
+	@Test
+	public final void givenConcurrentCallers_whenResourcesAreRetrieved_thenConnectionsAreReused() throws Exception{
+		final long requestsBefore = restTemplateFactory.getRequestCount();
+		final long reusedBefore = restTemplateFactory.getReusedConnectionCount();
+		
+		// When
+		retrieveConcurrently( restTemplate, THREADS );
+		
+		// Then
+		final long requests = restTemplateFactory.getRequestCount() - requestsBefore;
+		final long reused = restTemplateFactory.getReusedConnectionCount() - reusedBefore;
+		assertTrue( requests >= THREADS * REQUESTS_PER_THREAD );
+		assertTrue( reused > requests / 2 );
+		assertTrue( restTemplateFactory.getConnectionsInPool() <= THREADS );
+	}
+	
+	@Test
+	public final void givenConnectionsAreNotReused_whenResourcesAreRetrieved_thenEveryRequestOpensAConnection() throws Exception{
+		retrieveConcurrently( unpooledFactory.getObject(), THREADS );
+		
+		assertTrue( unpooledFactory.getRequestCount() >= THREADS * REQUESTS_PER_THREAD );
+		assertEquals( 0, unpooledFactory.getReusedConnectionCount() );
+	}
+	
+	@Test
+	public final void whenPooledAndUnpooledClientsAreCompared_thenThroughputIsLogged() throws Exception{
+		// warm up both clients and the server
+		retrieveConcurrently( restTemplate, THREADS );
+		retrieveConcurrently( unpooledFactory.getObject(), THREADS );
+		
+		final double unpooledSingle = retrieveConcurrently( unpooledFactory.getObject(), 1 );
+		final double unpooled = retrieveConcurrently( unpooledFactory.getObject(), THREADS );
+		final double pooledSingle = retrieveConcurrently( restTemplate, 1 );
+		final double pooled = retrieveConcurrently( restTemplate, THREADS );
+		
+		logger.info( String.format( "%-48s %12.0f requests/s", "client - connection per request - 1 thread", unpooledSingle ) );
+		logger.info( String.format( "%-48s %12.0f requests/s", "client - connection per request - " + THREADS + " threads", unpooled ) );
+		logger.info( String.format( "%-48s %12.0f requests/s", "client - pooled - 1 thread", pooledSingle ) );
+		logger.info( String.format( "%-48s %12.0f requests/s", "client - pooled - " + THREADS + " threads", pooled ) );
+		logger.info( String.format( "%-48s %12.2f x the throughput of the connection per request client", "client - pooled - " + THREADS + " threads", pooled / unpooled ) );
+	}
+	
+	// util
+	
+	/**
+	 * @return the throughput, in requests per second
+	 */
+	private double retrieveConcurrently( final RestTemplate template, final int threads ) throws Exception{
+		final String uri = paths.getPrivilegeUri() + "?page=0&size=10";
+		final HttpHeaders headers = new HttpHeaders();
+		headers.setAccept( Lists.newArrayList( MediaType.APPLICATION_JSON ) );
+		final HttpEntity< String > request = new HttpEntity< String >( headers );
+		
+		final ExecutorService executor = Executors.newFixedThreadPool( threads );
+		try{
+			final List< Callable< Void > > callers = Lists.newArrayListWithCapacity( threads );
+			for( int i = 0; i < threads; i++ ){
+				callers.add( new Callable< Void >(){
+					@Override
+					public final Void call(){
+						for( int j = 0; j < REQUESTS_PER_THREAD; j++ ){
+							template.exchange( uri, HttpMethod.GET, request, String.class );
+						}
+						return null;
+					}
+				} );
+			}
+			
+			final long start = System.nanoTime();
+			for( final Future< Void > caller : executor.invokeAll( callers ) ){
+				caller.get();
+			}
+			final long elapsedNanos = System.nanoTime() - start;
+			return (double) threads * REQUESTS_PER_THREAD * TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+	
+	private void authenticate( final RestTemplate template ){
+		httpClientOf( template ).getCredentialsProvider().setCredentials( new AuthScope( host, port, AuthScope.ANY_REALM ), new UsernamePasswordCredentials( SecurityConstants.ADMIN_USERNAME, SecurityConstants.ADMIN_PASSWORD ) );
+	}
+	
+	private static DefaultHttpClient httpClientOf( final RestTemplate template ){
+		return (DefaultHttpClient) ( (HttpComponentsClientHttpRequestFactory) template.getRequestFactory() ).getHttpClient();
+	}
+	
+}
@@ -28,6 +28,9 @@ public final class ExamplePaths{
 	public final String getAuthenticationUri(){
 		return getRootUri() + "authentication";
 	}
+	public final String getAuthorizationUri(){
+		return getRootUri() + "authorization";
+	}
 	
 	public final String getLoginUri(){
 		return paths.getContext() + "/j_spring_security_check";
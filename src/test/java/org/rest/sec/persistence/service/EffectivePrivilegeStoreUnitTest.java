@@ -0,0 +1,168 @@
+package org.rest.sec.persistence.service;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.persistence.event.EntityDeletedEvent;
+import org.rest.persistence.event.EntityUpdatedEvent;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.rest.sec.persistence.dao.IPrincipalJpaDAO;
+import org.rest.sec.persistence.dao.IRoleJpaDAO;
+
+import com.google.common.collect.Sets;
+
+public class EffectivePrivilegeStoreUnitTest{
+	
+	private EffectivePrivilegeStore instance;
+	private EffectivePrivilegeStoreInvalidationListener listener;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new EffectivePrivilegeStore();
+		instance.maxSize = 100;
+		instance.afterPropertiesSet();
+		
+		listener = new EffectivePrivilegeStoreInvalidationListener();
+		listener.effectivePrivilegeStore = instance;
+		listener.roleDao = mock( IRoleJpaDAO.class );
+		listener.principalDao = mock( IPrincipalJpaDAO.class );
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenPrincipalIsMaterialized_thenPrivilegesOfAllRolesAreFound(){
+		final Role role1 = role( 1l, privilege( 10l, "READ" ) );
+		final Role role2 = role( 2l, privilege( 10l, "READ" ), privilege( 11l, "WRITE" ) );
+		instance.materialize( principal( 100l, role1, role2 ), instance.generation() );
+		
+		// When
+		final EffectivePrivileges effectivePrivileges = instance.find( 100l );
+		
+		// Then
+		assertThat( effectivePrivileges.getPrivilegeNames(), containsInAnyOrder( "READ", "WRITE" ) );
+		assertThat( effectivePrivileges.getRoleIds(), containsInAnyOrder( 1l, 2l ) );
+	}
+	
+	@Test
+	public final void whenRoleChanges_thenPrincipalsHoldingItAreRecomputed(){
+		instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		
+		// When
+		instance.roleChanged( role( 1l, privilege( 10l, "READ" ), privilege( 11l, "WRITE" ) ) );
+		
+		// Then
+		assertThat( instance.find( 100l ).getPrivilegeIds(), containsInAnyOrder( 10l, 11l ) );
+	}
+	
+	@Test
+	public final void whenRoleIsUpdated_thenPrincipalsHoldingItAreRecomputed(){
+		instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		when( listener.roleDao.findOne( 1l ) ).thenReturn( role( 1l, privilege( 11l, "WRITE" ) ) );
+		
+		// When
+		listener.onApplicationEvent( new EntityUpdatedEvent< Role >( this, Role.class, 1l ) );
+		
+		// Then
+		assertThat( instance.find( 100l ).getPrivilegeNames(), containsInAnyOrder( "WRITE" ) );
+	}
+	
+	@Test
+	public final void whenPrincipalIsUpdatedWithIndexedRoles_thenItIsRecomputedFromThem(){
+		instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		instance.materialize( principal( 101l, role( 2l, privilege( 11l, "WRITE" ) ) ), instance.generation() );
+		when( listener.principalDao.findOne( 100l ) ).thenReturn( principal( 100l, role( 2l ) ) );
+		
+		// When
+		listener.onApplicationEvent( new EntityUpdatedEvent< Principal >( this, Principal.class, 100l ) );
+		
+		// Then
+		assertThat( instance.find( 100l ).getPrivilegeNames(), containsInAnyOrder( "WRITE" ) );
+		assertThat( instance.find( 100l ).getRoleIds(), containsInAnyOrder( 2l ) );
+	}
+	
+	@Test
+	public final void whenPrincipalIsUpdatedWithARoleThatIsNotIndexed_thenItIsNoLongerMaterialized(){
+		instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		instance.materialize( principal( 101l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		when( listener.principalDao.findOne( 100l ) ).thenReturn( principal( 100l, role( 1l ), role( 3l ) ) );
+		
+		// When
+		listener.onApplicationEvent( new EntityUpdatedEvent< Principal >( this, Principal.class, 100l ) );
+		
+		// Then
+		assertNull( instance.find( 100l ) );
+		assertNotNull( instance.find( 101l ) );
+	}
+	
+	@Test
+	public final void givenRoleChangedWhilePrincipalWasRead_whenPrincipalIsMaterialized_thenTheOlderReadIsNotKept(){
+		instance.materialize( principal( 101l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		final long generation = instance.generation();
+		instance.roleChanged( role( 1l, privilege( 11l, "WRITE" ) ) );
+		
+		// When
+		final EffectivePrivileges effectivePrivileges = instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), generation );
+		
+		// Then
+		assertThat( effectivePrivileges.getPrivilegeNames(), containsInAnyOrder( "READ" ) );
+		assertNull( instance.find( 100l ) );
+		assertThat( instance.find( 101l ).getPrivilegeNames(), containsInAnyOrder( "WRITE" ) );
+	}
+	
+	@Test
+	public final void whenPrincipalIsDeleted_thenItIsNoLongerMaterialized(){
+		instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		
+		// When
+		listener.onApplicationEvent( new EntityDeletedEvent< Principal >( this, Principal.class, 100l ) );
+		
+		// Then
+		assertNull( instance.find( 100l ) );
+	}
+	
+	@Test
+	public final void whenRoleIsInvalidated_thenPrincipalsHoldingItAreDropped(){
+		instance.materialize( principal( 100l, role( 1l, privilege( 10l, "READ" ) ) ), instance.generation() );
+		instance.materialize( principal( 101l, role( 2l, privilege( 11l, "WRITE" ) ) ), instance.generation() );
+		
+		// When
+		instance.invalidateRole( 1l );
+		
+		// Then
+		assertNull( instance.find( 100l ) );
+		assertNotNull( instance.find( 101l ) );
+	}
+	
+	// util
+	
+	private static Principal principal( final long id, final Role... roles ){
+		final Principal principal = new Principal( randomAlphabetic( 8 ), randomAlphabetic( 8 ), Sets.newHashSet( roles ) );
+		principal.setId( id );
+		return principal;
+	}
+	
+	private static Role role( final long id, final Privilege... privileges ){
+		final Role role = new Role( randomAlphabetic( 8 ), Sets.newHashSet( privileges ) );
+		role.setId( id );
+		return role;
+	}
+	
+	private static Privilege privilege( final long id, final String name ){
+		final Privilege privilege = new Privilege( name );
+		privilege.setId( id );
+		return privilege;
+	}
+	
+}
@@ -1,18 +1,25 @@
 package org.rest.sec.persistence.service;
 
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
+import org.hibernate.Hibernate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.rest.persistence.AbstractPersistenceServiceIntegrationTest;
 import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
 import org.rest.sec.model.Role;
 import org.rest.spring.context.ContextTestConfig;
 import org.rest.spring.persistence.jpa.PersistenceJPAConfig;
 import org.rest.spring.testing.TestingTestConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
@@ -51,6 +58,31 @@ public class PrincipalServicePersistenceIntegrationTest extends AbstractPersiste
 		getService().create( createNewEntity( name ) );
 	}
 	
+	// find - paginated
+	
+	@Test
+	public final void givenPrincipalsWithSeveralRolesExist_whenPageIsRetrieved_thenPageIsFullAndAssociationsAreInitialized(){
+		final Privilege privilege1 = privilegeService.create( new Privilege( randomAlphabetic( 6 ) ) );
+		final Privilege privilege2 = privilegeService.create( new Privilege( randomAlphabetic( 6 ) ) );
+		final Role role1 = roleService.create( new Role( randomAlphabetic( 6 ), Sets.newHashSet( privilege1, privilege2 ) ) );
+		final Role role2 = roleService.create( new Role( randomAlphabetic( 6 ), Sets.newHashSet( privilege2 ) ) );
+		for( int i = 0; i < 3; i++ ){
+			getService().create( new Principal( randomAlphabetic( 8 ), randomAlphabetic( 8 ), Sets.newHashSet( role1, role2 ) ) );
+		}
+		
+		final Page< Principal > page = getService().findPaginated( 0, 2, null );
+		
+		assertEquals( 2, page.getContent().size() );
+		assertEquals( 3, page.getTotalElements() );
+		for( final Principal principal : page.getContent() ){
+			assertTrue( Hibernate.isInitialized( principal.getRoles() ) );
+			assertThat( principal.getRoles(), containsInAnyOrder( role1, role2 ) );
+			for( final Role role : principal.getRoles() ){
+				assertTrue( Hibernate.isInitialized( role.getPrivileges() ) );
+			}
+		}
+	}
+	
 	// Spring
 	
 	@Override
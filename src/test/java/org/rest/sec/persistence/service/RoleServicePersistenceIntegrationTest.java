@@ -2,7 +2,10 @@ package org.rest.sec.persistence.service;
 
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -95,6 +98,17 @@ public class RoleServicePersistenceIntegrationTest extends AbstractPersistenceSe
 		assertThat( resource1ViewOfServerAfter.getPrivileges(), hasItem( existingAssociation ) );
 	}
 	
+	@Test
+	public final void givenResourceWithAssociationsExists_whenDeletedIfExists_thenResourceIsDeletedAndAssociationIsKept(){
+		final Privilege existingAssociation = getAssociationService().create( new Privilege( randomAlphabetic( 6 ) ) );
+		final Role existingResource = getService().create( new Role( randomAlphabetic( 6 ), Sets.newHashSet( existingAssociation ) ) );
+		
+		assertTrue( getService().deleteIfExists( existingResource.getId() ) );
+		
+		assertNull( getService().findOne( existingResource.getId() ) );
+		assertNotNull( getAssociationService().findOne( existingAssociation.getId() ) );
+	}
+	
 	// template method
 	
 	@Override
@@ -3,6 +3,7 @@ package org.rest.sec.persistence.service;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 import java.util.List;
@@ -189,6 +190,62 @@ public class RoleServiceSearchPersistenceIntegrationTest{
 		assertThat( searchResults, hasItem( existingEntity2 ) );
 	}
 	
+	// search - by query
+	
+	@Test
+	public final void givenEntitiesExist_whenSearchByIdListIsPerformed_thenOnlyListedEntitiesAreFound(){
+		final Role existingEntity1 = getService().create( createNewEntity() );
+		final Role existingEntity2 = getService().create( createNewEntity() );
+		final Role existingEntity3 = getService().create( createNewEntity() );
+		
+		// When
+		final List< Role > searchResults = getService().search( "id=(" + existingEntity1.getId() + "," + existingEntity2.getId() + ")" );
+		
+		// Then
+		assertThat( searchResults, hasItem( existingEntity1 ) );
+		assertThat( searchResults, hasItem( existingEntity2 ) );
+		assertThat( searchResults, not( hasItem( existingEntity3 ) ) );
+	}
+	@Test
+	public final void givenEntityExists_whenSearchByNamePrefixOrIdRangeIsPerformed_thenResultIsFound(){
+		final Role existingEntity = getService().create( createNewEntity() );
+		
+		// When
+		final List< Role > byPrefix = getService().search( "name=" + existingEntity.getName().substring( 0, 4 ) + "*" );
+		final List< Role > byRange = getService().search( "id>=" + existingEntity.getId() + ",id<" + ( existingEntity.getId() + 1 ) + "|name=" + randomAlphabetic( 8 ) );
+		
+		// Then
+		assertThat( byPrefix, hasItem( existingEntity ) );
+		assertThat( byRange, hasItem( existingEntity ) );
+	}
+	@Test
+	public final void givenEntityWithPrivilegeExists_whenSearchByPrivilegeNameIsPerformed_thenResultIsFoundOnce(){
+		final Privilege privilege1 = getAssociationService().create( new Privilege( randomAlphabetic( 8 ) ) );
+		final Privilege privilege2 = getAssociationService().create( new Privilege( randomAlphabetic( 8 ) ) );
+		final Role existingEntity = getService().create( new Role( randomAlphabetic( 8 ), Sets.newHashSet( privilege1, privilege2 ) ) );
+		
+		// When
+		final List< Role > searchResults = getService().search( "privileges.name=(" + privilege1.getName() + "," + privilege2.getName() + ")" );
+		final List< Role > negatedResults = getService().search( "privileges.name~=" + privilege1.getName() );
+		
+		// Then
+		assertThat( searchResults, hasItem( existingEntity ) );
+		assertEquals( 1, searchResults.size() );
+		assertThat( negatedResults, not( hasItem( existingEntity ) ) );
+	}
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenSearchByUnknownAttributeIsPerformed_thenException(){
+		getService().search( "unknown=a" );
+	}
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenSearchByAttributeThatIsNotSearchableIsPerformed_thenException(){
+		getService().search( "version=0" );
+	}
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenSearchIsSortedByAttributeThatIsNotSortable_thenException(){
+		getService().searchPaginated( "id>0", 0, 10, "version" );
+	}
+	
 	// template method
 	
 	protected final IRoleService getService(){
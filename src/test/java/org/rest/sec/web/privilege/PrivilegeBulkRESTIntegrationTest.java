@@ -0,0 +1,169 @@
+package org.rest.sec.web.privilege;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+import java.io.IOException;
+
+import org.apache.http.HttpHeaders;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.rest.client.template.impl.PrivilegeRESTTemplateImpl;
+import org.rest.sec.model.Privilege;
+import org.rest.spring.client.ClientTestConfig;
+import org.rest.spring.context.ContextTestConfig;
+import org.rest.spring.testing.TestingTestConfig;
+import org.rest.testing.security.AuthenticationUtil;
+import org.rest.util.IdUtil;
+import org.rest.web.common.BulkItemResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import com.jayway.restassured.response.Response;
+import com.jayway.restassured.specification.RequestSpecification;
+
+@RunWith( SpringJUnit4ClassRunner.class )
+@ContextConfiguration( classes = { ClientTestConfig.class, TestingTestConfig.class, ContextTestConfig.class },loader = AnnotationConfigContextLoader.class )
+public class PrivilegeBulkRESTIntegrationTest{
+	
+	@Autowired private PrivilegeRESTTemplateImpl restTemplate;
+	
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	
+	// tests
+	
+	// create
+	
+	@Test
+	public final void whenResourcesAreCreatedInBulk_then200IsReceived(){
+		// When
+		final Response response = givenJSON().body( "[" + newPrivilege( randomAlphabetic( 8 ) ) + "]" ).post( getBulkURI() );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 200 ) );
+	}
+	
+	@Test
+	public final void whenResourcesAreCreatedInBulk_thenEachItemIsCreated() throws IOException{
+		// When
+		final BulkItemResult[] results = bulk( givenJSON().body( "[" + newPrivilege( randomAlphabetic( 8 ) ) + "," + newPrivilege( randomAlphabetic( 8 ) ) + "]" ).post( getBulkURI() ) );
+		
+		// Then
+		assertThat( results.length, is( 2 ) );
+		for( int i = 0; i < results.length; i++ ){
+			assertThat( results[i].getIndex(), is( i ) );
+			assertThat( results[i].getStatus(), is( 201 ) );
+			assertThat( results[i].getId(), notNullValue() );
+		}
+	}
+	
+	@Test
+	public final void givenResourceExists_whenResourceWithSameNameIsCreatedInBulk_thenOnlyThatItemIsConflictingAndTheOthersAreCreated() throws IOException{
+		// Given
+		final Privilege existingResource = restTemplate.create( restTemplate.createNewEntity() );
+		
+		// When
+		final String batch = "[" + newPrivilege( randomAlphabetic( 8 ) ) + "," + newPrivilege( existingResource.getName() ) + "," + newPrivilege( randomAlphabetic( 8 ) ) + "]";
+		final BulkItemResult[] results = bulk( givenJSON().body( batch ).post( getBulkURI() ) );
+		
+		// Then
+		assertThat( results[0].getStatus(), is( 201 ) );
+		assertThat( results[1].getStatus(), is( 409 ) );
+		assertThat( results[2].getStatus(), is( 201 ) );
+		assertThat( restTemplate.findOneAsResponse( restTemplate.getURI() + "/" + results[2].getId() ).getStatusCode(), is( 200 ) );
+	}
+	
+	@Test
+	public final void whenResourceWithIdIsCreatedInBulk_thenThatItemIsConflicting() throws IOException{
+		// When
+		final String batch = "[" + "{\"id\":" + IdUtil.randomPositiveLong() + ",\"name\":\"" + randomAlphabetic( 8 ) + "\"}" + "," + newPrivilege( randomAlphabetic( 8 ) ) + "]";
+		final BulkItemResult[] results = bulk( givenJSON().body( batch ).post( getBulkURI() ) );
+		
+		// Then
+		assertThat( results[0].getStatus(), is( 409 ) );
+		assertThat( results[1].getStatus(), is( 201 ) );
+	}
+	
+	// update
+	
+	@Test
+	public final void givenResourcesExist_whenResourcesAreUpdatedInBulk_thenUpdatesArePersistedAndMissingItemsAreNotFound() throws IOException{
+		// Given
+		final Privilege existingResource = restTemplate.create( restTemplate.createNewEntity() );
+		final String newName = randomAlphabetic( 8 );
+		
+		// When
+		final String batch = "[" + "{\"id\":" + existingResource.getId() + ",\"name\":\"" + newName + "\"}" + "," + "{\"id\":" + IdUtil.randomPositiveLong() + ",\"name\":\"" + randomAlphabetic( 8 ) + "\"}" + "]";
+		final BulkItemResult[] results = bulk( givenJSON().body( batch ).put( getBulkURI() ) );
+		
+		// Then
+		assertThat( results[0].getStatus(), is( 200 ) );
+		assertThat( results[1].getStatus(), is( 404 ) );
+		assertThat( restTemplate.findOne( existingResource.getId() ).getName(), is( newName ) );
+	}
+	
+	@Test
+	public final void givenResourcesExist_whenOneIsUpdatedInBulkToAnExistingName_thenOnlyThatItemIsConflictingAndTheOthersAreUpdated() throws IOException{
+		// Given
+		final Privilege firstResource = restTemplate.create( restTemplate.createNewEntity() );
+		final Privilege secondResource = restTemplate.create( restTemplate.createNewEntity() );
+		final String newName = randomAlphabetic( 8 );
+		
+		// When
+		final String batch = "[" + "{\"id\":" + firstResource.getId() + ",\"name\":\"" + secondResource.getName() + "\"}" + "," + "{\"id\":" + secondResource.getId() + ",\"name\":\"" + newName + "\"}" + "]";
+		final BulkItemResult[] results = bulk( givenJSON().body( batch ).put( getBulkURI() ) );
+		
+		// Then
+		assertThat( results[0].getStatus(), is( 409 ) );
+		assertThat( results[1].getStatus(), is( 200 ) );
+		assertThat( restTemplate.findOne( firstResource.getId() ).getName(), is( firstResource.getName() ) );
+		assertThat( restTemplate.findOne( secondResource.getId() ).getName(), is( newName ) );
+	}
+	
+	// delete
+	
+	@Test
+	public final void givenResourceExists_whenResourcesAreDeletedInBulk_thenExistingItemIsDeletedAndMissingItemIsNotFound() throws IOException{
+		// Given
+		final Privilege existingResource = restTemplate.create( restTemplate.createNewEntity() );
+		
+		// When
+		final String batch = "[" + existingResource.getId() + "," + IdUtil.randomPositiveLong() + "]";
+		final BulkItemResult[] results = bulk( givenJSON().body( batch ).delete( getBulkURI() ) );
+		
+		// Then
+		assertThat( results[0].getStatus(), is( 204 ) );
+		assertThat( results[1].getStatus(), is( 404 ) );
+		assertThat( restTemplate.findOneAsResponse( restTemplate.getURI() + "/" + existingResource.getId() ).getStatusCode(), is( 404 ) );
+	}
+	
+	// util
+	
+	private final BulkItemResult[] bulk( final Response response ) throws IOException{
+		assertThat( response.getStatusCode(), is( 200 ) );
+		return objectMapper.readValue( response.asString(), BulkItemResult[].class );
+	}
+	
+	private final String newPrivilege( final String name ){
+		return "{\"name\":\"" + name + "\"}";
+	}
+	
+	private final String getBulkURI(){
+		return restTemplate.getURI() + "/bulk";
+	}
+	
+	private final RequestSpecification givenJSON(){
+		return givenAuthenticated().contentType( APPLICATION_JSON.toString() ).header( HttpHeaders.ACCEPT, APPLICATION_JSON.toString() );
+	}
+	
+	protected RequestSpecification givenAuthenticated(){
+		return AuthenticationUtil.givenBasicAuthenticated();
+	}
+	
+}
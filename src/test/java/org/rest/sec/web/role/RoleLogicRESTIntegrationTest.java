@@ -2,14 +2,17 @@ package org.rest.sec.web.role;
 
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.util.List;
 import java.util.Set;
 
+import org.apache.http.HttpHeaders;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.rest.client.template.impl.PrivilegeRESTTemplateImpl;
@@ -51,6 +54,28 @@ public class RoleLogicRESTIntegrationTest extends SecLogicRESTIntegrationTest< R
 		assertThat( existingResource.getPrivileges(), not( Matchers.<Privilege> empty() ) );
 	}
 	
+	// find all
+	
+	@Test
+	public final void whenResourcesAreStreamed_then200IsReceived(){
+		final Response response = getTemplate().findOneAsResponse( getTemplate().getURI() + "?stream" );
+		
+		assertThat( response.getStatusCode(), is( 200 ) );
+	}
+	
+	@Test
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	public final void givenResourceExists_whenResourcesAreStreamed_thenResourceIsAmongThemWithItsAssociations(){
+		final Role existingResource = getTemplate().create( getTemplate().createNewEntity() );
+		
+		// When
+		final Response response = getTemplate().findOneAsResponse( getTemplate().getURI() + "?stream" );
+		final List< Role > allResources = getTemplate().getMarshaller().<List> decode( response.getBody().asString(), List.class );
+		
+		// Then
+		assertThat( allResources, hasItem( existingResource ) );
+	}
+	
 	// create
 	
 	/**
@@ -127,6 +152,30 @@ public class RoleLogicRESTIntegrationTest extends SecLogicRESTIntegrationTest< R
 		assertThat( updatedResource.getPrivileges(), hasItem( existingAssociation ) );
 	}
 	
+	/**
+	 * - note: the representation is made large enough to be compressed - its entity tag then carries the encoding, and must still be accepted on <code>If-Match</code>
+	 */
+	@Test
+	public final void givenResourceWasRetrievedCompressed_whenResourceIsUpdatedIfMatchingItsEntityTag_then200IsReceived(){
+		// Given
+		final Role newResource = getTemplate().createNewEntity();
+		for( int i = 0; i < 30; i++ ){
+			newResource.getPrivileges().add( getAssociationTemplate().create( getAssociationTemplate().createNewEntity() ) );
+		}
+		final Role existingResource = getTemplate().create( newResource );
+		final Response getResponse = givenAuthenticated().header( HttpHeaders.ACCEPT, getTemplate().getMime() ).header( HttpHeaders.ACCEPT_ENCODING, "gzip" ).get( getURI() + existingResource.getId() );
+		final String etag = getResponse.getHeader( HttpHeaders.ETAG );
+		assertThat( etag, endsWith( "-gzip\"" ) );
+		
+		// When
+		change( existingResource );
+		final String resourceAsString = getTemplate().getMarshaller().encode( existingResource );
+		final Response response = givenAuthenticated().contentType( getTemplate().getMime() ).header( HttpHeaders.IF_MATCH, etag ).body( resourceAsString ).put( getURI() );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 200 ) );
+	}
+	
 	// scenarios
 	
 	@Test
@@ -102,6 +102,28 @@ public class UserLogicRESTIntegrationTest extends SecLogicRESTIntegrationTest< U
 		}
 	}
 	
+	// search
+	
+	@Test
+	public final void givenResourceExists_whenResourcesAreSearchedByPassword_then400IsReceived(){
+		final User newResource = getTemplate().createNewEntity();
+		getTemplate().create( newResource );
+		
+		// When
+		final Response response = givenAuthenticated().get( getTemplate().getURI() + "?q=password=" + newResource.getPassword().substring( 0, 1 ) + "*" );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 400 ) );
+	}
+	@Test
+	public final void whenResourcesAreSortedByPassword_then400IsReceived(){
+		// When
+		final Response response = givenAuthenticated().get( getTemplate().getURI() + "?q=id>0&sortBy=password" );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 400 ) );
+	}
+	
 	// scenarios
 	
 	@Test
@@ -0,0 +1,100 @@
+package org.rest.security;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.rest.client.template.impl.UserRESTTemplateImpl;
+import org.rest.sec.client.ExamplePaths;
+import org.rest.sec.dto.User;
+import org.rest.sec.util.SecurityConstants;
+import org.rest.spring.client.ClientTestConfig;
+import org.rest.spring.context.ContextTestConfig;
+import org.rest.spring.testing.TestingTestConfig;
+import org.rest.testing.security.AuthenticationUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import com.jayway.restassured.response.Response;
+import com.jayway.restassured.specification.RequestSpecification;
+
+@RunWith( SpringJUnit4ClassRunner.class )
+@ContextConfiguration( classes = { ClientTestConfig.class, TestingTestConfig.class, ContextTestConfig.class },loader = AnnotationConfigContextLoader.class )
+public class AuthorizationRESTIntegrationTest{
+	
+	@Autowired private ExamplePaths paths;
+	@Autowired private UserRESTTemplateImpl userRestTemplate;
+	
+	// tests
+	
+	@Test
+	public final void whenBatchIsAsked_then200IsReceived(){
+		// When
+		final Response response = givenAuthenticated().contentType( APPLICATION_JSON.toString() ).body( "[]" ).post( paths.getAuthorizationUri() );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 200 ) );
+	}
+	
+	@Test
+	public final void whenBatchIsAsked_thenEachQueryIsAnsweredInOrder(){
+		final String admin = SecurityConstants.ADMIN_USERNAME;
+		final String batch = "[" + "{\"principal\":\"" + admin + "\",\"privilege\":\"" + SecurityConstants.CAN_USER_WRITE + "\"}," + "{\"principal\":\"" + admin + "\",\"privileges\":[\"" + SecurityConstants.CAN_ROLE_WRITE + "\",\"ROLE_UNKNOWN\"]}," + "{\"principal\":\"unknownPrincipal\",\"privilege\":\"" + SecurityConstants.CAN_USER_WRITE + "\"}" + "]";
+		
+		// When
+		final Response response = givenAuthenticated().contentType( APPLICATION_JSON.toString() ).body( batch ).post( paths.getAuthorizationUri() );
+		
+		// Then
+		assertThat( response.asString(), is( "[\"1\",\"10\",\"0\"]" ) );
+	}
+	
+	@Test
+	public final void givenBatchWithAMissingQuery_whenBatchIsAsked_then400IsReceived(){
+		final String batch = "[{\"principal\":\"" + SecurityConstants.ADMIN_USERNAME + "\",\"privilege\":\"" + SecurityConstants.CAN_USER_WRITE + "\"},null]";
+		
+		// When
+		final Response response = givenAuthenticated().contentType( APPLICATION_JSON.toString() ).body( batch ).post( paths.getAuthorizationUri() );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 400 ) );
+	}
+	
+	@Test
+	public final void givenBatchLargerThanTheMaximum_whenBatchIsAsked_then400IsReceived(){
+		final StringBuilder batch = new StringBuilder( "[" );
+		for( int i = 0; i < 1001; i++ ){
+			batch.append( ( i == 0 ) ? "" : "," ).append( "{\"principal\":\"" ).append( SecurityConstants.ADMIN_USERNAME ).append( "\"}" );
+		}
+		batch.append( "]" );
+		
+		// When
+		final Response response = givenAuthenticated().contentType( APPLICATION_JSON.toString() ).body( batch.toString() ).post( paths.getAuthorizationUri() );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 400 ) );
+	}
+	
+	@Test
+	public final void givenPrincipalDoesNotHoldTheAuthorizationPrivilege_whenBatchIsAsked_then403IsReceived(){
+		// Given
+		final User userWithoutPrivileges = userRestTemplate.createNewEntity();
+		userRestTemplate.createResourceAsURI( userWithoutPrivileges );
+		
+		// When
+		final Response response = AuthenticationUtil.givenBasicAuthenticated( userWithoutPrivileges.getName(), userWithoutPrivileges.getPassword() ).contentType( APPLICATION_JSON.toString() ).body( "[]" ).post( paths.getAuthorizationUri() );
+		
+		// Then
+		assertThat( response.getStatusCode(), is( 403 ) );
+	}
+	
+	// util
+	
+	protected RequestSpecification givenAuthenticated(){
+		return AuthenticationUtil.givenBasicAuthenticated();
+	}
+	
+}
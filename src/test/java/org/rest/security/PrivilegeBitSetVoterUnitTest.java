@@ -0,0 +1,175 @@
+package org.rest.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import com.google.common.collect.Lists;
+
+public class PrivilegeBitSetVoterUnitTest{
+	
+	private PrivilegeBitSetVoter instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new PrivilegeBitSetVoter();
+		instance.privilegeOrdinals = new PrivilegeOrdinals();
+	}
+	
+	// tests - bitset
+	
+	@Test
+	public final void whenBitSetIsCreated_thenOnlyItsOrdinalsAreContained(){
+		final PrivilegeBitSet bitSet = PrivilegeBitSet.of( 0, 63, 64, 1000 );
+		
+		assertTrue( bitSet.contains( 0 ) );
+		assertTrue( bitSet.contains( 63 ) );
+		assertTrue( bitSet.contains( 64 ) );
+		assertTrue( bitSet.contains( 1000 ) );
+		assertFalse( bitSet.contains( 1 ) );
+		assertFalse( bitSet.contains( 999 ) );
+		assertFalse( bitSet.contains( 5000 ) );
+		assertFalse( bitSet.contains( -1 ) );
+		assertEquals( 4, bitSet.size() );
+	}
+	
+	@Test
+	public final void whenOrdinalsAreAssigned_thenTheyAreDenseAndStable(){
+		final PrivilegeOrdinals ordinals = instance.privilegeOrdinals;
+		
+		assertEquals( 0, ordinals.ordinalOf( "ROLE_A" ) );
+		assertEquals( 1, ordinals.ordinalOf( "ROLE_B" ) );
+		assertEquals( 0, ordinals.ordinalOf( "ROLE_A" ) );
+		assertEquals( -1, ordinals.existingOrdinalOf( "ROLE_C" ) );
+	}
+	
+	@Test
+	public final void whenBitSetIsDecoded_thenTheSameAuthoritiesAreFound(){
+		final PrivilegeOrdinals ordinals = instance.privilegeOrdinals;
+		for( int i = 0; i < 130; i++ ){
+			ordinals.ordinalOf( "ROLE_" + i );
+		}
+		
+		// When
+		final PrivilegeBitSet bitSet = ordinals.bitSetOf( Lists.newArrayList( "ROLE_129", "ROLE_0", "ROLE_64" ) );
+		
+		// Then
+		assertEquals( AuthorityUtils.createAuthorityList( "ROLE_0", "ROLE_64", "ROLE_129" ), ordinals.authoritiesOf( bitSet ) );
+	}
+	
+	// tests - vote
+	
+	@Test
+	public final void givenPrivilegeIsGranted_whenVoting_thenAccessIsGranted(){
+		final Authentication authentication = authenticationWith( "ROLE_USER_WRITE", "ROLE_ROLE_WRITE" );
+		
+		assertEquals( AccessDecisionVoter.ACCESS_GRANTED, instance.vote( authentication, null, attributes( "ROLE_ROLE_WRITE" ) ) );
+	}
+	
+	@Test
+	public final void givenPrivilegeIsNotGranted_whenVoting_thenAccessIsDenied(){
+		final Authentication authentication = authenticationWith( "ROLE_USER_WRITE" );
+		instance.privilegeOrdinals.ordinalOf( "ROLE_ROLE_WRITE" );
+		
+		assertEquals( AccessDecisionVoter.ACCESS_DENIED, instance.vote( authentication, null, attributes( "ROLE_ROLE_WRITE" ) ) );
+	}
+	
+	@Test
+	public final void givenPrivilegeIsUnknown_whenVoting_thenAccessIsDenied(){
+		final Authentication authentication = authenticationWith( "ROLE_USER_WRITE" );
+		
+		assertEquals( AccessDecisionVoter.ACCESS_DENIED, instance.vote( authentication, null, attributes( "ROLE_UNKNOWN" ) ) );
+	}
+	
+	@Test
+	public final void givenAttributeIsNotAPrivilege_whenVoting_thenVoterAbstains(){
+		final Authentication authentication = authenticationWith( "ROLE_USER_WRITE" );
+		
+		assertEquals( AccessDecisionVoter.ACCESS_ABSTAIN, instance.vote( authentication, null, attributes( "IS_AUTHENTICATED_FULLY" ) ) );
+	}
+	
+	@Test
+	public final void givenPrincipalHasNoBitSet_whenVoting_thenAuthoritiesAreUsed(){
+		final Authentication authentication = new UsernamePasswordAuthenticationToken( "user", "pass", AuthorityUtils.createAuthorityList( "ROLE_USER_WRITE" ) );
+		
+		assertEquals( AccessDecisionVoter.ACCESS_GRANTED, instance.vote( authentication, null, attributes( "ROLE_USER_WRITE" ) ) );
+		assertEquals( AccessDecisionVoter.ACCESS_DENIED, instance.vote( authentication, null, attributes( "ROLE_ROLE_WRITE" ) ) );
+	}
+	
+	// tests - vote - resolved attributes
+	
+	@Test
+	public final void givenAttributesWereVotedOn_whenVotingOnThemAgain_thenTheirOrdinalsAreNotResolvedAgain(){
+		final Authentication authentication = authenticationWith( "ROLE_USER_WRITE", "ROLE_ROLE_WRITE" );
+		final Collection< ConfigAttribute > attributes = attributes( "IS_AUTHENTICATED_FULLY", "ROLE_ROLE_WRITE" );
+		instance.vote( authentication, null, attributes );
+		final PrivilegeBitSetVoter.ResolvedPrivileges resolved = instance.resolved.get( attributes );
+		
+		// When
+		final int vote = instance.vote( authentication, null, attributes );
+		
+		// Then
+		assertEquals( AccessDecisionVoter.ACCESS_GRANTED, vote );
+		assertSame( resolved, instance.resolved.get( attributes ) );
+		assertEquals( 1, resolved.ordinals.length );
+	}
+	
+	@Test
+	public final void givenPrivilegeWasUnknownWhenFirstVotedOn_whenItIsGrantedLater_thenAccessIsGranted(){
+		final Collection< ConfigAttribute > attributes = attributes( "ROLE_NEW" );
+		assertEquals( AccessDecisionVoter.ACCESS_DENIED, instance.vote( authenticationWith( "ROLE_USER_WRITE" ), null, attributes ) );
+		assertNull( instance.resolved.get( attributes ) );
+		
+		// When
+		final int vote = instance.vote( authenticationWith( "ROLE_NEW" ), null, attributes );
+		
+		// Then
+		assertEquals( AccessDecisionVoter.ACCESS_GRANTED, vote );
+	}
+	
+	@Test
+	public final void givenEqualAttributesInAnotherCollection_whenVoting_thenTheyAreResolvedSeparately(){
+		final Authentication authentication = authenticationWith( "ROLE_ROLE_WRITE" );
+		final Collection< ConfigAttribute > attributes = attributes( "ROLE_ROLE_WRITE" );
+		final Collection< ConfigAttribute > equalAttributes = attributes( "ROLE_ROLE_WRITE" );
+		instance.vote( authentication, null, attributes );
+		
+		// When
+		instance.vote( authentication, null, equalAttributes );
+		
+		// Then
+		assertEquals( 2, instance.resolved.size() );
+	}
+	
+	// util
+	
+	private Authentication authenticationWith( final String... privilegeNames ){
+		final List< String > names = Lists.newArrayList( privilegeNames );
+		final List< GrantedAuthority > authorities = AuthorityUtils.createAuthorityList( privilegeNames );
+		final PrincipalUserDetails userDetails = new PrincipalUserDetails( 1l, "user", "pass", authorities, Collections.<Long> emptySet(), Collections.<Long> emptySet(), instance.privilegeOrdinals.bitSetOf( names ) );
+		return new UsernamePasswordAuthenticationToken( userDetails, "pass", authorities );
+	}
+	
+	private static Collection< ConfigAttribute > attributes( final String... attributes ){
+		return SecurityConfig.createList( attributes );
+	}
+	
+}
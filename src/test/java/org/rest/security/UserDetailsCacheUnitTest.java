@@ -0,0 +1,143 @@
+package org.rest.security;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.google.common.collect.Sets;
+
+public class UserDetailsCacheUnitTest{
+	
+	private UserDetailsCache instance;
+	
+	private AtomicInteger loads;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new UserDetailsCache();
+		instance.maxSize = 100;
+		instance.expireAfterWriteSeconds = 60;
+		instance.afterPropertiesSet();
+		
+		loads = new AtomicInteger();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenUserIsRetrievedTwice_thenItIsLoadedOnlyOnce(){
+		final String username = randomAlphabetic( 8 );
+		
+		// When
+		final PrincipalUserDetails first = instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		final PrincipalUserDetails second = instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// Then
+		assertSame( first, second );
+		assertEquals( 1, loads.get() );
+		assertEquals( 1, instance.getHitCount() );
+		assertEquals( 1, instance.getMissCount() );
+	}
+	
+	@Test( expected = UsernameNotFoundException.class )
+	public final void whenLoaderFails_thenOriginalExceptionIsPropagated(){
+		instance.get( randomAlphabetic( 8 ), new Callable< PrincipalUserDetails >(){
+			@Override
+			public final PrincipalUserDetails call(){
+				throw new UsernameNotFoundException( "not found" );
+			}
+		} );
+	}
+	
+	// invalidation
+	
+	@Test
+	public final void givenUserIsCached_whenItsPrincipalIsInvalidated_thenItIsLoadedAgain(){
+		final String username = randomAlphabetic( 8 );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// When
+		instance.invalidatePrincipal( 1l );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// Then
+		assertEquals( 2, loads.get() );
+		assertEquals( 1, instance.getInvalidationCount() );
+	}
+	
+	@Test
+	public final void givenUserIsCached_whenOneOfItsRolesIsInvalidated_thenItIsLoadedAgain(){
+		final String username = randomAlphabetic( 8 );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// When
+		instance.invalidateRole( 2l );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// Then
+		assertEquals( 2, loads.get() );
+	}
+	
+	@Test
+	public final void givenUserIsCached_whenOneOfItsPrivilegesIsInvalidated_thenItIsLoadedAgain(){
+		final String username = randomAlphabetic( 8 );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// When
+		instance.invalidatePrivilege( 3l );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// Then
+		assertEquals( 2, loads.get() );
+	}
+	
+	@Test
+	public final void givenUserIsCached_whenAnUnrelatedRoleIsInvalidated_thenItIsStillCached(){
+		final String username = randomAlphabetic( 8 );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// When
+		instance.invalidateRole( 4l );
+		instance.get( username, loaderOf( 1l, username, 2l, 3l ) );
+		
+		// Then
+		assertEquals( 1, loads.get() );
+		assertEquals( 0, instance.getInvalidationCount() );
+	}
+	
+	@Test
+	public final void givenUsersAreCached_whenAllAreInvalidated_thenCacheIsEmpty(){
+		instance.get( randomAlphabetic( 8 ), loaderOf( 1l, randomAlphabetic( 8 ), 2l, 3l ) );
+		instance.get( randomAlphabetic( 8 ), loaderOf( 4l, randomAlphabetic( 8 ), 5l, 6l ) );
+		
+		// When
+		instance.invalidateAll();
+		
+		// Then
+		assertEquals( 0, instance.getSize() );
+	}
+	
+	// util
+	
+	final Callable< PrincipalUserDetails > loaderOf( final long principalId, final String username, final long roleId, final long privilegeId ){
+		return new Callable< PrincipalUserDetails >(){
+			@Override
+			public final PrincipalUserDetails call(){
+				loads.incrementAndGet();
+				return new PrincipalUserDetails( principalId, username, randomAlphabetic( 8 ), Collections.<GrantedAuthority> emptyList(), Sets.newHashSet( roleId ), Sets.newHashSet( privilegeId ) );
+			}
+		};
+	}
+	
+}
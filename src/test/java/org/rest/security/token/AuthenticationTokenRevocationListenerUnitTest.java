@@ -0,0 +1,83 @@
+package org.rest.security.token;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.persistence.event.EntityUpdatedEvent;
+import org.rest.sec.model.Principal;
+import org.rest.security.PrincipalUserDetails;
+import org.rest.security.PrivilegeBitSet;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class AuthenticationTokenRevocationListenerUnitTest{
+	
+	private AuthenticationTokenService authenticationTokenService;
+	private AuthenticationTokenRevocationListener instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		authenticationTokenService = new AuthenticationTokenService();
+		authenticationTokenService.validitySeconds = 60;
+		authenticationTokenService.keyRotationSeconds = 60;
+		authenticationTokenService.afterPropertiesSet();
+		
+		instance = new AuthenticationTokenRevocationListener();
+		ReflectionTestUtils.setField( instance, "authenticationTokenService", authenticationTokenService );
+		
+		TransactionSynchronizationManager.initSynchronization();
+	}
+	
+	@After
+	public final void after(){
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+	
+	// tests
+	
+	@Test
+	public final void givenTokenIssuedBeforeTheChangeCommitted_whenTransactionCompletes_thenTheTokenIsRevoked(){
+		instance.onApplicationEvent( new EntityUpdatedEvent< Principal >( this, Principal.class, 1l ) );
+		final String token = authenticationTokenService.issue( user( 1l ) );
+		
+		// When
+		complete();
+		
+		// Then
+		assertNull( authenticationTokenService.verify( token ) );
+	}
+	
+	@Test
+	public final void givenTokenOfAnotherPrincipal_whenTransactionCompletes_thenTheTokenIsStillValid(){
+		instance.onApplicationEvent( new EntityUpdatedEvent< Principal >( this, Principal.class, 1l ) );
+		final String token = authenticationTokenService.issue( user( 2l ) );
+		
+		// When
+		complete();
+		
+		// Then
+		assertNotNull( authenticationTokenService.verify( token ) );
+	}
+	
+	// util
+	
+	private static void complete(){
+		for( final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() ){
+			synchronization.afterCompletion( TransactionSynchronization.STATUS_COMMITTED );
+		}
+	}
+	
+	private static PrincipalUserDetails user( final long principalId ){
+		return new PrincipalUserDetails( principalId, "user" + principalId, "pass", AuthorityUtils.NO_AUTHORITIES, Collections.<Long> emptySet(), Collections.<Long> emptySet(), PrivilegeBitSet.EMPTY );
+	}
+	
+}
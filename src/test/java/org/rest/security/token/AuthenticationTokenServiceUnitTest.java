@@ -0,0 +1,200 @@
+package org.rest.security.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.security.PrincipalUserDetails;
+import org.rest.security.PrivilegeBitSet;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class AuthenticationTokenServiceUnitTest{
+	
+	private AuthenticationTokenService instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new AuthenticationTokenService();
+		instance.validitySeconds = 60;
+		instance.keyRotationSeconds = 60;
+		instance.afterPropertiesSet();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenTokenIsIssued_thenItIsVerifiedWithItsContent(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.of( 2, 70 ) ) );
+		
+		// When
+		final AuthenticationToken verified = instance.verify( token );
+		
+		// Then
+		assertNotNull( verified );
+		assertEquals( 1l, verified.getPrincipalId() );
+		assertEquals( "user", verified.getUsername() );
+		assertEquals( PrivilegeBitSet.of( 2, 70 ), verified.getPrivileges() );
+		assertTrue( verified.getExpiresAt() > System.currentTimeMillis() );
+	}
+	
+	@Test
+	public final void whenTokenIsTamperedWith_thenItIsRejected(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.of( 2 ) ) );
+		final String forged = instance.issue( user( 1l, "user", PrivilegeBitSet.of( 2, 3 ) ) );
+		
+		// When - the payload of one token with the signature of another
+		final String tampered = forged.substring( 0, forged.indexOf( '.' ) ) + token.substring( token.indexOf( '.' ) );
+		
+		// Then
+		assertNull( instance.verify( tampered ) );
+		assertNull( instance.verify( "garbage" ) );
+		assertNull( instance.verify( "garbage.garbage" ) );
+	}
+	
+	@Test
+	public final void whenTokenIsExpired_thenItIsRejected(){
+		instance.validitySeconds = 0;
+		
+		// When
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		
+		// Then
+		assertNull( instance.verify( token ) );
+	}
+	
+	@Test
+	public final void whenKeyIsRotated_thenTokensSignedWithThePreviousKeyAreStillValid(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		
+		// When
+		instance.rotateKey();
+		
+		// Then
+		assertNotNull( instance.verify( token ) );
+		assertNotNull( instance.verify( instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) ) ) );
+	}
+	
+	// tests - revocation
+	
+	@Test
+	public final void whenTokenIsRevoked_thenOnlyThatTokenIsRejected(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		final String otherToken = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		
+		// When
+		instance.revoke( instance.verify( token ) );
+		
+		// Then
+		assertNull( instance.verify( token ) );
+		assertNotNull( instance.verify( otherToken ) );
+	}
+	
+	@Test
+	public final void whenPrincipalIsRevoked_thenOnlyItsTokensAreRejected(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		final String tokenOfOtherPrincipal = instance.issue( user( 2l, "other", PrivilegeBitSet.EMPTY ) );
+		
+		// When
+		instance.revokePrincipal( 1l );
+		
+		// Then
+		assertNull( instance.verify( token ) );
+		assertNotNull( instance.verify( tokenOfOtherPrincipal ) );
+	}
+	
+	@Test
+	public final void whenAllAreRevoked_thenAllTokensAreRejected(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		
+		// When
+		instance.revokeAll();
+		
+		// Then
+		assertNull( instance.verify( token ) );
+		assertEquals( 1, instance.getRejectedCount() );
+	}
+	
+	// tests - revocation - eviction
+	
+	@Test
+	public final void givenRevokedTokenHasExpired_whenRevocationsArePruned_thenItIsEvicted(){
+		final AuthenticationToken token = instance.verify( instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) ) );
+		instance.revoke( token );
+		
+		// When
+		instance.pruneRevocations( token.getExpiresAt() );
+		
+		// Then
+		assertEquals( 0, instance.getRevokedTokenCount() );
+	}
+	
+	@Test
+	public final void givenRevokedTokenHasNotExpired_whenRevocationsArePruned_thenItIsKept(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		final AuthenticationToken verified = instance.verify( token );
+		instance.revoke( verified );
+		
+		// When
+		instance.pruneRevocations( verified.getExpiresAt() - 1 );
+		
+		// Then
+		assertEquals( 1, instance.getRevokedTokenCount() );
+		assertNull( instance.verify( token ) );
+	}
+	
+	@Test
+	public final void givenPrincipalWasRevokedLongerAgoThanATokenLives_whenRevocationsArePruned_thenItIsEvicted(){
+		final long validityMillis = TimeUnit.SECONDS.toMillis( instance.validitySeconds );
+		final long before = System.currentTimeMillis();
+		instance.revokePrincipal( 1l );
+		final long after = System.currentTimeMillis();
+		
+		// When
+		instance.pruneRevocations( before + validityMillis - 1 );
+		final int revokedWithinALifetime = instance.getRevokedPrincipalCount();
+		instance.pruneRevocations( after + validityMillis );
+		
+		// Then
+		assertEquals( 1, revokedWithinALifetime );
+		assertEquals( 0, instance.getRevokedPrincipalCount() );
+	}
+	
+	@Test
+	public final void givenPrincipalWasRevokedWithinATokenLifetime_whenRevocationsArePruned_thenItsTokensAreStillRejected(){
+		final String token = instance.issue( user( 1l, "user", PrivilegeBitSet.EMPTY ) );
+		final long before = System.currentTimeMillis();
+		instance.revokePrincipal( 1l );
+		
+		// When
+		instance.pruneRevocations( before + TimeUnit.SECONDS.toMillis( instance.validitySeconds ) - 1 );
+		
+		// Then
+		assertNull( instance.verify( token ) );
+	}
+	
+	@Test
+	public final void whenTokenIsRevokedAfterItExpired_thenTheRevocationIsNotKept(){
+		final long past = System.currentTimeMillis() - 1;
+		
+		// When
+		instance.revoke( new AuthenticationToken( 42l, 1l, "user", past, past, PrivilegeBitSet.EMPTY ) );
+		
+		// Then
+		assertEquals( 0, instance.getRevokedTokenCount() );
+	}
+	
+	// util
+	
+	private static PrincipalUserDetails user( final long principalId, final String username, final PrivilegeBitSet privileges ){
+		return new PrincipalUserDetails( principalId, username, "pass", AuthorityUtils.NO_AUTHORITIES, Collections.<Long> emptySet(), Collections.<Long> emptySet(), privileges );
+	}
+	
+}
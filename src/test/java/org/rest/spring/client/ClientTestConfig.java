@@ -1,7 +1,13 @@
 package org.rest.spring.client;
 
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+
+import com.google.common.collect.ImmutableMap;
 
 @Configuration
 @ComponentScan( { "org.rest.client", "org.rest.sec.client" } )
@@ -9,4 +15,16 @@ public class ClientTestConfig{
 	
 	// API
 	
+	/**
+	 * - note: exports the statistics of the client connection pool; the factory is named explicitly (with the FactoryBean prefix), since autodetection only sees the RestTemplate it creates <br>
+	 * - note: every test context registers the same names, so the last one wins
+	 */
+	@Bean
+	public AnnotationMBeanExporter clientMBeanExporter(){
+		final AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+		exporter.setBeans( ImmutableMap.< String, Object > of( "restTemplateFactory", BeanFactory.FACTORY_BEAN_PREFIX + "restTemplateFactory" ) );
+		exporter.setRegistrationBehavior( MBeanExporter.REGISTRATION_REPLACE_EXISTING );
+		return exporter;
+	}
+	
 }
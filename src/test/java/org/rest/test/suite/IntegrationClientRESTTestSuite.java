@@ -4,10 +4,11 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 import org.rest.sec.client.AuthenticationClientRESTIntegrationTest;
+import org.rest.sec.client.ConnectionPoolClientRESTIntegrationTest;
 import org.rest.sec.client.UserClientRESTIntegrationTest;
 
 @RunWith( Suite.class )
-@SuiteClasses( { UserClientRESTIntegrationTest.class, AuthenticationClientRESTIntegrationTest.class } )
+@SuiteClasses( { UserClientRESTIntegrationTest.class, AuthenticationClientRESTIntegrationTest.class, ConnectionPoolClientRESTIntegrationTest.class } )
 public final class IntegrationClientRESTTestSuite{
 	//
 }
@@ -3,14 +3,16 @@ package org.rest.test.suite;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
+import org.rest.sec.web.privilege.PrivilegeBulkRESTIntegrationTest;
 import org.rest.sec.web.privilege.PrivilegeLogicRESTIntegrationTest;
 import org.rest.sec.web.role.RoleLogicRESTIntegrationTest;
 import org.rest.sec.web.role.RoleSearchRESTIntegrationTest;
 import org.rest.sec.web.user.UserLogicRESTIntegrationTest;
 import org.rest.security.AuthenticationRESTIntegrationTest;
+import org.rest.security.AuthorizationRESTIntegrationTest;
 
 @RunWith( Suite.class )
-@SuiteClasses( { PrivilegeLogicRESTIntegrationTest.class, RoleLogicRESTIntegrationTest.class, RoleSearchRESTIntegrationTest.class, UserLogicRESTIntegrationTest.class, AuthenticationRESTIntegrationTest.class } )
+@SuiteClasses( { PrivilegeLogicRESTIntegrationTest.class, PrivilegeBulkRESTIntegrationTest.class, RoleLogicRESTIntegrationTest.class, RoleSearchRESTIntegrationTest.class, UserLogicRESTIntegrationTest.class, AuthenticationRESTIntegrationTest.class, AuthorizationRESTIntegrationTest.class } )
 public final class IntegrationLogicRESTTestSuite{
 	//
 }
@@ -3,6 +3,8 @@ package org.rest.test.suite;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
+import org.rest.persistence.jdbc.InstrumentedDataSourcePersistenceIntegrationTest;
+import org.rest.persistence.jpa.HibernateCacheStatisticsPersistenceIntegrationTest;
 import org.rest.sec.persistence.dao.PrincipalDAOPersistenceIntegrationTest;
 import org.rest.sec.persistence.dao.PrivilegeDAOPersistenceIntegrationTest;
 import org.rest.sec.persistence.dao.RoleDAOPersistenceIntegrationTest;
@@ -23,7 +25,10 @@ import org.rest.sec.persistence.service.RoleServiceSearchPersistenceIntegrationT
 	
 	RoleServicePersistenceIntegrationTest.class,
 	RoleServiceSearchPersistenceIntegrationTest.class,
-	RoleDAOPersistenceIntegrationTest.class
+	RoleDAOPersistenceIntegrationTest.class,
+	
+	InstrumentedDataSourcePersistenceIntegrationTest.class,
+	HibernateCacheStatisticsPersistenceIntegrationTest.class
 } ) // @formatter:on
 public final class IntegrationPersistenceTestSuite{
 	//
@@ -3,14 +3,37 @@ package org.rest.test.suite;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
+import org.rest.client.ConnectionReuseInterceptorUnitTest;
+import org.rest.common.web.ETagsUnitTest;
+import org.rest.persistence.event.AsyncEventMulticasterUnitTest;
+import org.rest.persistence.jdbc.InstrumentedDataSourceUnitTest;
+import org.rest.persistence.jpa.HibernateCacheStatisticsUnitTest;
+import org.rest.persistence.search.QueryParserUnitTest;
+import org.rest.persistence.service.ApproximateCountUnitTest;
+import org.rest.persistence.service.KeysetCursorUnitTest;
+import org.rest.sec.persistence.service.EffectivePrivilegeStoreUnitTest;
 import org.rest.sec.persistence.service.impl.PrincipalServiceUnitTest;
 import org.rest.sec.persistence.service.impl.PrivilegeServiceUnitTest;
 import org.rest.sec.persistence.service.impl.RoleServiceUnitTest;
 import org.rest.sec.util.ConstructQueryStringUnitTest;
 import org.rest.sec.util.ParseQueryStringUnitTest;
+import org.rest.security.PrivilegeBitSetVoterUnitTest;
+import org.rest.security.UserDetailsCacheUnitTest;
+import org.rest.security.token.AuthenticationTokenRevocationListenerUnitTest;
+import org.rest.security.token.AuthenticationTokenServiceUnitTest;
+import org.rest.web.common.AbstractControllerUnitTest;
+import org.rest.web.common.ResourceLinksUnitTest;
+import org.rest.web.compression.CompressionFilterUnitTest;
+import org.rest.web.marshalling.SecBinaryCodecBenchmarkUnitTest;
+import org.rest.web.marshalling.SecBinaryCodecUnitTest;
+import org.rest.web.marshalling.SecBinaryHttpMessageConverterUnitTest;
+import org.rest.web.marshalling.SecJsonModuleBenchmarkUnitTest;
+import org.rest.web.marshalling.SecJsonModuleUnitTest;
+import org.rest.web.marshalling.SecXmlMarshallerBenchmarkUnitTest;
+import org.rest.web.marshalling.SecXmlMarshallerUnitTest;
 
 @RunWith( Suite.class )
-@SuiteClasses( { PrincipalServiceUnitTest.class, RoleServiceUnitTest.class, PrivilegeServiceUnitTest.class, ParseQueryStringUnitTest.class, ConstructQueryStringUnitTest.class } )
+@SuiteClasses( { PrincipalServiceUnitTest.class, RoleServiceUnitTest.class, PrivilegeServiceUnitTest.class, ParseQueryStringUnitTest.class, ConstructQueryStringUnitTest.class, UserDetailsCacheUnitTest.class, KeysetCursorUnitTest.class, ApproximateCountUnitTest.class, EffectivePrivilegeStoreUnitTest.class, PrivilegeBitSetVoterUnitTest.class, AuthenticationTokenServiceUnitTest.class, AuthenticationTokenRevocationListenerUnitTest.class, ETagsUnitTest.class, AsyncEventMulticasterUnitTest.class, ResourceLinksUnitTest.class, AbstractControllerUnitTest.class, QueryParserUnitTest.class, SecJsonModuleUnitTest.class, SecJsonModuleBenchmarkUnitTest.class, SecXmlMarshallerUnitTest.class, SecXmlMarshallerBenchmarkUnitTest.class, SecBinaryCodecUnitTest.class, SecBinaryCodecBenchmarkUnitTest.class, SecBinaryHttpMessageConverterUnitTest.class, CompressionFilterUnitTest.class, ConnectionReuseInterceptorUnitTest.class, InstrumentedDataSourceUnitTest.class, HibernateCacheStatisticsUnitTest.class } )
 public final class UnitTestSuite{
 	//
 }
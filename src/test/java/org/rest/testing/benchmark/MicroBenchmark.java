@@ -0,0 +1,63 @@
+package org.rest.testing.benchmark;
+
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal micro-benchmark harness - runs an operation to warm it up, then times the same number of runs <br>
+ * - note: the result of every run is consumed, so that the JIT cannot eliminate the operation <br>
+ * - note: for the benchmarks run from a main method (see <code>MarshallingBenchmark</code>), never from the unit tests, whose time it would add to every build; <code>-Dbenchmark.iterations</code> sets the number of runs
+ */
+public final class MicroBenchmark{
+	private static final Logger logger = LoggerFactory.getLogger( MicroBenchmark.class );
+	
+	public static final int ITERATIONS = Integer.getInteger( "benchmark.iterations", 20000 );
+	
+	private static volatile int sink;
+	
+	private MicroBenchmark(){
+		throw new AssertionError();
+	}
+	
+	// API
+	
+	/**
+	 * @return the mean time of a run, in nanoseconds
+	 */
+	public static double measure( final String name, final Callable< ? > operation ) throws Exception{
+		for( int i = 0; i < ITERATIONS; i++ ){
+			consume( operation.call() );
+		}
+		
+		final long start = System.nanoTime();
+		for( int i = 0; i < ITERATIONS; i++ ){
+			consume( operation.call() );
+		}
+		final double nanosPerRun = (double) ( System.nanoTime() - start ) / ITERATIONS;
+		
+		logger.info( String.format( "%-48s %12.0f ns/op", name, nanosPerRun ) );
+		return nanosPerRun;
+	}
+	
+	/**
+	 * Measures both operations and logs how much faster (or slower) the candidate is than the baseline
+	 * @return the time of the candidate, as a ratio of the time of the baseline
+	 */
+	public static double compare( final String baselineName, final Callable< ? > baseline, final String candidateName, final Callable< ? > candidate ) throws Exception{
+		final double baselineNanos = measure( baselineName, baseline );
+		final double candidateNanos = measure( candidateName, candidate );
+		final double ratio = candidateNanos / baselineNanos;
+		
+		logger.info( String.format( "%-48s %12.2f x the time of %s", candidateName, ratio, baselineName ) );
+		return ratio;
+	}
+	
+	//
+	
+	private static void consume( final Object result ){
+		sink ^= System.identityHashCode( result );
+	}
+	
+}
@@ -0,0 +1,229 @@
+package org.rest.web.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.common.exceptions.BadRequestException;
+import org.rest.common.exceptions.ResourceNotFoundException;
+import org.rest.persistence.service.IService;
+import org.rest.sec.model.Role;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.google.common.collect.Lists;
+import com.google.common.net.HttpHeaders;
+
+public class AbstractControllerUnitTest{
+	private static final String BASE_URI = "http://localhost:8080/rest-sec/api";
+	
+	private IService< Role > service;
+	private Query aggregateQuery;
+	private RoleTestController instance;
+	private MockHttpServletResponse response;
+	
+	// fixtures
+	
+	@Before
+	@SuppressWarnings( "unchecked" )
+	public final void before(){
+		service = mock( IService.class );
+		instance = new RoleTestController( service );
+		final EntityManager entityManager = mock( EntityManager.class, RETURNS_DEEP_STUBS );
+		aggregateQuery = mock( Query.class );
+		when( entityManager.createQuery( anyString() ) ).thenReturn( aggregateQuery );
+		when( aggregateQuery.getSingleResult() ).thenReturn( new Object[] { 3l, 3l, 0l } );
+		final CollectionVersions collectionVersions = new CollectionVersions();
+		ReflectionTestUtils.setField( collectionVersions, "entityManager", entityManager );
+		ReflectionTestUtils.setField( instance, "collectionVersions", collectionVersions );
+		response = new MockHttpServletResponse();
+	}
+	
+	// tests
+	
+	@Test
+	public final void givenOneMoreEntityThanThePageSize_whenUncountedPageIsRetrieved_thenPageIsTrimmedAndLinksToTheNextPage(){
+		when( service.findPaginatedUncounted( 0, 2, null ) ).thenReturn( roles( 3 ) );
+		
+		// When
+		final List< Role > page = findUncounted( 0, 2 );
+		
+		// Then
+		assertEquals( roles( 2 ), page );
+		assertEquals( "<" + BASE_URI + "/role?page=1&size=2>; rel=\"next\"", response.getHeader( HttpHeaders.LINK ) );
+		verify( service, never() ).findPaginated( anyInt(), anyInt(), anyString() );
+		verify( service, never() ).countApproximately();
+	}
+	
+	@Test
+	public final void givenAsManyEntitiesAsThePageSize_whenUncountedPageIsRetrieved_thenThereIsNoNextLink(){
+		when( service.findPaginatedUncounted( 0, 2, null ) ).thenReturn( roles( 2 ) );
+		
+		// When
+		final List< Role > page = findUncounted( 0, 2 );
+		
+		// Then
+		assertEquals( roles( 2 ), page );
+		assertEquals( "", response.getHeader( HttpHeaders.LINK ) );
+	}
+	
+	@Test( expected = ResourceNotFoundException.class )
+	public final void givenNoEntitiesOnALaterPage_whenUncountedPageIsRetrieved_thenNotFound(){
+		when( service.findPaginatedUncounted( 3, 2, null ) ).thenReturn( Collections.< Role > emptyList() );
+		
+		findUncounted( 3, 2 );
+	}
+	
+	@Test
+	public final void givenNoEntities_whenFirstUncountedPageIsRetrieved_thenPageIsEmpty(){
+		when( service.findPaginatedUncounted( 0, 2, null ) ).thenReturn( Collections.< Role > emptyList() );
+		
+		assertEquals( 0, findUncounted( 0, 2 ).size() );
+	}
+	
+	@Test( expected = BadRequestException.class )
+	public final void givenInvalidSortProperty_whenUncountedPageIsRetrieved_thenBadRequest(){
+		when( service.findPaginatedUncounted( 0, 2, "nope" ) ).thenThrow( new IllegalArgumentException() );
+		
+		instance.findPaginatedInternal( 0, 2, "nope", false, uriBuilder(), new MockHttpServletRequest(), response );
+	}
+	
+	@Test( expected = BadRequestException.class )
+	public final void givenNoPageSize_whenUncountedPageIsRetrieved_thenBadRequest(){
+		findUncounted( 0, 0 );
+	}
+	
+	@Test
+	public final void givenApproximateCountIsEnabled_whenUncountedPageIsRetrieved_thenLastLinkComesFromTheApproximateCount(){
+		instance.approximateCount = true;
+		when( service.findPaginatedUncounted( 0, 2, null ) ).thenReturn( roles( 3 ) );
+		when( service.countApproximately() ).thenReturn( 5l );
+		
+		// When
+		findUncounted( 0, 2 );
+		
+		// Then
+		final String expected = "<" + BASE_URI + "/role?page=1&size=2>; rel=\"next\", <" + BASE_URI + "/role?page=3&size=2>; rel=\"last\"";
+		assertEquals( expected, response.getHeader( HttpHeaders.LINK ) );
+		verify( service, never() ).findPaginated( anyInt(), anyInt(), anyString() );
+	}
+	
+	@Test
+	public final void givenResourceDoesNotCountByDefault_whenPageIsRetrievedWithoutCountParameter_thenPageIsNotCounted(){
+		instance.countByDefault = false;
+		when( service.findPaginatedUncounted( 0, 2, null ) ).thenReturn( roles( 1 ) );
+		
+		// When
+		instance.findPaginatedInternal( 0, 2, null, null, uriBuilder(), new MockHttpServletRequest(), response );
+		
+		// Then
+		verify( service ).findPaginatedUncounted( 0, 2, null );
+		verify( service, never() ).findPaginated( anyInt(), anyInt(), anyString() );
+	}
+	
+	@Test
+	public final void givenEntityWasUpdatedElsewhere_whenPageIsRetrievedWithThePreviousTag_thenItIsNotNotModified(){
+		when( service.findPaginatedUncounted( 0, 2, null ) ).thenReturn( roles( 2 ) );
+		findUncounted( 0, 2 );
+		final String etag = response.getHeader( HttpHeaders.ETAG );
+		when( aggregateQuery.getSingleResult() ).thenReturn( new Object[] { 3l, 3l, 1l } );
+		final MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader( HttpHeaders.IF_NONE_MATCH, etag );
+		response = new MockHttpServletResponse();
+		
+		// When
+		instance.findPaginatedInternal( 0, 2, null, false, uriBuilder(), request, response );
+		
+		// Then
+		assertFalse( etag.equals( response.getHeader( HttpHeaders.ETAG ) ) );
+		assertFalse( response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED );
+	}
+	
+	@Test
+	@SuppressWarnings( "unchecked" )
+	public final void givenItemsFailWhenRetriedOneByOne_whenResourcesAreUpdatedInBulk_thenEachFailureIsItsOwnResultWithAFixedMessage(){
+		ReflectionTestUtils.setField( instance, "bulkChunkSize", 10 );
+		final List< Role > resources = roles( 3 );
+		for( int i = 0; i < resources.size(); i++ ){
+			resources.get( i ).setId( i + 1l );
+		}
+		when( service.updateInBulk( any( List.class ) ) ).thenThrow( new DataIntegrityViolationException( "insert into Role (NAME) values ('role0')" ) );
+		when( service.updateIfExists( resources.get( 0 ) ) ).thenThrow( new DataIntegrityViolationException( "insert into Role (NAME) values ('role0')" ) );
+		when( service.updateIfExists( resources.get( 1 ) ) ).thenThrow( new NullPointerException() );
+		when( service.updateIfExists( resources.get( 2 ) ) ).thenReturn( 1 );
+		
+		// When
+		final List< BulkItemResult > results = instance.updateInBulkInternal( resources );
+		
+		// Then
+		assertEquals( HttpStatus.CONFLICT.value(), results.get( 0 ).getStatus() );
+		assertFalse( results.get( 0 ).getMessage().contains( "Role" ) );
+		assertEquals( HttpStatus.INTERNAL_SERVER_ERROR.value(), results.get( 1 ).getStatus() );
+		assertEquals( HttpStatus.OK.value(), results.get( 2 ).getStatus() );
+	}
+	
+	// util
+	
+	private List< Role > findUncounted( final int page, final int size ){
+		return instance.findPaginatedInternal( page, size, null, false, uriBuilder(), new MockHttpServletRequest(), response );
+	}
+	
+	private static List< Role > roles( final int count ){
+		final List< Role > roles = Lists.newArrayList();
+		for( int i = 0; i < count; i++ ){
+			roles.add( new Role( "role" + i ) );
+		}
+		return roles;
+	}
+	
+	private static UriComponentsBuilder uriBuilder(){
+		return UriComponentsBuilder.fromHttpUrl( BASE_URI );
+	}
+	
+	static final class RoleTestController extends AbstractController< Role >{
+		private final IService< Role > service;
+		boolean countByDefault = true;
+		boolean approximateCount;
+		
+		RoleTestController( final IService< Role > service ){
+			super( Role.class );
+			this.service = service;
+		}
+		
+		@Override
+		protected final IService< Role > getService(){
+			return service;
+		}
+		
+		@Override
+		protected final boolean countByDefault(){
+			return countByDefault;
+		}
+		
+		@Override
+		protected final boolean approximateCountEnabled(){
+			return approximateCount;
+		}
+	}
+	
+}
@@ -0,0 +1,118 @@
+package org.rest.web.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.model.Role;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.google.common.net.HttpHeaders;
+
+public class ResourceLinksUnitTest{
+	private static final String BASE_URI = "http://localhost:8080/rest-sec/api";
+	
+	private ResourceLinks instance;
+	private MockHttpServletResponse response;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = ResourceLinks.forResource( Role.class );
+		response = new MockHttpServletResponse();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenResourceIsRetrieved_thenCollectionLinkIsTheOneBuiltByUriBuilder(){
+		instance.addCollectionLink( uriBuilder(), response );
+		
+		final String expected = "<" + uriBuilder().path( "/role" ).build().encode().toUriString() + ">; rel=\"collection\"";
+		assertEquals( expected, linkHeader() );
+	}
+	
+	@Test
+	public final void whenMiddlePageIsRetrieved_thenAllLinksArePresentInOrder(){
+		instance.addPageLinks( uriBuilder(), response, 1, 4, 10, null, true );
+		
+		final String expected = "<" + BASE_URI + "/role?page=2&size=10>; rel=\"next\", <" + BASE_URI + "/role?page=0&size=10>; rel=\"prev\", <" + BASE_URI + "/role?page=0&size=10>; rel=\"first\", <" + BASE_URI + "/role?page=4&size=10>; rel=\"last\"";
+		assertEquals( expected, linkHeader() );
+	}
+	
+	@Test
+	public final void givenTotalIsNotCounted_whenPageIsRetrieved_thenThereIsNoLastLink(){
+		instance.addPageLinks( uriBuilder(), response, 0, -1, 10, null, true );
+		
+		assertEquals( "<" + BASE_URI + "/role?page=1&size=10>; rel=\"next\"", linkHeader() );
+	}
+	
+	@Test
+	public final void whenSearchPageIsRetrieved_thenLinksKeepTheEncodedQuery(){
+		instance.addSearchPageLinks( uriBuilder(), response, "name=a*,id>3", 0, -1, 10, null, true );
+		
+		assertEquals( "<" + BASE_URI + "/role?q=name%3Da*%2Cid%3E3&page=1&size=10>; rel=\"next\"", linkHeader() );
+	}
+	
+	@Test
+	public final void givenSortedSearchPage_whenLinksAreAdded_thenTheyKeepTheSort(){
+		instance.addSearchPageLinks( uriBuilder(), response, "id>3", 1, -1, 10, "name", false );
+		
+		final String expected = "<" + BASE_URI + "/role?q=id%3E3&page=0&size=10&sortBy=name>; rel=\"prev\", <" + BASE_URI + "/role?q=id%3E3&page=0&size=10&sortBy=name>; rel=\"first\"";
+		assertEquals( expected, linkHeader() );
+	}
+	
+	@Test
+	public final void givenSortedPage_whenLinksAreAdded_thenTheyKeepTheSort(){
+		instance.addPageLinks( uriBuilder(), response, 0, -1, 10, "name", true );
+		
+		assertEquals( "<" + BASE_URI + "/role?page=1&size=10&sortBy=name>; rel=\"next\"", linkHeader() );
+	}
+	
+	@Test
+	public final void whenOnlyPageIsRetrieved_thenLinkHeaderIsEmpty(){
+		instance.addPageLinks( uriBuilder(), response, 0, 1, 10, null, false );
+		
+		assertEquals( "", linkHeader() );
+	}
+	
+	@Test
+	public final void whenKeysetPageIsRetrieved_thenNextAndFirstLinksArePresent(){
+		instance.addKeysetLinks( uriBuilder(), response, "MTA", "MjA", 5, null );
+		
+		assertEquals( "<" + BASE_URI + "/role?after=MjA&size=5>; rel=\"next\", <" + BASE_URI + "/role?after=&size=5>; rel=\"first\"", linkHeader() );
+	}
+	
+	@Test
+	public final void givenKeysetWalkIsSorted_whenKeysetPageIsRetrieved_thenNextAndFirstLinksKeepTheSort(){
+		instance.addKeysetLinks( uriBuilder(), response, "MTA", "MjA", 5, "name" );
+		
+		assertEquals( "<" + BASE_URI + "/role?after=MjA&size=5&sortBy=name>; rel=\"next\", <" + BASE_URI + "/role?after=&size=5&sortBy=name>; rel=\"first\"", linkHeader() );
+	}
+	
+	@Test
+	public final void whenOnlyKeysetPageIsRetrieved_thenThereIsNoLinkHeader(){
+		instance.addKeysetLinks( uriBuilder(), response, null, null, 5, null );
+		
+		assertNull( linkHeader() );
+	}
+	
+	@Test
+	public final void whenLinksAreRequestedTwice_thenTheyAreShared(){
+		assertEquals( instance, ResourceLinks.forResource( Role.class ) );
+	}
+	
+	// util
+	
+	private final UriComponentsBuilder uriBuilder(){
+		return UriComponentsBuilder.fromHttpUrl( BASE_URI );
+	}
+	
+	private final String linkHeader(){
+		return (String) response.getHeader( HttpHeaders.LINK );
+	}
+	
+}
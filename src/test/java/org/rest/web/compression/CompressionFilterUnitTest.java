@@ -0,0 +1,261 @@
+package org.rest.web.compression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+
+public class CompressionFilterUnitTest{
+	private static final byte[] LARGE_BODY = Strings.repeat( "<role id=\"1\"><name>admin</name></role>", 100 ).getBytes();
+	private static final byte[] SMALL_BODY = "<role/>".getBytes();
+	
+	private CompressionFilter instance;
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+	
+	// fixtures
+	
+	@Before
+	public final void before() throws ServletException{
+		instance = new CompressionFilter();
+		instance.minSize = 256;
+		instance.afterPropertiesSet();
+		
+		request = new MockHttpServletRequest( "GET", "/api/role" );
+		response = new MockHttpServletResponse();
+	}
+	
+	// tests - responses
+	
+	@Test
+	public final void givenClientAcceptsGzip_whenLargeResponseIsWritten_thenItIsGzipped() throws IOException, ServletException{
+		request.addHeader( HttpHeaders.ACCEPT_ENCODING, "gzip, deflate" );
+		
+		instance.doFilter( request, response, writing( LARGE_BODY ) );
+		
+		assertEquals( "gzip", response.getHeader( HttpHeaders.CONTENT_ENCODING ) );
+		assertTrue( response.getContentAsByteArray().length < LARGE_BODY.length );
+		assertArrayEquals( LARGE_BODY, ByteStreams.toByteArray( new GZIPInputStream( new ByteArrayInputStream( response.getContentAsByteArray() ) ) ) );
+		assertEquals( 1, instance.getCompressedCount() );
+	}
+	
+	@Test
+	public final void givenClientAcceptsOnlyDeflate_whenLargeResponseIsWritten_thenItIsDeflated() throws IOException, ServletException{
+		request.addHeader( HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate" );
+		
+		instance.doFilter( request, response, writing( LARGE_BODY ) );
+		
+		assertEquals( "deflate", response.getHeader( HttpHeaders.CONTENT_ENCODING ) );
+		assertArrayEquals( LARGE_BODY, ByteStreams.toByteArray( new InflaterInputStream( new ByteArrayInputStream( response.getContentAsByteArray() ) ) ) );
+	}
+	
+	@Test
+	public final void givenClientAcceptsGzip_whenSmallResponseIsWritten_thenItIsWrittenAsIs() throws IOException, ServletException{
+		request.addHeader( HttpHeaders.ACCEPT_ENCODING, "gzip" );
+		
+		instance.doFilter( request, response, writing( SMALL_BODY ) );
+		
+		assertNull( response.getHeader( HttpHeaders.CONTENT_ENCODING ) );
+		assertEquals( SMALL_BODY.length, response.getContentLength() );
+		assertArrayEquals( SMALL_BODY, response.getContentAsByteArray() );
+		assertEquals( HttpHeaders.ACCEPT_ENCODING, response.getHeader( HttpHeaders.VARY ) );
+	}
+	
+	@Test
+	public final void givenClientDoesNotAcceptCompression_whenLargeResponseIsWritten_thenItIsWrittenAsIs() throws IOException, ServletException{
+		instance.doFilter( request, response, writing( LARGE_BODY ) );
+		
+		assertNull( response.getHeader( HttpHeaders.CONTENT_ENCODING ) );
+		assertArrayEquals( LARGE_BODY, response.getContentAsByteArray() );
+	}
+	
+	@Test
+	public final void givenResponseHasValidators_whenItIsCompressed_thenEntityTagStaysStrongWithTheEncodingAndVaryIsExtended() throws IOException, ServletException{
+		request.addHeader( HttpHeaders.ACCEPT_ENCODING, "gzip" );
+		
+		instance.doFilter( request, response, new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				( (HttpServletResponse) res ).setHeader( HttpHeaders.ETAG, "\"1-0\"" );
+				( (HttpServletResponse) res ).setHeader( HttpHeaders.VARY, HttpHeaders.ACCEPT );
+				res.getOutputStream().write( LARGE_BODY );
+			}
+		} );
+		
+		assertEquals( "\"1-0-gzip\"", response.getHeader( HttpHeaders.ETAG ) );
+		assertEquals( HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING, response.getHeader( HttpHeaders.VARY ) );
+	}
+	
+	// tests - requests
+	
+	@Test
+	public final void givenRequestBodyIsGzipped_whenRequestIsHandled_thenBodyIsReadDecompressed() throws IOException, ServletException{
+		request.setMethod( "POST" );
+		request.addHeader( HttpHeaders.CONTENT_ENCODING, "gzip" );
+		request.setContent( gzip( LARGE_BODY ) );
+		final ByteArrayOutputStream read = new ByteArrayOutputStream();
+		
+		instance.doFilter( request, response, new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				assertNull( ( (HttpServletRequest) req ).getHeader( HttpHeaders.CONTENT_ENCODING ) );
+				ByteStreams.copy( req.getInputStream(), read );
+			}
+		} );
+		
+		assertArrayEquals( LARGE_BODY, read.toByteArray() );
+	}
+	
+	@Test
+	public final void givenRequestBodyIsDeflated_whenRequestIsHandled_thenBodyIsReadDecompressed() throws IOException, ServletException{
+		request.setMethod( "POST" );
+		request.addHeader( HttpHeaders.CONTENT_ENCODING, "deflate" );
+		request.setContent( deflate( LARGE_BODY ) );
+		final ByteArrayOutputStream read = new ByteArrayOutputStream();
+		
+		instance.doFilter( request, response, new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				final InputStream body = req.getInputStream();
+				ByteStreams.copy( body, read );
+			}
+		} );
+		
+		assertArrayEquals( LARGE_BODY, read.toByteArray() );
+	}
+	
+	@Test
+	public final void givenRequestBodyInflatesBeyondTheMaximum_whenTheFailureIsHandledDownstream_then413IsReceived() throws IOException, ServletException{
+		instance.maxInflatedSize = LARGE_BODY.length - 1;
+		request.setMethod( "POST" );
+		request.addHeader( HttpHeaders.CONTENT_ENCODING, "gzip" );
+		request.setContent( gzip( LARGE_BODY ) );
+		
+		instance.doFilter( request, response, new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				try{
+					ByteStreams.copy( req.getInputStream(), ByteStreams.nullOutputStream() );
+				}
+				catch( final IOException ioEx ){
+					( (HttpServletResponse) res ).sendError( HttpServletResponse.SC_BAD_REQUEST );
+				}
+			}
+		} );
+		
+		assertEquals( 413, response.getStatus() );
+	}
+	
+	@Test
+	public final void givenRequestBodyInflatesBeyondTheMaximum_whenTheFailurePropagates_then413IsReceived() throws IOException, ServletException{
+		instance.maxInflatedSize = LARGE_BODY.length - 1;
+		request.setMethod( "POST" );
+		request.addHeader( HttpHeaders.CONTENT_ENCODING, "deflate" );
+		request.setContent( deflate( LARGE_BODY ) );
+		
+		instance.doFilter( request, response, new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				ByteStreams.copy( req.getInputStream(), ByteStreams.nullOutputStream() );
+			}
+		} );
+		
+		assertEquals( 413, response.getStatus() );
+	}
+	
+	@Test
+	public final void givenRequestBodyInflatesToTheMaximum_whenRequestIsHandled_thenBodyIsReadDecompressed() throws IOException, ServletException{
+		instance.maxInflatedSize = LARGE_BODY.length;
+		request.setMethod( "POST" );
+		request.addHeader( HttpHeaders.CONTENT_ENCODING, "gzip" );
+		request.setContent( gzip( LARGE_BODY ) );
+		final ByteArrayOutputStream read = new ByteArrayOutputStream();
+		
+		instance.doFilter( request, response, new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				ByteStreams.copy( req.getInputStream(), read );
+			}
+		} );
+		
+		assertArrayEquals( LARGE_BODY, read.toByteArray() );
+		assertEquals( 200, response.getStatus() );
+	}
+	
+	@Test
+	public final void givenRequestBodyHasUnsupportedEncoding_whenRequestIsHandled_then415IsReceived() throws IOException, ServletException{
+		request.setMethod( "POST" );
+		request.addHeader( HttpHeaders.CONTENT_ENCODING, "br" );
+		
+		instance.doFilter( request, response, writing( SMALL_BODY ) );
+		
+		assertEquals( 415, response.getStatus() );
+	}
+	
+	// tests - negotiation
+	
+	@Test
+	public final void whenEncodingIsNegotiated_thenQualitiesAreRespected(){
+		assertEquals( "gzip", CompressionFilter.negotiate( "deflate, gzip" ) );
+		assertEquals( "gzip", CompressionFilter.negotiate( "*" ) );
+		assertEquals( "deflate", CompressionFilter.negotiate( "gzip;q=0.5, deflate" ) );
+		assertEquals( "deflate", CompressionFilter.negotiate( "gzip;q=0, *" ) );
+		assertNull( CompressionFilter.negotiate( "identity" ) );
+		assertNull( CompressionFilter.negotiate( "*;q=0" ) );
+		assertNull( CompressionFilter.negotiate( null ) );
+	}
+	
+	// util
+	
+	private static FilterChain writing( final byte[] body ){
+		return new FilterChain(){
+			@Override
+			public final void doFilter( final ServletRequest req, final ServletResponse res ) throws IOException{
+				res.setContentLength( body.length );
+				res.getOutputStream().write( body );
+			}
+		};
+	}
+	
+	private static byte[] gzip( final byte[] body ) throws IOException{
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		final GZIPOutputStream out = new GZIPOutputStream( compressed );
+		out.write( body );
+		out.close();
+		return compressed.toByteArray();
+	}
+	
+	private static byte[] deflate( final byte[] body ) throws IOException{
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		final DeflaterOutputStream out = new DeflaterOutputStream( compressed );
+		out.write( body );
+		out.close();
+		return compressed.toByteArray();
+	}
+	
+}
@@ -0,0 +1,85 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * The payloads the representations are compared on - a page of users sharing a small catalog of roles and privileges, as the list resources return it
+ */
+final class BenchmarkPayloads{
+	
+	private BenchmarkPayloads(){
+		throw new AssertionError();
+	}
+	
+	// API
+	
+	static List< User > users( final int count ){
+		final List< Role > roles = Lists.newArrayList();
+		for( int r = 0; r < 8; r++ ){
+			final Set< Privilege > privileges = Sets.newHashSet();
+			for( int p = 0; p < 6; p++ ){
+				final Privilege privilege = new Privilege( "ROLE_PRIVILEGE_" + ( r * 6 + p ) );
+				privilege.setId( (long) ( r * 6 + p + 1 ) );
+				privilege.setVersion( 0l );
+				privileges.add( privilege );
+			}
+			final Role role = new Role( "role" + r, privileges );
+			role.setId( (long) ( r + 1 ) );
+			role.setVersion( 2l );
+			roles.add( role );
+		}
+		
+		final List< User > users = Lists.newArrayListWithCapacity( count );
+		for( int u = 0; u < count; u++ ){
+			final User user = new User( "user" + u, "pass & <word> " + u, Sets.newHashSet( roles.get( u % roles.size() ), roles.get( ( u + 3 ) % roles.size() ) ) );
+			user.setId( (long) ( u + 1 ) );
+			user.setVersion( (long) u % 5 );
+			users.add( user );
+		}
+		return users;
+	}
+	
+	/**
+	 * - note: the entities are equal by name only - this compares every property, down to the privileges
+	 */
+	static void assertSameUsers( final List< User > expected, final List< User > actual ){
+		assertEquals( expected.size(), actual.size() );
+		for( int i = 0; i < expected.size(); i++ ){
+			final User expectedUser = expected.get( i );
+			final User actualUser = actual.get( i );
+			assertEquals( expectedUser.getId(), actualUser.getId() );
+			assertEquals( expectedUser.getVersion(), actualUser.getVersion() );
+			assertEquals( expectedUser.getName(), actualUser.getName() );
+			assertEquals( expectedUser.getPassword(), actualUser.getPassword() );
+			assertEquals( expectedUser.getRoles(), actualUser.getRoles() );
+			for( final Role actualRole : actualUser.getRoles() ){
+				final Role expectedRole = roleNamed( expectedUser.getRoles(), actualRole.getName() );
+				assertEquals( expectedRole.getId(), actualRole.getId() );
+				assertEquals( expectedRole.getVersion(), actualRole.getVersion() );
+				assertEquals( expectedRole.getPrivileges(), actualRole.getPrivileges() );
+			}
+		}
+	}
+	
+	//
+	
+	private static Role roleNamed( final Set< Role > roles, final String name ){
+		for( final Role role : roles ){
+			if( role.getName().equals( name ) ){
+				return role;
+			}
+		}
+		throw new AssertionError( "No role named " + name );
+	}
+	
+}
@@ -0,0 +1,168 @@
+package org.rest.web.marshalling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Privilege;
+import org.rest.testing.benchmark.MicroBenchmark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Times the representations on a page of users: the streaming JSON serializers against the bean ones, the StAX codec against XStream, and the binary codec against JSON - and logs their sizes <br>
+ * - note: not a test - the build never runs it, so its timings can not make the build slow or flaky; the *BenchmarkUnitTest classes check, on the same page, that the representations compared here are equivalent <br>
+ * - note: run its main method with the test classpath, for example <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.rest.web.marshalling.MarshallingBenchmark</code>
+ */
+public final class MarshallingBenchmark{
+	private static final Logger logger = LoggerFactory.getLogger( MarshallingBenchmark.class );
+	private static final TypeReference< List< User > > LIST_OF_USERS = new TypeReference< List< User > >(){
+		//
+	};
+	
+	private final ObjectMapper jsonMapper;
+	private final ObjectMapper reflectionMapper;
+	private final SecXmlMarshaller xmlMarshaller;
+	private final XStream xstream;
+	private final SecBinaryCodec binaryCodec;
+	private final List< User > users;
+	
+	private MarshallingBenchmark(){
+		super();
+		
+		jsonMapper = new ObjectMapper();
+		jsonMapper.registerModule( new SecJsonModule() );
+		reflectionMapper = new ObjectMapper();
+		xmlMarshaller = new SecXmlMarshaller();
+		
+		// as the XStream marshaller of the API was configured
+		xstream = new XStream();
+		xstream.autodetectAnnotations( true );
+		xstream.processAnnotations( User.class );
+		xstream.processAnnotations( Privilege.class );
+		
+		binaryCodec = new SecBinaryCodec();
+		users = BenchmarkPayloads.users( 100 );
+	}
+	
+	public static void main( final String[] args ) throws Exception{
+		final MarshallingBenchmark benchmark = new MarshallingBenchmark();
+		benchmark.json();
+		benchmark.xml();
+		benchmark.binary();
+	}
+	
+	// benchmarks
+	
+	private void json() throws Exception{
+		MicroBenchmark.compare( "json - bean serializer - write", new Callable< String >(){
+			@Override
+			public final String call() throws Exception{
+				return reflectionMapper.writeValueAsString( users );
+			}
+		}, "json - streaming serializer - write", new Callable< String >(){
+			@Override
+			public final String call() throws Exception{
+				return jsonMapper.writeValueAsString( users );
+			}
+		} );
+		
+		final String json = reflectionMapper.writeValueAsString( users );
+		MicroBenchmark.compare( "json - bean deserializer - read", new Callable< List< User > >(){
+			@Override
+			public final List< User > call() throws Exception{
+				return reflectionMapper.readValue( json, LIST_OF_USERS );
+			}
+		}, "json - streaming deserializer - read", new Callable< List< User > >(){
+			@Override
+			public final List< User > call() throws Exception{
+				return jsonMapper.readValue( json, LIST_OF_USERS );
+			}
+		} );
+	}
+	
+	private void xml() throws Exception{
+		MicroBenchmark.compare( "xml - xstream - write", new Callable< String >(){
+			@Override
+			public final String call(){
+				return xstream.toXML( users );
+			}
+		}, "xml - stax codec - write", new Callable< String >(){
+			@Override
+			public final String call() throws Exception{
+				return marshal( users );
+			}
+		} );
+		
+		final String xml = xstream.toXML( users );
+		MicroBenchmark.compare( "xml - xstream - read", new Callable< Object >(){
+			@Override
+			public final Object call(){
+				return xstream.fromXML( xml );
+			}
+		}, "xml - stax codec - read", new Callable< Object >(){
+			@Override
+			public final Object call() throws Exception{
+				return xmlMarshaller.unmarshal( new StreamSource( new StringReader( xml ) ) );
+			}
+		} );
+	}
+	
+	private void binary() throws Exception{
+		final byte[] json = jsonMapper.writeValueAsBytes( users );
+		final byte[] binary = write( users );
+		logger.info( String.format( "page of %d users - binary: %d bytes, json: %d bytes, xml: %d bytes", users.size(), binary.length, json.length, marshal( users ).getBytes( Charsets.UTF_8 ).length ) );
+		
+		MicroBenchmark.compare( "json - streaming serializer - write", new Callable< byte[] >(){
+			@Override
+			public final byte[] call() throws Exception{
+				return jsonMapper.writeValueAsBytes( users );
+			}
+		}, "binary - write", new Callable< byte[] >(){
+			@Override
+			public final byte[] call() throws Exception{
+				return write( users );
+			}
+		} );
+		
+		MicroBenchmark.compare( "json - streaming deserializer - read", new Callable< List< User > >(){
+			@Override
+			public final List< User > call() throws Exception{
+				return jsonMapper.readValue( json, LIST_OF_USERS );
+			}
+		}, "binary - read", new Callable< Object >(){
+			@Override
+			public final Object call() throws Exception{
+				return binaryCodec.read( new ByteArrayInputStream( binary ) );
+			}
+		} );
+	}
+	
+	// util
+	
+	private byte[] write( final Object graph ) throws IOException{
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		binaryCodec.write( graph, outputStream );
+		return outputStream.toByteArray();
+	}
+	
+	private String marshal( final Object graph ) throws IOException{
+		final StringWriter writer = new StringWriter();
+		xmlMarshaller.marshal( graph, new StreamResult( writer ) );
+		return writer.toString();
+	}
+	
+}
@@ -0,0 +1,73 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamResult;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.dto.User;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Compares the binary representation with the JSON and XML ones on a page of users - it must read back unchanged and be smaller; the time is measured by {@link MarshallingBenchmark}, outside the build
+ */
+public class SecBinaryCodecBenchmarkUnitTest{
+	
+	private SecBinaryCodec instance;
+	private ObjectMapper jsonMapper;
+	private SecXmlMarshaller xmlMarshaller;
+	private List< User > users;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new SecBinaryCodec();
+		jsonMapper = new ObjectMapper();
+		jsonMapper.registerModule( new SecJsonModule() );
+		xmlMarshaller = new SecXmlMarshaller();
+		
+		users = BenchmarkPayloads.users( 100 );
+	}
+	
+	// tests
+	
+	@SuppressWarnings( "unchecked" )
+	@Test
+	public final void whenPageIsWrittenAndRead_thenItIsUnchanged() throws Exception{
+		BenchmarkPayloads.assertSameUsers( users, (List< User >) instance.read( new ByteArrayInputStream( write( users ) ) ) );
+	}
+	
+	@Test
+	public final void whenPageIsWritten_thenItIsSmallerThanInJsonAndXml() throws Exception{
+		final int binarySize = write( users ).length;
+		final int jsonSize = jsonMapper.writeValueAsBytes( users ).length;
+		final int xmlSize = marshal( users ).getBytes( Charsets.UTF_8 ).length;
+		
+		assertTrue( binarySize < jsonSize );
+		assertTrue( binarySize < xmlSize );
+	}
+	
+	// util
+	
+	private final byte[] write( final Object graph ) throws Exception{
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		instance.write( graph, outputStream );
+		return outputStream.toByteArray();
+	}
+	
+	private final String marshal( final Object graph ) throws Exception{
+		final StringWriter writer = new StringWriter();
+		xmlMarshaller.marshal( graph, new StreamResult( writer ) );
+		return writer.toString();
+	}
+	
+}
@@ -0,0 +1,170 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.rest.web.common.BulkItemResult;
+import org.springframework.http.HttpStatus;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class SecBinaryCodecUnitTest{
+	
+	private SecBinaryCodec instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new SecBinaryCodec();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenRoleIsWrittenAndRead_thenItIsUnchanged() throws IOException{
+		final Role role = newRole( "admin" );
+		
+		final Role read = (Role) instance.read( new ByteArrayInputStream( write( role ) ) );
+		
+		assertEquals( role.getId(), read.getId() );
+		assertEquals( role.getVersion(), read.getVersion() );
+		assertEquals( role.getName(), read.getName() );
+		assertEquals( role.getPrivileges(), read.getPrivileges() );
+	}
+	
+	@Test
+	public final void whenUserWithNullsIsWrittenAndRead_thenNullsAreKept() throws IOException{
+		final User user = new User( "john", null, null );
+		
+		final User read = (User) instance.read( new ByteArrayInputStream( write( user ) ) );
+		
+		assertNull( read.getId() );
+		assertEquals( "john", read.getName() );
+		assertNull( read.getPassword() );
+		assertNull( read.getRoles() );
+	}
+	
+	@Test
+	public final void whenListOfUsersIsWrittenAndRead_thenItIsUnchanged() throws IOException{
+		final List< User > users = Lists.newArrayList( new User( "john", "pass", Sets.newHashSet( newRole( "admin" ) ) ), new User( "jane", "p\u00e4ssw\u00f6rd", Sets.newHashSet( newRole( "admin" ), newRole( "guest" ) ) ) );
+		
+		@SuppressWarnings( "unchecked" )
+		final List< User > read = (List< User >) instance.read( new ByteArrayInputStream( write( users ) ) );
+		
+		assertEquals( 2, read.size() );
+		assertEquals( "p\u00e4ssw\u00f6rd", read.get( 1 ).getPassword() );
+		assertEquals( users.get( 1 ).getRoles(), read.get( 1 ).getRoles() );
+	}
+	
+	@Test
+	public final void whenArraysAreWrittenAndRead_thenTheyAreUnchanged() throws IOException{
+		final Role[] roles = new Role[ ] { newRole( "admin" ), new Role( "empty" ) };
+		final Long[] ids = new Long[ ] { 1l, -2l, Long.MAX_VALUE, Long.MIN_VALUE };
+		
+		assertArrayEquals( roles, (Role[]) instance.read( new ByteArrayInputStream( write( roles ) ) ) );
+		assertArrayEquals( ids, (Long[]) instance.read( new ByteArrayInputStream( write( ids ) ) ) );
+	}
+	
+	@Test
+	public final void whenBulkResultsAreWrittenAndRead_thenTheyAreUnchanged() throws IOException{
+		final List< BulkItemResult > results = Lists.newArrayList( new BulkItemResult( 0, HttpStatus.CREATED, 7l, null ), new BulkItemResult( 1, HttpStatus.CONFLICT, null, "duplicate" ) );
+		
+		@SuppressWarnings( "unchecked" )
+		final List< BulkItemResult > read = (List< BulkItemResult >) instance.read( new ByteArrayInputStream( write( results ) ) );
+		
+		assertEquals( Long.valueOf( 7 ), read.get( 0 ).getId() );
+		assertEquals( 201, read.get( 0 ).getStatus() );
+		assertEquals( 1, read.get( 1 ).getIndex() );
+		assertEquals( "duplicate", read.get( 1 ).getMessage() );
+	}
+	
+	@Test
+	public final void whenNamesAreRepeated_thenTheyAreWrittenOnlyOnce() throws IOException{
+		final List< Role > roles = Lists.newArrayList();
+		for( int i = 0; i < 100; i++ ){
+			roles.add( newRole( "admin" ) );
+		}
+		
+		final int sizeOfOne = write( Lists.newArrayList( newRole( "admin" ) ) ).length;
+		final int sizeOfAll = write( roles ).length;
+		
+		assertTrue( sizeOfAll < sizeOfOne * 50 );
+	}
+	
+	@Test
+	public final void whenTypesAreCheckedForSupport_thenOnlyTheResourcesAreSupported(){
+		assertTrue( instance.supports( Role.class ) );
+		assertTrue( instance.supports( List.class ) );
+		assertTrue( instance.supports( ArrayList.class ) );
+		assertTrue( instance.supports( Long[].class ) );
+		assertFalse( instance.supports( LinkedList.class ) );
+		assertFalse( instance.supports( Set.class ) );
+		assertFalse( instance.supports( Long.class ) );
+		assertFalse( instance.supports( String.class ) );
+	}
+	
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenListOfUnsupportedElementsIsWritten_thenException() throws IOException{
+		write( Arrays.asList( "a", "b" ) );
+	}
+	
+	@Test( expected = IllegalArgumentException.class )
+	public final void whenListOfMixedElementsIsWritten_thenExceptionBeforeAnythingIsWritten() throws IOException{
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try{
+			instance.write( Lists.< Object >newArrayList( newRole( "admin" ), newPrivilege( 1l, "read" ) ), outputStream );
+		}
+		finally{
+			assertEquals( 0, outputStream.size() );
+		}
+	}
+	
+	@Test( expected = EOFException.class )
+	public final void whenDocumentIsTruncated_thenException() throws IOException{
+		final byte[] bytes = write( newRole( "admin" ) );
+		
+		instance.read( new ByteArrayInputStream( Arrays.copyOf( bytes, bytes.length - 1 ) ) );
+	}
+	
+	// util
+	
+	private final byte[] write( final Object graph ) throws IOException{
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		instance.write( graph, outputStream );
+		return outputStream.toByteArray();
+	}
+	
+	private final Role newRole( final String name ){
+		final Role role = new Role( name, Sets.newHashSet( newPrivilege( 1l, "read" ), newPrivilege( 2l, "write" ) ) );
+		role.setId( 5l );
+		role.setVersion( 0l );
+		return role;
+	}
+	
+	private final Privilege newPrivilege( final Long id, final String name ){
+		final Privilege privilege = new Privilege( name );
+		privilege.setId( id );
+		return privilege;
+	}
+	
+}
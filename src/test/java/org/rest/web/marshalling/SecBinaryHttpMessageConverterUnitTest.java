@@ -0,0 +1,54 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.model.Role;
+
+public class SecBinaryHttpMessageConverterUnitTest{
+	
+	private SecBinaryHttpMessageConverter instance;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new SecBinaryHttpMessageConverter();
+	}
+	
+	// tests
+	
+	@Test
+	public final void givenListsAreWrittenByDefault_whenNoMediaTypeIsAskedFor_thenListIsWritable(){
+		assertTrue( instance.canWrite( ArrayList.class, null ) );
+	}
+	
+	@Test
+	public final void givenListsAreNotWrittenByDefault_whenNoMediaTypeIsAskedFor_thenListIsNotWritableButResourcesAre(){
+		instance.setListsWrittenByDefault( false );
+		
+		assertFalse( instance.canWrite( ArrayList.class, null ) );
+		assertTrue( instance.canWrite( Role.class, null ) );
+		assertTrue( instance.canWrite( Long[].class, null ) );
+	}
+	
+	@Test
+	public final void givenListsAreNotWrittenByDefault_whenTheBinaryMediaTypeIsAskedFor_thenListIsWritable(){
+		instance.setListsWrittenByDefault( false );
+		
+		assertTrue( instance.canWrite( List.class, SecBinaryHttpMessageConverter.MEDIA_TYPE ) );
+	}
+	
+	@Test
+	public final void givenListsAreNotWrittenByDefault_whenListIsRead_thenItIsReadable(){
+		instance.setListsWrittenByDefault( false );
+		
+		assertTrue( instance.canRead( List.class, null ) );
+	}
+	
+}
@@ -0,0 +1,49 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.dto.User;
+
+/**
+ * Compares the streaming serializers with the bean (reflection based) ones on a page of users - the representation must be the same; the time is measured by {@link MarshallingBenchmark}, outside the build
+ */
+public class SecJsonModuleBenchmarkUnitTest{
+	private static final TypeReference< List< User > > LIST_OF_USERS = new TypeReference< List< User > >(){
+		//
+	};
+	
+	private ObjectMapper instance;
+	private ObjectMapper reflectionMapper;
+	private List< User > users;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new ObjectMapper();
+		instance.registerModule( new SecJsonModule() );
+		reflectionMapper = new ObjectMapper();
+		users = BenchmarkPayloads.users( 100 );
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenPageIsSerialized_thenRepresentationIsTheOneOfTheBeanSerializer() throws Exception{
+		assertEquals( reflectionMapper.readTree( reflectionMapper.writeValueAsString( users ) ), instance.readTree( instance.writeValueAsString( users ) ) );
+	}
+	
+	@Test
+	public final void whenPageWrittenByTheBeanSerializerIsDeserialized_thenItIsUnchanged() throws Exception{
+		final List< User > read = instance.readValue( reflectionMapper.writeValueAsString( users ), LIST_OF_USERS );
+		
+		BenchmarkPayloads.assertSameUsers( users, read );
+	}
+	
+}
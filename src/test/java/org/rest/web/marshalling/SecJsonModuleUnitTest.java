@@ -0,0 +1,127 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.exc.UnrecognizedPropertyException;
+import org.codehaus.jackson.type.TypeReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class SecJsonModuleUnitTest{
+	
+	private ObjectMapper instance;
+	private ObjectMapper reflectionMapper;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new ObjectMapper();
+		instance.registerModule( new SecJsonModule() );
+		reflectionMapper = new ObjectMapper();
+	}
+	
+	// tests
+	
+	@Test
+	public final void whenPrivilegeIsSerialized_thenRepresentationIsTheOneOfTheBeanSerializer() throws IOException{
+		final Privilege privilege = newPrivilege( 1l, "read" );
+		
+		assertEquals( reflectionMapper.readTree( reflectionMapper.writeValueAsString( privilege ) ), instance.readTree( instance.writeValueAsString( privilege ) ) );
+	}
+	
+	@Test
+	public final void whenRoleIsSerialized_thenRepresentationIsTheOneOfTheBeanSerializer() throws IOException{
+		final Role role = newRole();
+		
+		assertEquals( reflectionMapper.readTree( reflectionMapper.writeValueAsString( role ) ), instance.readTree( instance.writeValueAsString( role ) ) );
+	}
+	
+	@Test
+	public final void whenPrincipalIsSerialized_thenRepresentationIsTheOneOfTheBeanSerializer() throws IOException{
+		final Principal principal = new Principal( "john", "pass", Sets.newHashSet( newRole() ) );
+		principal.setId( 3l );
+		
+		assertEquals( reflectionMapper.readTree( reflectionMapper.writeValueAsString( principal ) ), instance.readTree( instance.writeValueAsString( principal ) ) );
+	}
+	
+	@Test
+	public final void whenUserWithNullsIsSerialized_thenRepresentationIsTheOneOfTheBeanSerializer() throws IOException{
+		final User user = new User( "john", null, null );
+		
+		assertEquals( reflectionMapper.readTree( reflectionMapper.writeValueAsString( user ) ), instance.readTree( instance.writeValueAsString( user ) ) );
+	}
+	
+	@Test
+	public final void whenListOfRolesIsSerialized_thenRepresentationIsTheOneOfTheBeanSerializer() throws IOException{
+		final List< Role > roles = Lists.newArrayList( newRole(), new Role( "empty" ) );
+		
+		assertEquals( reflectionMapper.readTree( reflectionMapper.writeValueAsString( roles ) ), instance.readTree( instance.writeValueAsString( roles ) ) );
+	}
+	
+	@Test
+	public final void whenRoleIsSerializedAndDeserialized_thenItIsUnchanged() throws IOException{
+		final Role role = newRole();
+		
+		final Role deserialized = instance.readValue( instance.writeValueAsString( role ), Role.class );
+		
+		assertEquals( role.getId(), deserialized.getId() );
+		assertEquals( role.getName(), deserialized.getName() );
+		assertEquals( role.getPrivileges(), deserialized.getPrivileges() );
+	}
+	
+	@Test
+	public final void whenUserIsSerializedAndDeserialized_thenItIsUnchanged() throws IOException{
+		final User user = new User( "john", "pass", Sets.newHashSet( newRole() ) );
+		
+		final User deserialized = instance.readValue( instance.writeValueAsString( user ), User.class );
+		
+		assertNull( deserialized.getId() );
+		assertEquals( user.getName(), deserialized.getName() );
+		assertEquals( user.getPassword(), deserialized.getPassword() );
+		assertEquals( user.getRoles(), deserialized.getRoles() );
+	}
+	
+	@Test
+	public final void whenListOfPrivilegesIsDeserialized_thenEveryElementIsRead() throws IOException{
+		final List< Privilege > privileges = instance.readValue( "[{\"id\":1,\"name\":\"read\"},{\"id\":\"2\",\"version\":null,\"name\":\"write\"}]", new TypeReference< List< Privilege > >(){
+			//
+		} );
+		
+		assertEquals( 2, privileges.size() );
+		assertEquals( Long.valueOf( 2 ), privileges.get( 1 ).getId() );
+		assertEquals( "write", privileges.get( 1 ).getName() );
+	}
+	
+	@Test( expected = UnrecognizedPropertyException.class )
+	public final void whenRepresentationHasUnknownField_thenException() throws IOException{
+		instance.readValue( "{\"name\":\"read\",\"unknown\":1}", Privilege.class );
+	}
+	
+	// util
+	
+	private final Role newRole(){
+		final Role role = new Role( "admin", Sets.newHashSet( newPrivilege( 1l, "read" ), newPrivilege( 2l, "write" ) ) );
+		role.setId( 5l );
+		return role;
+	}
+	
+	private final Privilege newPrivilege( final Long id, final String name ){
+		final Privilege privilege = new Privilege( name );
+		privilege.setId( id );
+		return privilege;
+	}
+	
+}
@@ -0,0 +1,67 @@
+package org.rest.web.marshalling;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Privilege;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Compares the StAX codec with XStream - which it replaced - on a page of users: each reads what the other writes; the time is measured by {@link MarshallingBenchmark}, outside the build
+ */
+public class SecXmlMarshallerBenchmarkUnitTest{
+	
+	private SecXmlMarshaller instance;
+	private XStream xstream;
+	private List< User > users;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new SecXmlMarshaller();
+		
+		// as the XStream marshaller of the API was configured
+		xstream = new XStream();
+		xstream.autodetectAnnotations( true );
+		xstream.processAnnotations( User.class );
+		xstream.processAnnotations( Privilege.class );
+		
+		users = BenchmarkPayloads.users( 100 );
+	}
+	
+	// tests
+	
+	@SuppressWarnings( "unchecked" )
+	@Test
+	public final void whenPageIsMarshalled_thenXStreamReadsTheSamePage() throws Exception{
+		BenchmarkPayloads.assertSameUsers( users, (List< User >) xstream.fromXML( marshal( users ) ) );
+	}
+	
+	@SuppressWarnings( "unchecked" )
+	@Test
+	public final void whenPageWrittenByXStreamIsUnmarshalled_thenItIsTheSamePage() throws Exception{
+		BenchmarkPayloads.assertSameUsers( users, (List< User >) unmarshal( xstream.toXML( users ) ) );
+	}
+	
+	// util
+	
+	private final String marshal( final Object graph ) throws Exception{
+		final StringWriter writer = new StringWriter();
+		instance.marshal( graph, new StreamResult( writer ) );
+		return writer.toString();
+	}
+	
+	private final Object unmarshal( final String xml ) throws Exception{
+		return instance.unmarshal( new StreamSource( new StringReader( xml ) ) );
+	}
+	
+}
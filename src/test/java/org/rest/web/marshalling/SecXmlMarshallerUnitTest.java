@@ -0,0 +1,176 @@
+package org.rest.web.marshalling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rest.sec.dto.User;
+import org.rest.sec.model.Principal;
+import org.rest.sec.model.Privilege;
+import org.rest.sec.model.Role;
+import org.rest.web.common.BulkItemResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.oxm.UnmarshallingFailureException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.thoughtworks.xstream.XStream;
+
+public class SecXmlMarshallerUnitTest{
+	
+	private SecXmlMarshaller instance;
+	private XStream xstream;
+	
+	// fixtures
+	
+	@Before
+	public final void before(){
+		instance = new SecXmlMarshaller();
+		
+		// as the clients of the API (and the *MimeRESTIntegrationTest suites) read and write XML
+		xstream = new XStream();
+		xstream.autodetectAnnotations( true );
+		xstream.processAnnotations( User.class );
+		xstream.processAnnotations( Privilege.class );
+	}
+	
+	// tests - the XML written is the one XStream reads
+	
+	@Test
+	public final void whenRoleIsMarshalled_thenXStreamReadsTheSameRole() throws IOException{
+		final Role role = newRole();
+		
+		final Role unmarshalled = (Role) xstream.fromXML( marshal( role ) );
+		
+		assertEquals( role.getId(), unmarshalled.getId() );
+		assertEquals( role.getVersion(), unmarshalled.getVersion() );
+		assertEquals( role.getName(), unmarshalled.getName() );
+		assertEquals( role.getPrivileges(), unmarshalled.getPrivileges() );
+	}
+	
+	@Test
+	public final void whenUserIsMarshalled_thenXStreamReadsTheSameUser() throws IOException{
+		final User user = new User( "john", "pass & <word>", Sets.newHashSet( newRole() ) );
+		user.setId( 3l );
+		
+		final User unmarshalled = (User) xstream.fromXML( marshal( user ) );
+		
+		assertEquals( user.getId(), unmarshalled.getId() );
+		assertEquals( user.getName(), unmarshalled.getName() );
+		assertEquals( user.getPassword(), unmarshalled.getPassword() );
+		assertEquals( user.getRoles(), unmarshalled.getRoles() );
+	}
+	
+	@Test
+	public final void whenListOfPrivilegesIsMarshalled_thenXStreamReadsTheSameList() throws IOException{
+		final List< Privilege > privileges = Lists.newArrayList( newPrivilege( 1l, "read" ), newPrivilege( 2l, "write" ) );
+		
+		assertEquals( privileges, xstream.fromXML( marshal( privileges ) ) );
+	}
+	
+	@Test
+	public final void whenResourceWithNullsIsMarshalled_thenNullsAreNotWritten() throws IOException{
+		assertEquals( "<role><name>empty</name></role>", marshal( new Role( "empty" ) ) );
+	}
+	
+	// tests - the XML XStream writes is read
+	
+	@Test
+	public final void whenRoleWrittenByXStreamIsUnmarshalled_thenItIsTheSameRole() throws IOException{
+		final Role role = newRole();
+		
+		final Role unmarshalled = (Role) unmarshal( xstream.toXML( role ) );
+		
+		assertEquals( role.getId(), unmarshalled.getId() );
+		assertEquals( role.getName(), unmarshalled.getName() );
+		assertEquals( role.getPrivileges(), unmarshalled.getPrivileges() );
+	}
+	
+	@Test
+	public final void whenPrincipalWrittenByXStreamIsUnmarshalled_thenItIsTheSamePrincipal() throws IOException{
+		final Principal principal = new Principal( "john", "pass", Sets.newHashSet( newRole() ) );
+		
+		final Principal unmarshalled = (Principal) unmarshal( xstream.toXML( principal ) );
+		
+		assertNull( unmarshalled.getId() );
+		assertEquals( principal.getName(), unmarshalled.getName() );
+		assertEquals( principal.getRoles(), unmarshalled.getRoles() );
+	}
+	
+	@Test
+	public final void whenArrayOfRolesWrittenByXStreamIsUnmarshalled_thenItIsTheSameArray() throws IOException{
+		final Role[] roles = new Role[ ] { newRole(), new Role( "empty" ) };
+		
+		assertArrayEquals( roles, (Role[]) unmarshal( xstream.toXML( roles ) ) );
+	}
+	
+	@Test
+	public final void whenBulkResultsWrittenByXStreamAreUnmarshalled_thenTheyAreTheSameResults() throws IOException{
+		final List< BulkItemResult > results = Lists.newArrayList( new BulkItemResult( 0, HttpStatus.CREATED, 7l, null ), new BulkItemResult( 1, HttpStatus.CONFLICT, null, "duplicate" ) );
+		
+		@SuppressWarnings( "unchecked" )
+		final List< BulkItemResult > unmarshalled = (List< BulkItemResult >) unmarshal( xstream.toXML( results ) );
+		
+		assertEquals( 2, unmarshalled.size() );
+		assertEquals( Long.valueOf( 7 ), unmarshalled.get( 0 ).getId() );
+		assertEquals( 409, unmarshalled.get( 1 ).getStatus() );
+		assertEquals( "duplicate", unmarshalled.get( 1 ).getMessage() );
+	}
+	
+	// tests - anything else goes through XStream
+	
+	@Test
+	public final void whenRepresentationIsNotMapped_thenItIsStillUnmarshalled() throws IOException{
+		final Long[] ids = new Long[ ] { 1l, 2l };
+		
+		assertArrayEquals( ids, (Long[]) unmarshal( xstream.toXML( ids ) ) );
+	}
+	
+	@Test
+	public final void whenRepresentationIsNotMapped_thenItIsStillMarshalled() throws IOException{
+		final Long[] ids = new Long[ ] { 1l, 2l };
+		
+		assertArrayEquals( ids, (Long[]) xstream.fromXML( marshal( ids ) ) );
+	}
+	
+	@Test( expected = UnmarshallingFailureException.class )
+	public final void whenMappedRepresentationHasUnknownElement_thenException() throws IOException{
+		unmarshal( "<role><name>admin</name><unknown/></role>" );
+	}
+	
+	// util
+	
+	private final String marshal( final Object graph ) throws IOException{
+		final StringWriter writer = new StringWriter();
+		instance.marshal( graph, new StreamResult( writer ) );
+		return writer.toString();
+	}
+	
+	private final Object unmarshal( final String xml ) throws IOException{
+		return instance.unmarshal( new StreamSource( new StringReader( xml ) ) );
+	}
+	
+	private final Role newRole(){
+		final Role role = new Role( "admin", Sets.newHashSet( newPrivilege( 1l, "read" ), newPrivilege( 2l, "write" ) ) );
+		role.setId( 5l );
+		role.setVersion( 0l );
+		return role;
+	}
+	
+	private final Privilege newPrivilege( final Long id, final String name ){
+		final Privilege privilege = new Privilege( name );
+		privilege.setId( id );
+		return privilege;
+	}
+	
+}